@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.benchmark.fake;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.Oid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the driver cost of {@code COPY FROM STDIN} and {@code COPY TO STDOUT}, against a
+ * {@link FakeBackend}.
+ */
+@Fork(value = 3, jvmArgsPrepend = "-Xmx128m")
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Copy {
+  private static final String COPY_OUT = "COPY items TO STDOUT";
+
+  @Param({"100", "10000"})
+  int nrows;
+
+  private FakeBackend backend;
+  private Connection connection;
+  private CopyManager copyManager;
+  private byte[][] lines;
+
+  private static final OutputStream DISCARD = new OutputStream() {
+    @Override
+    public void write(int b) {
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+    }
+  };
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, SQLException {
+    backend = new FakeBackend();
+    Object[][] rows = new Object[nrows][];
+    lines = new byte[nrows][];
+    for (int i = 0; i < nrows; i++) {
+      rows[i] = new Object[]{i, i * 1000L, "item " + i};
+      lines[i] = (i + "\t" + i * 1000L + "\titem " + i + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+    backend.addResult(COPY_OUT, FakeBackend.Result.rows(
+        new String[]{"id", "amount", "name"}, new int[]{Oid.INT4, Oid.INT8, Oid.VARCHAR}, rows));
+    connection = DriverManager.getConnection(backend.getURL(), backend.getProperties());
+    copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException, SQLException {
+    connection.close();
+    backend.close();
+  }
+
+  @Benchmark
+  public long copyIn() throws SQLException {
+    CopyIn copyIn = copyManager.copyIn("COPY items FROM STDIN");
+    for (byte[] line : lines) {
+      copyIn.writeToCopy(line, 0, line.length);
+    }
+    return copyIn.endCopy();
+  }
+
+  @Benchmark
+  public long copyOut() throws IOException, SQLException {
+    return copyManager.copyOut(COPY_OUT, DISCARD);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(Copy.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .detectJvmArgs()
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.benchmark.fake;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the driver cost of {@link PreparedStatement#executeBatch()} for inserts, against a
+ * {@link FakeBackend}.
+ */
+@Fork(value = 3, jvmArgsPrepend = "-Xmx128m")
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExecuteBatch {
+  @Param({"1", "100", "1000"})
+  int batchSize;
+
+  @Param({"false", "true"})
+  boolean reWriteBatchedInserts;
+
+  private FakeBackend backend;
+  private Connection connection;
+  private PreparedStatement ps;
+  private String[] strings;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, SQLException {
+    backend = new FakeBackend();
+    Properties props = backend.getProperties();
+    props.setProperty("reWriteBatchedInserts", String.valueOf(reWriteBatchedInserts));
+    connection = DriverManager.getConnection(backend.getURL(), props);
+    ps = connection.prepareStatement("insert into items(id, name, amount) values(?, ?, ?)");
+    strings = new String[batchSize];
+    for (int i = 0; i < batchSize; i++) {
+      strings[i] = "item " + i;
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException, SQLException {
+    ps.close();
+    connection.close();
+    backend.close();
+  }
+
+  @Benchmark
+  public int[] executeBatch() throws SQLException {
+    for (int i = 0; i < batchSize; i++) {
+      ps.setInt(1, i);
+      ps.setString(2, strings[i]);
+      ps.setLong(3, i * 1000L);
+      ps.addBatch();
+    }
+    return ps.executeBatch();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(ExecuteBatch.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .detectJvmArgs()
+        .build();
+
+    new Runner(opt).run();
+  }
+}
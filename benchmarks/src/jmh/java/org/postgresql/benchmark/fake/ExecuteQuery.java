@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.benchmark.fake;
+
+import org.postgresql.core.Oid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the driver cost of executing a query and reading its rows, against a
+ * {@link FakeBackend}. With {@code nrows=1} it is mostly the cost per statement, with more rows the
+ * cost per row.
+ */
+@Fork(value = 3, jvmArgsPrepend = "-Xmx128m")
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExecuteQuery {
+  private static final String SQL = "select id, amount, name from items where id > ?";
+
+  @Param({"1", "100", "10000"})
+  int nrows;
+
+  // Reuse == false is in line with what most applications do
+  @Param({"false", "true"})
+  boolean reuseStatement;
+
+  private FakeBackend backend;
+  private Connection connection;
+  private PreparedStatement ps;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, SQLException {
+    backend = new FakeBackend();
+    Object[][] rows = new Object[nrows][];
+    for (int i = 0; i < nrows; i++) {
+      rows[i] = new Object[]{i, i * 1000L, "item " + i};
+    }
+    backend.addResult(SQL.replace("?", "$1"), FakeBackend.Result.rows(
+        new String[]{"id", "amount", "name"}, new int[]{Oid.INT4, Oid.INT8, Oid.VARCHAR}, rows));
+    connection = DriverManager.getConnection(backend.getURL(), backend.getProperties());
+    if (reuseStatement) {
+      ps = connection.prepareStatement(SQL);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException, SQLException {
+    connection.close();
+    backend.close();
+  }
+
+  @Benchmark
+  public void executeQuery(Blackhole b) throws SQLException {
+    PreparedStatement ps = reuseStatement ? this.ps : connection.prepareStatement(SQL);
+    ps.setInt(1, 0);
+    ResultSet rs = ps.executeQuery();
+    while (rs.next()) {
+      b.consume(rs.getInt(1));
+      b.consume(rs.getLong(2));
+      b.consume(rs.getString(3));
+    }
+    rs.close();
+    if (!reuseStatement) {
+      ps.close();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(ExecuteQuery.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .detectJvmArgs()
+        .build();
+
+    new Runner(opt).run();
+  }
+}
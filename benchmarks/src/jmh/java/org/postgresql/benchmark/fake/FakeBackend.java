@@ -0,0 +1,731 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.benchmark.fake;
+
+import org.postgresql.PGProperty;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Answers the frontend/backend protocol v3 on the loopback interface with canned results, so
+ * benchmarks measure the cost of the driver without the variance of a server. Each statement the
+ * driver sends is looked up by its SQL, as the driver sends it ({@code ?} replaced with
+ * {@code $1}, {@code $2}, ...), in the results registered with
+ * {@link #addResult(String, Result)}. Statements without a result complete with a command tag
+ * made from their first keyword, {@code INSERT 0 1} for an insert.</p>
+ *
+ * <p>The backend supports the simple and extended query protocols, portals suspended by a fetch
+ * size, {@code COPY FROM STDIN} (the rows are counted and discarded) and {@code COPY TO STDOUT}
+ * (the rows of the registered result are sent as text). Results are encoded once, so they are
+ * sent as fast as the driver reads them.</p>
+ *
+ * <p>Only the types {@code int4}, {@code int8}, {@code float8}, {@code bool} and the text types
+ * can be sent in binary, which is what the driver requests for prepared statements.</p>
+ */
+public class FakeBackend implements Closeable {
+  private static final Logger LOGGER = Logger.getLogger(FakeBackend.class.getName());
+
+  private static final int SSL_REQUEST_CODE = 80877103;
+  private static final int GSS_REQUEST_CODE = 80877104;
+  private static final int CANCEL_REQUEST_CODE = 80877102;
+
+  private final ServerSocket serverSocket;
+  private final Map<String, Result> results = new ConcurrentHashMap<String, Result>();
+  private final List<Socket> sockets = new ArrayList<Socket>();
+
+  public FakeBackend() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    Thread acceptor = new Thread(this::accept, "pgjdbc-fake-backend");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Registers the result of a statement.
+   *
+   * @param sql SQL of the statement as the driver sends it
+   * @param result result
+   */
+  public void addResult(String sql, Result result) {
+    results.put(sql, result);
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  public String getURL() {
+    return "jdbc:postgresql://" + serverSocket.getInetAddress().getHostAddress() + ":" + getPort()
+        + "/fake";
+  }
+
+  /**
+   * @return connection properties that skip the negotiations the backend does not support
+   */
+  public Properties getProperties() {
+    Properties props = new Properties();
+    PGProperty.USER.set(props, "fake");
+    PGProperty.PASSWORD.set(props, "fake");
+    PGProperty.SSL_MODE.set(props, "disable");
+    PGProperty.GSS_ENC_MODE.set(props, "disable");
+    // Sends the startup parameters in the startup packet instead of with SET statements
+    PGProperty.ASSUME_MIN_SERVER_VERSION.set(props, "14");
+    return props;
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    synchronized (sockets) {
+      for (Socket socket : sockets) {
+        socket.close();
+      }
+      sockets.clear();
+    }
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      final Socket socket;
+      try {
+        socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+      } catch (IOException e) {
+        return;
+      }
+      synchronized (sockets) {
+        sockets.add(socket);
+      }
+      Thread session = new Thread(() -> {
+        try {
+          new Session(socket).run();
+        } catch (EOFException e) {
+          // The driver closed the connection
+        } catch (IOException e) {
+          if (!serverSocket.isClosed()) {
+            LOGGER.log(Level.WARNING, "Session of the fake backend failed", e);
+          }
+        } finally {
+          try {
+            socket.close();
+          } catch (IOException e) {
+            // Ignore
+          }
+          synchronized (sockets) {
+            sockets.remove(socket);
+          }
+        }
+      }, "pgjdbc-fake-backend-session");
+      session.setDaemon(true);
+      session.start();
+    }
+  }
+
+  /**
+   * Rows of a query, or the command tag of a statement that returns no rows.
+   */
+  public static final class Result {
+    final String[] columns;
+    final int[] oids;
+    final Object[][] rows;
+    final String tag;
+    private final Map<String, byte[][]> encodedRows = new ConcurrentHashMap<String, byte[][]>();
+
+    private Result(String[] columns, int[] oids, Object[][] rows, String tag) {
+      this.columns = columns;
+      this.oids = oids;
+      this.rows = rows;
+      this.tag = tag;
+    }
+
+    /**
+     * Creates the result of a query. The values are {@link Integer}, {@link Long},
+     * {@link Double}, {@link Boolean}, {@link String} or {@code null}, and are sent in text as
+     * {@link String#valueOf(Object)}.
+     *
+     * @param columns column names
+     * @param oids column type OIDs, see {@link org.postgresql.core.Oid}
+     * @param rows rows
+     * @return result
+     */
+    public static Result rows(String[] columns, int[] oids, Object[][] rows) {
+      if (columns.length != oids.length) {
+        throw new IllegalArgumentException("Expecting as many OIDs as columns");
+      }
+      return new Result(columns, oids, rows, "SELECT " + rows.length);
+    }
+
+    /**
+     * Creates the result of a statement that returns no rows.
+     *
+     * @param tag command tag, for instance {@code UPDATE 1}
+     * @return result
+     */
+    public static Result command(String tag) {
+      return new Result(null, new int[0], new Object[0][], tag);
+    }
+
+    boolean hasRows() {
+      return columns != null;
+    }
+
+    /**
+     * Returns the DataRow messages of the rows, encoded once for each combination of formats.
+     */
+    byte[][] dataRows(boolean[] binary) {
+      String key = Arrays.toString(binary);
+      byte[][] encoded = encodedRows.get(key);
+      if (encoded == null) {
+        encoded = new byte[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+          encoded[i] = encodeDataRow(rows[i], binary);
+        }
+        encodedRows.put(key, encoded);
+      }
+      return encoded;
+    }
+
+    private byte[] encodeDataRow(Object[] row, boolean[] binary) {
+      byte[][] values = new byte[row.length][];
+      int length = 4 + 2;
+      for (int i = 0; i < row.length; i++) {
+        values[i] = row[i] == null ? null : encode(row[i], oids[i], binary[i]);
+        length += 4 + (values[i] == null ? 0 : values[i].length);
+      }
+      ByteBuffer buf = ByteBuffer.allocate(1 + length);
+      buf.put((byte) 'D').putInt(length).putShort((short) row.length);
+      for (byte[] value : values) {
+        if (value == null) {
+          buf.putInt(-1);
+        } else {
+          buf.putInt(value.length).put(value);
+        }
+      }
+      return buf.array();
+    }
+
+    private static byte[] encode(Object value, int oid, boolean binary) {
+      if (!binary || value instanceof String) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+      }
+      if (value instanceof Integer) {
+        return ByteBuffer.allocate(4).putInt((Integer) value).array();
+      }
+      if (value instanceof Long) {
+        return ByteBuffer.allocate(8).putLong((Long) value).array();
+      }
+      if (value instanceof Double) {
+        return ByteBuffer.allocate(8).putDouble((Double) value).array();
+      }
+      if (value instanceof Boolean) {
+        return new byte[]{(byte) ((Boolean) value ? 1 : 0)};
+      }
+      throw new IllegalArgumentException(
+          "Binary format is not supported for " + value.getClass() + ", oid " + oid);
+    }
+  }
+
+  private static final class Prepared {
+    final String sql;
+    final int[] parameterOids;
+
+    Prepared(String sql, int[] parameterOids) {
+      this.sql = sql;
+      this.parameterOids = parameterOids;
+    }
+  }
+
+  private static final class Portal {
+    final Prepared statement;
+    final short[] resultFormats;
+    int position;
+
+    Portal(Prepared statement, short[] resultFormats) {
+      this.statement = statement;
+      this.resultFormats = resultFormats;
+    }
+  }
+
+  /**
+   * Serves one connection. Messages are answered in order, and the answers are only flushed on
+   * Sync, Flush and at the end of a simple query, like the server does.
+   */
+  private final class Session {
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final Map<String, Prepared> statements = new HashMap<String, Prepared>();
+    private final Map<String, Portal> portals = new HashMap<String, Portal>();
+    private char transactionStatus = 'I';
+
+    Session(Socket socket) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 65536));
+      out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 65536));
+    }
+
+    void run() throws IOException {
+      if (!startup()) {
+        return;
+      }
+      while (true) {
+        int type = in.read();
+        if (type == -1 || type == 'X') {
+          return;
+        }
+        ByteBuffer body = readBody();
+        switch (type) {
+          case 'P':
+            parse(body);
+            break;
+          case 'B':
+            bind(body);
+            break;
+          case 'D':
+            describe(body);
+            break;
+          case 'E':
+            execute(body);
+            break;
+          case 'C':
+            close(body);
+            break;
+          case 'S':
+            readyForQuery();
+            out.flush();
+            break;
+          case 'H':
+            out.flush();
+            break;
+          case 'Q':
+            query(readString(body));
+            out.flush();
+            break;
+          case 'd':
+          case 'c':
+          case 'f':
+            // Copy messages after the copy failed are ignored, like the server does
+            break;
+          default:
+            throw new IOException("Unsupported message type " + (char) type);
+        }
+      }
+    }
+
+    private boolean startup() throws IOException {
+      while (true) {
+        int length = in.readInt();
+        int code = in.readInt();
+        byte[] rest = new byte[length - 8];
+        in.readFully(rest);
+        if (code == SSL_REQUEST_CODE || code == GSS_REQUEST_CODE) {
+          out.write('N');
+          out.flush();
+          continue;
+        }
+        if (code == CANCEL_REQUEST_CODE) {
+          return false;
+        }
+        break;
+      }
+      // AuthenticationOk
+      out.write('R');
+      out.writeInt(8);
+      out.writeInt(0);
+      parameterStatus("server_version", "14.0");
+      parameterStatus("server_version_num", "140000");
+      parameterStatus("server_encoding", "UTF8");
+      parameterStatus("client_encoding", "UTF8");
+      parameterStatus("DateStyle", "ISO, MDY");
+      parameterStatus("TimeZone", "UTC");
+      parameterStatus("integer_datetimes", "on");
+      parameterStatus("standard_conforming_strings", "on");
+      parameterStatus("is_superuser", "off");
+      parameterStatus("in_hot_standby", "off");
+      // BackendKeyData
+      out.write('K');
+      out.writeInt(12);
+      out.writeInt(1);
+      out.writeInt(2);
+      readyForQuery();
+      out.flush();
+      return true;
+    }
+
+    private ByteBuffer readBody() throws IOException {
+      int length = in.readInt();
+      byte[] body = new byte[length - 4];
+      in.readFully(body);
+      return ByteBuffer.wrap(body);
+    }
+
+    private void parse(ByteBuffer body) throws IOException {
+      String name = readString(body);
+      String sql = readString(body);
+      int[] oids = new int[body.getShort()];
+      for (int i = 0; i < oids.length; i++) {
+        oids[i] = body.getInt();
+      }
+      statements.put(name, new Prepared(sql, oids));
+      // ParseComplete
+      out.write('1');
+      out.writeInt(4);
+    }
+
+    private void bind(ByteBuffer body) throws IOException {
+      String portal = readString(body);
+      Prepared statement = getStatement(readString(body));
+      int parameterFormats = body.getShort();
+      body.position(body.position() + 2 * parameterFormats);
+      int parameters = body.getShort();
+      for (int i = 0; i < parameters; i++) {
+        int length = body.getInt();
+        if (length > 0) {
+          body.position(body.position() + length);
+        }
+      }
+      short[] resultFormats = new short[body.getShort()];
+      for (int i = 0; i < resultFormats.length; i++) {
+        resultFormats[i] = body.getShort();
+      }
+      portals.put(portal, new Portal(statement, resultFormats));
+      // BindComplete
+      out.write('2');
+      out.writeInt(4);
+    }
+
+    private void describe(ByteBuffer body) throws IOException {
+      byte kind = body.get();
+      String name = readString(body);
+      if (kind == 'S') {
+        Prepared statement = getStatement(name);
+        // ParameterDescription, unspecified types are resolved to text
+        out.write('t');
+        out.writeInt(4 + 2 + 4 * statement.parameterOids.length);
+        out.writeShort(statement.parameterOids.length);
+        for (int oid : statement.parameterOids) {
+          out.writeInt(oid == 0 ? 25 : oid);
+        }
+        rowDescription(getResult(statement.sql), new short[0]);
+      } else {
+        Portal portal = getPortal(name);
+        rowDescription(getResult(portal.statement.sql), portal.resultFormats);
+      }
+    }
+
+    private void execute(ByteBuffer body) throws IOException {
+      Portal portal = getPortal(readString(body));
+      int maxRows = body.getInt();
+      Result result = getResult(portal.statement.sql);
+      if (!result.hasRows()) {
+        commandComplete(result.tag);
+        return;
+      }
+      byte[][] rows = result.dataRows(binaryColumns(result, portal.resultFormats));
+      int end = maxRows > 0 ? Math.min(rows.length, portal.position + maxRows) : rows.length;
+      int start = portal.position;
+      for (int i = start; i < end; i++) {
+        out.write(rows[i]);
+      }
+      portal.position = end;
+      if (end < rows.length) {
+        // PortalSuspended
+        out.write('s');
+        out.writeInt(4);
+      } else {
+        commandComplete("SELECT " + (end - start));
+      }
+    }
+
+    private void close(ByteBuffer body) throws IOException {
+      byte kind = body.get();
+      String name = readString(body);
+      if (kind == 'S') {
+        statements.remove(name);
+      } else {
+        portals.remove(name);
+      }
+      // CloseComplete
+      out.write('3');
+      out.writeInt(4);
+    }
+
+    private void query(String sql) throws IOException {
+      String trimmed = sql.trim();
+      if (trimmed.regionMatches(true, 0, "COPY", 0, 4)) {
+        copy(trimmed);
+        return;
+      }
+      boolean empty = true;
+      for (String statement : trimmed.split(";")) {
+        statement = statement.trim();
+        if (statement.isEmpty()) {
+          continue;
+        }
+        empty = false;
+        Result result = getResult(statement);
+        if (result.hasRows()) {
+          rowDescription(result, new short[0]);
+          for (byte[] row : result.dataRows(new boolean[result.oids.length])) {
+            out.write(row);
+          }
+        }
+        commandComplete(result.tag);
+      }
+      if (empty) {
+        // EmptyQueryResponse
+        out.write('I');
+        out.writeInt(4);
+      }
+      readyForQuery();
+    }
+
+    private void copy(String sql) throws IOException {
+      if (sql.toUpperCase(Locale.ROOT).contains("FROM STDIN")) {
+        copyIn();
+      } else {
+        copyOut(getResult(sql));
+      }
+      readyForQuery();
+    }
+
+    private void copyIn() throws IOException {
+      // CopyInResponse, text format
+      out.write('G');
+      out.writeInt(4 + 1 + 2);
+      out.write(0);
+      out.writeShort(0);
+      out.flush();
+      long rows = 0;
+      while (true) {
+        int type = in.read();
+        if (type == -1) {
+          throw new EOFException();
+        }
+        ByteBuffer body = readBody();
+        if (type == 'd') {
+          while (body.hasRemaining()) {
+            if (body.get() == '\n') {
+              rows++;
+            }
+          }
+        } else if (type == 'c') {
+          commandComplete("COPY " + rows);
+          return;
+        } else if (type == 'f') {
+          errorResponse("57014", "COPY from stdin failed: " + readString(body));
+          return;
+        } else if (type != 'H' && type != 'S') {
+          throw new IOException("Unexpected message type during COPY " + (char) type);
+        }
+      }
+    }
+
+    private void copyOut(Result result) throws IOException {
+      int columns = result.oids.length;
+      // CopyOutResponse, text format
+      out.write('H');
+      out.writeInt(4 + 1 + 2 + 2 * columns);
+      out.write(0);
+      out.writeShort(columns);
+      for (int i = 0; i < columns; i++) {
+        out.writeShort(0);
+      }
+      for (Object[] row : result.rows) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < row.length; i++) {
+          if (i > 0) {
+            sb.append('\t');
+          }
+          sb.append(row[i] == null ? "\\N" : String.valueOf(row[i]));
+        }
+        byte[] line = sb.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+        out.write('d');
+        out.writeInt(4 + line.length);
+        out.write(line);
+      }
+      // CopyDone
+      out.write('c');
+      out.writeInt(4);
+      commandComplete("COPY " + result.rows.length);
+    }
+
+    private void rowDescription(Result result, short[] formats) throws IOException {
+      if (!result.hasRows()) {
+        // NoData
+        out.write('n');
+        out.writeInt(4);
+        return;
+      }
+      String[] columns = result.columns;
+      boolean[] binary = binaryColumns(result, formats);
+      byte[][] names = new byte[columns.length][];
+      int length = 4 + 2;
+      for (int i = 0; i < columns.length; i++) {
+        names[i] = columns[i].getBytes(StandardCharsets.UTF_8);
+        length += names[i].length + 1 + 4 + 2 + 4 + 2 + 4 + 2;
+      }
+      out.write('T');
+      out.writeInt(length);
+      out.writeShort(columns.length);
+      for (int i = 0; i < columns.length; i++) {
+        out.write(names[i]);
+        out.write(0);
+        out.writeInt(0); // table oid
+        out.writeShort(0); // column number
+        out.writeInt(result.oids[i]);
+        out.writeShort(typeLength(result.oids[i]));
+        out.writeInt(-1); // type modifier
+        out.writeShort(binary[i] ? 1 : 0);
+      }
+    }
+
+    private boolean[] binaryColumns(Result result, short[] formats) {
+      boolean[] binary = new boolean[result.oids.length];
+      for (int i = 0; i < binary.length; i++) {
+        binary[i] = formats.length == 1 ? formats[0] == 1
+            : formats.length > i && formats[i] == 1;
+      }
+      return binary;
+    }
+
+    private void commandComplete(String tag) throws IOException {
+      String command = tag.toUpperCase(Locale.ROOT);
+      if (command.startsWith("BEGIN") || command.startsWith("START")) {
+        transactionStatus = 'T';
+      } else if (command.startsWith("COMMIT") || command.startsWith("ROLLBACK")
+          || command.startsWith("END")) {
+        transactionStatus = 'I';
+      }
+      byte[] bytes = tag.getBytes(StandardCharsets.UTF_8);
+      out.write('C');
+      out.writeInt(4 + bytes.length + 1);
+      out.write(bytes);
+      out.write(0);
+    }
+
+    private void errorResponse(String sqlState, String message) throws IOException {
+      byte[][] fields = {
+          "SERROR".getBytes(StandardCharsets.UTF_8),
+          "VERROR".getBytes(StandardCharsets.UTF_8),
+          ("C" + sqlState).getBytes(StandardCharsets.UTF_8),
+          ("M" + message).getBytes(StandardCharsets.UTF_8)};
+      int length = 4 + 1;
+      for (byte[] field : fields) {
+        length += field.length + 1;
+      }
+      out.write('E');
+      out.writeInt(length);
+      for (byte[] field : fields) {
+        out.write(field);
+        out.write(0);
+      }
+      out.write(0);
+      if (transactionStatus == 'T') {
+        transactionStatus = 'E';
+      }
+    }
+
+    private void readyForQuery() throws IOException {
+      out.write('Z');
+      out.writeInt(5);
+      out.write(transactionStatus);
+    }
+
+    private void parameterStatus(String name, String value) throws IOException {
+      byte[] n = name.getBytes(StandardCharsets.UTF_8);
+      byte[] v = value.getBytes(StandardCharsets.UTF_8);
+      out.write('S');
+      out.writeInt(4 + n.length + 1 + v.length + 1);
+      out.write(n);
+      out.write(0);
+      out.write(v);
+      out.write(0);
+    }
+
+    private Prepared getStatement(String name) throws IOException {
+      Prepared statement = statements.get(name);
+      if (statement == null) {
+        throw new IOException("Unknown statement " + name);
+      }
+      return statement;
+    }
+
+    private Portal getPortal(String name) throws IOException {
+      Portal portal = portals.get(name);
+      if (portal == null) {
+        throw new IOException("Unknown portal " + name);
+      }
+      return portal;
+    }
+
+    private Result getResult(String sql) {
+      Result result = results.get(sql);
+      if (result != null) {
+        return result;
+      }
+      int end = 0;
+      while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+        end++;
+      }
+      String command = sql.substring(0, end).toUpperCase(Locale.ROOT);
+      switch (command) {
+        case "INSERT":
+          return Result.command("INSERT 0 1");
+        case "UPDATE":
+        case "DELETE":
+          return Result.command(command + " 1");
+        case "SELECT":
+          return Result.command("SELECT 0");
+        default:
+          return Result.command(command);
+      }
+    }
+  }
+
+  private static String readString(ByteBuffer body) {
+    int start = body.position();
+    int end = start;
+    while (body.get(end) != 0) {
+      end++;
+    }
+    body.position(end + 1);
+    return new String(body.array(), start, end - start, StandardCharsets.UTF_8);
+  }
+
+  private static int typeLength(int oid) {
+    switch (oid) {
+      case 16: // bool
+        return 1;
+      case 23: // int4
+        return 4;
+      case 20: // int8
+      case 701: // float8
+        return 8;
+      default:
+        return -1;
+    }
+  }
+}
@@ -540,6 +540,8 @@ allprojects {
                 exclude("**/*Suite*")
                 jvmArgs("-Xmx1536m")
                 jvmArgs("-Djdk.net.URLClassPath.disableClassPathURLCheck=true")
+                // Report virtual threads that block while pinned, see VirtualThreadPinningTest
+                jvmArgs("-Djdk.tracePinnedThreads=short")
                 // Pass the property to tests
                 fun passProperty(name: String, default: String? = null) {
                     val value = System.getProperty(name) ?: default
@@ -19,6 +19,7 @@ import java.sql.Array;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * This interface defines the public PostgreSQL extensions to java.sql.Connection. All Connections
@@ -330,4 +331,60 @@ public interface PGConnection {
    * @return state of adaptive fetch (turned on or off)
    */
   boolean getAdaptiveFetch();
+
+  /**
+   * <p>Puts the connection into pipeline mode. While in pipeline mode, executions queued with
+   * {@link PGPreparedStatement#executeQueryPipelined()} and
+   * {@link PGPreparedStatement#executeUpdatePipelined()} are held back and sent to the server
+   * back-to-back on {@link #syncPipeline()}, so that several independent statements cost a single
+   * network round trip. Statements executed through the regular JDBC methods still run
+   * immediately and are not part of the pipeline.</p>
+   *
+   * <p>The queued statements are executed up to a single Sync. With autocommit enabled they form
+   * one implicit transaction, so a failing statement also rolls back the effects of the statements
+   * queued before it, and the statements queued after it are not executed at all.</p>
+   *
+   * @throws SQLException if the connection is closed, already in pipeline mode, or uses the simple
+   *     query protocol
+   * @see #syncPipeline()
+   * @see #endPipeline()
+   */
+  void beginPipeline() throws SQLException;
+
+  /**
+   * Sends all executions queued since the last synchronization and waits for their results. The
+   * futures returned when the executions were queued are completed before this method returns.
+   *
+   * @throws SQLException if the connection is not in pipeline mode, or if any of the queued
+   *     executions failed; the corresponding futures are completed exceptionally as well
+   */
+  void syncPipeline() throws SQLException;
+
+  /**
+   * Synchronizes any pending executions as with {@link #syncPipeline()} and leaves pipeline mode.
+   *
+   * @throws SQLException if the connection is not in pipeline mode, or if any of the queued
+   *     executions failed
+   */
+  void endPipeline() throws SQLException;
+
+  /**
+   * @return true if the connection is in pipeline mode
+   * @see #beginPipeline()
+   */
+  boolean isPipelineMode();
+
+  /**
+   * <p>Sets the executor that sends the executions submitted with
+   * {@link PGPreparedStatement#executeQueryAsync()} and
+   * {@link PGPreparedStatement#executeUpdateAsync()}, and fetches the next rows of cursor based
+   * result sets in the background. The futures of the executions are completed by the threads of
+   * this executor.</p>
+   *
+   * <p>By default, each connection uses a single daemon thread of its own, started when needed and
+   * stopped once idle.</p>
+   *
+   * @param executor the executor, or null for the default one
+   */
+  void setAsyncExecutor(@Nullable Executor executor);
 }
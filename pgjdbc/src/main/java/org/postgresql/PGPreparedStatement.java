@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This interface defines the public PostgreSQL extensions to java.sql.PreparedStatement. All
+ * PreparedStatements constructed by the PostgreSQL driver implement PGPreparedStatement.
+ */
+public interface PGPreparedStatement extends PGStatement {
+
+  /**
+   * <p>Queues an execution of this statement with its current parameter values in the pipeline of
+   * the owning connection. The statement is sent to the server on the next
+   * {@link PGConnection#syncPipeline()} together with all other queued executions.</p>
+   *
+   * <p>The parameter values are copied, so the statement can be re-parameterized and queued again
+   * straight away.</p>
+   *
+   * @return a future that completes with the result set produced by the statement once the
+   *     pipeline has been synchronized
+   * @throws SQLException if the connection is not in pipeline mode or the statement cannot be
+   *     queued
+   * @see PGConnection#beginPipeline()
+   */
+  CompletableFuture<ResultSet> executeQueryPipelined() throws SQLException;
+
+  /**
+   * Queues an execution of this statement with its current parameter values in the pipeline of
+   * the owning connection, like {@link #executeQueryPipelined()}, for statements that do not
+   * return rows.
+   *
+   * @return a future that completes with the update count of the statement once the pipeline has
+   *     been synchronized
+   * @throws SQLException if the connection is not in pipeline mode or the statement cannot be
+   *     queued
+   * @see PGConnection#beginPipeline()
+   */
+  CompletableFuture<Long> executeUpdatePipelined() throws SQLException;
+
+  /**
+   * <p>Submits an execution of this statement with its current parameter values without waiting
+   * for it to complete. The execution is sent by the executor of the connection, see
+   * {@link PGConnection#setAsyncExecutor(java.util.concurrent.Executor)}, together with any other
+   * executions submitted to the same connection in the meantime, and the returned future is
+   * completed from that executor.</p>
+   *
+   * <p>The parameter values are copied, so the statement can be re-parameterized and submitted
+   * again straight away. The execution keeps the auto-commit mode of the connection at the time
+   * of the submission. The statements, batches and transaction commands executed synchronously
+   * on the connection afterwards wait until the submitted executions are sent, so they run after
+   * them. Asynchronous executions use the same statement cache and server-prepare threshold as
+   * the regular execute methods.</p>
+   *
+   * @return a future that completes with the result set produced by the statement
+   * @throws SQLException if the statement cannot be submitted
+   */
+  CompletableFuture<ResultSet> executeQueryAsync() throws SQLException;
+
+  /**
+   * Submits an execution of this statement with its current parameter values without waiting for
+   * it to complete, like {@link #executeQueryAsync()}, for statements that do not return rows.
+   *
+   * @return a future that completes with the update count of the statement
+   * @throws SQLException if the statement cannot be submitted
+   */
+  CompletableFuture<Long> executeUpdateAsync() throws SQLException;
+}
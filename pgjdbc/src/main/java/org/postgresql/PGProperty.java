@@ -165,6 +165,23 @@ public enum PGProperty {
       "10",
       "The timeout value used for socket connect operations."),
 
+  /**
+   * Execute the batches of a {@code PreparedStatement} that inserts a row of parameters, like
+   * {@code INSERT INTO t (a, b) VALUES (?, ?)}, as a single {@code COPY t (a, b) FROM STDIN}.
+   * The values are converted by the input functions of the column types, and COPY does not apply
+   * rules, so it is only suitable for plain, partitioned or foreign tables: rules on
+   * {@code INSERT} of the table are skipped, and the batch fails for a view, unless the view has
+   * an {@code INSTEAD OF INSERT} trigger. Triggers of the table fire as for the inserts. The
+   * statement is not inspected for these cases, the option is meant to be enabled only for
+   * applications that insert into such tables. Inserts without a column list, with anything else
+   * than parameters in {@code VALUES}, {@code ON CONFLICT} or {@code RETURNING} are executed as
+   * usual. Default value is false.
+   */
+  COPY_BATCHED_INSERTS(
+      "copyBatchedInserts",
+      "false",
+      "Execute batches of INSERT statements with only parameters in VALUES as COPY FROM STDIN"),
+
   /**
    * Specify the schema (or several schema separated by commas) to be set in the search-path. This schema will be used to resolve
    * unqualified object names used in statements over this connection.
@@ -370,6 +387,16 @@ public enum PGProperty {
       null,
       "Specifies size of buffer during fetching result set. Can be specified as specified size or percent of heap memory."),
 
+  /**
+   * Name of a class that implements {@link org.postgresql.plugin.MetricsListener}, which receives
+   * measurements of the statements the connection executes, the traffic and the statement cache.
+   * Each connection creates its own instance. Default is no listener.
+   */
+  METRICS_LISTENER_CLASS_NAME(
+      "metricsListenerClassName",
+      null,
+      "Name of class which implements MetricsListener"),
+
   /**
    * Specify 'options' connection initialization parameter.
    * The value of this parameter may contain spaces and other special characters or their URL representation.
@@ -429,6 +456,15 @@ public enum PGProperty {
           + "extendedCacheEverything means use extended protocol and try cache every statement (including Statement.execute(String sql)) in a query cache.", false,
       new String[] {"extended", "extendedForPrepared", "extendedCacheEverything", "simple"}),
 
+  /**
+   * Percentage of a fetched batch a forward-only, cursor based {@code ResultSet} consumes before
+   * the next batch is requested in the background. A value of {@code 0} disables prefetch.
+   */
+  PREFETCH_THRESHOLD(
+      "prefetchThreshold",
+      "0",
+      "Percentage of a fetched batch a cursor based ResultSet consumes before the next batch is requested in the background. A value of {@code 0} disables prefetch"),
+
   /**
    * Specifies the maximum number of entries in cache of prepared statements. A value of {@code 0}
    * disables the cache.
@@ -560,6 +596,51 @@ public enum PGProperty {
       null,
       "Service name to be searched in pg_service.conf resource"),
 
+  /**
+   * Share the results of parsing SQL text with the other connections of the JVM that enable this
+   * property, instead of parsing the text again for each connection. Parsing depends only on the
+   * SQL text and on connection settings that are part of the cache key, so the connections of a
+   * pool can share them safely. The shared cache is bounded in size. Default value is false.
+   */
+  SHARED_QUERY_CACHE(
+      "sharedQueryCache",
+      "false",
+      "Share the results of parsing SQL text between the connections of the JVM"),
+
+  /**
+   * Share what is learned about the data types of a database with the other connections of the JVM
+   * to the same server and database that enable this property. Only facts that are identified by
+   * type oid and do not depend on the search_path are shared, so new connections of a pool don't
+   * have to query pg_type again. The shared information of a server is dropped when a connection
+   * finds an oid the server does not know. Default value is false.
+   */
+  SHARED_TYPE_INFO_CACHE(
+      "sharedTypeInfoCache",
+      "false",
+      "Share data type information between the connections of the JVM to the same database"),
+
+  /**
+   * Read each DataRow into a single buffer and expose the fields as slices of it instead of
+   * allocating one array per field. Reduces allocation rate for wide and large result sets.
+   * Default value is false.
+   */
+  SLAB_ROW_STORAGE(
+      "slabRowStorage",
+      "false",
+      "Read each result row into a single buffer instead of one array per column"),
+
+  /**
+   * Perform the network I/O through a {@link java.nio.channels.SocketChannel} with pooled direct
+   * buffers instead of the socket streams. The output is written with gathering writes, so a whole
+   * Parse/Bind/Execute/Sync sequence costs a single system call. Ignored when
+   * {@link #SOCKET_FACTORY} is set; SSL connections fall back to the socket streams once the
+   * handshake starts. Default value is false.
+   */
+  SOCKET_CHANNEL(
+      "socketChannel",
+      "false",
+      "Use a java.nio SocketChannel with pooled direct buffers for the connection"),
+
   /**
    * Socket factory used to create socket. A null value, which is the default, means system default.
    */
@@ -691,6 +772,17 @@ public enum PGProperty {
       "POSTGRES",
       "The Windows SSPI service class for SPN"),
 
+  /**
+   * In autocommit mode, read the rows of a forward-only {@code ResultSet} with a positive fetch
+   * size off the connection as the {@code ResultSet} advances instead of all at once. The
+   * connection stays busy until the rows are read or the {@code ResultSet} is closed; using it for
+   * anything else reads the rest of the rows into memory first. Default value is false.
+   */
+  STREAM_RESULTS(
+      "streamResults",
+      "false",
+      "Read the rows of a ResultSet with a fetch size off the connection as it advances in autocommit mode"),
+
   /**
    * Bind String to either {@code unspecified} or {@code varchar}. Default is {@code varchar} for
    * 8.0+ backends.
@@ -730,6 +822,21 @@ public enum PGProperty {
       Integer.toString(Integer.MAX_VALUE),
       "Specifies the length to return for types of unknown length"),
 
+  /**
+   * Execute the batches of a {@code PreparedStatement} that inserts or deletes as a single
+   * statement that takes the values of each parameter as an array and applies the statement to
+   * every row of their {@code unnest}, so the batch is one execution of a statement that does not
+   * depend on its size. The update counts of deletes are computed from the rows they deleted.
+   * Updates are executed as usual, as the single statement would change a row matched by several
+   * rows of the batch only once, and so are inserts with {@code ON CONFLICT DO UPDATE}, as the
+   * single statement fails when two rows of the batch conflict on the same row. Requires
+   * PostgreSQL 9.4 or later. Default value is false.
+   */
+  UNNEST_BATCHES(
+      "unnestBatches",
+      "false",
+      "Execute batches of INSERT and DELETE statements as one statement over arrays of the parameters"),
+
   /**
    * Username to connect to the database as.
    */
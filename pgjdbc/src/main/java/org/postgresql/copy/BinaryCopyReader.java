@@ -0,0 +1,434 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.copy;
+
+import org.postgresql.core.Encoding;
+import org.postgresql.jdbc.TimestampUtils;
+import org.postgresql.util.ByteConverter;
+import org.postgresql.util.GT;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * <p>Reads the rows of a {@code COPY ... TO STDOUT (FORMAT binary)} operation, decoding each value
+ * from the binary format of its type. The data is received into a buffer that is reused for the
+ * whole copy, and the values are decoded straight from it, so reading a row does not allocate
+ * unless a method returns an object.</p>
+ *
+ * <pre>
+ * BinaryCopyReader reader = copyManager.copyOutBinary(
+ *     "COPY events (id, created, payload) TO STDOUT (FORMAT binary)");
+ * byte[] payload = new byte[1024];
+ * while (reader.next()) {
+ *   long id = reader.getLong(1);
+ *   Timestamp created = reader.getTimestamp(2);
+ *   int length = reader.getBytes(3, payload, 0);
+ *   ...
+ * }
+ * </pre>
+ *
+ * <p>The values must be read with the method matching the type of their column, as the binary
+ * format of a value depends on its type: {@link #getInt(int)} reads an {@code int4} column but
+ * not an {@code int8} one. Columns are numbered from 1, and the values of a row are only valid
+ * until the next call to {@link #next()}. A reader is not thread safe.</p>
+ */
+public class BinaryCopyReader {
+  private static final byte[] SIGNATURE =
+      {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0};
+  // Signature, flags and header extension length
+  private static final int HEADER_LENGTH = SIGNATURE.length + 4 + 4;
+
+  private final CopyOut copyOut;
+  private final Encoding encoding;
+  private final TimestampUtils timestampUtils;
+  private ByteBuffer buffer;
+  private byte[] data;
+  // Start of the current row in data
+  private int rowStart;
+  // End of the received data in data
+  private int end;
+  // Length of the current row, it is consumed by the next call to next()
+  private int rowLength;
+  private boolean headerRead;
+  private boolean done;
+  private int fieldCount;
+  // Offsets of the values from the start of the row, and their lengths, -1 for null
+  private int[] offsets = new int[16];
+  private int[] lengths = new int[16];
+
+  /**
+   * @param copyOut the copy operation, started with a {@code FORMAT binary} COPY statement
+   * @param encoding the encoding of the connection, used for text values
+   * @param timestampUtils the converter for date and time values of the connection
+   * @param bufferSize initial size of the buffer, it grows when a message does not fit
+   */
+  public BinaryCopyReader(CopyOut copyOut, Encoding encoding, TimestampUtils timestampUtils,
+      int bufferSize) {
+    this.copyOut = copyOut;
+    this.encoding = encoding;
+    this.timestampUtils = timestampUtils;
+    this.buffer = ByteBuffer.allocate(Math.max(bufferSize, HEADER_LENGTH));
+    this.data = buffer.array();
+  }
+
+  public CopyOut getCopyOut() {
+    return copyOut;
+  }
+
+  /**
+   * Moves to the next row.
+   *
+   * @return true if there is a row, false if all the rows were read and the copy is complete
+   * @throws SQLException if the data could not be received, or it is not in binary COPY format
+   */
+  public boolean next() throws SQLException {
+    if (done) {
+      return false;
+    }
+    rowStart += rowLength;
+    rowLength = 0;
+    fieldCount = 0;
+    if (!headerRead) {
+      readHeader();
+    }
+    require(2);
+    int count = ByteConverter.int2(data, rowStart);
+    if (count == -1) {
+      // File trailer, the server completes the copy right after it
+      done = true;
+      buffer.clear();
+      while (copyOut.readFromCopy(buffer) != null) {
+        buffer.clear();
+      }
+      return false;
+    }
+    if (count < 0) {
+      throw invalidFormat();
+    }
+    if (count > offsets.length) {
+      offsets = Arrays.copyOf(offsets, Math.max(count, offsets.length * 2));
+      lengths = Arrays.copyOf(lengths, offsets.length);
+    }
+    int pos = 2;
+    for (int i = 0; i < count; i++) {
+      require(pos + 4);
+      int length = ByteConverter.int4(data, rowStart + pos);
+      pos += 4;
+      offsets[i] = pos;
+      lengths[i] = length;
+      if (length > 0) {
+        pos += length;
+      } else if (length < -1) {
+        throw invalidFormat();
+      }
+    }
+    require(pos);
+    fieldCount = count;
+    rowLength = pos;
+    return true;
+  }
+
+  private void readHeader() throws SQLException {
+    require(HEADER_LENGTH);
+    for (int i = 0; i < SIGNATURE.length; i++) {
+      if (data[rowStart + i] != SIGNATURE[i]) {
+        throw invalidFormat();
+      }
+    }
+    int extensionLength = ByteConverter.int4(data, rowStart + SIGNATURE.length + 4);
+    if (extensionLength < 0) {
+      throw invalidFormat();
+    }
+    require(HEADER_LENGTH + extensionLength);
+    rowStart += HEADER_LENGTH + extensionLength;
+    headerRead = true;
+  }
+
+  /**
+   * Receives data until at least the given number of bytes from the start of the row are
+   * buffered. The data might be moved, so the offsets must be relative to the start of the row.
+   */
+  private void require(int length) throws SQLException {
+    while (end - rowStart < length) {
+      if (rowStart > 0) {
+        // Move the partial row to the start of the buffer to reuse the space of the previous rows
+        System.arraycopy(data, rowStart, data, 0, end - rowStart);
+        end -= rowStart;
+        rowStart = 0;
+      }
+      buffer.clear();
+      buffer.position(end);
+      ByteBuffer received = copyOut.readFromCopy(buffer);
+      if (received == null) {
+        done = true;
+        throw new PSQLException(GT.tr("Premature end of binary COPY data."),
+            PSQLState.COMMUNICATION_ERROR);
+      }
+      buffer = received;
+      data = received.array();
+      end = received.position();
+    }
+  }
+
+  private PSQLException invalidFormat() {
+    return new PSQLException(GT.tr("The COPY data is not in binary format."),
+        PSQLState.DATA_ERROR);
+  }
+
+  public int getFieldCount() {
+    return fieldCount;
+  }
+
+  private void checkColumnIndex(int column) throws PSQLException {
+    if (column < 1 || column > fieldCount) {
+      throw new PSQLException(
+          GT.tr("The column index is out of range: {0}, number of columns: {1}.",
+              column, fieldCount),
+          PSQLState.INVALID_PARAMETER_VALUE);
+    }
+  }
+
+  /**
+   * Returns the position of a value of the given length in {@link #data}.
+   *
+   * @return the position of the value, or -1 if it is null
+   */
+  private int value(int column, int length, String type) throws PSQLException {
+    checkColumnIndex(column);
+    int valueLength = lengths[column - 1];
+    if (valueLength == -1) {
+      return -1;
+    }
+    if (valueLength != length) {
+      throw new PSQLException(GT.tr("Unsupported binary encoding of {0}.", type),
+          PSQLState.DATA_TYPE_MISMATCH);
+    }
+    return rowStart + offsets[column - 1];
+  }
+
+  public boolean isNull(int column) throws SQLException {
+    checkColumnIndex(column);
+    return lengths[column - 1] == -1;
+  }
+
+  /**
+   * Returns the number of bytes of a value.
+   *
+   * @param column column number, starting from 1
+   * @return number of bytes of the value, or -1 if it is null
+   * @throws SQLException if the column does not exist
+   */
+  public int getLength(int column) throws SQLException {
+    checkColumnIndex(column);
+    return lengths[column - 1];
+  }
+
+  /**
+   * Returns a {@code bool} value.
+   *
+   * @param column column number, starting from 1
+   * @return the value, false if it is null
+   * @throws SQLException if the column does not exist or is not a {@code bool}
+   */
+  public boolean getBoolean(int column) throws SQLException {
+    int pos = value(column, 1, "bool");
+    return pos >= 0 && ByteConverter.bool(data, pos);
+  }
+
+  public short getShort(int column) throws SQLException {
+    int pos = value(column, 2, "int2");
+    return pos < 0 ? 0 : ByteConverter.int2(data, pos);
+  }
+
+  public int getInt(int column) throws SQLException {
+    int pos = value(column, 4, "int4");
+    return pos < 0 ? 0 : ByteConverter.int4(data, pos);
+  }
+
+  public long getLong(int column) throws SQLException {
+    int pos = value(column, 8, "int8");
+    return pos < 0 ? 0 : ByteConverter.int8(data, pos);
+  }
+
+  public float getFloat(int column) throws SQLException {
+    int pos = value(column, 4, "float4");
+    return pos < 0 ? 0 : ByteConverter.float4(data, pos);
+  }
+
+  public double getDouble(int column) throws SQLException {
+    int pos = value(column, 8, "float8");
+    return pos < 0 ? 0 : ByteConverter.float8(data, pos);
+  }
+
+  /**
+   * Returns a {@code numeric} value.
+   *
+   * @param column column number, starting from 1
+   * @return the value, or null
+   * @throws SQLException if the column does not exist or is not a {@code numeric}, or if the value
+   *         is {@code NaN}
+   */
+  public @Nullable BigDecimal getBigDecimal(int column) throws SQLException {
+    checkColumnIndex(column);
+    int length = lengths[column - 1];
+    if (length == -1) {
+      return null;
+    }
+    Number number;
+    try {
+      number = ByteConverter.numeric(data, rowStart + offsets[column - 1], length);
+    } catch (IllegalArgumentException e) {
+      throw new PSQLException(GT.tr("Unsupported binary encoding of {0}.", "numeric"),
+          PSQLState.DATA_TYPE_MISMATCH, e);
+    }
+    if (!(number instanceof BigDecimal)) {
+      throw new PSQLException(GT.tr("Bad value for type {0} : {1}", "BigDecimal", number),
+          PSQLState.NUMERIC_VALUE_OUT_OF_RANGE);
+    }
+    return (BigDecimal) number;
+  }
+
+  /**
+   * Returns a {@code text}, {@code varchar} or {@code bpchar} value, decoded with the encoding of
+   * the connection.
+   *
+   * @param column column number, starting from 1
+   * @return the value, or null
+   * @throws SQLException if the column does not exist or the value cannot be decoded
+   */
+  public @Nullable String getString(int column) throws SQLException {
+    checkColumnIndex(column);
+    int length = lengths[column - 1];
+    if (length == -1) {
+      return null;
+    }
+    try {
+      return encoding.decode(data, rowStart + offsets[column - 1], length);
+    } catch (IOException e) {
+      throw new PSQLException(GT.tr("Invalid character data was found."),
+          PSQLState.DATA_ERROR, e);
+    }
+  }
+
+  /**
+   * Returns a {@code bytea} value, or the binary encoding of a value of any other type.
+   *
+   * @param column column number, starting from 1
+   * @return a copy of the value, or null
+   * @throws SQLException if the column does not exist
+   */
+  public byte @Nullable [] getBytes(int column) throws SQLException {
+    checkColumnIndex(column);
+    int length = lengths[column - 1];
+    if (length == -1) {
+      return null;
+    }
+    int pos = rowStart + offsets[column - 1];
+    return Arrays.copyOfRange(data, pos, pos + length);
+  }
+
+  /**
+   * Copies a {@code bytea} value, or the binary encoding of a value of any other type, into the
+   * given array.
+   *
+   * @param column column number, starting from 1
+   * @param destination array to copy the value to, it must have room for
+   *     {@link #getLength(int)} bytes
+   * @param offset position of the value in the array
+   * @return number of bytes copied, or -1 if the value is null
+   * @throws SQLException if the column does not exist
+   */
+  public int getBytes(int column, byte[] destination, int offset) throws SQLException {
+    checkColumnIndex(column);
+    int length = lengths[column - 1];
+    if (length > 0) {
+      System.arraycopy(data, rowStart + offsets[column - 1], destination, offset, length);
+    }
+    return length;
+  }
+
+  public @Nullable UUID getUuid(int column) throws SQLException {
+    int pos = value(column, 16, "uuid");
+    if (pos < 0) {
+      return null;
+    }
+    return new UUID(ByteConverter.int8(data, pos), ByteConverter.int8(data, pos + 8));
+  }
+
+  /**
+   * Returns a {@code timestamp} value, with the local date and time of the value in the default
+   * time zone of the JVM, like {@link java.sql.ResultSet#getTimestamp(int)}.
+   *
+   * @param column column number, starting from 1
+   * @return the value, or null
+   * @throws SQLException if the column does not exist or is not a {@code timestamp}
+   */
+  public @Nullable Timestamp getTimestamp(int column) throws SQLException {
+    int pos = value(column, 8, "timestamp");
+    return pos < 0 ? null : timestampUtils.toTimestampBin(null, data, pos, 8, false);
+  }
+
+  /**
+   * Returns a {@code timestamptz} value.
+   *
+   * @param column column number, starting from 1
+   * @return the value, or null
+   * @throws SQLException if the column does not exist or is not a {@code timestamptz}
+   */
+  public @Nullable Timestamp getTimestamptz(int column) throws SQLException {
+    int pos = value(column, 8, "timestamptz");
+    return pos < 0 ? null : timestampUtils.toTimestampBin(null, data, pos, 8, true);
+  }
+
+  /**
+   * Returns a {@code date} value, at midnight in the default time zone of the JVM, like
+   * {@link java.sql.ResultSet#getDate(int)}.
+   *
+   * @param column column number, starting from 1
+   * @return the value, or null
+   * @throws SQLException if the column does not exist or is not a {@code date}
+   */
+  public @Nullable Date getDate(int column) throws SQLException {
+    int pos = value(column, 4, "date");
+    return pos < 0 ? null : timestampUtils.toDateBin(null, data, pos, 4);
+  }
+
+  /**
+   * Returns a {@code date} value, {@link LocalDate#MAX} and {@link LocalDate#MIN} for
+   * {@code infinity} and {@code -infinity}.
+   *
+   * @param column column number, starting from 1
+   * @return the value, or null
+   * @throws SQLException if the column does not exist or is not a {@code date}
+   */
+  public @Nullable LocalDate getLocalDate(int column) throws SQLException {
+    int pos = value(column, 4, "date");
+    return pos < 0 ? null : timestampUtils.toLocalDateBin(data, pos, 4);
+  }
+
+  /**
+   * Cancels the copy, the remaining rows are not read.
+   *
+   * @throws SQLException if the copy could not be cancelled
+   */
+  public void cancelCopy() throws SQLException {
+    done = true;
+    fieldCount = 0;
+    copyOut.cancelCopy();
+  }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.copy;
+
+import org.postgresql.jdbc.TimestampUtils;
+import org.postgresql.util.ByteConverter;
+import org.postgresql.util.GT;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * <p>Writes rows to a {@code COPY ... FROM STDIN (FORMAT binary)} operation, encoding each value
+ * in the binary format of its type straight into a buffer that is reused for the whole copy, so no
+ * text is formatted and parsed on the way. The rows are sent to the server whenever the buffer
+ * is full.</p>
+ *
+ * <pre>
+ * BinaryCopyWriter writer = copyManager.copyInBinary(
+ *     "COPY events (id, created, payload) FROM STDIN (FORMAT binary)");
+ * for (Event event : events) {
+ *   writer.appendLong(event.id);
+ *   writer.appendTimestamp(event.created);
+ *   writer.appendBytes(event.payload);
+ *   writer.endRow();
+ * }
+ * long rows = writer.endCopy();
+ * </pre>
+ *
+ * <p>The values of a row must be appended in the order of the columns of the COPY statement, with
+ * the method matching the type of each column: the server does not convert binary values, so
+ * {@link #appendInt(int)} fits an {@code int4} column but not an {@code int8} one. A writer is not
+ * thread safe.</p>
+ */
+public class BinaryCopyWriter {
+  private static final byte[] HEADER = {
+      'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0,
+      // flags
+      0, 0, 0, 0,
+      // header extension length
+      0, 0, 0, 0};
+
+  private final CopyIn copyIn;
+  private final TimestampUtils timestampUtils;
+  private final int bufferSize;
+  private byte[] buffer;
+  private int position;
+  private int rowStart = -1;
+  private int fieldCount;
+
+  /**
+   * @param copyIn the copy operation, started with a {@code FORMAT binary} COPY statement
+   * @param timestampUtils the converter for date and time values of the connection
+   * @param bufferSize number of bytes that are sent to the server at once
+   */
+  public BinaryCopyWriter(CopyIn copyIn, TimestampUtils timestampUtils, int bufferSize) {
+    this.copyIn = copyIn;
+    this.timestampUtils = timestampUtils;
+    this.bufferSize = bufferSize;
+    this.buffer = new byte[Math.max(bufferSize, HEADER.length)];
+    System.arraycopy(HEADER, 0, buffer, 0, HEADER.length);
+    this.position = HEADER.length;
+  }
+
+  public CopyIn getCopyIn() {
+    return copyIn;
+  }
+
+  /**
+   * Starts a field of the given length, starting the row first if needed. The buffer might be
+   * replaced, so it must be read after this call.
+   *
+   * @param length number of bytes of the value, -1 for null
+   * @return the position of the value in {@link #buffer}
+   */
+  private int field(int length) {
+    ensureCapacity(2 + 4 + Math.max(length, 0));
+    if (rowStart < 0) {
+      rowStart = position;
+      position += 2;
+      fieldCount = 0;
+    }
+    fieldCount++;
+    ByteConverter.int4(buffer, position, length);
+    position += 4;
+    int start = position;
+    if (length > 0) {
+      position += length;
+    }
+    return start;
+  }
+
+  private void ensureCapacity(int length) {
+    if (position + length > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+    }
+  }
+
+  /**
+   * Appends a null value, for a column of any type. The methods that take an object append null
+   * for a null argument too.
+   */
+  public void appendNull() {
+    field(-1);
+  }
+
+  public void appendBoolean(boolean value) {
+    int pos = field(1);
+    ByteConverter.bool(buffer, pos, value);
+  }
+
+  public void appendShort(short value) {
+    int pos = field(2);
+    ByteConverter.int2(buffer, pos, value);
+  }
+
+  public void appendInt(int value) {
+    int pos = field(4);
+    ByteConverter.int4(buffer, pos, value);
+  }
+
+  public void appendLong(long value) {
+    int pos = field(8);
+    ByteConverter.int8(buffer, pos, value);
+  }
+
+  public void appendFloat(float value) {
+    int pos = field(4);
+    ByteConverter.float4(buffer, pos, value);
+  }
+
+  public void appendDouble(double value) {
+    int pos = field(8);
+    ByteConverter.float8(buffer, pos, value);
+  }
+
+  /**
+   * Appends a {@code numeric} value.
+   *
+   * @param value value, or null
+   */
+  public void appendBigDecimal(@Nullable BigDecimal value) {
+    if (value == null) {
+      appendNull();
+      return;
+    }
+    appendBytes(ByteConverter.numeric(value));
+  }
+
+  /**
+   * Appends a {@code text}, {@code varchar} or {@code bpchar} value, encoded in UTF-8.
+   *
+   * @param value value, or null
+   */
+  public void appendString(@Nullable String value) {
+    if (value == null) {
+      appendNull();
+      return;
+    }
+    int length = value.length();
+    // Reserves the longest encoding, a char never needs more than three bytes
+    int start = field(3 * length);
+    int pos = start;
+    byte[] buffer = this.buffer;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        buffer[pos++] = (byte) c;
+      } else if (c < 0x800) {
+        buffer[pos++] = (byte) (0xc0 | (c >> 6));
+        buffer[pos++] = (byte) (0x80 | (c & 0x3f));
+      } else if (Character.isHighSurrogate(c) && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        buffer[pos++] = (byte) (0xf0 | (codePoint >> 18));
+        buffer[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+        buffer[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+        buffer[pos++] = (byte) (0x80 | (codePoint & 0x3f));
+      } else if (Character.isSurrogate(c)) {
+        // Unpaired surrogate, encoded as '?' like String.getBytes does
+        buffer[pos++] = '?';
+      } else {
+        buffer[pos++] = (byte) (0xe0 | (c >> 12));
+        buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+        buffer[pos++] = (byte) (0x80 | (c & 0x3f));
+      }
+    }
+    ByteConverter.int4(buffer, start - 4, pos - start);
+    position = pos;
+  }
+
+  /**
+   * Appends a {@code bytea} value, or the binary encoding of a value of any other type.
+   *
+   * @param value value, or null
+   */
+  public void appendBytes(byte @Nullable [] value) {
+    if (value == null) {
+      appendNull();
+      return;
+    }
+    appendBytes(value, 0, value.length);
+  }
+
+  public void appendBytes(byte[] value, int offset, int length) {
+    int pos = field(length);
+    System.arraycopy(value, offset, buffer, pos, length);
+  }
+
+  public void appendUuid(@Nullable UUID value) {
+    if (value == null) {
+      appendNull();
+      return;
+    }
+    int pos = field(16);
+    ByteConverter.int8(buffer, pos, value.getMostSignificantBits());
+    ByteConverter.int8(buffer, pos + 8, value.getLeastSignificantBits());
+  }
+
+  /**
+   * Appends a {@code timestamp} value, the local date and time of the timestamp in the default
+   * time zone of the JVM, like {@link java.sql.PreparedStatement#setTimestamp(int, Timestamp)}.
+   *
+   * @param value value, or null
+   */
+  public void appendTimestamp(@Nullable Timestamp value) {
+    if (value == null) {
+      appendNull();
+      return;
+    }
+    int pos = field(8);
+    timestampUtils.toBinTimestamp(null, buffer, pos, value, false);
+  }
+
+  /**
+   * Appends a {@code timestamp} value.
+   *
+   * @param value value, or null
+   */
+  public void appendLocalDateTime(@Nullable LocalDateTime value) {
+    if (value == null) {
+      appendNull();
+      return;
+    }
+    int pos = field(8);
+    timestampUtils.toBinLocalDateTime(buffer, pos, value);
+  }
+
+  /**
+   * Appends a {@code timestamptz} value.
+   *
+   * @param value value, or null
+   */
+  public void appendTimestamptz(@Nullable Timestamp value) {
+    if (value == null) {
+      appendNull();
+      return;
+    }
+    int pos = field(8);
+    timestampUtils.toBinTimestamp(null, buffer, pos, value, true);
+  }
+
+  /**
+   * Appends a {@code timestamptz} value.
+   *
+   * @param value value, or null
+   */
+  public void appendOffsetDateTime(@Nullable OffsetDateTime value) {
+    if (value == null) {
+      appendNull();
+      return;
+    }
+    int pos = field(8);
+    timestampUtils.toBinOffsetDateTime(buffer, pos, value);
+  }
+
+  /**
+   * Appends a {@code date} value.
+   *
+   * @param value value, or null
+   */
+  public void appendDate(@Nullable LocalDate value) {
+    if (value == null) {
+      appendNull();
+      return;
+    }
+    int pos = field(4);
+    timestampUtils.toBinLocalDate(buffer, pos, value);
+  }
+
+  /**
+   * Ends the current row, and sends the buffered rows to the server if the buffer is full.
+   *
+   * @throws SQLException if no value was appended to the row, or if the rows could not be sent
+   */
+  public void endRow() throws SQLException {
+    if (rowStart < 0) {
+      throw new PSQLException(GT.tr("Cannot end a row without values."),
+          PSQLState.OBJECT_NOT_IN_STATE);
+    }
+    ByteConverter.int2(buffer, rowStart, fieldCount);
+    rowStart = -1;
+    if (position >= bufferSize) {
+      flush();
+    }
+  }
+
+  private void flush() throws SQLException {
+    if (position > 0) {
+      copyIn.writeToCopy(buffer, 0, position);
+      position = 0;
+    }
+    if (buffer.length > bufferSize) {
+      // Do not keep the buffer grown for a large row
+      buffer = new byte[bufferSize];
+    }
+  }
+
+  /**
+   * Sends the rows that are buffered to the server.
+   *
+   * @throws SQLException if the rows could not be sent, or a row is not ended
+   */
+  public void flushCopy() throws SQLException {
+    checkRowEnded();
+    flush();
+    copyIn.flushCopy();
+  }
+
+  /**
+   * Sends the remaining rows and the end of the data, and completes the copy.
+   *
+   * @return number of rows copied
+   * @throws SQLException if the copy fails, or a row is not ended
+   */
+  public long endCopy() throws SQLException {
+    checkRowEnded();
+    ensureCapacity(2);
+    // File trailer
+    ByteConverter.int2(buffer, position, -1);
+    position += 2;
+    flush();
+    return copyIn.endCopy();
+  }
+
+  /**
+   * Discards the buffered rows and cancels the copy.
+   *
+   * @throws SQLException if the copy could not be cancelled
+   */
+  public void cancelCopy() throws SQLException {
+    position = 0;
+    rowStart = -1;
+    copyIn.cancelCopy();
+  }
+
+  private void checkRowEnded() throws PSQLException {
+    if (rowStart >= 0) {
+      throw new PSQLException(GT.tr("The last row was not ended with endRow()."),
+          PSQLState.OBJECT_NOT_IN_STATE);
+    }
+  }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.copy;
+
+import org.postgresql.jdbc.ResourceLock;
+import org.postgresql.util.GT;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Feeds a {@code COPY ... FROM STDIN} operation from several threads. The rows written by the
+ * producer threads are appended to a ring of fixed-size segments, and a sender thread sends each
+ * full segment as one CopyData message, so the producers format rows while the previous ones are
+ * on the network, and they only wait for the network when all the segments are full.</p>
+ *
+ * <pre>
+ * ConcurrentCopyIn copy = copyManager.copyInConcurrent("COPY events FROM STDIN (FORMAT csv)");
+ * // in each producer thread
+ * copy.writeRow(encode(event));
+ * // once all the producers are done
+ * long rows = copy.endCopy();
+ * </pre>
+ *
+ * <p>The bytes of a call to {@link #writeRow(byte[], int, int)} are kept together, so they must be
+ * one or more complete rows in the format of the COPY statement, including their line
+ * terminators. The order of the rows of different threads is the order of their calls. A call
+ * with more bytes than a segment is sent as one message of its own, and counts as one of the
+ * segments until it is sent.</p>
+ */
+public class ConcurrentCopyIn {
+  private static final Logger LOGGER = Logger.getLogger(ConcurrentCopyIn.class.getName());
+
+  private static final AtomicInteger threadCount = new AtomicInteger(0);
+
+  private static final Segment END = new Segment(new byte[0]);
+
+  private final CopyIn copyIn;
+  private final int segmentSize;
+  private final BlockingQueue<Segment> free;
+  private final BlockingQueue<Segment> filled = new LinkedBlockingQueue<>();
+  private final ResourceLock lock = new ResourceLock();
+  private final Thread sender;
+  private @Nullable Segment current;
+  private boolean ended;
+  private volatile boolean cancelled;
+  private volatile @Nullable SQLException error;
+
+  /**
+   * @param copyIn the copy operation, it is used by the sender thread only from now on
+   * @param segmentSize number of bytes sent at once
+   * @param segments number of segments, that is how far the producers can get ahead of the network
+   */
+  public ConcurrentCopyIn(CopyIn copyIn, int segmentSize, int segments) {
+    if (segmentSize < 1 || segments < 1) {
+      throw new IllegalArgumentException(
+          "segmentSize and segments must be positive: " + segmentSize + ", " + segments);
+    }
+    this.copyIn = copyIn;
+    this.segmentSize = segmentSize;
+    this.free = new ArrayBlockingQueue<>(segments);
+    for (int i = 0; i < segments; i++) {
+      free.add(new Segment(new byte[segmentSize]));
+    }
+    sender = new Thread(this::send, "PostgreSQL-JDBC-CopySender-" + threadCount.incrementAndGet());
+    sender.setDaemon(true);
+    sender.start();
+  }
+
+  public CopyIn getCopyIn() {
+    return copyIn;
+  }
+
+  public void writeRow(byte[] row) throws SQLException {
+    writeRow(row, 0, row.length);
+  }
+
+  /**
+   * Appends rows to the copy. This blocks only while all the segments are waiting to be sent.
+   *
+   * @param buf array of the rows
+   * @param off offset of the rows in the array
+   * @param len number of bytes of the rows
+   * @throws SQLException if the copy has failed, or was ended or cancelled
+   */
+  public void writeRow(byte[] buf, int off, int len) throws SQLException {
+    // Segment taken while all the others were waiting to be sent
+    Segment spare = null;
+    try {
+      while (true) {
+        try (ResourceLock ignore = lock.obtain()) {
+          // Also tells whether the sender failed while this thread waited for a segment
+          checkActive();
+          Segment segment = current;
+          if (segment != null && segment.length + len > segmentSize) {
+            // The rows start a new segment rather than being split across two messages
+            current = null;
+            filled.add(segment);
+            segment = null;
+          }
+          if (segment == null) {
+            segment = spare != null ? spare : free.poll();
+            spare = null;
+          }
+          if (segment != null) {
+            append(segment, buf, off, len);
+            return;
+          }
+        }
+        // Waits without the lock, so endCopy and cancelCopy are not held up by the network
+        spare = takeFree();
+      }
+    } finally {
+      if (spare != null) {
+        free.add(spare);
+      }
+    }
+  }
+
+  private void append(Segment segment, byte[] buf, int off, int len) {
+    if (len > segmentSize) {
+      // The segment is empty, since the rows would not fit after other rows
+      segment.data = new byte[len];
+    }
+    System.arraycopy(buf, off, segment.data, segment.length, len);
+    segment.length += len;
+    if (segment.length >= segmentSize) {
+      current = null;
+      filled.add(segment);
+    } else {
+      current = segment;
+    }
+  }
+
+  private Segment takeFree() throws SQLException {
+    try {
+      return free.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PSQLException(GT.tr("Interrupted while waiting for the copy to progress"),
+          PSQLState.OBJECT_NOT_IN_STATE, e);
+    }
+  }
+
+  private void checkActive() throws SQLException {
+    SQLException error = this.error;
+    if (error != null) {
+      throw new PSQLException(GT.tr("The copy failed: {0}", error.getMessage()),
+          PSQLState.OBJECT_NOT_IN_STATE, error);
+    }
+    checkNotEnded();
+  }
+
+  private void checkNotEnded() throws SQLException {
+    if (ended || cancelled) {
+      throw new PSQLException(GT.tr("The copy was already ended or cancelled."),
+          PSQLState.OBJECT_NOT_IN_STATE);
+    }
+  }
+
+  /**
+   * Sends the remaining rows and completes the copy. The producers must be done writing. If the
+   * copy failed, it is cancelled and the error of the failure is thrown.
+   *
+   * @return number of rows copied
+   * @throws SQLException if the copy fails
+   */
+  public long endCopy() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkNotEnded();
+      ended = true;
+      Segment segment = current;
+      current = null;
+      if (segment != null && segment.length > 0) {
+        filled.add(segment);
+      }
+      filled.add(END);
+    }
+    joinSender();
+    SQLException error = this.error;
+    if (error != null) {
+      if (copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+      throw error;
+    }
+    return copyIn.endCopy();
+  }
+
+  /**
+   * Discards the rows that are not sent yet and cancels the copy.
+   *
+   * @throws SQLException if the copy could not be cancelled
+   */
+  public void cancelCopy() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      cancelled = true;
+      if (!ended) {
+        ended = true;
+        Segment segment = current;
+        current = null;
+        if (segment != null) {
+          // Wakes up a producer waiting for a segment, which then fails
+          recycle(segment);
+        }
+        filled.add(END);
+      }
+    }
+    joinSender();
+    if (copyIn.isActive()) {
+      copyIn.cancelCopy();
+    }
+  }
+
+  private void joinSender() {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        sender.join();
+        break;
+      } catch (InterruptedException e) { // NOSONAR
+        // Either re-interrupt this method or rethrow the "InterruptedException"
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void send() {
+    boolean interrupted = false;
+    while (true) {
+      Segment segment;
+      try {
+        segment = filled.take();
+      } catch (InterruptedException e) { // NOSONAR
+        // The thread ends only with the end marker
+        interrupted = true;
+        continue;
+      }
+      if (segment == END) {
+        break;
+      }
+      if (error == null && !cancelled) {
+        try {
+          copyIn.writeToCopy(segment.data, 0, segment.length);
+        } catch (SQLException e) {
+          LOGGER.log(Level.FINE, "Copy failed, the remaining rows are discarded", e);
+          error = e;
+        }
+      }
+      // Keep returning the segments after a failure, so the producers do not wait forever
+      recycle(segment);
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void recycle(Segment segment) {
+    segment.length = 0;
+    segment.data = segment.buffer;
+    free.add(segment);
+  }
+
+  private static final class Segment {
+    final byte[] buffer;
+    // The buffer, or a larger array for rows that do not fit in a segment
+    byte[] data;
+    int length;
+
+    Segment(byte[] buffer) {
+      this.buffer = buffer;
+      this.data = buffer;
+    }
+  }
+}
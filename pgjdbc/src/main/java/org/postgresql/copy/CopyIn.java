@@ -7,6 +7,10 @@ package org.postgresql.copy;
 
 import org.postgresql.util.ByteStreamWriter;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.sql.SQLException;
 
 /**
@@ -32,6 +36,29 @@ public interface CopyIn extends CopyOperation {
    */
   void writeToCopy(ByteStreamWriter from) throws SQLException;
 
+  /**
+   * Writes bytes of a file to an open and writable copy operation, as a single message. The
+   * driver's implementation lets the operating system move the bytes from the file to the socket
+   * when the connection uses neither SSL nor GSS encryption.
+   *
+   * @param from the file to read the bytes from, its position is not changed
+   * @param position position of the first byte in the file
+   * @param length number of bytes to write
+   * @throws SQLException if the operation fails
+   * @throws IOException if the file cannot be read, or ends before
+   */
+  default void writeToCopy(FileChannel from, long position, int length)
+      throws SQLException, IOException {
+    byte[] data = new byte[length];
+    ByteBuffer buffer = ByteBuffer.wrap(data);
+    while (buffer.hasRemaining()) {
+      if (from.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("Premature end of file at " + (position + buffer.position()));
+      }
+    }
+    writeToCopy(data, 0, length);
+  }
+
   /**
    * Force any buffered output to be sent over the network to the backend. In general this is a
    * useless operation as it will get pushed over in due time or when endCopy is called. Some
@@ -18,6 +18,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.sql.SQLException;
 
 /**
@@ -30,6 +34,9 @@ public class CopyManager {
   // Note that this is currently being used for both a number of bytes and a number
   // of characters.
   static final int DEFAULT_BUFFER_SIZE = 65536;
+  // Size of the CopyData messages a file is sent in, large enough that the per-message overhead
+  // does not matter, and small enough that the server does not buffer much of the file
+  private static final int FILE_MESSAGE_SIZE = 1 << 20;
 
   private final Encoding encoding;
   private final QueryExecutor queryExecutor;
@@ -74,6 +81,44 @@ public class CopyManager {
     }
   }
 
+  /**
+   * Starts a COPY FROM STDIN in binary format, and returns a writer that encodes the rows.
+   *
+   * @param sql COPY FROM STDIN statement with the {@code FORMAT binary} option
+   * @return writer for the rows of the copy
+   * @throws SQLException if the copy could not be started
+   * @see BinaryCopyWriter
+   */
+  public BinaryCopyWriter copyInBinary(String sql) throws SQLException {
+    return new BinaryCopyWriter(copyIn(sql), connection.getTimestampUtils(), DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Starts a COPY FROM STDIN that several threads can write rows to, while a sender thread sends
+   * them to the server.
+   *
+   * @param sql COPY FROM STDIN statement
+   * @return the copy operation for the producer threads
+   * @throws SQLException if the copy could not be started
+   * @see ConcurrentCopyIn
+   */
+  public ConcurrentCopyIn copyInConcurrent(String sql) throws SQLException {
+    return new ConcurrentCopyIn(copyIn(sql), 4 * DEFAULT_BUFFER_SIZE, 8);
+  }
+
+  /**
+   * Starts a COPY TO STDOUT in binary format, and returns a reader that decodes the rows.
+   *
+   * @param sql COPY TO STDOUT statement with the {@code FORMAT binary} option
+   * @return reader for the rows of the copy
+   * @throws SQLException if the copy could not be started
+   * @see BinaryCopyReader
+   */
+  public BinaryCopyReader copyOutBinary(String sql) throws SQLException {
+    return new BinaryCopyReader(copyOut(sql), encoding, connection.getTimestampUtils(),
+        DEFAULT_BUFFER_SIZE);
+  }
+
   /**
    * Pass results of a COPY TO STDOUT query from database into a Writer.
    *
@@ -147,6 +192,74 @@ public class CopyManager {
     }
   }
 
+  /**
+   * Pass results of a COPY TO STDOUT query from database into a file. The data is received into a
+   * buffer that is reused for the whole copy, and written to the file whenever it is half full.
+   *
+   * @param sql COPY TO STDOUT statement
+   * @param to the file to write the results to, at its position.
+   *           The file is not closed at the end of the operation.
+   * @return number of rows updated for server 8.2 or newer; -1 for older
+   * @throws SQLException on database usage errors
+   * @throws IOException upon file or database connection failure
+   */
+  public long copyOut(final String sql, FileChannel to) throws SQLException, IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+    ByteBuffer received;
+    CopyOut cp = copyOut(sql);
+    try {
+      while ((received = cp.readFromCopy(buffer)) != null) {
+        buffer = received;
+        if (buffer.position() >= DEFAULT_BUFFER_SIZE / 2) {
+          write(to, buffer);
+        }
+      }
+      write(to, buffer);
+      return cp.getHandledRowCount();
+    } catch (IOException ioEX) {
+      // if not handled this way the close call will hang, at least in 8.2
+      if (cp.isActive()) {
+        cp.cancelCopy();
+      }
+      try { // read until exhausted or operation cancelled SQLException
+        while (cp.readFromCopy() != null) {
+        }
+      } catch (SQLException sqlEx) {
+      } // typically after several kB
+      throw ioEX;
+    } finally { // see to it that we do not leave the connection locked
+      if (cp.isActive()) {
+        cp.cancelCopy();
+      }
+    }
+  }
+
+  /**
+   * Pass results of a COPY TO STDOUT query from database into a file, that is created or
+   * truncated.
+   *
+   * @param sql COPY TO STDOUT statement
+   * @param to the file to write the results to
+   * @return number of rows updated for server 8.2 or newer; -1 for older
+   * @throws SQLException on database usage errors
+   * @throws IOException upon file or database connection failure
+   * @see #copyOut(String, FileChannel)
+   */
+  public long copyOut(final String sql, Path to) throws SQLException, IOException {
+    try (FileChannel channel = FileChannel.open(to, StandardOpenOption.WRITE,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      return copyOut(sql, channel);
+    }
+  }
+
+  private static void write(FileChannel to, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      to.write(buffer);
+    }
+    buffer.clear();
+  }
+
   /**
    * Use COPY FROM STDIN for very fast copying from a Reader into a database table.
    *
@@ -232,6 +345,54 @@ public class CopyManager {
     }
   }
 
+  /**
+   * Use COPY FROM STDIN for very fast copying from a file into a database table. The file is sent
+   * from its position to its end in large messages, and when the connection uses neither SSL nor
+   * GSS encryption the operating system moves the bytes from the file to the socket, see
+   * {@link CopyIn#writeToCopy(FileChannel, long, int)}. The position of the file is moved to its
+   * end.
+   *
+   * @param sql COPY FROM STDIN statement
+   * @param from a CSV file or such
+   * @return number of rows updated for server 8.2 or newer; -1 for older
+   * @throws SQLException on database usage issues
+   * @throws IOException upon file or database connection failure
+   */
+  public long copyIn(final String sql, FileChannel from) throws SQLException, IOException {
+    long position = from.position();
+    long end = from.size();
+    CopyIn cp = copyIn(sql);
+    try {
+      while (position < end) {
+        int length = (int) Math.min(FILE_MESSAGE_SIZE, end - position);
+        cp.writeToCopy(from, position, length);
+        position += length;
+      }
+      from.position(position);
+      return cp.endCopy();
+    } finally { // see to it that we do not leave the connection locked
+      if (cp.isActive()) {
+        cp.cancelCopy();
+      }
+    }
+  }
+
+  /**
+   * Use COPY FROM STDIN for very fast copying from a file into a database table.
+   *
+   * @param sql COPY FROM STDIN statement
+   * @param from a CSV file or such
+   * @return number of rows updated for server 8.2 or newer; -1 for older
+   * @throws SQLException on database usage issues
+   * @throws IOException upon file or database connection failure
+   * @see #copyIn(String, FileChannel)
+   */
+  public long copyIn(final String sql, Path from) throws SQLException, IOException {
+    try (FileChannel channel = FileChannel.open(from, StandardOpenOption.READ)) {
+      return copyIn(sql, channel);
+    }
+  }
+
   /**
    * Use COPY FROM STDIN for very fast copying from an ByteStreamWriter into a database table.
    *
@@ -7,6 +7,7 @@ package org.postgresql.copy;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.nio.ByteBuffer;
 import java.sql.SQLException;
 
 public interface CopyOut extends CopyOperation {
@@ -28,4 +29,45 @@ public interface CopyOut extends CopyOperation {
    * @throws SQLException if something goes wrong for example socket timeout
    */
   byte @Nullable [] readFromCopy(boolean block) throws SQLException;
+
+  /**
+   * Blocks wait for a message of data to be received from server on an active copy operation, and
+   * appends it to the given buffer. Unlike {@link #readFromCopy()}, a single buffer can be reused
+   * for the whole operation instead of an array being allocated for each message.
+   *
+   * @param buffer buffer to write the data to, at its position
+   * @return the buffer with the data appended, or a larger copy of it if the data did not fit, or
+   *         null if server complete copy operation
+   * @throws SQLException if something goes wrong for example socket timeout
+   */
+  default @Nullable ByteBuffer readFromCopy(ByteBuffer buffer) throws SQLException {
+    return readFromCopy(buffer, true);
+  }
+
+  /**
+   * Wait for a message of data to be received from server on an active copy operation, and
+   * appends it to the given buffer. The driver's implementations receive the data straight into
+   * the array of a heap buffer.
+   *
+   * @param buffer buffer to write the data to, at its position
+   * @param block {@code true} if need wait data from server otherwise {@code false} and will read
+   *              pending message from server
+   * @return the buffer with the data appended, or a larger copy of it if the data did not fit, or
+   *         null if server complete copy operation or no message is pending
+   * @throws SQLException if something goes wrong for example socket timeout
+   */
+  default @Nullable ByteBuffer readFromCopy(ByteBuffer buffer, boolean block)
+      throws SQLException {
+    byte[] data = readFromCopy(block);
+    if (data == null) {
+      return null;
+    }
+    if (buffer.remaining() < data.length) {
+      ByteBuffer larger =
+          ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + data.length));
+      buffer.flip();
+      buffer = larger.put(buffer);
+    }
+    return buffer.put(data);
+  }
 }
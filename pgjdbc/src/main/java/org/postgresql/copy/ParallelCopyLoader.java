@@ -0,0 +1,564 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.copy;
+
+import org.postgresql.core.BaseConnection;
+import org.postgresql.core.Encoding;
+import org.postgresql.util.GT;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * <p>Loads rows with a {@code COPY ... FROM STDIN} statement run concurrently on several
+ * connections, so the parsing and the constraint checks of the rows use as many backends as there
+ * are connections instead of one.</p>
+ *
+ * <pre>
+ * ParallelCopyLoader loader = new ParallelCopyLoader(dataSource,
+ *     "COPY events FROM STDIN (FORMAT csv)", 8);
+ * loader.setTwoPhaseCommit(true);
+ * ParallelCopyLoader.Result result = loader.load(csvLines.iterator());
+ * </pre>
+ *
+ * <p>The rows are lines in the format of the COPY statement, without the line terminator. The
+ * calling thread encodes them into buffers of {@link #setBufferSize(int) bufferSize} bytes that a
+ * thread of each connection sends. Each connection has at most
+ * {@link #setBuffersPerConnection(int) buffersPerConnection} buffers, so a connection that is
+ * slower than the others holds back the caller rather than the memory grows. Buffers are handed to
+ * the connections in turn, unless a {@link #setPartitionKey(ToIntFunction) partition key} sends
+ * all the rows with the same key to the same connection, which keeps the rows of a partition of a
+ * partitioned table on one backend.</p>
+ *
+ * <p>By default, the COPY of each connection commits on its own, and the connections that did not
+ * fail keep their rows. With {@link #setTwoPhaseCommit(boolean) twoPhaseCommit}, the COPY of each
+ * connection is prepared with {@code PREPARE TRANSACTION}, and all are committed only if all were
+ * prepared, which requires {@code max_prepared_transactions} to be at least the number of
+ * connections. Once all are prepared, all are committed: a {@code COMMIT PREPARED} that fails does
+ * not roll back the others, and leaves its transaction prepared, see
+ * {@link Result#getPreparedTransaction(int)}. A loader can be reused, but not by several threads
+ * at once.</p>
+ */
+public class ParallelCopyLoader {
+  private static final Logger LOGGER = Logger.getLogger(ParallelCopyLoader.class.getName());
+
+  private static final AtomicInteger threadCount = new AtomicInteger(0);
+
+  private static final Chunk END = new Chunk(new byte[0]);
+  private static final Chunk ABORT = new Chunk(new byte[0]);
+
+  private final DataSource dataSource;
+  private final String copySql;
+  private final int connections;
+  private int bufferSize = CopyManager.DEFAULT_BUFFER_SIZE;
+  private int buffersPerConnection = 4;
+  private @Nullable ToIntFunction<String> partitionKey;
+  private boolean twoPhaseCommit;
+
+  /**
+   * @param dataSource the source of the connections
+   * @param copySql a {@code COPY ... FROM STDIN} statement
+   * @param connections number of connections the rows are loaded with
+   */
+  public ParallelCopyLoader(DataSource dataSource, String copySql, int connections) {
+    if (connections < 1) {
+      throw new IllegalArgumentException("connections must be positive: " + connections);
+    }
+    this.dataSource = dataSource;
+    this.copySql = copySql;
+    this.connections = connections;
+  }
+
+  /**
+   * Sets the number of bytes of rows that are sent to a connection at once.
+   *
+   * @param bufferSize size of the buffers, 65536 by default
+   */
+  public void setBufferSize(int bufferSize) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+    }
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * Sets the number of buffers of each connection, that is how far the caller can get ahead of
+   * the slowest connection.
+   *
+   * @param buffersPerConnection number of buffers of each connection, 4 by default
+   */
+  public void setBuffersPerConnection(int buffersPerConnection) {
+    if (buffersPerConnection < 1) {
+      throw new IllegalArgumentException(
+          "buffersPerConnection must be positive: " + buffersPerConnection);
+    }
+    this.buffersPerConnection = buffersPerConnection;
+  }
+
+  /**
+   * Sends the rows with the same key to the same connection, instead of sending the buffers to
+   * the connections in turn.
+   *
+   * @param partitionKey computes the key of a row, for instance the hash of its partition column,
+   *     or null to send the buffers in turn
+   */
+  public void setPartitionKey(@Nullable ToIntFunction<String> partitionKey) {
+    this.partitionKey = partitionKey;
+  }
+
+  /**
+   * Commits the rows of all the connections only if all the connections loaded their rows, with
+   * {@code PREPARE TRANSACTION} and {@code COMMIT PREPARED}.
+   *
+   * @param twoPhaseCommit true to commit all or nothing, false by default
+   */
+  public void setTwoPhaseCommit(boolean twoPhaseCommit) {
+    this.twoPhaseCommit = twoPhaseCommit;
+  }
+
+  /**
+   * Loads the rows and waits for all the connections to complete.
+   *
+   * @param rows the rows in the format of the COPY statement, without line terminators
+   * @return the number of rows and the error of each connection
+   * @throws SQLException if the connections cannot be opened, or the rows cannot be encoded
+   * @throws RuntimeException if the thread of a connection failed unexpectedly, after the copies
+   *     of the other connections are cancelled
+   */
+  public Result load(Iterator<String> rows) throws SQLException {
+    List<Loader> opened = new ArrayList<>(connections);
+    try {
+      String gidPrefix = "pgjdbc_copy_" + UUID.randomUUID() + "_";
+      for (int i = 0; i < connections; i++) {
+        opened.add(new Loader(dataSource.getConnection(), gidPrefix + i));
+      }
+      Loader[] loaders = opened.toArray(new Loader[0]);
+      Encoding encoding = loaders[0].connection.unwrap(BaseConnection.class).getEncoding();
+      for (Loader loader : loaders) {
+        loader.thread.start();
+      }
+      boolean completed = false;
+      try {
+        completed = produce(rows, encoding, loaders);
+      } finally {
+        for (Loader loader : loaders) {
+          loader.end(completed);
+        }
+        join(loaders);
+      }
+      complete(loaders);
+      for (Loader loader : loaders) {
+        Throwable unexpected = loader.unexpected;
+        if (unexpected instanceof RuntimeException) {
+          throw (RuntimeException) unexpected;
+        } else if (unexpected instanceof Error) {
+          throw (Error) unexpected;
+        }
+      }
+      long[] rowCounts = new long[connections];
+      @Nullable SQLException[] errors = new SQLException[connections];
+      @Nullable String[] preparedTransactions = new String[connections];
+      for (int i = 0; i < connections; i++) {
+        rowCounts[i] = loaders[i].rowCount;
+        errors[i] = loaders[i].error;
+        preparedTransactions[i] = loaders[i].prepared ? loaders[i].gid : null;
+      }
+      return new Result(rowCounts, errors, preparedTransactions);
+    } finally {
+      for (Loader loader : opened) {
+        loader.close();
+      }
+    }
+  }
+
+  /**
+   * Hands the rows to the loaders.
+   *
+   * @return false if the load was abandoned because a connection failed and nothing is committed
+   */
+  private boolean produce(Iterator<String> rows, Encoding encoding, Loader[] loaders)
+      throws SQLException {
+    ToIntFunction<String> partitionKey = this.partitionKey;
+    int next = 0;
+    try {
+      while (rows.hasNext()) {
+        String row = rows.next();
+        Loader loader;
+        if (partitionKey != null) {
+          loader = loaders[Math.floorMod(partitionKey.applyAsInt(row), loaders.length)];
+        } else {
+          loader = loaders[next];
+        }
+        if (loader.append(encoding.encode(row))) {
+          next = (next + 1) % loaders.length;
+          if (anyFailed(loaders)) {
+            // Nothing is committed once a connection failed
+            return false;
+          }
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      throw new PSQLException(GT.tr("Unable to translate data into the desired encoding."),
+          PSQLState.DATA_ERROR, e);
+    }
+  }
+
+  /**
+   * @return true if the load must be abandoned: a connection failed and nothing is committed, or
+   *     the thread of a connection failed unexpectedly
+   */
+  private boolean anyFailed(Loader[] loaders) {
+    for (Loader loader : loaders) {
+      if (loader.unexpected != null || (twoPhaseCommit && loader.error != null)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void join(Loader[] loaders) {
+    boolean interrupted = false;
+    for (Loader loader : loaders) {
+      while (true) {
+        try {
+          loader.thread.join();
+          break;
+        } catch (InterruptedException e) { // NOSONAR
+          // Either re-interrupt this method or rethrow the "InterruptedException"
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Commits the prepared transactions if all the connections prepared theirs, or rolls them back.
+   * Once all are prepared, the commit of each is attempted even if another failed, since the ones
+   * committed before cannot be rolled back. The transactions that could not be committed or
+   * rolled back stay prepared, with {@link Loader#prepared} still set.
+   */
+  private void complete(Loader[] loaders) {
+    if (!twoPhaseCommit) {
+      return;
+    }
+    boolean allPrepared = true;
+    for (Loader loader : loaders) {
+      allPrepared &= loader.prepared;
+    }
+    for (Loader loader : loaders) {
+      try {
+        if (loader.prepared) {
+          String command = allPrepared ? "COMMIT PREPARED '" : "ROLLBACK PREPARED '";
+          try (Statement stmt = loader.connection.createStatement()) {
+            stmt.execute(command + loader.gid + "'");
+          }
+          loader.prepared = false;
+        } else {
+          loader.connection.rollback();
+        }
+      } catch (SQLException e) {
+        if (loader.prepared) {
+          LOGGER.log(Level.WARNING, "The prepared transaction {0} of the copy is left prepared",
+              loader.gid);
+        }
+        if (loader.error == null) {
+          loader.error = e;
+        }
+      }
+      if (!allPrepared || loader.prepared) {
+        loader.rowCount = 0;
+      }
+    }
+  }
+
+  /**
+   * The outcome of a load.
+   */
+  public static final class Result {
+    private final long[] rowCounts;
+    private final @Nullable SQLException[] errors;
+    private final @Nullable String[] preparedTransactions;
+
+    Result(long[] rowCounts, @Nullable SQLException[] errors,
+        @Nullable String[] preparedTransactions) {
+      this.rowCounts = rowCounts;
+      this.errors = errors;
+      this.preparedTransactions = preparedTransactions;
+    }
+
+    /**
+     * Returns the number of rows that were committed. When the load uses a two-phase commit and
+     * a connection failed before all were prepared, no row is committed.
+     *
+     * @return number of rows loaded by all the connections
+     */
+    public long getRowCount() {
+      long total = 0;
+      for (long rowCount : rowCounts) {
+        total += rowCount;
+      }
+      return total;
+    }
+
+    public int getConnectionCount() {
+      return rowCounts.length;
+    }
+
+    /**
+     * @param connection index of the connection
+     * @return number of rows the connection committed
+     */
+    public long getRowCount(int connection) {
+      return rowCounts[connection];
+    }
+
+    /**
+     * @param connection index of the connection
+     * @return the error of the connection, or null if it did not fail
+     */
+    public @Nullable SQLException getError(int connection) {
+      return errors[connection];
+    }
+
+    /**
+     * Returns the global identifier of the transaction of the connection if it is left prepared,
+     * because its {@code COMMIT PREPARED} or {@code ROLLBACK PREPARED} failed. It must be resolved
+     * with one of these commands, as it holds its locks until then. Its rows are not counted.
+     *
+     * @param connection index of the connection
+     * @return the identifier of the prepared transaction, or null if it was resolved
+     */
+    public @Nullable String getPreparedTransaction(int connection) {
+      return preparedTransactions[connection];
+    }
+
+    /**
+     * @return true if no connection failed
+     */
+    public boolean isSuccessful() {
+      for (SQLException error : errors) {
+        if (error != null) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class Chunk {
+    byte[] data;
+    int length;
+
+    Chunk(byte[] data) {
+      this.data = data;
+    }
+  }
+
+  /**
+   * The COPY of one connection. The caller fills buffers taken from {@link #free}, and the thread
+   * of the loader sends the buffers of {@link #filled} and returns them.
+   */
+  private final class Loader implements Runnable {
+    final Connection connection;
+    final String gid;
+    final Thread thread;
+    private final BlockingQueue<Chunk> free;
+    private final BlockingQueue<Chunk> filled;
+    private @Nullable Chunk current;
+    volatile @Nullable SQLException error;
+    // A failure of the thread that is not an SQLException, rethrown by load
+    volatile @Nullable Throwable unexpected;
+    long rowCount;
+    boolean prepared;
+
+    Loader(Connection connection, String gid) {
+      this.connection = connection;
+      this.gid = gid;
+      this.free = new ArrayBlockingQueue<>(buffersPerConnection);
+      // Room for the end marker on top of the buffers
+      this.filled = new ArrayBlockingQueue<>(buffersPerConnection + 1);
+      for (int i = 0; i < buffersPerConnection; i++) {
+        free.add(new Chunk(new byte[bufferSize]));
+      }
+      thread = new Thread(this, "PostgreSQL-JDBC-CopyLoader-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+    }
+
+    /**
+     * Appends a row, and hands the buffer to the thread of the loader if it is full.
+     *
+     * @return true if the buffer was handed over
+     */
+    boolean append(byte[] row) throws SQLException {
+      Chunk chunk = current;
+      if (chunk == null) {
+        chunk = current = take(free);
+      }
+      int length = row.length + 1;
+      if (chunk.length + length > chunk.data.length) {
+        // Only a row larger than the buffer grows it
+        chunk.data = Arrays.copyOf(chunk.data, Math.max(chunk.length + length, bufferSize));
+      }
+      System.arraycopy(row, 0, chunk.data, chunk.length, row.length);
+      chunk.data[chunk.length + row.length] = '\n';
+      chunk.length += length;
+      if (chunk.length < bufferSize) {
+        return false;
+      }
+      current = null;
+      put(chunk);
+      return true;
+    }
+
+    /**
+     * Hands the last buffer and the end marker to the thread of the loader.
+     *
+     * @param completed false to cancel the copy
+     */
+    void end(boolean completed) throws SQLException {
+      Chunk chunk = current;
+      current = null;
+      if (completed && chunk != null && chunk.length > 0) {
+        put(chunk);
+      }
+      put(completed ? END : ABORT);
+    }
+
+    private Chunk take(BlockingQueue<Chunk> queue) throws SQLException {
+      try {
+        return queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new PSQLException(GT.tr("Interrupted while waiting for the copy to progress"),
+            PSQLState.OBJECT_NOT_IN_STATE, e);
+      }
+    }
+
+    private void put(Chunk chunk) throws SQLException {
+      boolean interrupted = false;
+      while (true) {
+        try {
+          filled.put(chunk);
+          break;
+        } catch (InterruptedException e) { // NOSONAR
+          // The thread of the loader must get the end marker to finish
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public void run() {
+      CopyIn copyIn = null;
+      boolean ended = false;
+      try {
+        // Without two-phase commit, the copy commits on its own whatever the pool configured
+        connection.setAutoCommit(!twoPhaseCommit);
+        copyIn = connection.unwrap(BaseConnection.class).getCopyAPI().copyIn(copySql);
+        while (true) {
+          Chunk chunk = filled.take();
+          ended = chunk == END || chunk == ABORT;
+          if (chunk == END) {
+            break;
+          }
+          if (chunk == ABORT) {
+            throw new PSQLException(GT.tr("The copy was cancelled."),
+                PSQLState.QUERY_CANCELED);
+          }
+          copyIn.writeToCopy(chunk.data, 0, chunk.length);
+          recycle(chunk);
+        }
+        rowCount = copyIn.endCopy();
+        if (twoPhaseCommit) {
+          try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PREPARE TRANSACTION '" + gid + "'");
+          }
+          prepared = true;
+          connection.setAutoCommit(true);
+        }
+      } catch (SQLException e) {
+        fail(copyIn, e, ended);
+      } catch (InterruptedException e) {
+        fail(copyIn, new PSQLException(GT.tr("Interrupted while waiting for the copy to progress"),
+            PSQLState.OBJECT_NOT_IN_STATE, e), ended);
+      } catch (RuntimeException | Error e) {
+        unexpected = e;
+        fail(copyIn, new PSQLException(GT.tr("The copy failed unexpectedly."),
+            PSQLState.UNEXPECTED_ERROR, e), ended);
+      }
+    }
+
+    private void recycle(Chunk chunk) {
+      chunk.length = 0;
+      if (chunk.data.length > bufferSize) {
+        chunk.data = new byte[bufferSize];
+      }
+      free.add(chunk);
+    }
+
+    private void fail(@Nullable CopyIn copyIn, SQLException e, boolean ended) {
+      error = e;
+      rowCount = 0;
+      if (copyIn != null && copyIn.isActive()) {
+        try {
+          copyIn.cancelCopy();
+        } catch (SQLException cancelError) {
+          LOGGER.log(Level.FINE, "Unable to cancel the copy", cancelError);
+        }
+      }
+      // Keep returning the buffers, so the caller does not wait for this connection
+      boolean interrupted = false;
+      while (!ended) {
+        try {
+          Chunk chunk = filled.take();
+          ended = chunk == END || chunk == ABORT;
+          if (!ended) {
+            recycle(chunk);
+          }
+        } catch (InterruptedException ignored) { // NOSONAR
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    void close() {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        LOGGER.log(Level.FINE, "Unable to close the connection", e);
+      }
+    }
+  }
+}
@@ -19,9 +19,11 @@ import java.util.List;
 class CachedQueryCreateAction implements LruCache.CreateAction<Object, CachedQuery> {
   private static final String[] EMPTY_RETURNING = new String[0];
   private final QueryExecutor queryExecutor;
+  private final boolean useSharedCache;
 
-  CachedQueryCreateAction(QueryExecutor queryExecutor) {
+  CachedQueryCreateAction(QueryExecutor queryExecutor, boolean useSharedCache) {
     this.queryExecutor = queryExecutor;
+    this.useSharedCache = useSharedCache;
   }
 
   @Override
@@ -29,6 +31,34 @@ class CachedQueryCreateAction implements LruCache.CreateAction<Object, CachedQue
     assert key instanceof String || key instanceof BaseQueryKey
         : "Query key should be String or BaseQueryKey. Given " + key.getClass() + ", sql: "
         + key;
+    SharedQueryCache.ParsedQuery parsed;
+    if (useSharedCache) {
+      boolean isCallable = key instanceof CallableQueryKey;
+      SharedQueryCache.Key sharedKey = new SharedQueryCache.Key(key,
+          queryExecutor.getStandardConformingStrings(), splitStatements(key),
+          queryExecutor.isReWriteBatchedInsertsEnabled(),
+          queryExecutor.getQuoteReturningIdentifiers(),
+          isCallable ? queryExecutor.getEscapeSyntaxCallMode() : null,
+          isCallable ? queryExecutor.getServerVersionNum() : 0);
+      SharedQueryCache.ParsedQuery shared = SharedQueryCache.INSTANCE.get(sharedKey);
+      if (shared == null) {
+        shared = parse(key);
+        SharedQueryCache.INSTANCE.put(sharedKey, shared);
+      }
+      parsed = shared;
+    } else {
+      parsed = parse(key);
+    }
+    Query query = queryExecutor.wrap(parsed.queries);
+    return new CachedQuery(key, query, parsed.isFunction);
+  }
+
+  private boolean splitStatements(Object key) {
+    boolean isParameterized = key instanceof String || ((BaseQueryKey) key).isParameterized;
+    return isParameterized || queryExecutor.getPreferQueryMode().compareTo(PreferQueryMode.EXTENDED) >= 0;
+  }
+
+  private SharedQueryCache.ParsedQuery parse(Object key) throws SQLException {
     BaseQueryKey queryKey;
     String parsedSql;
     if (key instanceof BaseQueryKey) {
@@ -53,7 +83,7 @@ class CachedQueryCreateAction implements LruCache.CreateAction<Object, CachedQue
       isFunction = false;
     }
     boolean isParameterized = key instanceof String || castNonNull(queryKey).isParameterized;
-    boolean splitStatements = isParameterized || queryExecutor.getPreferQueryMode().compareTo(PreferQueryMode.EXTENDED) >= 0;
+    boolean splitStatements = splitStatements(key);
 
     String[] returningColumns;
     if (key instanceof QueryWithReturningColumnsKey) {
@@ -68,7 +98,6 @@ class CachedQueryCreateAction implements LruCache.CreateAction<Object, CachedQue
         returningColumns
         );
 
-    Query query = queryExecutor.wrap(queries);
-    return new CachedQuery(key, query, isFunction);
+    return new SharedQueryCache.ParsedQuery(queries, isFunction);
   }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.core;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JVM wide pool of fixed size direct {@link ByteBuffer}s used by {@link SocketChannelStreams}.
+ * Direct buffers are expensive to allocate and are only reclaimed by GC, so connections return
+ * their buffers here when they are idle or closed.
+ */
+final class DirectBufferPool {
+  /**
+   * Size of every pooled buffer.
+   */
+  static final int BUFFER_SIZE = 16384;
+
+  /**
+   * Maximum number of idle buffers kept in the pool (16MiB with the default buffer size).
+   */
+  private static final int MAX_IDLE_BUFFERS = 1024;
+
+  private static final ConcurrentLinkedQueue<ByteBuffer> IDLE = new ConcurrentLinkedQueue<ByteBuffer>();
+  private static final AtomicInteger IDLE_COUNT = new AtomicInteger();
+
+  private DirectBufferPool() {
+  }
+
+  /**
+   * Returns a cleared buffer of {@link #BUFFER_SIZE} bytes.
+   *
+   * @return cleared direct buffer
+   */
+  static ByteBuffer acquire() {
+    ByteBuffer buffer = IDLE.poll();
+    if (buffer == null) {
+      return ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+    IDLE_COUNT.decrementAndGet();
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Returns the buffer to the pool. The caller must not use the buffer afterwards.
+   *
+   * @param buffer buffer obtained from {@link #acquire()}
+   */
+  static void release(ByteBuffer buffer) {
+    if (IDLE_COUNT.incrementAndGet() > MAX_IDLE_BUFFERS) {
+      IDLE_COUNT.decrementAndGet();
+      return;
+    }
+    IDLE.offer(buffer);
+  }
+}
@@ -7,6 +7,7 @@ package org.postgresql.core;
 
 import org.postgresql.gss.GSSInputStream;
 import org.postgresql.gss.GSSOutputStream;
+import org.postgresql.util.ByteConverter;
 import org.postgresql.util.ByteStreamWriter;
 import org.postgresql.util.GT;
 import org.postgresql.util.HostSpec;
@@ -21,6 +22,7 @@ import org.ietf.jgss.MessageProp;
 import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.EOFException;
+import java.io.FilterInputStream;
 import java.io.FilterOutputStream;
 import java.io.Flushable;
 import java.io.IOException;
@@ -32,6 +34,9 @@ import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
 import java.sql.SQLException;
 
 import javax.net.SocketFactory;
@@ -46,14 +51,20 @@ import javax.net.SocketFactory;
 public class PGStream implements Closeable, Flushable {
   private final SocketFactory socketFactory;
   private final HostSpec hostSpec;
+  private final boolean useSocketChannel;
 
   private final byte[] int4Buf;
   private final byte[] int2Buf;
 
   private Socket connection;
+  private @Nullable SocketChannelStreams channelStreams;
   private VisibleBufferedInputStream pgInput;
   private OutputStream pgOutput;
   private byte @Nullable [] streamBuffer;
+  // Bytes moved over the socket, see getBytesSent() and getBytesReceived()
+  private boolean countBytes;
+  private long bytesSent;
+  private long bytesReceived;
 
   public boolean isGssEncrypted() {
     return gssEncrypted;
@@ -82,6 +93,8 @@ public class PGStream implements Closeable, Flushable {
 
   private int maxRowSizeBytes = -1;
 
+  private boolean slabRowStorage;
+
   /**
    * Constructor: Connect to the PostgreSQL back end and return a stream connection.
    *
@@ -90,10 +103,26 @@ public class PGStream implements Closeable, Flushable {
    * @param timeout timeout in milliseconds, or 0 if no timeout set
    * @throws IOException if an IOException occurs below it.
    */
-  @SuppressWarnings({"method.invocation.invalid", "initialization.fields.uninitialized"})
   public PGStream(SocketFactory socketFactory, HostSpec hostSpec, int timeout) throws IOException {
+    this(socketFactory, hostSpec, timeout, false);
+  }
+
+  /**
+   * Constructor: Connect to the PostgreSQL back end and return a stream connection.
+   *
+   * @param socketFactory socket factory to use when creating sockets
+   * @param hostSpec the host and port to connect to
+   * @param timeout timeout in milliseconds, or 0 if no timeout set
+   * @param useSocketChannel true to perform the I/O through a {@link java.nio.channels.SocketChannel}
+   *        with pooled direct buffers. The socket factory is not used in that case.
+   * @throws IOException if an IOException occurs below it.
+   */
+  @SuppressWarnings({"method.invocation.invalid", "initialization.fields.uninitialized"})
+  public PGStream(SocketFactory socketFactory, HostSpec hostSpec, int timeout,
+      boolean useSocketChannel) throws IOException {
     this.socketFactory = socketFactory;
     this.hostSpec = hostSpec;
+    this.useSocketChannel = useSocketChannel;
 
     Socket socket = createSocket(timeout);
     changeSocket(socket);
@@ -133,6 +162,8 @@ public class PGStream implements Closeable, Flushable {
 
     this.socketFactory = pgStream.socketFactory;
     this.hostSpec = pgStream.hostSpec;
+    this.useSocketChannel = pgStream.useSocketChannel;
+    this.countBytes = pgStream.countBytes;
 
     Socket socket = createSocket(timeout);
     changeSocket(socket);
@@ -226,6 +257,10 @@ public class PGStream implements Closeable, Flushable {
   }
 
   private Socket createSocket(int timeout) throws IOException {
+    // SOCKS proxies need unresolved addresses, which channels cannot connect to
+    if (useSocketChannel && hostSpec.shouldResolve()) {
+      return createChannelSocket(timeout);
+    }
     Socket socket = socketFactory.createSocket();
     String localSocketAddress = hostSpec.getLocalSocketAddress();
     if (localSocketAddress != null) {
@@ -243,6 +278,58 @@ public class PGStream implements Closeable, Flushable {
     return socket;
   }
 
+  private Socket createChannelSocket(int timeout) throws IOException {
+    SocketChannel channel = SocketChannel.open();
+    try {
+      Socket socket = channel.socket();
+      String localSocketAddress = hostSpec.getLocalSocketAddress();
+      if (localSocketAddress != null) {
+        socket.bind(new InetSocketAddress(InetAddress.getByName(localSocketAddress), 0));
+      }
+      socket.connect(new InetSocketAddress(hostSpec.getHost(), hostSpec.getPort()), timeout);
+      channelStreams = new SocketChannelStreams(channel);
+      return socket;
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Tells if the I/O goes through a {@link java.nio.channels.SocketChannel} with pooled direct
+   * buffers. This is no longer the case once the socket has been wrapped, e.g. by SSL.
+   *
+   * @return true if the stream uses a socket channel
+   */
+  public boolean isSocketChannel() {
+    return channelStreams != null;
+  }
+
+  /**
+   * Stops using the {@link java.nio.channels.SocketChannel}, if any: the pending output is sent,
+   * the direct buffers are released and the regular socket streams are used. This must be called
+   * before the socket is used by a layered socket or protocol (e.g. SSL or GSS encryption), which
+   * reads and writes the socket streams on its own.
+   *
+   * @throws IOException if the pending output cannot be sent
+   */
+  public void detachSocketChannel() throws IOException {
+    if (channelStreams == null) {
+      return;
+    }
+    releaseSocketChannel();
+    createStreams();
+  }
+
+  private void releaseSocketChannel() throws IOException {
+    SocketChannelStreams channelStreams = this.channelStreams;
+    if (channelStreams != null) {
+      this.channelStreams = null;
+      pgOutput.flush();
+      channelStreams.detach();
+    }
+  }
+
   /**
    * Switch this stream to using a new socket. Any existing socket is <em>not</em> closed; it's
    * assumed that we are changing to a new socket that delegates to the original socket (e.g. SSL).
@@ -255,6 +342,12 @@ public class PGStream implements Closeable, Flushable {
         + " This is a no-op, however, it re-allocates buffered streams, so refrain from"
         + " excessive changeSocket calls";
 
+    SocketChannelStreams channelStreams = this.channelStreams;
+    if (channelStreams != null && channelStreams.getSocket() != socket) {
+      // The new socket is layered on top of the channel, see detachSocketChannel
+      releaseSocketChannel();
+    }
+
     this.connection = socket;
 
     // Submitted by Jason Venner <jason@idiom.com>. Disable Nagle
@@ -262,15 +355,36 @@ public class PGStream implements Closeable, Flushable {
     // really need to.
     connection.setTcpNoDelay(true);
 
-    // Buffer sizes submitted by Sverre H Huseby <sverrehu@online.no>
-    pgInput = new VisibleBufferedInputStream(connection.getInputStream(), 8192);
-    pgOutput = new BufferedOutputStream(connection.getOutputStream(), 8192);
+    createStreams();
+  }
+
+  private void createStreams() throws IOException {
+    SocketChannelStreams channelStreams = this.channelStreams;
+    if (channelStreams != null) {
+      // the channel streams buffer the output in direct buffers already, the input is read
+      // straight into the array of VisibleBufferedInputStream
+      pgInput = new VisibleBufferedInputStream(
+          countReceived(channelStreams.getInputStream()), 8192);
+      pgOutput = countSent(channelStreams.getOutputStream());
+    } else {
+      // Buffer sizes submitted by Sverre H Huseby <sverrehu@online.no>
+      pgInput = new VisibleBufferedInputStream(countReceived(connection.getInputStream()), 8192);
+      pgOutput = new BufferedOutputStream(countSent(connection.getOutputStream()), 8192);
+    }
 
     if (encoding != null) {
       setEncoding(encoding);
     }
   }
 
+  private InputStream countReceived(InputStream in) {
+    return countBytes ? new CountingInputStream(in) : in;
+  }
+
+  private OutputStream countSent(OutputStream out) {
+    return countBytes ? new CountingOutputStream(out) : out;
+  }
+
   public Encoding getEncoding() {
     return encoding;
   }
@@ -402,6 +516,53 @@ public class PGStream implements Closeable, Flushable {
     }
   }
 
+  /**
+   * Sends bytes of a file to the backend. When the I/O goes through a plain socket channel, see
+   * {@link #isSocketChannel()}, the bytes are moved from the file to the socket by the operating
+   * system. If the file ends before, the missing bytes are sent as zeros to keep the protocol in
+   * sync, and an {@link EOFException} is thrown.
+   *
+   * @param file the file to send bytes of
+   * @param position position of the first byte in the file
+   * @param length the number of bytes to be sent
+   * @throws IOException if an I/O error occurs, or the file ends before
+   */
+  public void send(FileChannel file, long position, int length) throws IOException {
+    long sent = 0;
+    SocketChannelStreams channelStreams = this.channelStreams;
+    if (channelStreams != null && !gssEncrypted) {
+      pgOutput.flush();
+      sent = channelStreams.transferFrom(file, position, length);
+      if (countBytes) {
+        bytesSent += sent;
+      }
+    } else {
+      byte[] streamBuffer = this.streamBuffer;
+      if (streamBuffer == null) {
+        this.streamBuffer = streamBuffer = new byte[8192];
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(streamBuffer);
+      while (sent < length) {
+        buffer.clear();
+        buffer.limit((int) Math.min(streamBuffer.length, length - sent));
+        int read = file.read(buffer, position + sent);
+        if (read < 0) {
+          break;
+        }
+        pgOutput.write(streamBuffer, 0, read);
+        sent += read;
+      }
+    }
+    if (sent < length) {
+      for (long i = sent; i < length; i++) {
+        pgOutput.write(0);
+      }
+      throw new EOFException(
+          GT.tr("Premature end of input stream, expected {0} bytes, but only read {1}.",
+              length, sent));
+    }
+  }
+
   /**
    * Send a fixed-size array of bytes to the backend. If {@code length < siz}, pad with zeros. If
    * {@code length > siz}, truncate the array.
@@ -594,9 +755,14 @@ public class PGStream implements Closeable, Flushable {
     int dataToReadSize = messageSize - 4 - 2 - 4 * nf;
     setMaxRowSizeBytes(dataToReadSize);
 
+    increaseByteCounter(dataToReadSize);
+
+    if (slabRowStorage) {
+      return receiveSlabTuple(messageSize - 4 - 2, nf);
+    }
+
     byte[][] answer = new byte[nf][];
 
-    increaseByteCounter(dataToReadSize);
     OutOfMemoryError oom = null;
     for (int i = 0; i < nf; ++i) {
       int size = receiveInteger4();
@@ -618,6 +784,40 @@ public class PGStream implements Closeable, Flushable {
     return new Tuple(answer);
   }
 
+  /**
+   * Reads the rest of a DataRow message into a single buffer and records where each field starts,
+   * so the row costs a fixed number of allocations regardless of the number of columns.
+   *
+   * @param bodySize number of bytes left in the message
+   * @param nf number of fields in the row
+   * @return tuple backed by a single buffer
+   * @throws IOException if a data I/O error occurs
+   */
+  private Tuple receiveSlabTuple(int bodySize, int nf) throws IOException {
+    byte[] slab;
+    try {
+      slab = new byte[bodySize];
+    } catch (OutOfMemoryError oome) {
+      skip(bodySize);
+      throw oome;
+    }
+    receive(slab, 0, bodySize);
+
+    int[] offsets = new int[nf];
+    int pos = 0;
+    for (int i = 0; i < nf; ++i) {
+      int size = ByteConverter.int4(slab, pos);
+      pos += 4;
+      if (size == -1) {
+        offsets[i] = -1;
+      } else {
+        offsets[i] = pos;
+        pos += size;
+      }
+    }
+    return new Tuple(slab, offsets);
+  }
+
   /**
    * Reads in a given number of bytes from the backend.
    *
@@ -735,9 +935,20 @@ public class PGStream implements Closeable, Flushable {
       encodingWriter.close();
     }
 
-    pgOutput.close();
-    pgInput.close();
-    connection.close();
+    try {
+      pgOutput.close();
+      pgInput.close();
+    } finally {
+      try {
+        SocketChannelStreams channelStreams = this.channelStreams;
+        if (channelStreams != null) {
+          this.channelStreams = null;
+          channelStreams.close();
+        }
+      } finally {
+        connection.close();
+      }
+    }
   }
 
   public void setNetworkTimeout(int milliseconds) throws IOException {
@@ -760,6 +971,16 @@ public class PGStream implements Closeable, Flushable {
     maxResultBuffer = PGPropertyMaxResultBufferParser.parseProperty(value);
   }
 
+  /**
+   * Selects whether DataRow messages are read into a single buffer per row (see
+   * {@link Tuple#Tuple(byte[], int[])}) instead of one array per field.
+   *
+   * @param slabRowStorage true to read each row into a single buffer
+   */
+  public void setSlabRowStorage(boolean slabRowStorage) {
+    this.slabRowStorage = slabRowStorage;
+  }
+
   /**
    * Get MaxResultBuffer from PGStream.
    *
@@ -769,6 +990,42 @@ public class PGStream implements Closeable, Flushable {
     return maxResultBuffer;
   }
 
+  /**
+   * Enables or disables counting the bytes sent and received, see {@link #getBytesSent()} and
+   * {@link #getBytesReceived()}. The streams are only wrapped with counting streams when enabled.
+   * It must be called before anything is received, since it replaces the input stream.
+   *
+   * @param countBytes true to count the bytes
+   * @throws IOException if the pending output cannot be sent
+   */
+  public void setCountBytes(boolean countBytes) throws IOException {
+    if (this.countBytes != countBytes) {
+      this.countBytes = countBytes;
+      pgOutput.flush();
+      createStreams();
+    }
+  }
+
+  /**
+   * Returns the number of bytes written to the socket so far, or 0 unless counting is enabled with
+   * {@link #setCountBytes(boolean)}. Bytes that are still buffered are not included.
+   *
+   * @return number of bytes sent
+   */
+  public long getBytesSent() {
+    return bytesSent;
+  }
+
+  /**
+   * Returns the number of bytes read from the socket so far, or 0 unless counting is enabled with
+   * {@link #setCountBytes(boolean)}. Bytes that are buffered and not consumed yet are included.
+   *
+   * @return number of bytes received
+   */
+  public long getBytesReceived() {
+    return bytesReceived;
+  }
+
   /**
    * The idea behind this method is to keep in maxRowSize the size of biggest read data row. As
    * there may be many data rows send after each other for a query, then value in maxRowSize would
@@ -829,4 +1086,55 @@ public class PGStream implements Closeable, Flushable {
   public boolean isClosed() {
     return connection.isClosed();
   }
+
+  private final class CountingInputStream extends FilterInputStream {
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = in.read();
+      if (b != -1) {
+        bytesReceived++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = in.read(b, off, len);
+      if (n > 0) {
+        bytesReceived += n;
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = in.skip(n);
+      if (skipped > 0) {
+        bytesReceived += skipped;
+      }
+      return skipped;
+    }
+  }
+
+  private final class CountingOutputStream extends FilterOutputStream {
+    CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      bytesSent++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      bytesSent += len;
+    }
+  }
 }
@@ -19,6 +19,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Basic query parser infrastructure.
@@ -588,6 +589,358 @@ public class Parser {
         && (query[offset + 5] | 32) == 'e';
   }
 
+  /**
+   * Converts an insert of a single row of parameters, like
+   * {@code INSERT INTO t (a, b) VALUES ($1, $2)}, to the {@code COPY t (a, b) FROM STDIN} that
+   * inserts the same columns. The parameters must be the only values, numbered in the order of
+   * the columns. The columns must be listed: an insert without a column list fills the remaining
+   * columns with their defaults, while a COPY without one expects a value for every column.
+   *
+   * @param nativeSql native SQL of the insert
+   * @param parameterCount number of parameters of the insert
+   * @return the COPY statement, or null if the insert has no column list or has anything else,
+   *     like an expression, {@code ON CONFLICT} or {@code RETURNING}
+   */
+  public static @Nullable String toCopyFromStdin(String nativeSql, int parameterCount) {
+    char[] query = nativeSql.toCharArray();
+    int i = skipWhitespace(query, 0);
+    if (!parseKeyword(query, i, "insert")) {
+      return null;
+    }
+    i = skipWhitespace(query, i + 6);
+    if (!parseKeyword(query, i, "into")) {
+      return null;
+    }
+    i = skipWhitespace(query, i + 4);
+
+    // Table name, optionally qualified
+    int tableStart = i;
+    while (true) {
+      i = parseIdentifier(query, i);
+      if (i < 0) {
+        return null;
+      }
+      if (i < query.length && query[i] == '.') {
+        i++;
+      } else {
+        break;
+      }
+    }
+    int tableEnd = i;
+    i = skipWhitespace(query, i);
+
+    // Column list
+    if (i >= query.length || query[i] != '(') {
+      return null;
+    }
+    int columnsStart = i;
+    int columnCount = 0;
+    do {
+      i = parseIdentifier(query, skipWhitespace(query, i + 1));
+      if (i < 0) {
+        return null;
+      }
+      columnCount++;
+      i = skipWhitespace(query, i);
+    } while (i < query.length && query[i] == ',');
+    if (i >= query.length || query[i] != ')') {
+      return null;
+    }
+    int columnsEnd = ++i;
+    i = skipWhitespace(query, i);
+
+    if (!parseKeyword(query, i, "values")) {
+      return null;
+    }
+    i = skipWhitespace(query, i + 6);
+    if (i >= query.length || query[i] != '(') {
+      return null;
+    }
+    int valueCount = 0;
+    do {
+      i = skipWhitespace(query, i + 1);
+      if (i >= query.length || query[i] != '$') {
+        return null;
+      }
+      int numberStart = ++i;
+      while (i < query.length && query[i] >= '0' && query[i] <= '9') {
+        i++;
+      }
+      valueCount++;
+      if (i == numberStart || i - numberStart > 5
+          || Integer.parseInt(nativeSql.substring(numberStart, i)) != valueCount) {
+        return null;
+      }
+      i = skipWhitespace(query, i);
+    } while (i < query.length && query[i] == ',');
+    if (i >= query.length || query[i] != ')') {
+      return null;
+    }
+    i = skipWhitespace(query, i + 1);
+    if (i < query.length && query[i] == ';') {
+      i = skipWhitespace(query, i + 1);
+    }
+    if (i != query.length || valueCount != parameterCount || columnCount != valueCount) {
+      return null;
+    }
+
+    StringBuilder copy = new StringBuilder(nativeSql.length());
+    copy.append("COPY ").append(query, tableStart, tableEnd - tableStart)
+        .append(' ').append(query, columnsStart, columnsEnd - columnsStart);
+    return copy.append(" FROM STDIN").toString();
+  }
+
+  /**
+   * Alias of the {@code unnest} of the batch in the statements of
+   * {@link #toUnnestBatch(String, int, boolean)}.
+   */
+  public static final String UNNEST_BATCH_ALIAS = "pgjdbc_batch";
+
+  /**
+   * <p>Converts an insert or delete with numbered parameters to a statement that executes it for
+   * every row of arrays of the parameter values, given as the {@code ?} parameters of the result
+   * in the order of the original parameters. For instance
+   * {@code DELETE FROM t WHERE a = $1 AND b = $2} is converted to</p>
+   *
+   * <pre>
+   * DELETE FROM t USING unnest(?, ?) WITH ORDINALITY AS pgjdbc_batch(p1, p2, ord)
+   * WHERE a = pgjdbc_batch.p1 AND b = pgjdbc_batch.p2 RETURNING pgjdbc_batch.ord
+   * </pre>
+   *
+   * <p>Deletes return the ordinal of the parameters that matched each row, so the count of each
+   * row of parameters can be computed. An insert must have a single row of {@code VALUES}, which
+   * is replaced by a {@code SELECT} from the arrays, and only returns its command status.</p>
+   *
+   * <p>Updates are not converted: when several rows of parameters match the same row, an
+   * {@code UPDATE ... FROM} changes it only once, with the values of any of them, and nothing
+   * tells the rows of parameters that were skipped from the ones that matched no row.</p>
+   *
+   * @param nativeSql native SQL of the statement
+   * @param parameterCount number of parameters of the statement
+   * @param standardConformingStrings whether standard_conforming_strings is on
+   * @return the statement, or null if it cannot be converted: other commands, {@code RETURNING},
+   *     deletes without {@code WHERE} or with their own {@code USING},
+   *     inserts of several rows, {@code DEFAULT} values or {@code ON CONFLICT DO UPDATE},
+   *     parameters outside of the values of an insert
+   */
+  public static @Nullable String toUnnestBatch(String nativeSql, int parameterCount,
+      boolean standardConformingStrings) {
+    char[] query = nativeSql.toCharArray();
+    int end = query.length;
+    while (end > 0 && Character.isWhitespace(query[end - 1])) {
+      end--;
+    }
+    if (end > 0 && query[end - 1] == ';') {
+      end--;
+    }
+    if (parameterCount == 0) {
+      return null;
+    }
+
+    StringBuilder sql = new StringBuilder(nativeSql.length() + 64 + 24 * parameterCount);
+    boolean[] seen = new boolean[parameterCount];
+    SqlCommandType type = null;
+    int inParen = 0;
+    // Position of WHERE for deletes
+    int wherePosition = -1;
+    // Positions of VALUES and its parentheses for inserts
+    int valuesPosition = -1;
+    int valuesOpen = -1;
+    int valuesClose = -1;
+    for (int i = 0; i < end; i++) {
+      char c = query[i];
+      int start = i;
+      switch (c) {
+        case '\'':
+          i = parseSingleQuotes(query, i, standardConformingStrings);
+          break;
+        case '"':
+          i = parseDoubleQuotes(query, i);
+          break;
+        case '-':
+          i = parseLineComment(query, i);
+          break;
+        case '/':
+          i = parseBlockComment(query, i);
+          break;
+        case '$':
+          if (i + 1 < end && query[i + 1] >= '0' && query[i + 1] <= '9') {
+            int number = 0;
+            while (i + 1 < end && query[i + 1] >= '0' && query[i + 1] <= '9' && number <= 65535) {
+              number = number * 10 + query[++i] - '0';
+            }
+            if (number < 1 || number > parameterCount
+                || (type == SqlCommandType.INSERT && (valuesOpen < 0 || valuesClose >= 0))) {
+              return null;
+            }
+            seen[number - 1] = true;
+            sql.append(UNNEST_BATCH_ALIAS).append(".p").append(number);
+            continue;
+          }
+          i = parseDollarQuotes(query, i);
+          break;
+        case '?':
+          // An operator, it must be escaped in the JDBC statement
+          sql.append("??");
+          continue;
+        case ';':
+          return null;
+        case '(':
+          if (inParen == 0 && valuesPosition >= 0 && valuesOpen < 0) {
+            valuesOpen = sql.length();
+          }
+          inParen++;
+          break;
+        case ')':
+          inParen--;
+          if (inParen == 0 && valuesOpen >= 0 && valuesClose < 0) {
+            valuesClose = sql.length();
+          }
+          break;
+        case ',':
+          if (inParen == 0 && valuesClose >= 0) {
+            // More than one row of values
+            return null;
+          }
+          break;
+        default:
+          if (!isIdentifierStartChar(c)) {
+            if (!Character.isWhitespace(c) && inParen == 0 && valuesPosition >= 0
+                && valuesOpen < 0) {
+              return null;
+            }
+            break;
+          }
+          while (i + 1 < end && isIdentifierContChar(query[i + 1])) {
+            i++;
+          }
+          String word = nativeSql.substring(start, i + 1).toLowerCase(Locale.ROOT);
+          if (type == null) {
+            if (word.equals("insert")) {
+              type = SqlCommandType.INSERT;
+            } else if (word.equals("delete")) {
+              type = SqlCommandType.DELETE;
+            } else {
+              return null;
+            }
+          } else if (word.equals("returning") || word.equals("default")) {
+            return null;
+          } else if (inParen == 0) {
+            if (valuesPosition >= 0 && valuesOpen < 0) {
+              return null;
+            }
+            if (type == SqlCommandType.INSERT) {
+              if (word.equals("values")) {
+                if (valuesPosition >= 0) {
+                  return null;
+                }
+                valuesPosition = sql.length();
+              } else if (word.equals("select")
+                  || (word.equals("update") && valuesClose >= 0)) {
+                // ON CONFLICT DO UPDATE fails when two rows of the batch conflict on the same
+                // row, which succeeds when the rows are inserted one at a time
+                return null;
+              }
+            } else if (word.equals("using") || word.equals("current")) {
+              return null;
+            } else if (word.equals("where") && wherePosition < 0) {
+              wherePosition = sql.length();
+            }
+          }
+          break;
+      }
+      sql.append(query, start, i + 1 - start);
+    }
+    for (boolean parameterSeen : seen) {
+      if (!parameterSeen) {
+        return null;
+      }
+    }
+
+    StringBuilder unnest = new StringBuilder(16 + 8 * parameterCount);
+    unnest.append("unnest(");
+    for (int i = 0; i < parameterCount; i++) {
+      unnest.append(i == 0 ? "?" : ", ?");
+    }
+    unnest.append(')');
+    if (type == SqlCommandType.DELETE) {
+      unnest.append(" WITH ORDINALITY");
+    }
+    unnest.append(" AS ").append(UNNEST_BATCH_ALIAS).append('(');
+    for (int i = 1; i <= parameterCount; i++) {
+      unnest.append(i == 1 ? "p" : ", p").append(i);
+    }
+
+    if (type == SqlCommandType.INSERT) {
+      if (valuesClose < 0) {
+        return null;
+      }
+      unnest.append(')');
+      return sql.substring(0, valuesPosition) + "SELECT "
+          + sql.substring(valuesOpen + 1, valuesClose) + " FROM " + unnest
+          + sql.substring(valuesClose + 1);
+    }
+    if (wherePosition < 0) {
+      return null;
+    }
+    unnest.append(", ord) ");
+    sql.insert(wherePosition, unnest).insert(wherePosition, "USING ");
+    return sql.append(" RETURNING ").append(UNNEST_BATCH_ALIAS).append(".ord").toString();
+  }
+
+  private static int skipWhitespace(char[] query, int offset) {
+    while (offset < query.length && Character.isWhitespace(query[offset])) {
+      offset++;
+    }
+    return offset;
+  }
+
+  /**
+   * Tests if the given lower case keyword is at the offset, followed by a character that cannot
+   * continue it.
+   */
+  private static boolean parseKeyword(char[] query, int offset, String keyword) {
+    int end = offset + keyword.length();
+    if (end > query.length || (end < query.length && isIdentifierContChar(query[end]))) {
+      return false;
+    }
+    for (int i = 0; i < keyword.length(); i++) {
+      if ((query[offset + i] | 32) != keyword.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Skips a plain or double quoted identifier.
+   *
+   * @return the offset after the identifier, or -1 if there is no identifier at the offset
+   */
+  private static int parseIdentifier(char[] query, int offset) {
+    if (offset >= query.length) {
+      return -1;
+    }
+    if (query[offset] == '"') {
+      // "" is an escaped quote inside the identifier
+      do {
+        offset = parseDoubleQuotes(query, offset);
+        if (offset >= query.length) {
+          return -1;
+        }
+        offset++;
+      } while (offset < query.length && query[offset] == '"');
+      return offset;
+    }
+    if (!isIdentifierStartChar(query[offset])) {
+      return -1;
+    }
+    do {
+      offset++;
+    } while (offset < query.length && isIdentifierContChar(query[offset]));
+    return offset;
+  }
+
   /**
    * Parse string to check presence of INSERT keyword regardless of case.
    *
@@ -129,6 +129,14 @@ public interface QueryExecutor extends TypeTransferModeRegistry {
    */
   int QUERY_READ_ONLY_HINT = 2048;
 
+  /**
+   * Flag for query execution outside of a transaction that indicates the rows should be read off
+   * the connection as the ResultSet advances instead of all at once. The connection stays busy until
+   * the result is read or its cursor is closed; any other use of the connection reads the rest of
+   * the result into memory first.
+   */
+  int QUERY_STREAM_RESULTS = 4096;
+
   /**
    * Execute a Query, passing results to a provided ResultHandler.
    *
@@ -209,6 +217,25 @@ public interface QueryExecutor extends TypeTransferModeRegistry {
       BatchResultHandler handler, int maxRows,
       int fetchSize, int flags, boolean adaptiveFetch) throws SQLException;
 
+  /**
+   * Execute several independent queries back-to-back using a single Sync, passing results to a
+   * provided ResultHandler in query order. Unlike batch execution, each query may return rows and
+   * carries its own row limit and flags.
+   *
+   * @param queries the queries to execute; each must be a query returned from calling
+   *        {@link #wrap(List)} on this QueryExecutor object and must not contain several
+   *        statements.
+   * @param parameterLists the parameter lists for the queries. The parameter lists correspond 1:1
+   *        to the queries passed in the <code>queries</code> array.
+   * @param maxRows the maximum number of rows to retrieve for each query
+   * @param flags a combination of QUERY_* flags for each query. Connection-level flags such as
+   *        QUERY_SUPPRESS_BEGIN are taken from the first query.
+   * @param handler a ResultHandler responsible for handling results generated by the queries
+   * @throws SQLException if query execution fails
+   */
+  void executePipeline(Query[] queries, @Nullable ParameterList[] parameterLists, int[] maxRows,
+      int[] flags, ResultHandler handler) throws SQLException;
+
   /**
    * Fetch additional rows from a cursor.
    *
@@ -529,6 +556,13 @@ public interface QueryExecutor extends TypeTransferModeRegistry {
    */
   int getAdaptiveFetchSize(boolean adaptiveFetch, ResultCursor cursor);
 
+  /**
+   * Get the maximum number of bytes a single result may occupy.
+   *
+   * @return the maxResultBuffer limit in bytes, -1 when there is no limit
+   */
+  long getMaxResultBuffer();
+
   /**
    * Get state of adaptive fetch inside QueryExecutor.
    *
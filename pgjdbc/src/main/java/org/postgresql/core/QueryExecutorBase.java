@@ -10,11 +10,17 @@ import org.postgresql.PGProperty;
 import org.postgresql.jdbc.AutoSave;
 import org.postgresql.jdbc.EscapeSyntaxCallMode;
 import org.postgresql.jdbc.PreferQueryMode;
+import org.postgresql.jdbc.ResourceLock;
+import org.postgresql.jfr.FlightRecorderEvents;
+import org.postgresql.plugin.MetricsListener;
+import org.postgresql.util.GT;
 import org.postgresql.util.HostSpec;
 import org.postgresql.util.LruCache;
+import org.postgresql.util.ObjectFactory;
 import org.postgresql.util.PSQLException;
 import org.postgresql.util.PSQLState;
 import org.postgresql.util.ServerErrorMessage;
+import org.postgresql.util.TinyLfuCache;
 
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -27,6 +33,7 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.Properties;
 import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,6 +41,9 @@ public abstract class QueryExecutorBase implements QueryExecutor {
 
   private static final Logger LOGGER = Logger.getLogger(QueryExecutorBase.class.getName());
   protected final PGStream pgStream;
+  // Guards the protocol state; a Lock rather than a monitor as it is held across blocking I/O
+  protected final ResourceLock lock = new ResourceLock();
+  protected final Condition lockCondition = lock.newCondition();
   private final String user;
   private final String database;
   private final int cancelSignalTimeout;
@@ -52,6 +62,8 @@ public abstract class QueryExecutorBase implements QueryExecutor {
   private AutoSave autoSave;
   private boolean flushCacheOnDeallocate = true;
   protected final boolean logServerErrorDetail;
+  // Receives the metrics of the connection, null unless metricsListenerClassName is set
+  protected final @Nullable MetricsListener metricsListener;
 
   // default value for server versions that don't report standard_conforming_strings
   private boolean standardConformingStrings = false;
@@ -59,7 +71,7 @@ public abstract class QueryExecutorBase implements QueryExecutor {
   private @Nullable SQLWarning warnings;
   private final ArrayList<PGNotification> notifications = new ArrayList<PGNotification>();
 
-  private final LruCache<Object, CachedQuery> statementCache;
+  private final TinyLfuCache<Object, CachedQuery> statementCache;
   private final CachedQueryCreateAction cachedQueryCreateAction;
 
   // For getParameterStatuses(), GUC_REPORT tracking
@@ -82,8 +94,11 @@ public abstract class QueryExecutorBase implements QueryExecutor {
     this.autoSave = AutoSave.of(PGProperty.AUTOSAVE.get(info));
     this.logServerErrorDetail = PGProperty.LOG_SERVER_ERROR_DETAIL.getBoolean(info);
     // assignment.type.incompatible, argument.type.incompatible
-    this.cachedQueryCreateAction = new CachedQueryCreateAction(this);
-    statementCache = new LruCache<Object, CachedQuery>(
+    this.cachedQueryCreateAction = new CachedQueryCreateAction(this,
+        PGProperty.SHARED_QUERY_CACHE.getBoolean(info));
+    final MetricsListener metricsListener = createMetricsListener(info);
+    this.metricsListener = metricsListener;
+    statementCache = new TinyLfuCache<Object, CachedQuery>(
         Math.max(0, PGProperty.PREPARED_STATEMENT_CACHE_QUERIES.getInt(info)),
         Math.max(0, PGProperty.PREPARED_STATEMENT_CACHE_SIZE_MIB.getInt(info) * 1024L * 1024L),
         false,
@@ -91,11 +106,46 @@ public abstract class QueryExecutorBase implements QueryExecutor {
         new LruCache.EvictAction<CachedQuery>() {
           @Override
           public void evict(CachedQuery cachedQuery) throws SQLException {
+            if (metricsListener != null) {
+              metricsListener.statementCacheEviction();
+            }
+            FlightRecorderEvents.statementCacheEviction(cachedQuery.query.getNativeSql());
             cachedQuery.query.close();
           }
         });
   }
 
+  private static @Nullable MetricsListener createMetricsListener(Properties info)
+      throws PSQLException {
+    String className = PGProperty.METRICS_LISTENER_CLASS_NAME.get(info);
+    if (className == null || className.isEmpty()) {
+      return null;
+    }
+    try {
+      return ObjectFactory.instantiate(MetricsListener.class, className, info, false, null);
+    } catch (Exception ex) {
+      throw new PSQLException(GT.tr("Unable to load Metrics Listener {0}", className),
+          PSQLState.INVALID_PARAMETER_VALUE, ex);
+    }
+  }
+
+  /**
+   * Borrows a query from the statement cache, telling the metrics listener whether it was found.
+   */
+  private CachedQuery borrow(Object key) throws SQLException {
+    MetricsListener metricsListener = this.metricsListener;
+    if (metricsListener == null) {
+      return statementCache.borrow(key);
+    }
+    CachedQuery cachedQuery = statementCache.borrowIfPresent(key);
+    if (cachedQuery != null) {
+      metricsListener.statementCacheHit();
+      return cachedQuery;
+    }
+    metricsListener.statementCacheMiss();
+    return cachedQueryCreateAction.create(key);
+  }
+
   protected abstract void sendCloseMessage() throws IOException;
 
   @Override
@@ -108,6 +158,11 @@ public abstract class QueryExecutorBase implements QueryExecutor {
     return pgStream.getNetworkTimeout();
   }
 
+  @Override
+  public long getMaxResultBuffer() {
+    return pgStream.getMaxResultBuffer();
+  }
+
   @Override
   public HostSpec getHostSpec() {
     return pgStream.getHostSpec();
@@ -170,6 +225,8 @@ public abstract class QueryExecutorBase implements QueryExecutor {
   public void sendQueryCancel() throws SQLException {
 
     PGStream cancelStream = null;
+    HostSpec hostSpec = pgStream.getHostSpec();
+    @Nullable Object event = FlightRecorderEvents.beginCancel(hostSpec.getHost(), hostSpec.getPort());
 
     // Now we need to construct and send a cancel packet
     try {
@@ -178,7 +235,7 @@ public abstract class QueryExecutorBase implements QueryExecutor {
       }
 
       cancelStream =
-          new PGStream(pgStream.getSocketFactory(), pgStream.getHostSpec(), cancelSignalTimeout);
+          new PGStream(pgStream.getSocketFactory(), hostSpec, cancelSignalTimeout);
       if (cancelSignalTimeout > 0) {
         cancelStream.setNetworkTimeout(cancelSignalTimeout);
       }
@@ -200,33 +257,42 @@ public abstract class QueryExecutorBase implements QueryExecutor {
           // Ignored.
         }
       }
+      FlightRecorderEvents.commitCancel(event);
     }
   }
 
-  public synchronized void addWarning(SQLWarning newWarning) {
-    if (warnings == null) {
-      warnings = newWarning;
-    } else {
-      warnings.setNextWarning(newWarning);
+  public void addWarning(SQLWarning newWarning) {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (warnings == null) {
+        warnings = newWarning;
+      } else {
+        warnings.setNextWarning(newWarning);
+      }
     }
   }
 
-  public synchronized void addNotification(PGNotification notification) {
-    notifications.add(notification);
+  public void addNotification(PGNotification notification) {
+    try (ResourceLock ignore = lock.obtain()) {
+      notifications.add(notification);
+    }
   }
 
   @Override
-  public synchronized PGNotification[] getNotifications() throws SQLException {
-    PGNotification[] array = notifications.toArray(new PGNotification[0]);
-    notifications.clear();
-    return array;
+  public PGNotification[] getNotifications() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      PGNotification[] array = notifications.toArray(new PGNotification[0]);
+      notifications.clear();
+      return array;
+    }
   }
 
   @Override
-  public synchronized @Nullable SQLWarning getWarnings() {
-    SQLWarning chain = warnings;
-    warnings = null;
-    return chain;
+  public @Nullable SQLWarning getWarnings() {
+    try (ResourceLock ignore = lock.obtain()) {
+      SQLWarning chain = warnings;
+      warnings = null;
+      return chain;
+    }
   }
 
   @Override
@@ -254,17 +320,23 @@ public abstract class QueryExecutorBase implements QueryExecutor {
     this.serverVersionNum = serverVersionNum;
   }
 
-  public synchronized void setTransactionState(TransactionState state) {
-    transactionState = state;
+  public void setTransactionState(TransactionState state) {
+    try (ResourceLock ignore = lock.obtain()) {
+      transactionState = state;
+    }
   }
 
-  public synchronized void setStandardConformingStrings(boolean value) {
-    standardConformingStrings = value;
+  public void setStandardConformingStrings(boolean value) {
+    try (ResourceLock ignore = lock.obtain()) {
+      standardConformingStrings = value;
+    }
   }
 
   @Override
-  public synchronized boolean getStandardConformingStrings() {
-    return standardConformingStrings;
+  public boolean getStandardConformingStrings() {
+    try (ResourceLock ignore = lock.obtain()) {
+      return standardConformingStrings;
+    }
   }
 
   @Override
@@ -273,8 +345,10 @@ public abstract class QueryExecutorBase implements QueryExecutor {
   }
 
   @Override
-  public synchronized TransactionState getTransactionState() {
-    return transactionState;
+  public TransactionState getTransactionState() {
+    try (ResourceLock ignore = lock.obtain()) {
+      return transactionState;
+    }
   }
 
   public void setEncoding(Encoding encoding) throws IOException {
@@ -293,25 +367,25 @@ public abstract class QueryExecutorBase implements QueryExecutor {
 
   @Override
   public final CachedQuery borrowQuery(String sql) throws SQLException {
-    return statementCache.borrow(sql);
+    return borrow(sql);
   }
 
   @Override
   public final CachedQuery borrowCallableQuery(String sql) throws SQLException {
-    return statementCache.borrow(new CallableQueryKey(sql));
+    return borrow(new CallableQueryKey(sql));
   }
 
   @Override
   public final CachedQuery borrowReturningQuery(String sql, String @Nullable [] columnNames)
       throws SQLException {
-    return statementCache.borrow(new QueryWithReturningColumnsKey(sql, true, true,
+    return borrow(new QueryWithReturningColumnsKey(sql, true, true,
         columnNames
     ));
   }
 
   @Override
   public CachedQuery borrowQueryByKey(Object key) throws SQLException {
-    return statementCache.borrow(key);
+    return borrow(key);
   }
 
   @Override
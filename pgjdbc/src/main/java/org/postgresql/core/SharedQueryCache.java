@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.core;
+
+import org.postgresql.jdbc.EscapeSyntaxCallMode;
+import org.postgresql.jdbc.ResourceLock;
+import org.postgresql.util.CanEstimateSize;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Results of parsing SQL text, shared by all the connections of the JVM that enable
+ * {@link org.postgresql.PGProperty#SHARED_QUERY_CACHE}. Parsing depends on nothing but the SQL text
+ * and the few connection settings that are part of the {@link Key}, so the connections of a pool
+ * can share the {@link NativeQuery} instances instead of parsing the same text again for each
+ * connection.</p>
+ *
+ * <p>The cache is split in segments, each with its own lock and least-recently-used order, so
+ * concurrent lookups from many connections rarely wait for each other.</p>
+ */
+final class SharedQueryCache {
+  private static final int SEGMENTS = 16;
+  private static final int MAX_ENTRIES = 4096;
+  private static final long MAX_BYTES = 16L * 1024 * 1024;
+
+  static final SharedQueryCache INSTANCE = new SharedQueryCache(MAX_ENTRIES, MAX_BYTES);
+
+  private final Segment[] segments = new Segment[SEGMENTS];
+
+  SharedQueryCache(int maxEntries, long maxBytes) {
+    for (int i = 0; i < SEGMENTS; i++) {
+      segments[i] = new Segment(Math.max(1, maxEntries / SEGMENTS), maxBytes / SEGMENTS);
+    }
+  }
+
+  private Segment segmentFor(Key key) {
+    int h = key.hashCode();
+    h ^= h >>> 16;
+    return segments[h & (SEGMENTS - 1)];
+  }
+
+  /**
+   * Returns the parse result of the given key.
+   *
+   * @param key cache key
+   * @return the parse result or null if the cache does not contain the key
+   */
+  @Nullable ParsedQuery get(Key key) {
+    return segmentFor(key).get(key);
+  }
+
+  /**
+   * Adds a parse result to the cache, evicting the least recently used entries if the cache is
+   * full.
+   *
+   * @param key cache key
+   * @param value parse result
+   */
+  void put(Key key, ParsedQuery value) {
+    segmentFor(key).put(key, value);
+  }
+
+  /**
+   * The result of parsing a query: it does not refer to any connection, so it can be used to create
+   * the {@link Query} of any connection with matching settings.
+   */
+  static final class ParsedQuery {
+    final List<NativeQuery> queries;
+    final boolean isFunction;
+    final long size;
+
+    ParsedQuery(List<NativeQuery> queries, boolean isFunction) {
+      this.queries = Collections.unmodifiableList(queries);
+      this.isFunction = isFunction;
+      long size = 16;
+      for (NativeQuery query : queries) {
+        size += 32 + query.nativeSql.length() * 2L + query.bindPositions.length * 4L;
+      }
+      this.size = size;
+    }
+  }
+
+  /**
+   * Cache key: the per-connection query key and the connection settings parsing depends on.
+   */
+  static final class Key {
+    private final Object queryKey;
+    private final boolean standardConformingStrings;
+    private final boolean splitStatements;
+    private final boolean reWriteBatchedInserts;
+    private final boolean quoteReturningIdentifiers;
+    // Only used to parse callable statements, null and 0 otherwise
+    private final @Nullable EscapeSyntaxCallMode escapeSyntaxCallMode;
+    private final int serverVersionNum;
+
+    Key(Object queryKey, boolean standardConformingStrings, boolean splitStatements,
+        boolean reWriteBatchedInserts, boolean quoteReturningIdentifiers,
+        @Nullable EscapeSyntaxCallMode escapeSyntaxCallMode, int serverVersionNum) {
+      this.queryKey = queryKey;
+      this.standardConformingStrings = standardConformingStrings;
+      this.splitStatements = splitStatements;
+      this.reWriteBatchedInserts = reWriteBatchedInserts;
+      this.quoteReturningIdentifiers = quoteReturningIdentifiers;
+      this.escapeSyntaxCallMode = escapeSyntaxCallMode;
+      this.serverVersionNum = serverVersionNum;
+    }
+
+    long getSize() {
+      if (queryKey instanceof String) {
+        return 48 + ((String) queryKey).length() * 2L;
+      }
+      return 32 + ((CanEstimateSize) queryKey).getSize();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key that = (Key) o;
+      return standardConformingStrings == that.standardConformingStrings
+          && splitStatements == that.splitStatements
+          && reWriteBatchedInserts == that.reWriteBatchedInserts
+          && quoteReturningIdentifiers == that.quoteReturningIdentifiers
+          && escapeSyntaxCallMode == that.escapeSyntaxCallMode
+          && serverVersionNum == that.serverVersionNum
+          && queryKey.equals(that.queryKey);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = queryKey.hashCode();
+      result = 31 * result + (standardConformingStrings ? 1 : 0);
+      result = 31 * result + (splitStatements ? 1 : 0);
+      result = 31 * result + (reWriteBatchedInserts ? 1 : 0);
+      result = 31 * result + (quoteReturningIdentifiers ? 1 : 0);
+      result = 31 * result + (escapeSyntaxCallMode != null ? escapeSyntaxCallMode.hashCode() : 0);
+      result = 31 * result + serverVersionNum;
+      return result;
+    }
+  }
+
+  private static final class Segment {
+    private final int maxEntries;
+    private final long maxBytes;
+    private final ResourceLock lock = new ResourceLock();
+    private final LinkedHashMap<Key, ParsedQuery> map =
+        new LinkedHashMap<Key, ParsedQuery>(16, 0.75f, true);
+    private long currentSize;
+
+    Segment(int maxEntries, long maxBytes) {
+      this.maxEntries = maxEntries;
+      this.maxBytes = maxBytes;
+    }
+
+    @Nullable ParsedQuery get(Key key) {
+      try (ResourceLock ignore = lock.obtain()) {
+        return map.get(key);
+      }
+    }
+
+    void put(Key key, ParsedQuery value) {
+      long size = key.getSize() + value.size;
+      if (size * 2 > maxBytes) {
+        // Entry would consume more than a half of the segment
+        return;
+      }
+      try (ResourceLock ignore = lock.obtain()) {
+        ParsedQuery prev = map.put(key, value);
+        currentSize += size;
+        if (prev != null) {
+          currentSize -= key.getSize() + prev.size;
+        }
+        Iterator<Map.Entry<Key, ParsedQuery>> it = map.entrySet().iterator();
+        while ((map.size() > maxEntries || currentSize > maxBytes) && it.hasNext()) {
+          Map.Entry<Key, ParsedQuery> eldest = it.next();
+          currentSize -= eldest.getKey().getSize() + eldest.getValue().size;
+          it.remove();
+        }
+      }
+    }
+  }
+}
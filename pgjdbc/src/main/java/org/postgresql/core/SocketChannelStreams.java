@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Streams on top of a blocking {@link SocketChannel}. The output uses pooled direct buffers
+ * (see {@link DirectBufferPool}) instead of the per-thread temporary buffers of the socket
+ * streams.</p>
+ *
+ * <p>Output is accumulated in a chain of direct buffers and written with a single gathering write
+ * on {@link OutputStream#flush()}, so a Parse/Bind/Execute/Sync sequence larger than one buffer
+ * still costs one system call. The input is the stream of the channel's socket, which reads
+ * straight into the array of the caller, that is the buffer of the
+ * {@link VisibleBufferedInputStream} the messages are parsed from, and honours the
+ * {@link Socket#getSoTimeout() SO_TIMEOUT}, so {@link PGStream#setNetworkTimeout(int)} keeps
+ * working.</p>
+ *
+ * <p>Like {@link PGStream}, instances are not thread-safe.</p>
+ */
+final class SocketChannelStreams {
+  /**
+   * Once that many output buffers are filled, they are written out even without a flush.
+   */
+  private static final int MAX_OUTPUT_BUFFERS = 8;
+
+  private final SocketChannel channel;
+  private final Socket socket;
+  private final ChannelOutputStream output = new ChannelOutputStream();
+
+  /**
+   * Creates streams for a connected channel in blocking mode.
+   *
+   * @param channel connected channel
+   */
+  SocketChannelStreams(SocketChannel channel) {
+    this.channel = channel;
+    this.socket = channel.socket();
+  }
+
+  Socket getSocket() {
+    return socket;
+  }
+
+  InputStream getInputStream() throws IOException {
+    return socket.getInputStream();
+  }
+
+  OutputStream getOutputStream() {
+    return output;
+  }
+
+  /**
+   * Writes the pending output and releases the buffers, so the socket can be used by a layered
+   * socket (e.g. SSL) through its regular streams.
+   *
+   * @throws IOException if the output cannot be written
+   */
+  void detach() throws IOException {
+    output.release();
+  }
+
+  /**
+   * Writes the pending output, then releases the buffers. The channel itself is closed with its
+   * socket.
+   *
+   * @throws IOException if the output cannot be written
+   */
+  void close() throws IOException {
+    output.release();
+  }
+
+  /**
+   * Writes the buffered output, then bytes of a file with {@link FileChannel#transferTo}, which
+   * lets the operating system send them without copying them through the JVM.
+   *
+   * @param file file to send bytes of
+   * @param position position of the first byte in the file
+   * @param length number of bytes to send
+   * @return number of bytes sent, less than length only if the file ends before
+   * @throws IOException if the bytes cannot be read or sent
+   */
+  long transferFrom(FileChannel file, long position, long length) throws IOException {
+    output.flush();
+    long sent = 0;
+    while (sent < length) {
+      long count = file.transferTo(position + sent, length - sent, channel);
+      if (count == 0 && position + sent >= file.size()) {
+        break;
+      }
+      sent += count;
+    }
+    return sent;
+  }
+
+  private final class ChannelOutputStream extends OutputStream {
+    /**
+     * Buffers in "write" mode; the last one is the one being filled.
+     */
+    private final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+    private ByteBuffer[] gather = new ByteBuffer[0];
+
+    private ByteBuffer current() throws IOException {
+      int size = buffers.size();
+      if (size != 0) {
+        ByteBuffer last = buffers.get(size - 1);
+        if (last.hasRemaining()) {
+          return last;
+        }
+        if (size == MAX_OUTPUT_BUFFERS) {
+          flush();
+          return buffers.get(0);
+        }
+      }
+      ByteBuffer buffer = DirectBufferPool.acquire();
+      buffers.add(buffer);
+      return buffer;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      current().put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        ByteBuffer buffer = current();
+        int count = Math.min(len, buffer.remaining());
+        buffer.put(b, off, count);
+        off += count;
+        len -= count;
+      }
+    }
+
+    /**
+     * Writes all buffered bytes with gathering writes, then keeps only the first buffer, so it is
+     * both the first and the last one of the chain.
+     */
+    @Override
+    public void flush() throws IOException {
+      int count = buffers.size();
+      if (count == 0) {
+        return;
+      }
+      if (gather.length != count) {
+        gather = new ByteBuffer[count];
+      }
+      long remaining = 0;
+      for (int i = 0; i < count; i++) {
+        ByteBuffer buffer = buffers.get(i);
+        buffer.flip();
+        remaining += buffer.remaining();
+        gather[i] = buffer;
+      }
+      try {
+        while (remaining > 0) {
+          // a blocking write, like the writes of socket streams it is not subject to SO_TIMEOUT
+          remaining -= channel.write(gather, 0, count);
+        }
+      } finally {
+        for (int i = 0; i < count; i++) {
+          gather[i] = null;
+          buffers.get(i).clear();
+        }
+        // keep one buffer for the next message, return the rest to the pool
+        for (int i = count - 1; i > 0; i--) {
+          DirectBufferPool.release(buffers.remove(i));
+        }
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+
+    /**
+     * Writes the pending output and returns the buffers to the pool, even if the write fails.
+     */
+    void release() throws IOException {
+      try {
+        flush();
+      } finally {
+        for (ByteBuffer buffer : buffers) {
+          DirectBufferPool.release(buffer);
+        }
+        buffers.clear();
+      }
+    }
+  }
+}
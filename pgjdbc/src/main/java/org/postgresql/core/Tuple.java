@@ -5,16 +5,41 @@
 
 package org.postgresql.core;
 
+import static org.postgresql.util.internal.Nullness.castNonNull;
+
+import org.postgresql.util.ByteConverter;
+
 import org.checkerframework.checker.index.qual.NonNegative;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.dataflow.qual.Pure;
 
+import java.util.Arrays;
+
 /**
- * Class representing a row in a {@link java.sql.ResultSet}.
+ * <p>Class representing a row in a {@link java.sql.ResultSet}.</p>
+ *
+ * <p>A tuple either holds one {@code byte[]} per field, or (when created with
+ * {@link #Tuple(byte[], int[])}) a single slab holding the whole DataRow body, in which case the
+ * fields are exposed as slices via {@link #getBuffer(int)}, {@link #getOffset(int)} and
+ * {@link #getLength(int)}. {@link #get(int)} works for both layouts; for slab tuples it copies the
+ * slice on first access.</p>
  */
 public class Tuple {
   private final boolean forUpdate;
-  final byte[] @Nullable [] data;
+  /**
+   * Field values. For slab tuples, the fields copied out by {@link #get(int)}, allocated on the
+   * first such copy.
+   */
+  private byte @Nullable [] @Nullable [] data;
+
+  /**
+   * DataRow body for slab tuples: the 4-byte length of each field followed by its bytes.
+   */
+  private final byte @Nullable [] slab;
+  /**
+   * Start of each field in {@link #slab}, or {@code -1} for SQL NULL.
+   */
+  private final int @Nullable [] offsets;
 
   /**
    * Construct an empty tuple. Used in updatable result sets.
@@ -32,9 +57,24 @@ public class Tuple {
     this(data, false);
   }
 
+  /**
+   * Construct a read-only tuple backed by a single buffer. Used when returning results.
+   *
+   * @param slab the DataRow body after the field count: for every field its 4-byte length
+   *        followed by the field bytes
+   * @param offsets start of each field's bytes in {@code slab}, or {@code -1} for SQL NULL
+   */
+  public Tuple(byte[] slab, int[] offsets) {
+    this.slab = slab;
+    this.offsets = offsets;
+    this.forUpdate = false;
+  }
+
   private Tuple(byte[] @Nullable [] data, boolean forUpdate) {
     this.data = data;
     this.forUpdate = forUpdate;
+    this.slab = null;
+    this.offsets = null;
   }
 
   /**
@@ -42,7 +82,10 @@ public class Tuple {
    * @return number of fields
    */
   public @NonNegative int fieldCount() {
-    return data.length;
+    if (offsets != null) {
+      return offsets.length;
+    }
+    return castNonNull(data).length;
   }
 
   /**
@@ -51,7 +94,13 @@ public class Tuple {
    */
   public @NonNegative int length() {
     int length = 0;
-    for (byte[] field : data) {
+    if (offsets != null) {
+      for (int i = 0; i < offsets.length; i++) {
+        length += getLength(i);
+      }
+      return length;
+    }
+    for (byte[] field : castNonNull(data)) {
       if (field != null) {
         length += field.length;
       }
@@ -60,13 +109,88 @@ public class Tuple {
   }
 
   /**
-   * Get the data for the given field
+   * Get the data for the given field. For slab tuples, the field is copied out of the slab on
+   * the first call.
    * @param index 0-based field position in the tuple
    * @return byte array of the data
    */
-  @Pure
   public byte @Nullable [] get(@NonNegative int index) {
-    return data[index];
+    byte[] slab = this.slab;
+    if (slab == null) {
+      return castNonNull(data)[index];
+    }
+    int offset = castNonNull(offsets)[index];
+    if (offset == -1) {
+      return null;
+    }
+    byte[] @Nullable [] data = this.data;
+    if (data == null) {
+      data = new byte[offsets.length][];
+      this.data = data;
+    }
+    byte[] field = data[index];
+    if (field == null) {
+      field = Arrays.copyOfRange(slab, offset, offset + ByteConverter.int4(slab, offset - 4));
+      data[index] = field;
+    }
+    return field;
+  }
+
+  /**
+   * Tells if the given field is SQL NULL without materializing its value.
+   * @param index 0-based field position in the tuple
+   * @return true if the field is SQL NULL
+   */
+  @Pure
+  public boolean isNull(@NonNegative int index) {
+    if (offsets != null) {
+      return offsets[index] == -1;
+    }
+    return castNonNull(data)[index] == null;
+  }
+
+  /**
+   * Returns the array that holds the bytes of the given field. The field occupies
+   * {@link #getLength(int)} bytes starting at {@link #getOffset(int)}. The returned array must not
+   * be modified.
+   *
+   * @param index 0-based field position in the tuple
+   * @return the backing array, or null if the field is SQL NULL
+   */
+  @Pure
+  public byte @Nullable [] getBuffer(@NonNegative int index) {
+    if (slab != null) {
+      return offsets[index] == -1 ? null : slab;
+    }
+    return castNonNull(data)[index];
+  }
+
+  /**
+   * Returns the position of the given field in {@link #getBuffer(int)}.
+   * @param index 0-based field position in the tuple
+   * @return offset of the first byte of the field
+   */
+  @Pure
+  public @NonNegative int getOffset(@NonNegative int index) {
+    if (offsets != null) {
+      return offsets[index];
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the number of bytes of the given field.
+   * @param index 0-based field position in the tuple
+   * @return length of the field in bytes, or 0 if the field is SQL NULL
+   */
+  @Pure
+  public @NonNegative int getLength(@NonNegative int index) {
+    if (slab != null) {
+      int offset = offsets[index];
+      return offset == -1 ? 0 : ByteConverter.int4(slab, offset - 4);
+    }
+    byte[] field = castNonNull(data)[index];
+    return field == null ? 0 : field.length;
   }
 
   /**
@@ -86,8 +210,18 @@ public class Tuple {
   }
 
   private Tuple copy(boolean forUpdate) {
-    byte[][] dataCopy = new byte[data.length][];
-    System.arraycopy(data, 0, dataCopy, 0, data.length);
+    if (slab != null && !forUpdate) {
+      // slab tuples are immutable, so the buffer can be shared
+      return new Tuple(slab, offsets);
+    }
+    byte[][] dataCopy = new byte[fieldCount()][];
+    if (slab != null) {
+      for (int i = 0; i < dataCopy.length; i++) {
+        dataCopy[i] = get(i);
+      }
+    } else {
+      System.arraycopy(castNonNull(data), 0, dataCopy, 0, dataCopy.length);
+    }
     return new Tuple(dataCopy, forUpdate);
   }
 
@@ -100,6 +234,6 @@ public class Tuple {
     if (!forUpdate) {
       throw new IllegalArgumentException("Attempted to write to readonly tuple");
     }
-    data[index] = fieldData;
+    castNonNull(data)[index] = fieldData;
   }
 }
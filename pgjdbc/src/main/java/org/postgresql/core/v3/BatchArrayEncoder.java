@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.core.v3;
+
+import static org.postgresql.util.internal.Nullness.castNonNull;
+
+import org.postgresql.core.Oid;
+import org.postgresql.core.ParameterList;
+import org.postgresql.jdbc.PgArray;
+import org.postgresql.util.ByteConverter;
+import org.postgresql.util.StreamWrapper;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.sql.SQLException;
+
+/**
+ * Binds the values of a parameter in every row of a batch as a single array, which is how
+ * {@link org.postgresql.PGProperty#UNNEST_BATCHES} executes batches. A column of binary values is
+ * sent as a binary array of their encodings, and a column of text values as an array literal.
+ */
+public final class BatchArrayEncoder {
+  private BatchArrayEncoder() {
+  }
+
+  /**
+   * Binds the values of a parameter of a batch as an array.
+   *
+   * @param target parameters to bind the array to
+   * @param batch parameters of the rows of the batch
+   * @param index index of the parameter in the rows, and of the array in the target
+   * @param elementOid type of the parameter
+   * @param arrayOid array type of the parameter
+   * @param delimiter delimiter of the array type
+   * @return false if the values cannot be sent as an array: streamed values, binary values of
+   *     another type than the parameter type, or a mix of binary and text values
+   * @throws SQLException if the array cannot be bound
+   */
+  public static boolean setArrayParameter(ParameterList target, @Nullable ParameterList[] batch,
+      int index, int elementOid, int arrayOid, char delimiter) throws SQLException {
+    boolean text = false;
+    boolean binary = false;
+    boolean hasNull = false;
+    long binaryLength = 20;
+    for (ParameterList parameters : batch) {
+      if (!(parameters instanceof SimpleParameterList)) {
+        return false;
+      }
+      SimpleParameterList list = (SimpleParameterList) parameters;
+      Object value = list.getValues()[index - 1];
+      if (value == null) {
+        // Not set, the regular execution reports it
+        return false;
+      }
+      binaryLength += 4;
+      if (list.isNull(index)) {
+        hasNull = true;
+      } else if (value instanceof String) {
+        text = true;
+      } else if (value instanceof byte[] && list.getTypeOID(index) == elementOid) {
+        binary = true;
+        binaryLength += ((byte[]) value).length;
+      } else if (value instanceof StreamWrapper && elementOid == Oid.BYTEA
+          && ((StreamWrapper) value).getBytes() != null) {
+        binary = true;
+        binaryLength += ((StreamWrapper) value).getLength();
+      } else {
+        return false;
+      }
+    }
+    if (text && binary) {
+      return false;
+    }
+
+    if (!text) {
+      if (binaryLength > Integer.MAX_VALUE) {
+        return false;
+      }
+      byte[] array = new byte[(int) binaryLength];
+      ByteConverter.int4(array, 0, 1);
+      ByteConverter.int4(array, 4, hasNull ? 1 : 0);
+      ByteConverter.int4(array, 8, elementOid);
+      ByteConverter.int4(array, 12, batch.length);
+      ByteConverter.int4(array, 16, 1);
+      int pos = 20;
+      for (ParameterList parameters : batch) {
+        SimpleParameterList list = (SimpleParameterList) castNonNull(parameters);
+        Object value = list.getValues()[index - 1];
+        if (list.isNull(index)) {
+          ByteConverter.int4(array, pos, -1);
+          pos += 4;
+          continue;
+        }
+        byte[] bytes;
+        int offset = 0;
+        int length;
+        if (value instanceof StreamWrapper) {
+          StreamWrapper wrapper = (StreamWrapper) value;
+          bytes = castNonNull(wrapper.getBytes());
+          offset = wrapper.getOffset();
+          length = wrapper.getLength();
+        } else {
+          bytes = (byte[]) castNonNull(value);
+          length = bytes.length;
+        }
+        ByteConverter.int4(array, pos, length);
+        System.arraycopy(bytes, offset, array, pos + 4, length);
+        pos += 4 + length;
+      }
+      target.setBinaryParameter(index, array, arrayOid);
+      return true;
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append('{');
+    for (int i = 0; i < batch.length; i++) {
+      if (i > 0) {
+        sb.append(delimiter);
+      }
+      SimpleParameterList list = (SimpleParameterList) castNonNull(batch[i]);
+      if (list.isNull(index)) {
+        sb.append("NULL");
+      } else {
+        PgArray.escapeArrayElement(sb, (String) castNonNull(list.getValues()[index - 1]));
+      }
+    }
+    sb.append('}');
+    target.setStringParameter(index, sb.toString(), arrayOid);
+    return true;
+  }
+}
@@ -26,6 +26,7 @@ import org.postgresql.hostchooser.HostRequirement;
 import org.postgresql.hostchooser.HostStatus;
 import org.postgresql.jdbc.GSSEncMode;
 import org.postgresql.jdbc.SslMode;
+import org.postgresql.jfr.FlightRecorderEvents;
 import org.postgresql.plugin.AuthenticationRequestType;
 import org.postgresql.sspi.ISSPIClient;
 import org.postgresql.util.GT;
@@ -94,7 +95,7 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
   }
 
   private PGStream tryConnect(Properties info, SocketFactory socketFactory, HostSpec hostSpec,
-      SslMode sslMode, GSSEncMode gssEncMode)
+      SslMode sslMode, GSSEncMode gssEncMode, @Nullable Object event)
       throws SQLException, IOException {
     int connectTimeout = PGProperty.CONNECT_TIMEOUT.getInt(info) * 1000;
     String user = PGProperty.USER.get(info);
@@ -106,8 +107,11 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
       throw new PSQLException(GT.tr("Database cannot be null"), PSQLState.INVALID_NAME);
     }
 
-    PGStream newStream = new PGStream(socketFactory, hostSpec, connectTimeout);
+    PGStream newStream = new PGStream(socketFactory, hostSpec, connectTimeout,
+        useSocketChannel(info));
     try {
+      newStream.setCountBytes(countBytes(info));
+
       // Set the socket timeout if the "socketTimeout" property has been set.
       int socketTimeout = PGProperty.SOCKET_TIMEOUT.getInt(info);
       if (socketTimeout > 0) {
@@ -159,6 +163,8 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
             newStream.getSocket().getSendBufferSize());
       }
 
+      FlightRecorderEvents.connectPhase(event, FlightRecorderEvents.TCP_CONNECT);
+
       newStream = enableGSSEncrypted(newStream, gssEncMode, hostSpec.getHost(), info, connectTimeout);
 
       // if we have a security context then gss negotiation succeeded. Do not attempt SSL
@@ -167,17 +173,21 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
         // Construct and send an ssl startup packet if requested.
         newStream = enableSSL(newStream, sslMode, info, connectTimeout);
       }
+      FlightRecorderEvents.connectPhase(event, FlightRecorderEvents.ENCRYPTION);
 
       // Make sure to set network timeout again, in case the stream changed due to GSS or SSL
       if (socketTimeout > 0) {
         newStream.setNetworkTimeout(socketTimeout * 1000);
       }
 
+      newStream.setSlabRowStorage(PGProperty.SLAB_ROW_STORAGE.getBoolean(info));
+
       List<String[]> paramList = getParametersForStartup(user, database, info);
       sendStartupPacket(newStream, paramList);
 
       // Do authentication (until AuthenticationOk).
       doAuthentication(newStream, hostSpec.getHost(), user, info);
+      FlightRecorderEvents.connectPhase(event, FlightRecorderEvents.AUTHENTICATION);
 
       return newStream;
     } catch (Exception e) {
@@ -186,6 +196,31 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
     }
   }
 
+  /**
+   * Channel based I/O bypasses the socket factory, so it is only used when no custom socket
+   * factory is configured.
+   */
+  /**
+   * Tells if the connection counts the bytes it sends and receives, which is only needed when
+   * something reports them.
+   */
+  private static boolean countBytes(Properties info) {
+    String metricsListener = PGProperty.METRICS_LISTENER_CLASS_NAME.get(info);
+    return metricsListener != null && !metricsListener.isEmpty()
+        || FlightRecorderEvents.isByteCountEnabled();
+  }
+
+  private static boolean useSocketChannel(Properties info) {
+    if (!PGProperty.SOCKET_CHANNEL.getBoolean(info)) {
+      return false;
+    }
+    if (PGProperty.SOCKET_FACTORY.get(info) != null) {
+      LOGGER.log(Level.WARNING, "Ignoring socketChannel=true since socketFactory is set");
+      return false;
+    }
+    return true;
+  }
+
   @Override
   public QueryExecutor openConnectionImpl(HostSpec[] hostSpecs, Properties info) throws SQLException {
     SslMode sslMode = SslMode.of(info);
@@ -230,9 +265,12 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
       //
 
       PGStream newStream = null;
+      @Nullable Object event = FlightRecorderEvents.beginConnect(hostSpec.getHost(),
+          hostSpec.getPort(), PGProperty.PG_DBNAME.get(info), PGProperty.USER.get(info));
+      boolean connected = false;
       try {
         try {
-          newStream = tryConnect(info, socketFactory, hostSpec, sslMode, gssEncMode);
+          newStream = tryConnect(info, socketFactory, hostSpec, sslMode, gssEncMode, event);
         } catch (SQLException e) {
           if (sslMode == SslMode.PREFER
               && PSQLState.INVALID_AUTHORIZATION_SPECIFICATION.getState().equals(e.getSQLState())) {
@@ -241,7 +279,7 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
             Throwable ex = null;
             try {
               newStream =
-                  tryConnect(info, socketFactory, hostSpec, SslMode.DISABLE,gssEncMode);
+                  tryConnect(info, socketFactory, hostSpec, SslMode.DISABLE, gssEncMode, event);
               LOGGER.log(Level.FINE, "Downgraded to non-encrypted connection for host {0}",
                   hostSpec);
             } catch (SQLException | IOException ee) {
@@ -261,7 +299,7 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
             Throwable ex = null;
             try {
               newStream =
-                  tryConnect(info, socketFactory, hostSpec, SslMode.REQUIRE, gssEncMode);
+                  tryConnect(info, socketFactory, hostSpec, SslMode.REQUIRE, gssEncMode, event);
               LOGGER.log(Level.FINE, "Upgraded to encrypted connection for host {0}",
                   hostSpec);
             } catch (SQLException ee) {
@@ -288,11 +326,13 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
         castNonNull(newStream);
         // Do final startup.
         QueryExecutor queryExecutor = new QueryExecutorImpl(newStream, cancelSignalTimeout, info);
+        FlightRecorderEvents.connectPhase(event, FlightRecorderEvents.STARTUP);
 
         // Check Primary or Secondary
         HostStatus hostStatus = HostStatus.ConnectOK;
         if (candidateHost.targetServerType != HostRequirement.any) {
           hostStatus = isPrimary(queryExecutor) ? HostStatus.Primary : HostStatus.Secondary;
+          FlightRecorderEvents.connectPhase(event, FlightRecorderEvents.INITIAL_QUERIES);
         }
         GlobalHostStatusTracker.reportHostStatus(hostSpec, hostStatus);
         knownStates.put(hostSpec, hostStatus);
@@ -302,8 +342,10 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
         }
 
         runInitialQueries(queryExecutor, info);
+        FlightRecorderEvents.connectPhase(event, FlightRecorderEvents.INITIAL_QUERIES);
 
         // And we're done.
+        connected = true;
         return queryExecutor;
       } catch (ConnectException cex) {
         // Added by Peter Mount <peter@retep.org.uk>
@@ -340,6 +382,8 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
           continue;
         }
         throw se;
+      } finally {
+        FlightRecorderEvents.commitConnect(event, connected);
       }
     }
     throw new PSQLException(GT
@@ -480,7 +524,10 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
 
         // We have to reconnect to continue.
         pgStream.close();
-        return new PGStream(pgStream.getSocketFactory(), pgStream.getHostSpec(), connectTimeout);
+        PGStream plainStream = new PGStream(pgStream.getSocketFactory(), pgStream.getHostSpec(),
+            connectTimeout, useSocketChannel(info));
+        plainStream.setCountBytes(countBytes(info));
+        return plainStream;
 
       case 'N':
         LOGGER.log(Level.FINEST, " <=BE GSSEncrypted Refused");
@@ -495,6 +542,8 @@ public class ConnectionFactoryImpl extends ConnectionFactory {
 
       case 'G':
         LOGGER.log(Level.FINEST, " <=BE GSSEncryptedOk");
+        // The encrypted streams are layered on top of the blocking socket streams
+        pgStream.detachSocketChannel();
         try {
           AuthenticationPluginManager.withPassword(AuthenticationRequestType.GSS, info, password -> {
             org.postgresql.gss.MakeGSS.authenticate(true, pgStream, host, user, password,
@@ -6,17 +6,24 @@
 package org.postgresql.core.v3;
 
 import org.postgresql.copy.CopyDual;
+import org.postgresql.core.PGStream;
 import org.postgresql.util.ByteStreamWriter;
 import org.postgresql.util.PSQLException;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.sql.SQLException;
 import java.util.ArrayDeque;
 import java.util.Queue;
 
 public class CopyDualImpl extends CopyOperationImpl implements CopyDual {
   private final Queue<byte[]> received = new ArrayDeque<byte[]>();
+  // Buffer of readFromCopy(ByteBuffer, boolean), the data is received straight into it
+  private @Nullable ByteBuffer target;
+  private boolean targetReceived;
 
   public void writeToCopy(byte[] data, int off, int siz) throws SQLException {
     getQueryExecutor().writeToCopy(this, data, off, siz);
@@ -26,6 +33,12 @@ public class CopyDualImpl extends CopyOperationImpl implements CopyDual {
     getQueryExecutor().writeToCopy(this, from);
   }
 
+  @Override
+  public void writeToCopy(FileChannel from, long position, int length)
+      throws SQLException, IOException {
+    getQueryExecutor().writeToCopy(this, from, position, length);
+  }
+
   public void flushCopy() throws SQLException {
     getQueryExecutor().flushCopy(this);
   }
@@ -47,6 +60,31 @@ public class CopyDualImpl extends CopyOperationImpl implements CopyDual {
     return received.poll();
   }
 
+  @Override
+  public @Nullable ByteBuffer readFromCopy(ByteBuffer buffer, boolean block)
+      throws SQLException {
+    if (!buffer.hasArray()) {
+      return CopyDual.super.readFromCopy(buffer, block);
+    }
+    byte[] data = received.poll();
+    if (data != null) {
+      return ensureRemaining(buffer, data.length).put(data);
+    }
+    target = buffer;
+    targetReceived = false;
+    try {
+      getQueryExecutor().readFromCopy(this, block);
+      if (targetReceived) {
+        return target;
+      }
+      // Received by another read, e.g. while ending the copy
+      data = received.poll();
+      return data == null ? null : ensureRemaining(buffer, data.length).put(data);
+    } finally {
+      target = null;
+    }
+  }
+
   @Override
   public void handleCommandStatus(String status) throws PSQLException {
   }
@@ -54,4 +92,15 @@ public class CopyDualImpl extends CopyOperationImpl implements CopyDual {
   protected void handleCopydata(byte[] data) {
     received.add(data);
   }
+
+  @Override
+  protected void receiveCopydata(PGStream pgStream, int length) throws IOException, PSQLException {
+    ByteBuffer target = this.target;
+    if (target == null || targetReceived) {
+      super.receiveCopydata(pgStream, length);
+      return;
+    }
+    this.target = receiveInto(pgStream, target, length);
+    targetReceived = true;
+  }
 }
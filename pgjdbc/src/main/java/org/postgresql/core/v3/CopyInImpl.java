@@ -11,6 +11,8 @@ import org.postgresql.util.GT;
 import org.postgresql.util.PSQLException;
 import org.postgresql.util.PSQLState;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.sql.SQLException;
 
 /**
@@ -41,6 +43,12 @@ public class CopyInImpl extends CopyOperationImpl implements CopyIn {
     getQueryExecutor().writeToCopy(this, from);
   }
 
+  @Override
+  public void writeToCopy(FileChannel from, long position, int length)
+      throws SQLException, IOException {
+    getQueryExecutor().writeToCopy(this, from, position, length);
+  }
+
   public void flushCopy() throws SQLException {
     getQueryExecutor().flushCopy(this);
   }
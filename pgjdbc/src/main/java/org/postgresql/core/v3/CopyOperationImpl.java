@@ -8,12 +8,15 @@ package org.postgresql.core.v3;
 import static org.postgresql.util.internal.Nullness.castNonNull;
 
 import org.postgresql.copy.CopyOperation;
+import org.postgresql.core.PGStream;
 import org.postgresql.util.GT;
 import org.postgresql.util.PSQLException;
 import org.postgresql.util.PSQLState;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.sql.SQLException;
 
 public abstract class CopyOperationImpl implements CopyOperation {
@@ -21,6 +24,8 @@ public abstract class CopyOperationImpl implements CopyOperation {
   int rowFormat;
   int @Nullable [] fieldFormats;
   long handledRowCount = -1;
+  @Nullable String sql;
+  @Nullable Object flightRecorderEvent;
 
   void init(QueryExecutorImpl q, int fmt, int[] fmts) {
     queryExecutor = q;
@@ -49,9 +54,7 @@ public abstract class CopyOperationImpl implements CopyOperation {
   }
 
   public boolean isActive() {
-    synchronized (castNonNull(queryExecutor)) {
-      return queryExecutor.hasLock(this);
-    }
+    return castNonNull(queryExecutor).hasLock(this);
   }
 
   public void handleCommandStatus(String status) throws PSQLException {
@@ -72,6 +75,47 @@ public abstract class CopyOperationImpl implements CopyOperation {
    */
   protected abstract void handleCopydata(byte[] data) throws PSQLException;
 
+  /**
+   * Receives the data of a CopyData message from the stream, into a new array that is passed to
+   * {@link #handleCopydata(byte[])} unless overridden.
+   *
+   * @param pgStream stream positioned at the data
+   * @param length number of bytes of data
+   * @throws IOException if the data cannot be read
+   * @throws PSQLException if some internal problem occurs
+   */
+  protected void receiveCopydata(PGStream pgStream, int length) throws IOException, PSQLException {
+    handleCopydata(pgStream.receive(length));
+  }
+
+  /**
+   * Receives the data of a CopyData message into a heap buffer at its position, or into a larger
+   * copy of the buffer if the data does not fit.
+   *
+   * @param pgStream stream positioned at the data
+   * @param target buffer backed by an array
+   * @param length number of bytes of data
+   * @return the buffer with the data, positioned after it
+   * @throws IOException if the data cannot be read
+   */
+  static ByteBuffer receiveInto(PGStream pgStream, ByteBuffer target, int length)
+      throws IOException {
+    target = ensureRemaining(target, length);
+    pgStream.receive(target.array(), target.arrayOffset() + target.position(), length);
+    target.position(target.position() + length);
+    return target;
+  }
+
+  static ByteBuffer ensureRemaining(ByteBuffer target, int length) {
+    if (target.remaining() >= length) {
+      return target;
+    }
+    ByteBuffer larger =
+        ByteBuffer.allocate(Math.max(target.capacity() * 2, target.position() + length));
+    target.flip();
+    return larger.put(target);
+  }
+
   public long getHandledRowCount() {
     return handledRowCount;
   }
@@ -6,9 +6,13 @@
 package org.postgresql.core.v3;
 
 import org.postgresql.copy.CopyOut;
+import org.postgresql.core.PGStream;
+import org.postgresql.util.PSQLException;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.sql.SQLException;
 
 /**
@@ -27,6 +31,9 @@ import java.sql.SQLException;
  */
 public class CopyOutImpl extends CopyOperationImpl implements CopyOut {
   private byte @Nullable [] currentDataRow;
+  // Buffer of readFromCopy(ByteBuffer), the data is received straight into it
+  private @Nullable ByteBuffer target;
+  private boolean received;
 
   public byte @Nullable [] readFromCopy() throws SQLException {
     return readFromCopy(true);
@@ -39,7 +46,35 @@ public class CopyOutImpl extends CopyOperationImpl implements CopyOut {
     return currentDataRow;
   }
 
+  @Override
+  public @Nullable ByteBuffer readFromCopy(ByteBuffer buffer, boolean block)
+      throws SQLException {
+    if (!buffer.hasArray()) {
+      return CopyOut.super.readFromCopy(buffer, block);
+    }
+    currentDataRow = null;
+    target = buffer;
+    received = false;
+    try {
+      getQueryExecutor().readFromCopy(this, block);
+      return received ? target : null;
+    } finally {
+      target = null;
+    }
+  }
+
   protected void handleCopydata(byte[] data) {
     currentDataRow = data;
   }
+
+  @Override
+  protected void receiveCopydata(PGStream pgStream, int length) throws IOException, PSQLException {
+    ByteBuffer target = this.target;
+    if (target == null) {
+      super.receiveCopydata(pgStream, length);
+      return;
+    }
+    this.target = receiveInto(pgStream, target, length);
+    received = true;
+  }
 }
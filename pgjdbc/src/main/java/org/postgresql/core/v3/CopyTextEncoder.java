@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.core.v3;
+
+import static org.postgresql.util.internal.Nullness.castNonNull;
+
+import org.postgresql.core.Oid;
+import org.postgresql.core.ParameterList;
+import org.postgresql.util.ByteConverter;
+import org.postgresql.util.StreamWrapper;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Writes bound parameters as the rows of a text format {@code COPY ... FROM STDIN}, which is how
+ * {@link org.postgresql.PGProperty#COPY_BATCHED_INSERTS} executes batches. The text parameters
+ * are copied as they are, and the binary ones the driver produces for the common types are
+ * converted to text.
+ */
+public final class CopyTextEncoder {
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private CopyTextEncoder() {
+  }
+
+  /**
+   * Tests if all the parameters can be written as a COPY row. Streamed values and binary values of
+   * types the driver does not convert cannot.
+   *
+   * @param parameters parameters of a statement
+   * @return true if {@link #appendRow(StringBuilder, ParameterList)} can write the parameters
+   */
+  public static boolean isEncodable(@Nullable ParameterList parameters) {
+    if (!(parameters instanceof SimpleParameterList)) {
+      return false;
+    }
+    SimpleParameterList list = (SimpleParameterList) parameters;
+    @Nullable Object[] values = list.getValues();
+    for (int i = 1; i <= values.length; i++) {
+      Object value = values[i - 1];
+      if (value == null) {
+        // Not set, the regular execution reports it
+        return false;
+      }
+      if (list.isNull(i) || value instanceof String) {
+        continue;
+      }
+      if (value instanceof StreamWrapper) {
+        if (((StreamWrapper) value).getBytes() == null) {
+          return false;
+        }
+        continue;
+      }
+      if (!(value instanceof byte[]) || !isConvertedFromBinary(list.getTypeOID(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isConvertedFromBinary(int oid) {
+    switch (oid) {
+      case Oid.BOOL:
+      case Oid.INT2:
+      case Oid.INT4:
+      case Oid.INT8:
+      case Oid.FLOAT4:
+      case Oid.FLOAT8:
+      case Oid.UUID:
+      case Oid.BYTEA:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Appends the parameters as a row, ended by a newline. The parameters must be
+   * {@link #isEncodable(ParameterList) encodable}.
+   *
+   * @param sb the rows
+   * @param parameters parameters of a statement
+   */
+  public static void appendRow(StringBuilder sb, ParameterList parameters) {
+    SimpleParameterList list = (SimpleParameterList) parameters;
+    @Nullable Object[] values = list.getValues();
+    for (int i = 1; i <= values.length; i++) {
+      if (i > 1) {
+        sb.append('\t');
+      }
+      Object value = values[i - 1];
+      if (list.isNull(i)) {
+        sb.append("\\N");
+      } else if (value instanceof String) {
+        appendEscaped(sb, (String) value);
+      } else if (value instanceof StreamWrapper) {
+        StreamWrapper wrapper = (StreamWrapper) value;
+        appendBytea(sb, castNonNull(wrapper.getBytes()), wrapper.getOffset(), wrapper.getLength());
+      } else {
+        appendBinary(sb, (byte[]) value, list.getTypeOID(i));
+      }
+    }
+    sb.append('\n');
+  }
+
+  private static void appendEscaped(StringBuilder sb, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          sb.append(c);
+      }
+    }
+  }
+
+  private static void appendBinary(StringBuilder sb, byte[] value, int oid) {
+    switch (oid) {
+      case Oid.BOOL:
+        sb.append(ByteConverter.bool(value, 0) ? 't' : 'f');
+        break;
+      case Oid.INT2:
+        sb.append(ByteConverter.int2(value, 0));
+        break;
+      case Oid.INT4:
+        sb.append(ByteConverter.int4(value, 0));
+        break;
+      case Oid.INT8:
+        sb.append(ByteConverter.int8(value, 0));
+        break;
+      case Oid.FLOAT4:
+        sb.append(ByteConverter.float4(value, 0));
+        break;
+      case Oid.FLOAT8:
+        sb.append(ByteConverter.float8(value, 0));
+        break;
+      case Oid.UUID:
+        sb.append(new UUID(ByteConverter.int8(value, 0), ByteConverter.int8(value, 8)));
+        break;
+      default:
+        appendBytea(sb, value, 0, value.length);
+    }
+  }
+
+  private static void appendBytea(StringBuilder sb, byte[] value, int offset, int length) {
+    // Hex format, with the backslash escaped for COPY
+    sb.append("\\\\x");
+    for (int i = offset; i < offset + length; i++) {
+      sb.append(HEX[(value[i] >> 4) & 0xf]).append(HEX[value[i] & 0xf]);
+    }
+  }
+}
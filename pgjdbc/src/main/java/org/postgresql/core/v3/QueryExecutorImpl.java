@@ -38,7 +38,11 @@ import org.postgresql.core.v3.adaptivefetch.AdaptiveFetchCache;
 import org.postgresql.core.v3.replication.V3ReplicationProtocol;
 import org.postgresql.jdbc.AutoSave;
 import org.postgresql.jdbc.BatchResultHandler;
+import org.postgresql.jdbc.PreferQueryMode;
+import org.postgresql.jdbc.ResourceLock;
 import org.postgresql.jdbc.TimestampUtils;
+import org.postgresql.jfr.FlightRecorderEvents;
+import org.postgresql.plugin.MetricsListener;
 import org.postgresql.util.ByteStreamWriter;
 import org.postgresql.util.GT;
 import org.postgresql.util.PSQLException;
@@ -49,6 +53,7 @@ import org.postgresql.util.ServerErrorMessage;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.lang.ref.PhantomReference;
 import java.lang.ref.Reference;
@@ -56,6 +61,7 @@ import java.lang.ref.ReferenceQueue;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
@@ -180,14 +186,14 @@ public class QueryExecutorImpl extends QueryExecutorBase {
   }
 
   /**
-   * <p>Supplement to synchronization of public methods on current QueryExecutor.</p>
+   * <p>Supplement to locking of public methods on current QueryExecutor.</p>
    *
    * <p>Necessary for keeping the connection intact between calls to public methods sharing a state
    * such as COPY subprotocol. waitOnLock() must be called at beginning of each connection access
    * point.</p>
    *
-   * <p>Public methods sharing that state must then be synchronized among themselves. Normal method
-   * synchronization typically suffices for that.</p>
+   * <p>Public methods sharing that state must then hold {@link #lock} while they run. Holding it
+   * for the whole method body typically suffices for that.</p>
    *
    * <p>See notes on related methods as well as currentCopy() below.</p>
    */
@@ -221,17 +227,32 @@ public class QueryExecutorImpl extends QueryExecutorBase {
           PSQLState.OBJECT_NOT_IN_STATE);
     }
     lockedFor = null;
-    this.notify();
+    lockCondition.signal();
   }
 
   /**
-   * Wait until our lock is released. Execution of a single synchronized method can then continue
-   * without further ado. Must be called at beginning of each synchronized public method.
+   * Commits the flight recorder event of a copy operation that ended, once.
+   *
+   * @param op the copy operation
+   */
+  private void commitCopyEvent(CopyOperationImpl op) {
+    Object event = op.flightRecorderEvent;
+    String sql = op.sql;
+    if (event != null && sql != null) {
+      op.flightRecorderEvent = null;
+      FlightRecorderEvents.commitCopy(event, sql, op.handledRowCount, pgStream.getBytesSent(),
+          pgStream.getBytesReceived());
+    }
+  }
+
+  /**
+   * Wait until our lock is released. Execution of a single locked method can then continue
+   * without further ado. Must be called at beginning of each locked public method.
    */
   private void waitOnLock() throws PSQLException {
     while (lockedFor != null) {
       try {
-        this.wait();
+        lockCondition.await();
       } catch (InterruptedException ie) {
         Thread.currentThread().interrupt();
         throw new PSQLException(
@@ -239,14 +260,50 @@ public class QueryExecutorImpl extends QueryExecutorBase {
             PSQLState.OBJECT_NOT_IN_STATE, ie);
       }
     }
+    StreamCursor stream = activeStream;
+    if (stream != null) {
+      // The connection is needed for something else, read the rest of the streamed result
+      ResultHandlerBase remainder = stream.getRemainder();
+      try {
+        readStream(stream, remainder, 0, false);
+      } catch (IOException e) {
+        activeStream = null;
+        abort();
+        PSQLException error =
+            new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
+                PSQLState.CONNECTION_FAILURE, e);
+        remainder.handleError(error);
+        throw error;
+      }
+    }
   }
 
+  /**
+   * Result being read off the connection as the ResultSet advances, see
+   * {@link QueryExecutor#QUERY_STREAM_RESULTS}.
+   */
+  private @Nullable StreamCursor activeStream;
+
+  /**
+   * Number of rows {@link #processResults} reads before it hands out a streamed result, 0 when the
+   * current execution does not stream.
+   */
+  private int streamFetchSize;
+
+  /**
+   * Number of ReadyForQuery messages and of data rows received, see {@link MetricsSnapshot}.
+   */
+  private int readyForQueryCount;
+  private long dataRowCount;
+
   /**
    * @param holder object assumed to hold the lock
    * @return whether given object actually holds the lock
    */
   boolean hasLock(@Nullable Object holder) {
-    return lockedFor == holder;
+    try (ResourceLock ignore = lock.obtain()) {
+      return lockedFor == holder;
+    }
   }
 
   //
@@ -310,87 +367,111 @@ public class QueryExecutorImpl extends QueryExecutorBase {
     }
   }
 
-  public synchronized void execute(Query query, @Nullable ParameterList parameters,
+  public void execute(Query query, @Nullable ParameterList parameters,
       ResultHandler handler,
       int maxRows, int fetchSize, int flags) throws SQLException {
-    execute(query, parameters, handler, maxRows, fetchSize, flags, false);
+    try (ResourceLock ignore = lock.obtain()) {
+      execute(query, parameters, handler, maxRows, fetchSize, flags, false);
+    }
   }
 
-  public synchronized void execute(Query query, @Nullable ParameterList parameters,
+  public void execute(Query query, @Nullable ParameterList parameters,
       ResultHandler handler,
       int maxRows, int fetchSize, int flags, boolean adaptiveFetch) throws SQLException {
-    waitOnLock();
-    if (LOGGER.isLoggable(Level.FINEST)) {
-      LOGGER.log(Level.FINEST, "  simple execute, handler={0}, maxRows={1}, fetchSize={2}, flags={3}",
-          new Object[]{handler, maxRows, fetchSize, flags});
-    }
+    try (ResourceLock ignore = lock.obtain();
+        MetricsSnapshot metrics = startMetrics(false, query.getNativeSql(), 1, handler)) {
+      waitOnLock(metrics);
+      if (LOGGER.isLoggable(Level.FINEST)) {
+        LOGGER.log(Level.FINEST, "  simple execute, handler={0}, maxRows={1}, fetchSize={2}, flags={3}",
+            new Object[]{handler, maxRows, fetchSize, flags});
+      }
 
-    if (parameters == null) {
-      parameters = SimpleQuery.NO_PARAMETERS;
-    }
+      if (parameters == null) {
+        parameters = SimpleQuery.NO_PARAMETERS;
+      }
 
-    flags = updateQueryMode(flags);
+      flags = updateQueryMode(flags);
 
-    boolean describeOnly = (QUERY_DESCRIBE_ONLY & flags) != 0;
+      boolean describeOnly = (QUERY_DESCRIBE_ONLY & flags) != 0;
 
-    ((V3ParameterList) parameters).convertFunctionOutParameters();
+      ((V3ParameterList) parameters).convertFunctionOutParameters();
 
-    // Check parameters are all set..
-    if (!describeOnly) {
-      ((V3ParameterList) parameters).checkAllParametersSet();
-    }
+      // Check parameters are all set..
+      if (!describeOnly) {
+        ((V3ParameterList) parameters).checkAllParametersSet();
+      }
 
-    boolean autosave = false;
-    try {
+      // Rows can only be left on the wire for a single statement outside of a transaction
+      if ((flags & QUERY_STREAM_RESULTS) != 0 && fetchSize > 0 && query instanceof SimpleQuery
+          && (flags & (QUERY_NO_RESULTS | QUERY_DESCRIBE_ONLY | QUERY_EXECUTE_AS_SIMPLE
+              | QUERY_BOTH_ROWS_AND_STATUS)) == 0
+          && (flags & QUERY_SUPPRESS_BEGIN) != 0
+          && getTransactionState() == TransactionState.IDLE) {
+        streamFetchSize = fetchSize;
+      }
+
+      boolean autosave = false;
       try {
-        handler = sendQueryPreamble(handler, flags);
-        autosave = sendAutomaticSavepoint(query, flags);
-        sendQuery(query, (V3ParameterList) parameters, maxRows, fetchSize, flags,
-            handler, null, adaptiveFetch);
-        if ((flags & QueryExecutor.QUERY_EXECUTE_AS_SIMPLE) != 0) {
-          // Sync message is not required for 'Q' execution as 'Q' ends with ReadyForQuery message
-          // on its own
-        } else {
+        try {
+          handler = sendQueryPreamble(handler, flags);
+          autosave = sendAutomaticSavepoint(query, flags);
+          sendQuery(query, (V3ParameterList) parameters, maxRows, fetchSize, flags,
+              handler, null, adaptiveFetch);
+          if ((flags & QueryExecutor.QUERY_EXECUTE_AS_SIMPLE) != 0) {
+            // Sync message is not required for 'Q' execution as 'Q' ends with ReadyForQuery message
+            // on its own
+          } else {
+            sendSync();
+          }
+          processResults(handler, flags, adaptiveFetch);
+          estimatedReceiveBufferBytes = 0;
+        } catch (PGBindException se) {
+          // There are three causes of this error, an
+          // invalid total Bind message length, a
+          // BinaryStream that cannot provide the amount
+          // of data claimed by the length argument, and
+          // a BinaryStream that throws an Exception
+          // when reading.
+          //
+          // We simply do not send the Execute message
+          // so we can just continue on as if nothing
+          // has happened. Perhaps we need to
+          // introduce an error here to force the
+          // caller to rollback if there is a
+          // transaction in progress?
+          //
           sendSync();
+          processResults(handler, flags, adaptiveFetch);
+          estimatedReceiveBufferBytes = 0;
+          handler
+              .handleError(new PSQLException(GT.tr("Unable to bind parameter values for statement."),
+                  PSQLState.INVALID_PARAMETER_VALUE, se.getIOException()));
         }
-        processResults(handler, flags, adaptiveFetch);
-        estimatedReceiveBufferBytes = 0;
-      } catch (PGBindException se) {
-        // There are three causes of this error, an
-        // invalid total Bind message length, a
-        // BinaryStream that cannot provide the amount
-        // of data claimed by the length argument, and
-        // a BinaryStream that throws an Exception
-        // when reading.
-        //
-        // We simply do not send the Execute message
-        // so we can just continue on as if nothing
-        // has happened. Perhaps we need to
-        // introduce an error here to force the
-        // caller to rollback if there is a
-        // transaction in progress?
-        //
-        sendSync();
-        processResults(handler, flags, adaptiveFetch);
-        estimatedReceiveBufferBytes = 0;
-        handler
-            .handleError(new PSQLException(GT.tr("Unable to bind parameter values for statement."),
-                PSQLState.INVALID_PARAMETER_VALUE, se.getIOException()));
+      } catch (IOException e) {
+        abort();
+        handler.handleError(
+            new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
+                PSQLState.CONNECTION_FAILURE, e));
+      } finally {
+        streamFetchSize = 0;
       }
-    } catch (IOException e) {
-      abort();
-      handler.handleError(
-          new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
-              PSQLState.CONNECTION_FAILURE, e));
-    }
 
-    try {
-      handler.handleCompletion();
-      if (cleanupSavePoints) {
-        releaseSavePoint(autosave, flags);
+      try {
+        handler.handleCompletion();
+        if (cleanupSavePoints) {
+          releaseSavePoint(autosave, flags);
+        }
+      } catch (SQLException e) {
+        StreamCursor stream = activeStream;
+        if (stream != null) {
+          // Nobody is going to read the rest of the result
+          closeStream(stream);
+        }
+        rollbackIfRequired(autosave, e);
+      }
+      if (metrics != null) {
+        metrics.completed();
       }
-    } catch (SQLException e) {
-      rollbackIfRequired(autosave, e);
     }
   }
 
@@ -503,77 +584,166 @@ public class QueryExecutorImpl extends QueryExecutorBase {
   private static final int MAX_BUFFERED_RECV_BYTES = 64000;
   private static final int NODATA_QUERY_RESPONSE_SIZE_BYTES = 250;
 
-  public synchronized void execute(Query[] queries, @Nullable ParameterList[] parameterLists,
+  public void execute(Query[] queries, @Nullable ParameterList[] parameterLists,
       BatchResultHandler batchHandler, int maxRows, int fetchSize, int flags) throws SQLException {
-    execute(queries, parameterLists, batchHandler, maxRows, fetchSize, flags, false);
+    try (ResourceLock ignore = lock.obtain()) {
+      execute(queries, parameterLists, batchHandler, maxRows, fetchSize, flags, false);
+    }
   }
 
-  public synchronized void execute(Query[] queries, @Nullable ParameterList[] parameterLists,
+  public void execute(Query[] queries, @Nullable ParameterList[] parameterLists,
       BatchResultHandler batchHandler, int maxRows, int fetchSize, int flags, boolean adaptiveFetch)
       throws SQLException {
-    waitOnLock();
-    if (LOGGER.isLoggable(Level.FINEST)) {
-      LOGGER.log(Level.FINEST, "  batch execute {0} queries, handler={1}, maxRows={2}, fetchSize={3}, flags={4}",
-          new Object[]{queries.length, batchHandler, maxRows, fetchSize, flags});
-    }
+    try (ResourceLock ignore = lock.obtain();
+        MetricsSnapshot metrics = startMetrics(false, queries[0].getNativeSql(), queries.length,
+            batchHandler)) {
+      waitOnLock(metrics);
+      if (LOGGER.isLoggable(Level.FINEST)) {
+        LOGGER.log(Level.FINEST, "  batch execute {0} queries, handler={1}, maxRows={2}, fetchSize={3}, flags={4}",
+            new Object[]{queries.length, batchHandler, maxRows, fetchSize, flags});
+      }
+
+      flags = updateQueryMode(flags);
+
+      boolean describeOnly = (QUERY_DESCRIBE_ONLY & flags) != 0;
+      // Check parameters and resolve OIDs.
+      if (!describeOnly) {
+        for (ParameterList parameterList : parameterLists) {
+          if (parameterList != null) {
+            ((V3ParameterList) parameterList).checkAllParametersSet();
+          }
+        }
+      }
+
+      boolean autosave = false;
+      ResultHandler handler = batchHandler;
+      try {
+        handler = sendQueryPreamble(batchHandler, flags);
+        autosave = sendAutomaticSavepoint(queries[0], flags);
+        estimatedReceiveBufferBytes = 0;
 
-    flags = updateQueryMode(flags);
+        for (int i = 0; i < queries.length; ++i) {
+          Query query = queries[i];
+          V3ParameterList parameters = (V3ParameterList) parameterLists[i];
+          if (parameters == null) {
+            parameters = SimpleQuery.NO_PARAMETERS;
+          }
+
+          sendQuery(query, parameters, maxRows, fetchSize, flags, handler, batchHandler, adaptiveFetch);
 
-    boolean describeOnly = (QUERY_DESCRIBE_ONLY & flags) != 0;
-    // Check parameters and resolve OIDs.
-    if (!describeOnly) {
-      for (ParameterList parameterList : parameterLists) {
-        if (parameterList != null) {
-          ((V3ParameterList) parameterList).checkAllParametersSet();
+          if (handler.getException() != null) {
+            break;
+          }
         }
+
+        if (handler.getException() == null) {
+          if ((flags & QueryExecutor.QUERY_EXECUTE_AS_SIMPLE) != 0) {
+            // Sync message is not required for 'Q' execution as 'Q' ends with ReadyForQuery message
+            // on its own
+          } else {
+            sendSync();
+          }
+          processResults(handler, flags, adaptiveFetch);
+          estimatedReceiveBufferBytes = 0;
+        }
+      } catch (IOException e) {
+        abort();
+        handler.handleError(
+            new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
+                PSQLState.CONNECTION_FAILURE, e));
+      }
+
+      try {
+        handler.handleCompletion();
+        if (cleanupSavePoints) {
+          releaseSavePoint(autosave, flags);
+        }
+      } catch (SQLException e) {
+        rollbackIfRequired(autosave, e);
+      }
+      if (metrics != null) {
+        metrics.completed();
       }
     }
+  }
 
-    boolean autosave = false;
-    ResultHandler handler = batchHandler;
-    try {
-      handler = sendQueryPreamble(batchHandler, flags);
-      autosave = sendAutomaticSavepoint(queries[0], flags);
-      estimatedReceiveBufferBytes = 0;
+  @Override
+  public void executePipeline(Query[] queries,
+      @Nullable ParameterList[] parameterLists, int[] maxRows, int[] flags,
+      ResultHandler pipelineHandler) throws SQLException {
+    try (ResourceLock ignore = lock.obtain();
+        MetricsSnapshot metrics = startMetrics(false, queries[0].getNativeSql(), queries.length,
+            pipelineHandler)) {
+      waitOnLock(metrics);
+      if (LOGGER.isLoggable(Level.FINEST)) {
+        LOGGER.log(Level.FINEST, "  pipeline execute {0} queries, handler={1}",
+            new Object[]{queries.length, pipelineHandler});
+      }
 
+      if (getPreferQueryMode() == PreferQueryMode.SIMPLE) {
+        throw new PSQLException(GT.tr("Pipeline mode requires the extended query protocol."),
+            PSQLState.NOT_IMPLEMENTED);
+      }
+
+      // Check parameters and resolve OIDs.
       for (int i = 0; i < queries.length; ++i) {
-        Query query = queries[i];
+        if (queries[i].getSubqueries() != null) {
+          throw new PSQLException(
+              GT.tr("Multi-statement queries cannot be executed in pipeline mode."),
+              PSQLState.NOT_IMPLEMENTED);
+        }
         V3ParameterList parameters = (V3ParameterList) parameterLists[i];
-        if (parameters == null) {
-          parameters = SimpleQuery.NO_PARAMETERS;
+        if (parameters != null) {
+          parameters.convertFunctionOutParameters();
+          parameters.checkAllParametersSet();
         }
+      }
+
+      boolean autosave = false;
+      ResultHandler handler = pipelineHandler;
+      try {
+        handler = sendQueryPreamble(pipelineHandler, flags[0]);
+        autosave = sendAutomaticSavepoint(queries[0], flags[0]);
+        estimatedReceiveBufferBytes = 0;
 
-        sendQuery(query, parameters, maxRows, fetchSize, flags, handler, batchHandler, adaptiveFetch);
+        for (int i = 0; i < queries.length; ++i) {
+          V3ParameterList parameters = (V3ParameterList) parameterLists[i];
+          if (parameters == null) {
+            parameters = SimpleQuery.NO_PARAMETERS;
+          }
 
-        if (handler.getException() != null) {
-          break;
+          // Results of all queries are routed through the same handler, so the flags that affect
+          // result processing (QUERY_NO_RESULTS, QUERY_BOTH_ROWS_AND_STATUS) must not differ.
+          sendQuery(queries[i], parameters, maxRows[i], 0, flags[i], handler, null, false);
+
+          if (handler.getException() != null) {
+            break;
+          }
         }
-      }
 
-      if (handler.getException() == null) {
-        if ((flags & QueryExecutor.QUERY_EXECUTE_AS_SIMPLE) != 0) {
-          // Sync message is not required for 'Q' execution as 'Q' ends with ReadyForQuery message
-          // on its own
-        } else {
+        if (handler.getException() == null) {
           sendSync();
+          processResults(handler, 0);
+          estimatedReceiveBufferBytes = 0;
         }
-        processResults(handler, flags, adaptiveFetch);
-        estimatedReceiveBufferBytes = 0;
+      } catch (IOException e) {
+        abort();
+        handler.handleError(
+            new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
+                PSQLState.CONNECTION_FAILURE, e));
       }
-    } catch (IOException e) {
-      abort();
-      handler.handleError(
-          new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
-              PSQLState.CONNECTION_FAILURE, e));
-    }
 
-    try {
-      handler.handleCompletion();
-      if (cleanupSavePoints) {
-        releaseSavePoint(autosave, flags);
+      try {
+        handler.handleCompletion();
+        if (cleanupSavePoints) {
+          releaseSavePoint(autosave, flags[0]);
+        }
+      } catch (SQLException e) {
+        rollbackIfRequired(autosave, e);
+      }
+      if (metrics != null) {
+        metrics.completed();
       }
-    } catch (SQLException e) {
-      rollbackIfRequired(autosave, e);
     }
   }
 
@@ -632,20 +802,22 @@ public class QueryExecutorImpl extends QueryExecutorBase {
   // Fastpath
   //
 
-  public synchronized byte @Nullable [] fastpathCall(int fnid, ParameterList parameters,
+  public byte @Nullable [] fastpathCall(int fnid, ParameterList parameters,
       boolean suppressBegin)
       throws SQLException {
-    waitOnLock();
-    if (!suppressBegin) {
-      doSubprotocolBegin();
-    }
-    try {
-      sendFastpathCall(fnid, (SimpleParameterList) parameters);
-      return receiveFastpathResult();
-    } catch (IOException ioe) {
-      abort();
-      throw new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
-          PSQLState.CONNECTION_FAILURE, ioe);
+    try (ResourceLock ignore = lock.obtain()) {
+      waitOnLock();
+      if (!suppressBegin) {
+        doSubprotocolBegin();
+      }
+      try {
+        sendFastpathCall(fnid, (SimpleParameterList) parameters);
+        return receiveFastpathResult();
+      } catch (IOException ioe) {
+        abort();
+        throw new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
+            PSQLState.CONNECTION_FAILURE, ioe);
+      }
     }
   }
 
@@ -748,8 +920,10 @@ public class QueryExecutorImpl extends QueryExecutorBase {
   }
 
   // Just for API compatibility with previous versions.
-  public synchronized void processNotifies() throws SQLException {
-    processNotifies(-1);
+  public void processNotifies() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      processNotifies(-1);
+    }
   }
 
   /**
@@ -757,73 +931,75 @@ public class QueryExecutorImpl extends QueryExecutorBase {
    *                      when =0, block forever
    *                      when &lt; 0, don't block
    */
-  public synchronized void processNotifies(int timeoutMillis) throws SQLException {
-    waitOnLock();
-    // Asynchronous notifies only arrive when we are not in a transaction
-    if (getTransactionState() != TransactionState.IDLE) {
-      return;
-    }
-
-    if (hasNotifications()) {
-      // No need to timeout when there are already notifications. We just check for more in this case.
-      timeoutMillis = -1;
-    }
+  public void processNotifies(int timeoutMillis) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      waitOnLock();
+      // Asynchronous notifies only arrive when we are not in a transaction
+      if (getTransactionState() != TransactionState.IDLE) {
+        return;
+      }
 
-    boolean useTimeout = timeoutMillis > 0;
-    long startTime = 0;
-    int oldTimeout = 0;
-    if (useTimeout) {
-      startTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
-      try {
-        oldTimeout = pgStream.getSocket().getSoTimeout();
-      } catch (SocketException e) {
-        throw new PSQLException(GT.tr("An error occurred while trying to get the socket "
-          + "timeout."), PSQLState.CONNECTION_FAILURE, e);
+      if (hasNotifications()) {
+        // No need to timeout when there are already notifications. We just check for more in this case.
+        timeoutMillis = -1;
       }
-    }
 
-    try {
-      while (timeoutMillis >= 0 || pgStream.hasMessagePending()) {
-        if (useTimeout && timeoutMillis >= 0) {
-          setSocketTimeout(timeoutMillis);
-        }
-        int c = pgStream.receiveChar();
-        if (useTimeout && timeoutMillis >= 0) {
-          setSocketTimeout(0); // Don't timeout after first char
+      boolean useTimeout = timeoutMillis > 0;
+      long startTime = 0;
+      int oldTimeout = 0;
+      if (useTimeout) {
+        startTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+        try {
+          oldTimeout = pgStream.getSocket().getSoTimeout();
+        } catch (SocketException e) {
+          throw new PSQLException(GT.tr("An error occurred while trying to get the socket "
+            + "timeout."), PSQLState.CONNECTION_FAILURE, e);
         }
-        switch (c) {
-          case 'A': // Asynchronous Notify
-            receiveAsyncNotify();
-            timeoutMillis = -1;
-            continue;
-          case 'E':
-            // Error Response (response to pretty much everything; backend then skips until Sync)
-            throw receiveErrorResponse();
-          case 'N': // Notice Response (warnings / info)
-            SQLWarning warning = receiveNoticeResponse();
-            addWarning(warning);
-            if (useTimeout) {
-              long newTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
-              timeoutMillis += startTime - newTimeMillis; // Overflows after 49 days, ignore that
-              startTime = newTimeMillis;
-              if (timeoutMillis == 0) {
-                timeoutMillis = -1; // Don't accidentially wait forever
+      }
+
+      try {
+        while (timeoutMillis >= 0 || pgStream.hasMessagePending()) {
+          if (useTimeout && timeoutMillis >= 0) {
+            setSocketTimeout(timeoutMillis);
+          }
+          int c = pgStream.receiveChar();
+          if (useTimeout && timeoutMillis >= 0) {
+            setSocketTimeout(0); // Don't timeout after first char
+          }
+          switch (c) {
+            case 'A': // Asynchronous Notify
+              receiveAsyncNotify();
+              timeoutMillis = -1;
+              continue;
+            case 'E':
+              // Error Response (response to pretty much everything; backend then skips until Sync)
+              throw receiveErrorResponse();
+            case 'N': // Notice Response (warnings / info)
+              SQLWarning warning = receiveNoticeResponse();
+              addWarning(warning);
+              if (useTimeout) {
+                long newTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+                timeoutMillis += startTime - newTimeMillis; // Overflows after 49 days, ignore that
+                startTime = newTimeMillis;
+                if (timeoutMillis == 0) {
+                  timeoutMillis = -1; // Don't accidentially wait forever
+                }
               }
-            }
-            break;
-          default:
-            throw new PSQLException(GT.tr("Unknown Response Type {0}.", (char) c),
-                PSQLState.CONNECTION_FAILURE);
+              break;
+            default:
+              throw new PSQLException(GT.tr("Unknown Response Type {0}.", (char) c),
+                  PSQLState.CONNECTION_FAILURE);
+          }
+        }
+      } catch (SocketTimeoutException ioe) {
+        // No notifications this time...
+      } catch (IOException ioe) {
+        throw new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
+            PSQLState.CONNECTION_FAILURE, ioe);
+      } finally {
+        if (useTimeout) {
+          setSocketTimeout(oldTimeout);
         }
-      }
-    } catch (SocketTimeoutException ioe) {
-      // No notifications this time...
-    } catch (IOException ioe) {
-      throw new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
-          PSQLState.CONNECTION_FAILURE, ioe);
-    } finally {
-      if (useTimeout) {
-        setSocketTimeout(oldTimeout);
       }
     }
   }
@@ -926,28 +1102,36 @@ public class QueryExecutorImpl extends QueryExecutorBase {
    * @return CopyIn or CopyOut operation object
    * @throws SQLException on failure
    */
-  public synchronized CopyOperation startCopy(String sql, boolean suppressBegin)
+  public CopyOperation startCopy(String sql, boolean suppressBegin)
       throws SQLException {
-    waitOnLock();
-    if (!suppressBegin) {
-      doSubprotocolBegin();
-    }
-    byte[] buf = sql.getBytes(StandardCharsets.UTF_8);
-
-    try {
-      LOGGER.log(Level.FINEST, " FE=> Query(CopyStart)");
-
-      pgStream.sendChar('Q');
-      pgStream.sendInteger4(buf.length + 4 + 1);
-      pgStream.send(buf);
-      pgStream.sendChar(0);
-      pgStream.flush();
+    try (ResourceLock ignore = lock.obtain()) {
+      waitOnLock();
+      if (!suppressBegin) {
+        doSubprotocolBegin();
+      }
+      byte[] buf = sql.getBytes(StandardCharsets.UTF_8);
+      @Nullable Object event =
+          FlightRecorderEvents.beginCopy(pgStream.getBytesSent(), pgStream.getBytesReceived());
 
-      return castNonNull(processCopyResults(null, true));
-      // expect a CopyInResponse or CopyOutResponse to our query above
-    } catch (IOException ioe) {
-      throw new PSQLException(GT.tr("Database connection failed when starting copy"),
-          PSQLState.CONNECTION_FAILURE, ioe);
+      try {
+        LOGGER.log(Level.FINEST, " FE=> Query(CopyStart)");
+
+        pgStream.sendChar('Q');
+        pgStream.sendInteger4(buf.length + 4 + 1);
+        pgStream.send(buf);
+        pgStream.sendChar(0);
+        pgStream.flush();
+
+        CopyOperationImpl op = castNonNull(processCopyResults(null, true));
+        // The event is committed when the copy ends, see commitCopyEvent
+        op.sql = sql;
+        op.flightRecorderEvent = event;
+        return op;
+        // expect a CopyInResponse or CopyOutResponse to our query above
+      } catch (IOException ioe) {
+        throw new PSQLException(GT.tr("Database connection failed when starting copy"),
+            PSQLState.CONNECTION_FAILURE, ioe);
+      }
     }
   }
 
@@ -959,18 +1143,20 @@ public class QueryExecutorImpl extends QueryExecutorBase {
    * @throws SQLException on locking failure
    * @throws IOException on database connection failure
    */
-  private synchronized void initCopy(CopyOperationImpl op) throws SQLException, IOException {
-    pgStream.receiveInteger4(); // length not used
-    int rowFormat = pgStream.receiveChar();
-    int numFields = pgStream.receiveInteger2();
-    int[] fieldFormats = new int[numFields];
+  private void initCopy(CopyOperationImpl op) throws SQLException, IOException {
+    try (ResourceLock ignore = lock.obtain()) {
+      pgStream.receiveInteger4(); // length not used
+      int rowFormat = pgStream.receiveChar();
+      int numFields = pgStream.receiveInteger2();
+      int[] fieldFormats = new int[numFields];
+
+      for (int i = 0; i < numFields; i++) {
+        fieldFormats[i] = pgStream.receiveInteger2();
+      }
 
-    for (int i = 0; i < numFields; i++) {
-      fieldFormats[i] = pgStream.receiveInteger2();
+      lock(op);
+      op.init(this, rowFormat, fieldFormats);
     }
-
-    lock(op);
-    op.init(this, rowFormat, fieldFormats);
   }
 
   /**
@@ -990,7 +1176,7 @@ public class QueryExecutorImpl extends QueryExecutorBase {
 
     try {
       if (op instanceof CopyIn) {
-        synchronized (this) {
+        try (ResourceLock ignore = lock.obtain()) {
           LOGGER.log(Level.FINEST, "FE => CopyFail");
           final byte[] msg = "Copy cancel requested".getBytes(StandardCharsets.US_ASCII);
           pgStream.sendChar('f'); // CopyFail
@@ -1027,10 +1213,11 @@ public class QueryExecutorImpl extends QueryExecutorBase {
       // future operations, rather than failing due to the
       // broken connection, will simply hang waiting for this
       // lock.
-      synchronized (this) {
+      try (ResourceLock ignore = lock.obtain()) {
         if (hasLock(op)) {
           unlock(op);
         }
+        commitCopyEvent(op);
       }
     }
 
@@ -1053,25 +1240,30 @@ public class QueryExecutorImpl extends QueryExecutorBase {
    * @return number of rows updated for server versions 8.2 or newer
    * @throws SQLException on failure
    */
-  public synchronized long endCopy(CopyOperationImpl op) throws SQLException {
-    if (!hasLock(op)) {
-      throw new PSQLException(GT.tr("Tried to end inactive copy"), PSQLState.OBJECT_NOT_IN_STATE);
-    }
+  public long endCopy(CopyOperationImpl op) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (!hasLock(op)) {
+        throw new PSQLException(GT.tr("Tried to end inactive copy"), PSQLState.OBJECT_NOT_IN_STATE);
+      }
 
-    try {
-      LOGGER.log(Level.FINEST, " FE=> CopyDone");
+      try {
+        LOGGER.log(Level.FINEST, " FE=> CopyDone");
 
-      pgStream.sendChar('c'); // CopyDone
-      pgStream.sendInteger4(4);
-      pgStream.flush();
+        pgStream.sendChar('c'); // CopyDone
+        pgStream.sendInteger4(4);
+        pgStream.flush();
 
-      do {
-        processCopyResults(op, true);
-      } while (hasLock(op));
-      return op.getHandledRowCount();
-    } catch (IOException ioe) {
-      throw new PSQLException(GT.tr("Database connection failed when ending copy"),
-          PSQLState.CONNECTION_FAILURE, ioe);
+        do {
+          processCopyResults(op, true);
+        } while (hasLock(op));
+        return op.getHandledRowCount();
+      } catch (IOException ioe) {
+        throw new PSQLException(GT.tr("Database connection failed when ending copy"),
+            PSQLState.CONNECTION_FAILURE, ioe);
+      } finally {
+        // Normally committed already when the server confirmed the end of the copy
+        commitCopyEvent(op);
+      }
     }
   }
 
@@ -1085,22 +1277,24 @@ public class QueryExecutorImpl extends QueryExecutorBase {
    * @param siz number of bytes to send (usually data.length)
    * @throws SQLException on failure
    */
-  public synchronized void writeToCopy(CopyOperationImpl op, byte[] data, int off, int siz)
+  public void writeToCopy(CopyOperationImpl op, byte[] data, int off, int siz)
       throws SQLException {
-    if (!hasLock(op)) {
-      throw new PSQLException(GT.tr("Tried to write to an inactive copy operation"),
-          PSQLState.OBJECT_NOT_IN_STATE);
-    }
+    try (ResourceLock ignore = lock.obtain()) {
+      if (!hasLock(op)) {
+        throw new PSQLException(GT.tr("Tried to write to an inactive copy operation"),
+            PSQLState.OBJECT_NOT_IN_STATE);
+      }
 
-    LOGGER.log(Level.FINEST, " FE=> CopyData({0})", siz);
+      LOGGER.log(Level.FINEST, " FE=> CopyData({0})", siz);
 
-    try {
-      pgStream.sendChar('d');
-      pgStream.sendInteger4(siz + 4);
-      pgStream.send(data, off, siz);
-    } catch (IOException ioe) {
-      throw new PSQLException(GT.tr("Database connection failed when writing to copy"),
-          PSQLState.CONNECTION_FAILURE, ioe);
+      try {
+        pgStream.sendChar('d');
+        pgStream.sendInteger4(siz + 4);
+        pgStream.send(data, off, siz);
+      } catch (IOException ioe) {
+        throw new PSQLException(GT.tr("Database connection failed when writing to copy"),
+            PSQLState.CONNECTION_FAILURE, ioe);
+      }
     }
   }
 
@@ -1112,37 +1306,78 @@ public class QueryExecutorImpl extends QueryExecutorBase {
    * @param from the source of bytes, e.g. a ByteBufferByteStreamWriter
    * @throws SQLException on failure
    */
-  public synchronized void writeToCopy(CopyOperationImpl op, ByteStreamWriter from)
+  public void writeToCopy(CopyOperationImpl op, ByteStreamWriter from)
       throws SQLException {
-    if (!hasLock(op)) {
-      throw new PSQLException(GT.tr("Tried to write to an inactive copy operation"),
-          PSQLState.OBJECT_NOT_IN_STATE);
-    }
+    try (ResourceLock ignore = lock.obtain()) {
+      if (!hasLock(op)) {
+        throw new PSQLException(GT.tr("Tried to write to an inactive copy operation"),
+            PSQLState.OBJECT_NOT_IN_STATE);
+      }
 
-    int siz = from.getLength();
-    LOGGER.log(Level.FINEST, " FE=> CopyData({0})", siz);
+      int siz = from.getLength();
+      LOGGER.log(Level.FINEST, " FE=> CopyData({0})", siz);
 
-    try {
-      pgStream.sendChar('d');
-      pgStream.sendInteger4(siz + 4);
-      pgStream.send(from);
-    } catch (IOException ioe) {
-      throw new PSQLException(GT.tr("Database connection failed when writing to copy"),
-          PSQLState.CONNECTION_FAILURE, ioe);
+      try {
+        pgStream.sendChar('d');
+        pgStream.sendInteger4(siz + 4);
+        pgStream.send(from);
+      } catch (IOException ioe) {
+        throw new PSQLException(GT.tr("Database connection failed when writing to copy"),
+            PSQLState.CONNECTION_FAILURE, ioe);
+      }
     }
   }
 
-  public synchronized void flushCopy(CopyOperationImpl op) throws SQLException {
-    if (!hasLock(op)) {
-      throw new PSQLException(GT.tr("Tried to write to an inactive copy operation"),
-          PSQLState.OBJECT_NOT_IN_STATE);
+  /**
+   * Sends bytes of a file as one CopyData message during a live COPY IN operation, see
+   * {@link PGStream#send(FileChannel, long, int)}.
+   *
+   * @param op the CopyIn operation presumably currently holding lock on this connection
+   * @param from the file to send bytes of
+   * @param position position of the first byte in the file
+   * @param length number of bytes to send
+   * @throws SQLException on failure
+   * @throws IOException if the file cannot be read, or ends before, nothing is sent then
+   */
+  public void writeToCopy(CopyOperationImpl op, FileChannel from, long position, int length)
+      throws SQLException, IOException {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (!hasLock(op)) {
+        throw new PSQLException(GT.tr("Tried to write to an inactive copy operation"),
+            PSQLState.OBJECT_NOT_IN_STATE);
+      }
+      // The length is part of the header, check it before sending anything
+      long size = from.size();
+      if (position > size - length) {
+        throw new EOFException("Premature end of file at " + Math.max(position, size));
+      }
+
+      LOGGER.log(Level.FINEST, " FE=> CopyData({0})", length);
+
+      try {
+        pgStream.sendChar('d');
+        pgStream.sendInteger4(length + 4);
+        pgStream.send(from, position, length);
+      } catch (IOException ioe) {
+        throw new PSQLException(GT.tr("Database connection failed when writing to copy"),
+            PSQLState.CONNECTION_FAILURE, ioe);
+      }
     }
+  }
 
-    try {
-      pgStream.flush();
-    } catch (IOException ioe) {
-      throw new PSQLException(GT.tr("Database connection failed when writing to copy"),
-          PSQLState.CONNECTION_FAILURE, ioe);
+  public void flushCopy(CopyOperationImpl op) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (!hasLock(op)) {
+        throw new PSQLException(GT.tr("Tried to write to an inactive copy operation"),
+            PSQLState.OBJECT_NOT_IN_STATE);
+      }
+
+      try {
+        pgStream.flush();
+      } catch (IOException ioe) {
+        throw new PSQLException(GT.tr("Database connection failed when writing to copy"),
+            PSQLState.CONNECTION_FAILURE, ioe);
+      }
     }
   }
 
@@ -1154,17 +1389,19 @@ public class QueryExecutorImpl extends QueryExecutorBase {
    * @param block whether to block waiting for input
    * @throws SQLException on any failure
    */
-  synchronized void readFromCopy(CopyOperationImpl op, boolean block) throws SQLException {
-    if (!hasLock(op)) {
-      throw new PSQLException(GT.tr("Tried to read from inactive copy"),
-          PSQLState.OBJECT_NOT_IN_STATE);
-    }
+  void readFromCopy(CopyOperationImpl op, boolean block) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (!hasLock(op)) {
+        throw new PSQLException(GT.tr("Tried to read from inactive copy"),
+            PSQLState.OBJECT_NOT_IN_STATE);
+      }
 
-    try {
-      processCopyResults(op, block); // expect a call to handleCopydata() to store the data
-    } catch (IOException ioe) {
-      throw new PSQLException(GT.tr("Database connection failed when reading from copy"),
-          PSQLState.CONNECTION_FAILURE, ioe);
+      try {
+        processCopyResults(op, block); // expect a call to receiveCopydata() to store the data
+      } catch (IOException ioe) {
+        throw new PSQLException(GT.tr("Database connection failed when reading from copy"),
+            PSQLState.CONNECTION_FAILURE, ioe);
+      }
     }
   }
 
@@ -1318,16 +1555,17 @@ public class QueryExecutorImpl extends QueryExecutorBase {
 
             assert len > 0 : "Copy Data length must be greater than 4";
 
-            byte[] buf = pgStream.receive(len);
             if (op == null) {
+              pgStream.skip(len);
               error = new PSQLException(GT.tr("Got CopyData without an active copy operation"),
                   PSQLState.OBJECT_NOT_IN_STATE);
             } else if (!(op instanceof CopyOut)) {
+              pgStream.skip(len);
               error = new PSQLException(
                   GT.tr("Unexpected copydata from server for {0}", op.getClass().getName()),
                   PSQLState.COMMUNICATION_ERROR);
             } else {
-              op.handleCopydata(buf);
+              op.receiveCopydata(pgStream, len);
             }
             endReceiving = true;
             break;
@@ -1364,6 +1602,10 @@ public class QueryExecutorImpl extends QueryExecutorBase {
             if (op != null && hasLock(op)) {
               unlock(op);
             }
+            if (op != null) {
+              // The copy ended, after CopyDone and CommandComplete or after an error
+              commitCopyEvent(op);
+            }
             op = null;
             endReceiving = true;
             break;
@@ -1452,6 +1694,9 @@ public class QueryExecutorImpl extends QueryExecutorBase {
 
     if (disallowBatching || estimatedReceiveBufferBytes >= MAX_BUFFERED_RECV_BYTES) {
       LOGGER.log(Level.FINEST, "Forcing Sync, receive buffer full or batching disallowed");
+      if (metricsListener != null) {
+        metricsListener.forcedSync();
+      }
       sendSync();
       processResults(resultHandler, flags);
       estimatedReceiveBufferBytes = 0;
@@ -2346,6 +2591,7 @@ public class QueryExecutorImpl extends QueryExecutorBase {
             }
             if (tuple != null) {
               tuples.add(tuple);
+              dataRowCount++;
             }
           }
 
@@ -2359,6 +2605,18 @@ public class QueryExecutorImpl extends QueryExecutorBase {
             LOGGER.log(Level.FINEST, " <=BE DataRow(len={0})", length);
           }
 
+          if (streamFetchSize > 0 && tuples != null && tuples.size() >= streamFetchSize) {
+            // Hand out the rows read so far, the rest stays on the wire until the ResultSet
+            // asks for it
+            SimpleQuery currentQuery = castNonNull(pendingExecuteQueue.peekFirst()).query;
+            StreamCursor stream = new StreamCursor(this, currentQuery,
+                castNonNull(currentQuery.getFields()));
+            streamFetchSize = 0;
+            activeStream = stream;
+            handler.handleResultRows(currentQuery, stream.getFields(), tuples, stream);
+            tuples = null;
+            endQuery = true;
+          }
           break;
 
         case 'E':
@@ -2429,6 +2687,7 @@ public class QueryExecutorImpl extends QueryExecutorBase {
 
         case 'Z': // Ready For Query (eventual response to Sync)
           receiveRFQ();
+          readyForQueryCount++;
           if (!pendingExecuteQueue.isEmpty()
               && castNonNull(pendingExecuteQueue.peekFirst()).asSimple) {
             tuples = null;
@@ -2534,43 +2793,168 @@ public class QueryExecutorImpl extends QueryExecutorBase {
     pgStream.skip(len - 4);
   }
 
-  public synchronized void fetch(ResultCursor cursor, ResultHandler handler, int fetchSize,
+  public void fetch(ResultCursor cursor, ResultHandler handler, int fetchSize,
       boolean adaptiveFetch) throws SQLException {
-    waitOnLock();
-    final Portal portal = (Portal) cursor;
-
-    // Insert a ResultHandler that turns bare command statuses into empty datasets
-    // (if the fetch returns no rows, we see just a CommandStatus..)
-    final ResultHandler delegateHandler = handler;
-    final SimpleQuery query = castNonNull(portal.getQuery());
-    handler = new ResultHandlerDelegate(delegateHandler) {
-      @Override
-      public void handleCommandStatus(String status, long updateCount, long insertOID) {
-        handleResultRows(query, NO_FIELDS, new ArrayList<Tuple>(), null);
+    try (ResourceLock ignore = lock.obtain();
+        MetricsSnapshot metrics = startMetrics(true, null, 1, handler)) {
+      if (cursor instanceof StreamCursor) {
+        fetchStream((StreamCursor) cursor, handler, fetchSize);
+        if (metrics != null) {
+          metrics.completed();
+        }
+        return;
       }
-    };
+      waitOnLock(metrics);
+      final Portal portal = (Portal) cursor;
+
+      // Insert a ResultHandler that turns bare command statuses into empty datasets
+      // (if the fetch returns no rows, we see just a CommandStatus..)
+      final ResultHandler delegateHandler = handler;
+      final SimpleQuery query = castNonNull(portal.getQuery());
+      handler = new ResultHandlerDelegate(delegateHandler) {
+        @Override
+        public void handleCommandStatus(String status, long updateCount, long insertOID) {
+          handleResultRows(query, NO_FIELDS, new ArrayList<Tuple>(), null);
+        }
+      };
 
-    // Now actually run it.
+      // Now actually run it.
 
-    try {
-      processDeadParsedQueries();
-      processDeadPortals();
+      try {
+        processDeadParsedQueries();
+        processDeadPortals();
 
-      sendExecute(query, portal, fetchSize);
-      sendSync();
+        sendExecute(query, portal, fetchSize);
+        sendSync();
 
-      processResults(handler, 0, adaptiveFetch);
-      estimatedReceiveBufferBytes = 0;
-    } catch (IOException e) {
-      abort();
-      handler.handleError(
-          new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
-              PSQLState.CONNECTION_FAILURE, e));
+        processResults(handler, 0, adaptiveFetch);
+        estimatedReceiveBufferBytes = 0;
+      } catch (IOException e) {
+        abort();
+        handler.handleError(
+            new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
+                PSQLState.CONNECTION_FAILURE, e));
+      }
+
+      handler.handleCompletion();
+      if (metrics != null) {
+        metrics.completed();
+      }
     }
+  }
 
+  /**
+   * Reads the next rows of a streamed result.
+   *
+   * @param stream the streamed result
+   * @param handler the handler of the fetch
+   * @param fetchSize the number of rows to read, 0 for the rest of the result
+   * @throws SQLException if the result fails
+   */
+  private void fetchStream(StreamCursor stream, ResultHandler handler, int fetchSize)
+      throws SQLException {
+    if (activeStream != stream) {
+      // The connection was needed for something else in between
+      stream.replayRemainder(handler);
+    } else {
+      try {
+        // The rows handed out so far are not held by the driver any more
+        pgStream.clearResultBufferCount();
+        readStream(stream, handler, fetchSize, false);
+      } catch (IOException e) {
+        activeStream = null;
+        abort();
+        handler.handleError(
+            new PSQLException(GT.tr("An I/O error occurred while sending to the backend."),
+                PSQLState.CONNECTION_FAILURE, e));
+      }
+    }
     handler.handleCompletion();
   }
 
+  /**
+   * Discards the rest of a streamed result, so the connection can be used again.
+   *
+   * @param stream the streamed result
+   */
+  void closeStream(StreamCursor stream) {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (activeStream != stream) {
+        return;
+      }
+      try {
+        readStream(stream, new ResultHandlerBase(), 0, true);
+      } catch (IOException e) {
+        activeStream = null;
+        LOGGER.log(Level.FINE, "Failed to discard the rest of a streamed result", e);
+        abort();
+      }
+    }
+  }
+
+  /**
+   * Reads rows of the active streamed result. When the end of the result is reached, the remaining
+   * messages up to ReadyForQuery are processed and the stream is no longer active.
+   *
+   * @param stream the streamed result
+   * @param handler receives the rows, with the stream as cursor if there are more rows to read
+   * @param fetchSize the number of rows to read, 0 for the rest of the result
+   * @param discard whether to drop the rows instead of passing them to the handler
+   * @throws IOException if an I/O error occurs
+   */
+  private void readStream(StreamCursor stream, ResultHandler handler, int fetchSize,
+      boolean discard) throws IOException {
+    final List<Tuple> tuples = new ArrayList<Tuple>();
+    while (true) {
+      int c = pgStream.peekChar();
+      switch (c) {
+        case 'D': // Data Transfer
+          pgStream.receiveChar();
+          try {
+            Tuple tuple = pgStream.receiveTupleV3();
+            if (!discard) {
+              tuples.add(tuple);
+              dataRowCount++;
+            }
+          } catch (OutOfMemoryError oome) {
+            handler.handleError(
+                new PSQLException(GT.tr("Ran out of memory retrieving query results."),
+                    PSQLState.OUT_OF_MEMORY, oome));
+          } catch (SQLException e) {
+            handler.handleError(e);
+          }
+          if (fetchSize > 0 && tuples.size() >= fetchSize) {
+            handler.handleResultRows(stream.getQuery(), stream.getFields(), tuples, stream);
+            return;
+          }
+          break;
+
+        case 'N': // Notice Response
+          pgStream.receiveChar();
+          handler.handleWarning(receiveNoticeResponse());
+          break;
+
+        case 'A': // Asynchronous Notify
+          pgStream.receiveChar();
+          receiveAsyncNotify();
+          break;
+
+        default:
+          // CommandStatus, PortalSuspended or an error: the end of the result
+          activeStream = null;
+          processResults(new ResultHandlerDelegate(handler) {
+            @Override
+            public void handleResultRows(Query fromQuery, Field[] fields, List<Tuple> rows,
+                @Nullable ResultCursor cursor) {
+              tuples.addAll(rows);
+              super.handleResultRows(fromQuery, fields, tuples, null);
+            }
+          }, 0);
+          return;
+      }
+    }
+  }
+
   @Override
   public int getAdaptiveFetchSize(boolean adaptiveFetch, ResultCursor cursor) {
     if (cursor instanceof Portal) {
@@ -2953,6 +3337,109 @@ public class QueryExecutorImpl extends QueryExecutorBase {
   private final boolean allowEncodingChanges;
   private final boolean cleanupSavePoints;
 
+  /**
+   * Starts measuring an execution or a fetch, for the {@link MetricsListener} and the flight
+   * recorder event. It is reported when the returned snapshot is closed, as failed unless
+   * {@link MetricsSnapshot#completed()} was called and the handler got no error.
+   *
+   * @param fetch true for a fetch, false for an execution
+   * @param sql the SQL of the first statement, null for a fetch
+   * @param statements the number of statements
+   * @param handler the handler of the results
+   * @return the snapshot, or null if nothing records the metrics
+   */
+  private @Nullable MetricsSnapshot startMetrics(boolean fetch, @Nullable String sql,
+      int statements, ResultHandler handler) {
+    @Nullable Object event = fetch ? FlightRecorderEvents.beginFetch() : FlightRecorderEvents.beginQuery();
+    if (metricsListener == null && event == null) {
+      return null;
+    }
+    return new MetricsSnapshot(metricsListener, event, fetch, sql, statements, handler);
+  }
+
+  /**
+   * Waits on the lock, then starts measuring again, so the metrics only cover the execution itself
+   * and not the wait nor the rest of a previous streamed result.
+   */
+  private void waitOnLock(@Nullable MetricsSnapshot metrics) throws PSQLException {
+    waitOnLock();
+    if (metrics != null) {
+      metrics.start();
+    }
+  }
+
+  /**
+   * Counters at the start of an execution or a fetch, the differences are reported to the
+   * {@link MetricsListener} and to the flight recorder event when it is closed.
+   */
+  private final class MetricsSnapshot implements AutoCloseable {
+    private final @Nullable MetricsListener listener;
+    private final @Nullable Object event;
+    private final boolean fetch;
+    private final @Nullable String sql;
+    private final int statements;
+    private final ResultHandler handler;
+    private boolean completed;
+    private long startNanos;
+    private int readyForQueryCount;
+    private long dataRowCount;
+    private long bytesSent;
+    private long bytesReceived;
+
+    MetricsSnapshot(@Nullable MetricsListener listener, @Nullable Object event, boolean fetch,
+        @Nullable String sql, int statements, ResultHandler handler) {
+      this.listener = listener;
+      this.event = event;
+      this.fetch = fetch;
+      this.sql = sql;
+      this.statements = statements;
+      this.handler = handler;
+      start();
+    }
+
+    void start() {
+      startNanos = System.nanoTime();
+      readyForQueryCount = QueryExecutorImpl.this.readyForQueryCount;
+      dataRowCount = QueryExecutorImpl.this.dataRowCount;
+      bytesSent = pgStream.getBytesSent();
+      bytesReceived = pgStream.getBytesReceived();
+    }
+
+    /**
+     * Tells that the execution or the fetch returned normally. It still failed if the handler got
+     * an error.
+     */
+    void completed() {
+      completed = true;
+    }
+
+    /**
+     * Reports the execution or the fetch, whether it completed or failed.
+     */
+    @Override
+    public void close() {
+      boolean failed = !completed || handler.getException() != null;
+      long elapsedNanos = System.nanoTime() - startNanos;
+      int roundTrips = QueryExecutorImpl.this.readyForQueryCount - readyForQueryCount;
+      long rows = QueryExecutorImpl.this.dataRowCount - dataRowCount;
+      long sent = pgStream.getBytesSent() - bytesSent;
+      long received = pgStream.getBytesReceived() - bytesReceived;
+      if (listener != null) {
+        listener.queryExecuted(sql, statements, elapsedNanos, roundTrips, failed);
+        if (rows > 0) {
+          listener.rowsFetched(rows);
+        }
+        listener.bytesTransferred(sent, received);
+      }
+      if (fetch) {
+        FlightRecorderEvents.commitFetch(event, roundTrips, rows, sent, received, failed);
+      } else if (sql != null) {
+        FlightRecorderEvents.commitQuery(event, sql, statements, roundTrips, rows, sent, received,
+            failed);
+      }
+    }
+  }
+
   /**
    * <p>The estimated server response size since we last consumed the input stream from the server, in
    * bytes.</p>
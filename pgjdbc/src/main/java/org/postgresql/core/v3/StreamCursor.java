@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.core.v3;
+
+import org.postgresql.core.Field;
+import org.postgresql.core.Query;
+import org.postgresql.core.ResultCursor;
+import org.postgresql.core.ResultHandler;
+import org.postgresql.core.ResultHandlerBase;
+import org.postgresql.core.Tuple;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * V3 ResultCursor implementation for results that are read off the connection as the ResultSet
+ * advances, see {@link org.postgresql.core.QueryExecutor#QUERY_STREAM_RESULTS}. There is no
+ * backend portal: the rows not read yet are still on the wire, so the connection can't be used for
+ * anything else until the result is read. Any other use of the connection reads the rest of the
+ * result into memory first, closing the cursor discards it.
+ */
+class StreamCursor implements ResultCursor {
+  private final QueryExecutorImpl executor;
+  private final SimpleQuery query;
+  private final Field[] fields;
+  // The rest of the result, read when the connection was needed for something else
+  private final Remainder remainder = new Remainder();
+
+  StreamCursor(QueryExecutorImpl executor, SimpleQuery query, Field[] fields) {
+    this.executor = executor;
+    this.query = query;
+    this.fields = fields;
+  }
+
+  @Override
+  public void close() {
+    executor.closeStream(this);
+  }
+
+  SimpleQuery getQuery() {
+    return query;
+  }
+
+  Field[] getFields() {
+    return fields;
+  }
+
+  /**
+   * @return the handler that collects the rest of the result when the connection is needed for
+   *     something else
+   */
+  ResultHandlerBase getRemainder() {
+    return remainder;
+  }
+
+  /**
+   * Passes the rest of the result read by {@link #getRemainder()} to the given handler.
+   *
+   * @param handler the handler of the fetch
+   */
+  void replayRemainder(ResultHandler handler) {
+    SQLWarning warning = remainder.getWarning();
+    if (warning != null) {
+      handler.handleWarning(warning);
+    }
+    SQLException error = remainder.getException();
+    if (error != null) {
+      handler.handleError(error);
+    }
+    handler.handleResultRows(query, fields, remainder.rows, null);
+    remainder.rows = new ArrayList<Tuple>();
+  }
+
+  public String toString() {
+    return "<stream " + query + ">";
+  }
+
+  private static class Remainder extends ResultHandlerBase {
+    private List<Tuple> rows = new ArrayList<Tuple>();
+
+    @Override
+    public void handleResultRows(Query fromQuery, Field[] fields, List<Tuple> tuples,
+        @Nullable ResultCursor cursor) {
+      rows = tuples;
+    }
+  }
+}
@@ -6,6 +6,7 @@
 package org.postgresql.core.v3.replication;
 
 import org.postgresql.copy.CopyDual;
+import org.postgresql.jdbc.ResourceLock;
 import org.postgresql.replication.LogSequenceNumber;
 import org.postgresql.replication.PGReplicationStream;
 import org.postgresql.replication.ReplicationType;
@@ -19,7 +20,11 @@ import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
 import java.sql.SQLException;
 import java.util.Date;
+import java.util.Timer;
+import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,19 +34,37 @@ public class V3PGReplicationStream implements PGReplicationStream {
   public static final long POSTGRES_EPOCH_2000_01_01 = 946684800000L;
   private static final long NANOS_PER_MILLISECOND = 1000000L;
 
+  private static final int INITIAL_RECEIVE_BUFFER_SIZE = 8192;
+  // Time between the checks for a first record of readBatch
+  private static final long BATCH_POLL_INTERVAL_MS = 10L;
+  // Longest time the background status updates leave a keepalive that requests a reply unanswered
+  private static final long BACKGROUND_POLL_INTERVAL_MS = 1000L;
+
+  private static final AtomicInteger timerCount = new AtomicInteger(0);
+
   private final CopyDual copyDual;
   private final long updateInterval;
   private final ReplicationType replicationType;
   private long lastStatusUpdate;
-  private boolean closeFlag = false;
-
-  private LogSequenceNumber lastServerLSN = LogSequenceNumber.INVALID_LSN;
+  private volatile boolean closeFlag = false;
+  // Buffer the messages are received into when it is reused, see bufferReuse
+  private @Nullable ByteBuffer receiveBuffer;
+  private final ByteBuffer statusUpdate = ByteBuffer.allocate(1 + 8 + 8 + 8 + 8 + 1);
+  // Serializes the reads and status updates of the caller and of the background status updates
+  private final ResourceLock lock = new ResourceLock();
+  private @Nullable Timer statusTimer;
+  // Message the background status updates received that is not a keepalive, read() returns it
+  private byte @Nullable [] pending;
+  // A keepalive message requested a reply, sent with the next status update
+  private boolean updateStatusRequired;
+
+  private long lastServerLSN = LogSequenceNumber.INVALID_LSN.asLong();
   /**
    * Last receive LSN + payload size.
    */
-  private volatile LogSequenceNumber lastReceiveLSN = LogSequenceNumber.INVALID_LSN;
-  private volatile LogSequenceNumber lastAppliedLSN = LogSequenceNumber.INVALID_LSN;
-  private volatile LogSequenceNumber lastFlushedLSN = LogSequenceNumber.INVALID_LSN;
+  private volatile long lastReceiveLSN;
+  private volatile long lastAppliedLSN = LogSequenceNumber.INVALID_LSN.asLong();
+  private volatile long lastFlushedLSN = LogSequenceNumber.INVALID_LSN.asLong();
 
   /**
    * @param copyDual         bidirectional copy protocol
@@ -58,59 +81,182 @@ public class V3PGReplicationStream implements PGReplicationStream {
   public V3PGReplicationStream(CopyDual copyDual, LogSequenceNumber startLSN, long updateIntervalMs,
       ReplicationType replicationType
   ) {
+    this(copyDual, startLSN, updateIntervalMs, replicationType, false);
+  }
+
+  /**
+   * @param copyDual         bidirectional copy protocol
+   * @param startLSN         the position in the WAL that we want to initiate replication from
+   * @param updateIntervalMs the number of millisecond between status packets sent back to the
+   *                         server, zero disables the periodic status updates
+   * @param replicationType  LOGICAL or PHYSICAL
+   * @param bufferReuse      true to receive all the messages into the same buffer, that is
+   *                         returned by {@link #read()} and only valid until the next read
+   */
+  public V3PGReplicationStream(CopyDual copyDual, LogSequenceNumber startLSN, long updateIntervalMs,
+      ReplicationType replicationType, boolean bufferReuse) {
     this.copyDual = copyDual;
     this.updateInterval = updateIntervalMs * NANOS_PER_MILLISECOND;
     this.lastStatusUpdate = System.nanoTime() - (updateIntervalMs * NANOS_PER_MILLISECOND);
-    this.lastReceiveLSN = startLSN;
+    this.lastReceiveLSN = startLSN.asLong();
     this.replicationType = replicationType;
+    if (bufferReuse) {
+      this.receiveBuffer = ByteBuffer.allocate(INITIAL_RECEIVE_BUFFER_SIZE);
+    }
+  }
+
+  /**
+   * Starts sending the status updates, and the replies to the keepalive messages, from a
+   * background thread, so they are sent while the caller is not reading the stream. The thread
+   * runs until the stream is closed.
+   */
+  void startBackgroundStatusUpdate() {
+    long period = BACKGROUND_POLL_INTERVAL_MS;
+    if (updateInterval > 0) {
+      period = Math.min(period, Math.max(1L, updateInterval / NANOS_PER_MILLISECOND));
+    }
+    Timer timer = new Timer("PostgreSQL-JDBC-ReplicationStatus-" + timerCount.incrementAndGet(),
+        true);
+    timer.schedule(new TimerTask() {
+      @Override
+      public void run() {
+        backgroundUpdateStatus();
+      }
+    }, period, period);
+    statusTimer = timer;
   }
 
   @Override
   public @Nullable ByteBuffer read() throws SQLException {
     checkClose();
 
-    ByteBuffer payload = null;
-    while (payload == null && copyDual.isActive()) {
-      payload = readInternal(true);
-    }
+    try (ResourceLock ignore = lock.obtain()) {
+      ByteBuffer payload = null;
+      while (payload == null && copyDual.isActive()) {
+        payload = readInternal(true);
+      }
 
-    return payload;
+      return payload;
+    }
   }
 
   public @Nullable ByteBuffer readPending() throws SQLException {
     checkClose();
-    return readInternal(false);
+    try (ResourceLock ignore = lock.obtain()) {
+      return readInternal(false);
+    }
+  }
+
+  /**
+   * Reads the records already received under a single acquisition of the stream lock, and checks
+   * if a status update is due once for the batch rather than for each record. While waiting for a
+   * first record, the lock is released, so the background status updates keep running.
+   */
+  @Override
+  public int readBatch(int maxMessages, long maxWaitMillis, Consumer<ByteBuffer> consumer)
+      throws SQLException {
+    if (maxMessages < 1) {
+      throw new IllegalArgumentException("maxMessages must be positive: " + maxMessages);
+    }
+    checkClose();
+
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    while (true) {
+      int count;
+      try (ResourceLock ignore = lock.obtain()) {
+        count = readReceived(maxMessages, consumer);
+      }
+      long remaining = deadline - System.nanoTime();
+      if (count > 0 || remaining <= 0 || !copyDual.isActive()) {
+        return count;
+      }
+      try {
+        TimeUnit.NANOSECONDS.sleep(
+            Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(BATCH_POLL_INTERVAL_MS)));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * Passes the records already received to the consumer, then sends a status update if one is
+   * due, which also keeps the server informed while readBatch waits.
+   */
+  private int readReceived(int maxMessages, Consumer<ByteBuffer> consumer) throws SQLException {
+    int count = 0;
+    while (count < maxMessages && copyDual.isActive()) {
+      ByteBuffer buffer = receiveNextData(false);
+      if (buffer == null) {
+        break;
+      }
+      ByteBuffer record = processMessage(buffer);
+      if (record != null) {
+        consumer.accept(record);
+        count++;
+      }
+    }
+    updateStatusIfRequired();
+    return count;
   }
 
   @Override
   public LogSequenceNumber getLastReceiveLSN() {
-    return lastReceiveLSN;
+    return LogSequenceNumber.valueOf(lastReceiveLSN);
   }
 
   @Override
   public LogSequenceNumber getLastFlushedLSN() {
-    return lastFlushedLSN;
+    return LogSequenceNumber.valueOf(lastFlushedLSN);
   }
 
   @Override
   public LogSequenceNumber getLastAppliedLSN() {
+    return LogSequenceNumber.valueOf(lastAppliedLSN);
+  }
+
+  @Override
+  public long getLastReceiveLSNAsLong() {
+    return lastReceiveLSN;
+  }
+
+  @Override
+  public long getLastFlushedLSNAsLong() {
+    return lastFlushedLSN;
+  }
+
+  @Override
+  public long getLastAppliedLSNAsLong() {
     return lastAppliedLSN;
   }
 
   @Override
   public void setFlushedLSN(LogSequenceNumber flushed) {
-    this.lastFlushedLSN = flushed;
+    this.lastFlushedLSN = flushed.asLong();
   }
 
   @Override
   public void setAppliedLSN(LogSequenceNumber applied) {
+    this.lastAppliedLSN = applied.asLong();
+  }
+
+  @Override
+  public void setFlushedLSN(long flushed) {
+    this.lastFlushedLSN = flushed;
+  }
+
+  @Override
+  public void setAppliedLSN(long applied) {
     this.lastAppliedLSN = applied;
   }
 
   @Override
   public void forceUpdateStatus() throws SQLException {
     checkClose();
-    updateStatusInternal(lastReceiveLSN, lastFlushedLSN, lastAppliedLSN, true);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateStatusInternal(lastReceiveLSN, lastFlushedLSN, lastAppliedLSN, true);
+    }
   }
 
   @Override
@@ -119,44 +265,79 @@ public class V3PGReplicationStream implements PGReplicationStream {
   }
 
   private @Nullable ByteBuffer readInternal(boolean block) throws SQLException {
-    boolean updateStatusRequired = false;
     while (copyDual.isActive()) {
 
       ByteBuffer buffer = receiveNextData(block);
 
-      if (updateStatusRequired || isTimeUpdate()) {
-        timeUpdateStatus();
-      }
+      updateStatusIfRequired();
 
       if (buffer == null) {
         return null;
       }
 
-      int code = buffer.get();
+      ByteBuffer record = processMessage(buffer);
+      if (record != null) {
+        return record;
+      }
+    }
 
-      switch (code) {
+    return null;
+  }
 
-        case 'k': //KeepAlive message
-          updateStatusRequired = processKeepAliveMessage(buffer);
-          updateStatusRequired |= updateInterval == 0;
-          break;
+  /**
+   * Processes a message of the replication protocol.
+   *
+   * @param buffer the received message
+   * @return the record of an XLogData message, or null for a keepalive message
+   * @throws PSQLException if the message is of another type
+   */
+  private @Nullable ByteBuffer processMessage(ByteBuffer buffer) throws PSQLException {
+    int code = buffer.get();
 
-        case 'w': //XLogData
-          return processXLogData(buffer);
+    switch (code) {
 
-        default:
-          throw new PSQLException(
-              GT.tr("Unexpected packet type during replication: {0}", Integer.toString(code)),
-              PSQLState.PROTOCOL_VIOLATION
-          );
-      }
+      case 'k': //KeepAlive message
+        updateStatusRequired |= processKeepAliveMessage(buffer);
+        updateStatusRequired |= updateInterval == 0;
+        return null;
+
+      case 'w': //XLogData
+        return processXLogData(buffer);
+
+      default:
+        throw new PSQLException(
+            GT.tr("Unexpected packet type during replication: {0}", Integer.toString(code)),
+            PSQLState.PROTOCOL_VIOLATION
+        );
     }
+  }
 
-    return null;
+  private void updateStatusIfRequired() throws SQLException {
+    if (updateStatusRequired || isTimeUpdate()) {
+      updateStatusRequired = false;
+      timeUpdateStatus();
+    }
   }
 
   private @Nullable ByteBuffer receiveNextData(boolean block) throws SQLException {
+    byte[] pending = this.pending;
+    if (pending != null) {
+      this.pending = null;
+      return wrapReceived(pending);
+    }
     try {
+      ByteBuffer receiveBuffer = this.receiveBuffer;
+      if (receiveBuffer != null) {
+        receiveBuffer.clear();
+        ByteBuffer received = copyDual.readFromCopy(receiveBuffer, block);
+        if (received == null) {
+          return null;
+        }
+        // Keeps the buffer if it had to grow for a large message
+        this.receiveBuffer = received;
+        received.flip();
+        return received;
+      }
       byte[] message = copyDual.readFromCopy(block);
       if (message != null) {
         return ByteBuffer.wrap(message);
@@ -173,6 +354,67 @@ public class V3PGReplicationStream implements PGReplicationStream {
     }
   }
 
+  private ByteBuffer wrapReceived(byte[] message) {
+    ByteBuffer receiveBuffer = this.receiveBuffer;
+    if (receiveBuffer == null) {
+      return ByteBuffer.wrap(message);
+    }
+    if (receiveBuffer.capacity() < message.length) {
+      receiveBuffer = ByteBuffer.allocate(Math.max(receiveBuffer.capacity() * 2, message.length));
+      this.receiveBuffer = receiveBuffer;
+    }
+    receiveBuffer.clear();
+    receiveBuffer.put(message);
+    receiveBuffer.flip();
+    return receiveBuffer;
+  }
+
+  /**
+   * Runs in the background thread. It does nothing while the caller is reading, as the caller
+   * sends the status updates then. Otherwise it answers the keepalive messages the server sent and
+   * sends the periodic status update. It stops reading at the first WAL message, which is kept for
+   * the next read, so the received LSN never gets ahead of what the caller has read.
+   */
+  private void backgroundUpdateStatus() {
+    if (!lock.tryLock()) {
+      return;
+    }
+    try {
+      if (isClosed()) {
+        stopBackgroundStatusUpdate();
+        return;
+      }
+      while (pending == null) {
+        // Not the reused buffer, the caller may still be using its content
+        byte[] message = copyDual.readFromCopy(false);
+        if (message == null) {
+          break;
+        }
+        if (message[0] != 'k') {
+          pending = message;
+          break;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(message);
+        buffer.get();
+        updateStatusRequired |= processKeepAliveMessage(buffer);
+      }
+      updateStatusIfRequired();
+    } catch (SQLException e) {
+      // The next read reports the failure of the connection
+      LOGGER.log(Level.FINE, "Background status update failed, it is stopped", e);
+      stopBackgroundStatusUpdate();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void stopBackgroundStatusUpdate() {
+    Timer timer = statusTimer;
+    if (timer != null) {
+      timer.cancel();
+    }
+  }
+
   private boolean isTimeUpdate() {
     /* a value of 0 disables automatic updates */
     if ( updateInterval == 0 ) {
@@ -186,8 +428,7 @@ public class V3PGReplicationStream implements PGReplicationStream {
     updateStatusInternal(lastReceiveLSN, lastFlushedLSN, lastAppliedLSN, false);
   }
 
-  private void updateStatusInternal(
-      LogSequenceNumber received, LogSequenceNumber flushed, LogSequenceNumber applied,
+  private void updateStatusInternal(long received, long flushed, long applied,
       boolean replyRequired)
       throws SQLException {
     byte[] reply = prepareUpdateStatus(received, flushed, applied, replyRequired);
@@ -197,9 +438,11 @@ public class V3PGReplicationStream implements PGReplicationStream {
     lastStatusUpdate = System.nanoTime();
   }
 
-  private byte[] prepareUpdateStatus(LogSequenceNumber received, LogSequenceNumber flushed,
-      LogSequenceNumber applied, boolean replyRequired) {
-    ByteBuffer byteBuffer = ByteBuffer.allocate(1 + 8 + 8 + 8 + 8 + 1);
+  private byte[] prepareUpdateStatus(long received, long flushed, long applied,
+      boolean replyRequired) {
+    // The message is written to the stream right away, so the same buffer serves every update
+    ByteBuffer byteBuffer = statusUpdate;
+    byteBuffer.clear();
 
     long now = System.nanoTime() / NANOS_PER_MILLISECOND;
     long systemClock = TimeUnit.MICROSECONDS.convert((now - POSTGRES_EPOCH_2000_01_01),
@@ -207,18 +450,20 @@ public class V3PGReplicationStream implements PGReplicationStream {
 
     if (LOGGER.isLoggable(Level.FINEST)) {
       LOGGER.log(Level.FINEST, " FE=> StandbyStatusUpdate(received: {0}, flushed: {1}, applied: {2}, clock: {3})",
-          new Object[]{received.asString(), flushed.asString(), applied.asString(), new Date(now)});
+          new Object[]{LogSequenceNumber.valueOf(received).asString(),
+              LogSequenceNumber.valueOf(flushed).asString(),
+              LogSequenceNumber.valueOf(applied).asString(), new Date(now)});
     }
 
     byteBuffer.put((byte) 'r');
-    byteBuffer.putLong(received.asLong());
-    byteBuffer.putLong(flushed.asLong());
-    byteBuffer.putLong(applied.asLong());
+    byteBuffer.putLong(received);
+    byteBuffer.putLong(flushed);
+    byteBuffer.putLong(applied);
     byteBuffer.putLong(systemClock);
     if (replyRequired) {
       byteBuffer.put((byte) 1);
     } else {
-      byteBuffer.put(received == LogSequenceNumber.INVALID_LSN ? (byte) 1 : (byte) 0);
+      byteBuffer.put(received == LogSequenceNumber.INVALID_LSN.asLong() ? (byte) 1 : (byte) 0);
     }
 
     lastStatusUpdate = now;
@@ -226,8 +471,8 @@ public class V3PGReplicationStream implements PGReplicationStream {
   }
 
   private boolean processKeepAliveMessage(ByteBuffer buffer) {
-    lastServerLSN = LogSequenceNumber.valueOf(buffer.getLong());
-    if (lastServerLSN.asLong() > lastReceiveLSN.asLong()) {
+    lastServerLSN = buffer.getLong();
+    if (lastServerLSN > lastReceiveLSN) {
       lastReceiveLSN = lastServerLSN;
     }
 
@@ -240,7 +485,8 @@ public class V3PGReplicationStream implements PGReplicationStream {
           TimeUnit.MILLISECONDS.convert(lastServerClock, TimeUnit.MICROSECONDS)
           + POSTGRES_EPOCH_2000_01_01);
       LOGGER.log(Level.FINEST, "  <=BE Keepalive(lastServerWal: {0}, clock: {1} needReply: {2})",
-          new Object[]{lastServerLSN.asString(), clockTime, replyRequired});
+          new Object[]{LogSequenceNumber.valueOf(lastServerLSN).asString(), clockTime,
+              replyRequired});
     }
 
     return replyRequired;
@@ -248,24 +494,27 @@ public class V3PGReplicationStream implements PGReplicationStream {
 
   private ByteBuffer processXLogData(ByteBuffer buffer) {
     long startLsn = buffer.getLong();
-    lastServerLSN = LogSequenceNumber.valueOf(buffer.getLong());
+    lastServerLSN = buffer.getLong();
     long systemClock = buffer.getLong();
 
     switch (replicationType) {
       case LOGICAL:
-        lastReceiveLSN = LogSequenceNumber.valueOf(startLsn);
+        lastReceiveLSN = startLsn;
         break;
       case PHYSICAL:
         int payloadSize = buffer.limit() - buffer.position();
-        lastReceiveLSN = LogSequenceNumber.valueOf(startLsn + payloadSize);
+        lastReceiveLSN = startLsn + payloadSize;
         break;
     }
 
     if (LOGGER.isLoggable(Level.FINEST)) {
       LOGGER.log(Level.FINEST, "  <=BE XLogData(currWal: {0}, lastServerWal: {1}, clock: {2})",
-          new Object[]{lastReceiveLSN.asString(), lastServerLSN.asString(), systemClock});
+          new Object[]{LogSequenceNumber.valueOf(lastReceiveLSN).asString(),
+              LogSequenceNumber.valueOf(lastServerLSN).asString(), systemClock});
     }
 
+    // A view of the payload, of the reused buffer too, so the record starts at position 0 and
+    // only arrayOffset() tells where it is in the array
     return buffer.slice();
   }
 
@@ -277,14 +526,18 @@ public class V3PGReplicationStream implements PGReplicationStream {
   }
 
   public void close() throws SQLException {
-    if (isClosed()) {
-      return;
-    }
+    stopBackgroundStatusUpdate();
+    // Cancelling the timer does not wait for a status update in progress, the lock does
+    try (ResourceLock ignore = lock.obtain()) {
+      if (isClosed()) {
+        return;
+      }
 
-    LOGGER.log(Level.FINEST, " FE=> StopReplication");
+      LOGGER.log(Level.FINEST, " FE=> StopReplication");
 
-    copyDual.endCopy();
+      copyDual.endCopy();
 
-    closeFlag = true;
+      closeFlag = true;
+    }
   }
 }
@@ -59,12 +59,17 @@ public class V3ReplicationProtocol implements ReplicationProtocol {
     configureSocketTimeout(options);
     CopyDual copyDual = (CopyDual) queryExecutor.startCopy(query, true);
 
-    return new V3PGReplicationStream(
+    V3PGReplicationStream stream = new V3PGReplicationStream(
         castNonNull(copyDual),
         options.getStartLSNPosition(),
         options.getStatusInterval(),
-        replicationType
+        replicationType,
+        options.isBufferReuse()
     );
+    if (options.isBackgroundStatusUpdate()) {
+      stream.startBackgroundStatusUpdate();
+    }
+    return stream;
   }
 
   /**
@@ -354,6 +354,22 @@ public abstract class BaseDataSource implements CommonDataSource, Referenceable
     PGProperty.CONNECT_TIMEOUT.set(properties, connectTimeout);
   }
 
+  /**
+   * @return true if batched inserts of parameters are executed as COPY FROM STDIN
+   * @see PGProperty#COPY_BATCHED_INSERTS
+   */
+  public boolean getCopyBatchedInserts() {
+    return PGProperty.COPY_BATCHED_INSERTS.getBoolean(properties);
+  }
+
+  /**
+   * @param copyBatchedInserts true to execute batched inserts of parameters as COPY FROM STDIN
+   * @see PGProperty#COPY_BATCHED_INSERTS
+   */
+  public void setCopyBatchedInserts(boolean copyBatchedInserts) {
+    PGProperty.COPY_BATCHED_INSERTS.set(properties, copyBatchedInserts);
+  }
+
   /**
    * @return protocol version
    * @see PGProperty#PROTOCOL_VERSION
@@ -538,6 +554,22 @@ public abstract class BaseDataSource implements CommonDataSource, Referenceable
     return PGProperty.UNKNOWN_LENGTH.getIntNoCheck(properties);
   }
 
+  /**
+   * @return true if batches are executed as one statement over arrays of the parameters
+   * @see PGProperty#UNNEST_BATCHES
+   */
+  public boolean getUnnestBatches() {
+    return PGProperty.UNNEST_BATCHES.getBoolean(properties);
+  }
+
+  /**
+   * @param unnestBatches true to execute batches as one statement over arrays of the parameters
+   * @see PGProperty#UNNEST_BATCHES
+   */
+  public void setUnnestBatches(boolean unnestBatches) {
+    PGProperty.UNNEST_BATCHES.set(properties, unnestBatches);
+  }
+
   /**
    * @param seconds socket timeout
    * @see PGProperty#SOCKET_TIMEOUT
@@ -895,6 +927,22 @@ public abstract class BaseDataSource implements CommonDataSource, Referenceable
     PGProperty.STRING_TYPE.set(properties, stringType);
   }
 
+  /**
+   * @return true if result sets are streamed in autocommit mode
+   * @see PGProperty#STREAM_RESULTS
+   */
+  public boolean getStreamResults() {
+    return PGProperty.STREAM_RESULTS.getBoolean(properties);
+  }
+
+  /**
+   * @param streamResults true to stream result sets with a fetch size in autocommit mode
+   * @see PGProperty#STREAM_RESULTS
+   */
+  public void setStreamResults(boolean streamResults) {
+    PGProperty.STREAM_RESULTS.set(properties, streamResults);
+  }
+
   /**
    * @return true if column sanitizer is disabled
    * @see PGProperty#DISABLE_COLUMN_SANITISER
@@ -1572,6 +1620,23 @@ public abstract class BaseDataSource implements CommonDataSource, Referenceable
     PGProperty.PREFER_QUERY_MODE.set(properties, preferQueryMode.value());
   }
 
+  /**
+   * @return percentage of a fetched batch consumed before the next batch is prefetched
+   * @see PGProperty#PREFETCH_THRESHOLD
+   */
+  public int getPrefetchThreshold() {
+    return PGProperty.PREFETCH_THRESHOLD.getIntNoCheck(properties);
+  }
+
+  /**
+   * @param prefetchThreshold percentage of a fetched batch consumed before the next batch is
+   *     prefetched, 0 disables prefetch
+   * @see PGProperty#PREFETCH_THRESHOLD
+   */
+  public void setPrefetchThreshold(int prefetchThreshold) {
+    PGProperty.PREFETCH_THRESHOLD.set(properties, prefetchThreshold);
+  }
+
   /**
    * @return connection configuration regarding automatic per-query savepoints
    * @see PGProperty#AUTOSAVE
@@ -1646,6 +1711,87 @@ public abstract class BaseDataSource implements CommonDataSource, Referenceable
     PGProperty.MAX_RESULT_BUFFER.set(properties, maxResultBuffer);
   }
 
+  /**
+   * @return the name of the class that receives the metrics of the connections
+   * @see PGProperty#METRICS_LISTENER_CLASS_NAME
+   */
+  public @Nullable String getMetricsListenerClassName() {
+    return PGProperty.METRICS_LISTENER_CLASS_NAME.get(properties);
+  }
+
+  /**
+   * @param className name of a class which implements {@link org.postgresql.plugin.MetricsListener}
+   * @see PGProperty#METRICS_LISTENER_CLASS_NAME
+   */
+  public void setMetricsListenerClassName(@Nullable String className) {
+    PGProperty.METRICS_LISTENER_CLASS_NAME.set(properties, className);
+  }
+
+  /**
+   * @return true if parsed SQL is shared with the other connections of the JVM
+   * @see PGProperty#SHARED_QUERY_CACHE
+   */
+  public boolean getSharedQueryCache() {
+    return PGProperty.SHARED_QUERY_CACHE.getBoolean(properties);
+  }
+
+  /**
+   * @param sharedQueryCache true to share parsed SQL with the other connections of the JVM
+   * @see PGProperty#SHARED_QUERY_CACHE
+   */
+  public void setSharedQueryCache(boolean sharedQueryCache) {
+    PGProperty.SHARED_QUERY_CACHE.set(properties, sharedQueryCache);
+  }
+
+  /**
+   * @return true if data type information is shared with the other connections of the JVM
+   * @see PGProperty#SHARED_TYPE_INFO_CACHE
+   */
+  public boolean getSharedTypeInfoCache() {
+    return PGProperty.SHARED_TYPE_INFO_CACHE.getBoolean(properties);
+  }
+
+  /**
+   * @param sharedTypeInfoCache true to share data type information with the other connections of
+   *     the JVM
+   * @see PGProperty#SHARED_TYPE_INFO_CACHE
+   */
+  public void setSharedTypeInfoCache(boolean sharedTypeInfoCache) {
+    PGProperty.SHARED_TYPE_INFO_CACHE.set(properties, sharedTypeInfoCache);
+  }
+
+  /**
+   * @return true if result rows are read into a single buffer per row
+   * @see PGProperty#SLAB_ROW_STORAGE
+   */
+  public boolean getSlabRowStorage() {
+    return PGProperty.SLAB_ROW_STORAGE.getBoolean(properties);
+  }
+
+  /**
+   * @param slabRowStorage true to read result rows into a single buffer per row
+   * @see PGProperty#SLAB_ROW_STORAGE
+   */
+  public void setSlabRowStorage(boolean slabRowStorage) {
+    PGProperty.SLAB_ROW_STORAGE.set(properties, slabRowStorage);
+  }
+
+  /**
+   * @return true if the connection I/O goes through a SocketChannel with pooled direct buffers
+   * @see PGProperty#SOCKET_CHANNEL
+   */
+  public boolean getSocketChannel() {
+    return PGProperty.SOCKET_CHANNEL.getBoolean(properties);
+  }
+
+  /**
+   * @param socketChannel true to perform the connection I/O through a SocketChannel
+   * @see PGProperty#SOCKET_CHANNEL
+   */
+  public void setSocketChannel(boolean socketChannel) {
+    PGProperty.SOCKET_CHANNEL.set(properties, socketChannel);
+  }
+
   public boolean getAdaptiveFetch() {
     return PGProperty.ADAPTIVE_FETCH.getBoolean(properties);
   }
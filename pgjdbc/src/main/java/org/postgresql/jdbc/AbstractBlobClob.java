@@ -30,6 +30,7 @@ import java.util.ArrayList;
  */
 public abstract class AbstractBlobClob {
   protected BaseConnection conn;
+  protected final ResourceLock lock = new ResourceLock();
 
   private @Nullable LargeObject currentLo;
   private boolean currentLoIsWriteable;
@@ -51,18 +52,20 @@ public abstract class AbstractBlobClob {
     support64bit = conn.haveMinimumServerVersion(90300);
   }
 
-  public synchronized void free() throws SQLException {
-    if (currentLo != null) {
-      currentLo.close();
-      currentLo = null;
-      currentLoIsWriteable = false;
-    }
-    if (subLOs != null) {
-      for (LargeObject subLO : subLOs) {
-        subLO.close();
+  public void free() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (currentLo != null) {
+        currentLo.close();
+        currentLo = null;
+        currentLoIsWriteable = false;
+      }
+      if (subLOs != null) {
+        for (LargeObject subLO : subLOs) {
+          subLO.close();
+        }
       }
+      subLOs = null;
     }
-    subLOs = null;
   }
 
   /**
@@ -73,59 +76,69 @@ public abstract class AbstractBlobClob {
    * @param len maximum length
    * @throws SQLException if operation fails
    */
-  public synchronized void truncate(long len) throws SQLException {
-    checkFreed();
-    if (!conn.haveMinimumServerVersion(ServerVersion.v8_3)) {
-      throw new PSQLException(
-          GT.tr("Truncation of large objects is only implemented in 8.3 and later servers."),
-          PSQLState.NOT_IMPLEMENTED);
-    }
+  public void truncate(long len) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkFreed();
+      if (!conn.haveMinimumServerVersion(ServerVersion.v8_3)) {
+        throw new PSQLException(
+            GT.tr("Truncation of large objects is only implemented in 8.3 and later servers."),
+            PSQLState.NOT_IMPLEMENTED);
+      }
 
-    if (len < 0) {
-      throw new PSQLException(GT.tr("Cannot truncate LOB to a negative length."),
-          PSQLState.INVALID_PARAMETER_VALUE);
-    }
-    if (len > Integer.MAX_VALUE) {
-      if (support64bit) {
-        getLo(true).truncate64(len);
-      } else {
-        throw new PSQLException(GT.tr("PostgreSQL LOBs can only index to: {0}", Integer.MAX_VALUE),
+      if (len < 0) {
+        throw new PSQLException(GT.tr("Cannot truncate LOB to a negative length."),
             PSQLState.INVALID_PARAMETER_VALUE);
       }
-    } else {
-      getLo(true).truncate((int) len);
+      if (len > Integer.MAX_VALUE) {
+        if (support64bit) {
+          getLo(true).truncate64(len);
+        } else {
+          throw new PSQLException(GT.tr("PostgreSQL LOBs can only index to: {0}", Integer.MAX_VALUE),
+              PSQLState.INVALID_PARAMETER_VALUE);
+        }
+      } else {
+        getLo(true).truncate((int) len);
+      }
     }
   }
 
-  public synchronized long length() throws SQLException {
-    checkFreed();
-    if (support64bit) {
-      return getLo(false).size64();
-    } else {
-      return getLo(false).size();
+  public long length() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkFreed();
+      if (support64bit) {
+        return getLo(false).size64();
+      } else {
+        return getLo(false).size();
+      }
     }
   }
 
-  public synchronized byte[] getBytes(long pos, int length) throws SQLException {
-    assertPosition(pos);
-    getLo(false).seek((int) (pos - 1), LargeObject.SEEK_SET);
-    return getLo(false).read(length);
+  public byte[] getBytes(long pos, int length) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      assertPosition(pos);
+      getLo(false).seek((int) (pos - 1), LargeObject.SEEK_SET);
+      return getLo(false).read(length);
+    }
   }
 
-  public synchronized InputStream getBinaryStream() throws SQLException {
-    checkFreed();
-    LargeObject subLO = getLo(false).copy();
-    addSubLO(subLO);
-    subLO.seek(0, LargeObject.SEEK_SET);
-    return subLO.getInputStream();
+  public InputStream getBinaryStream() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkFreed();
+      LargeObject subLO = getLo(false).copy();
+      addSubLO(subLO);
+      subLO.seek(0, LargeObject.SEEK_SET);
+      return subLO.getInputStream();
+    }
   }
 
-  public synchronized OutputStream setBinaryStream(long pos) throws SQLException {
-    assertPosition(pos);
-    LargeObject subLO = getLo(true).copy();
-    addSubLO(subLO);
-    subLO.seek((int) (pos - 1));
-    return subLO.getOutputStream();
+  public OutputStream setBinaryStream(long pos) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      assertPosition(pos);
+      LargeObject subLO = getLo(true).copy();
+      addSubLO(subLO);
+      subLO.seek((int) (pos - 1));
+      return subLO.getOutputStream();
+    }
   }
 
   /**
@@ -136,31 +149,33 @@ public abstract class AbstractBlobClob {
    * @return position of the specified pattern
    * @throws SQLException if something wrong happens
    */
-  public synchronized long position(byte[] pattern, long start) throws SQLException {
-    assertPosition(start, pattern.length);
-
-    int position = 1;
-    int patternIdx = 0;
-    long result = -1;
-    int tmpPosition = 1;
-
-    for (LOIterator i = new LOIterator(start - 1); i.hasNext(); position++) {
-      byte b = i.next();
-      if (b == pattern[patternIdx]) {
-        if (patternIdx == 0) {
-          tmpPosition = position;
-        }
-        patternIdx++;
-        if (patternIdx == pattern.length) {
-          result = tmpPosition;
-          break;
+  public long position(byte[] pattern, long start) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      assertPosition(start, pattern.length);
+
+      int position = 1;
+      int patternIdx = 0;
+      long result = -1;
+      int tmpPosition = 1;
+
+      for (LOIterator i = new LOIterator(start - 1); i.hasNext(); position++) {
+        byte b = i.next();
+        if (b == pattern[patternIdx]) {
+          if (patternIdx == 0) {
+            tmpPosition = position;
+          }
+          patternIdx++;
+          if (patternIdx == pattern.length) {
+            result = tmpPosition;
+            break;
+          }
+        } else {
+          patternIdx = 0;
         }
-      } else {
-        patternIdx = 0;
       }
-    }
 
-    return result;
+      return result;
+    }
   }
 
   /**
@@ -201,8 +216,10 @@ public abstract class AbstractBlobClob {
    * @return position of given pattern
    * @throws SQLException if something goes wrong
    */
-  public synchronized long position(Blob pattern, long start) throws SQLException {
-    return position(pattern.getBytes(1, (int) pattern.length()), start);
+  public long position(Blob pattern, long start) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      return position(pattern.getBytes(1, (int) pattern.length()), start);
+    }
   }
 
   /**
@@ -248,30 +265,32 @@ public abstract class AbstractBlobClob {
     }
   }
 
-  protected synchronized LargeObject getLo(boolean forWrite) throws SQLException {
-    LargeObject currentLo = this.currentLo;
-    if (currentLo != null) {
-      if (forWrite && !currentLoIsWriteable) {
-        // Reopen the stream in read-write, at the same pos.
-        int currentPos = currentLo.tell();
-
-        LargeObjectManager lom = conn.getLargeObjectAPI();
-        LargeObject newLo = lom.open(oid, LargeObjectManager.READWRITE);
-        castNonNull(subLOs).add(currentLo);
-        this.currentLo = currentLo = newLo;
-
-        if (currentPos != 0) {
-          currentLo.seek(currentPos);
+  protected LargeObject getLo(boolean forWrite) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      LargeObject currentLo = this.currentLo;
+      if (currentLo != null) {
+        if (forWrite && !currentLoIsWriteable) {
+          // Reopen the stream in read-write, at the same pos.
+          int currentPos = currentLo.tell();
+
+          LargeObjectManager lom = conn.getLargeObjectAPI();
+          LargeObject newLo = lom.open(oid, LargeObjectManager.READWRITE);
+          castNonNull(subLOs).add(currentLo);
+          this.currentLo = currentLo = newLo;
+
+          if (currentPos != 0) {
+            currentLo.seek(currentPos);
+          }
         }
-      }
 
+        return currentLo;
+      }
+      LargeObjectManager lom = conn.getLargeObjectAPI();
+      this.currentLo = currentLo =
+          lom.open(oid, forWrite ? LargeObjectManager.READWRITE : LargeObjectManager.READ);
+      currentLoIsWriteable = forWrite;
       return currentLo;
     }
-    LargeObjectManager lom = conn.getLargeObjectAPI();
-    this.currentLo = currentLo =
-        lom.open(oid, forWrite ? LargeObjectManager.READWRITE : LargeObjectManager.READ);
-    currentLoIsWriteable = forWrite;
-    return currentLo;
   }
 
   protected void addSubLO(LargeObject subLO) {
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jdbc;
+
+import org.postgresql.core.ParameterList;
+import org.postgresql.core.Query;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executions submitted with {@link org.postgresql.PGPreparedStatement#executeQueryAsync()} and
+ * {@link org.postgresql.PGPreparedStatement#executeUpdateAsync()}. Submissions are collected in
+ * {@link PgPipeline}s that are drained by the executor of the connection, see
+ * {@link PgConnection#getAsyncExecutor()}. Everything submitted while a round trip is in progress
+ * is sent together on the next one, so the callers never block and concurrent submissions share
+ * network round trips.
+ *
+ * <p>The synchronous operations of the connection call {@link #await()} first, which sends what
+ * is still queued from the calling thread, so they run after the executions submitted before
+ * them.</p>
+ */
+class PgAsyncQueue implements Runnable {
+  private static final Logger LOGGER = Logger.getLogger(PgAsyncQueue.class.getName());
+
+  private static final AtomicInteger threadCount = new AtomicInteger(0);
+
+  /**
+   * Executions submitted with the same connection flags, which are sent in one round trip.
+   */
+  private static final class Batch {
+    final PgPipeline pipeline = new PgPipeline();
+    final int flags;
+
+    Batch(int flags) {
+      this.flags = flags;
+    }
+  }
+
+  private final PgConnection connection;
+  // Lock of the connection, guards the fields below
+  private final ResourceLock lock;
+  // Signalled once a batch has been sent
+  private final Condition sent;
+  private final ArrayDeque<Batch> pending = new ArrayDeque<Batch>();
+  // Thread sending a batch, the batches are sent one at a time in submission order
+  private @Nullable Thread sender;
+  private boolean scheduled;
+
+  PgAsyncQueue(PgConnection connection, ResourceLock lock) {
+    this.connection = connection;
+    this.lock = lock;
+    this.sent = lock.newCondition();
+  }
+
+  /**
+   * Creates the default executor of a connection: a single daemon thread, stopped once idle. The
+   * results are read with the blocking reads of the query executor, so the thread blocks while a
+   * round trip is in progress. It only exists while executions are in flight; applications with
+   * many connections can share threads with
+   * {@link PgConnection#setAsyncExecutor(java.util.concurrent.Executor)}.
+   *
+   * @return the executor
+   */
+  static ThreadPoolExecutor createExecutor() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 5L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), r -> {
+          Thread thread = new Thread(r, "PostgreSQL-JDBC-Async-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          // Avoid pinning the ClassLoader of whichever application happened to start the thread
+          thread.setContextClassLoader(null);
+          return thread;
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Queues an execution.
+   *
+   * @param flags flags of the statement
+   * @param connectionFlags connection-level flags at the time of the submission, see
+   *     {@link PgConnection#getPipelineFlags()}
+   */
+  void add(PgStatement statement, Query query, ParameterList parameters,
+      int maxRows, int flags, int connectionFlags, @Nullable CompletableFuture<ResultSet> rows,
+      @Nullable CompletableFuture<Long> count) {
+    try (ResourceLock ignore = lock.obtain()) {
+      Batch batch = pending.peekLast();
+      if (batch == null || batch.flags != connectionFlags) {
+        batch = new Batch(connectionFlags);
+        pending.add(batch);
+      }
+      batch.pipeline.add(statement, query, parameters, maxRows, flags, rows, count);
+      if (scheduled) {
+        return;
+      }
+      scheduled = true;
+    }
+    try {
+      connection.getAsyncExecutor().execute(this);
+    } catch (RejectedExecutionException e) {
+      LOGGER.log(Level.FINE, "Asynchronous executions sent by the submitting thread", e);
+      run();
+    }
+  }
+
+  /**
+   * Fails all submitted executions that have not been sent yet, used when the connection is
+   * closed.
+   */
+  void discard() {
+    ArrayDeque<Batch> discarded;
+    try (ResourceLock ignore = lock.obtain()) {
+      discarded = new ArrayDeque<Batch>(pending);
+      pending.clear();
+    }
+    // The futures are failed outside the lock, their callbacks may use the connection
+    for (Batch batch : discarded) {
+      batch.pipeline.discard();
+    }
+  }
+
+  /**
+   * Sends the executions that are still queued, from the calling thread, and waits for the one
+   * being sent by another thread. Nothing is waited for when called while sending, e.g. from the
+   * completion of a future.
+   */
+  void await() {
+    while (sendNext(false)) {
+      // keep sending until nothing is left
+    }
+  }
+
+  @Override
+  public void run() {
+    while (sendNext(true)) {
+      // keep sending until nothing is left
+    }
+  }
+
+  /**
+   * Sends the next batch.
+   *
+   * @param executorTask true when called by the task scheduled on the executor
+   * @return false once there is nothing left to send
+   */
+  private boolean sendNext(boolean executorTask) {
+    Thread currentThread = Thread.currentThread();
+    Batch batch;
+    try (ResourceLock ignore = lock.obtain()) {
+      if (sender == currentThread) {
+        // Submitted while sending, with an executor that runs the task in place: the sending
+        // loop further up the stack sends it
+        if (executorTask) {
+          scheduled = false;
+        }
+        return false;
+      }
+      boolean interrupted = false;
+      while (sender != null) {
+        try {
+          sent.await();
+        } catch (InterruptedException e) { // NOSONAR
+          // Either re-interrupt this method or rethrow the "InterruptedException"
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        currentThread.interrupt();
+      }
+      batch = pending.poll();
+      if (batch == null) {
+        if (executorTask) {
+          scheduled = false;
+        }
+        return false;
+      }
+      sender = currentThread;
+    }
+    try {
+      batch.pipeline.sync(connection.getQueryExecutor(), batch.flags);
+    } catch (SQLException | RuntimeException e) {
+      // The futures of the batch carry the failure already
+      LOGGER.log(Level.FINE, "Asynchronous execution failed", e);
+    } finally {
+      try (ResourceLock ignore = lock.obtain()) {
+        sender = null;
+        sent.signalAll();
+      }
+    }
+    return true;
+  }
+}
@@ -152,7 +152,7 @@ class PgCallableStatement extends PgPreparedStatement implements CallableStateme
 
     }
     rs.close();
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       result = null;
     }
     return false;
@@ -20,60 +20,80 @@ public class PgClob extends AbstractBlobClob implements java.sql.Clob {
     super(conn, oid);
   }
 
-  public synchronized Reader getCharacterStream(long pos, long length) throws SQLException {
-    checkFreed();
-    throw org.postgresql.Driver.notImplemented(this.getClass(), "getCharacterStream(long, long)");
+  public Reader getCharacterStream(long pos, long length) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkFreed();
+      throw org.postgresql.Driver.notImplemented(this.getClass(), "getCharacterStream(long, long)");
+    }
   }
 
-  public synchronized int setString(long pos, String str) throws SQLException {
-    checkFreed();
-    throw org.postgresql.Driver.notImplemented(this.getClass(), "setString(long,str)");
+  public int setString(long pos, String str) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkFreed();
+      throw org.postgresql.Driver.notImplemented(this.getClass(), "setString(long,str)");
+    }
   }
 
-  public synchronized int setString(long pos, String str, int offset, int len) throws SQLException {
-    checkFreed();
-    throw org.postgresql.Driver.notImplemented(this.getClass(), "setString(long,String,int,int)");
+  public int setString(long pos, String str, int offset, int len) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkFreed();
+      throw org.postgresql.Driver.notImplemented(this.getClass(), "setString(long,String,int,int)");
+    }
   }
 
-  public synchronized java.io.OutputStream setAsciiStream(long pos) throws SQLException {
-    checkFreed();
-    throw org.postgresql.Driver.notImplemented(this.getClass(), "setAsciiStream(long)");
+  public java.io.OutputStream setAsciiStream(long pos) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkFreed();
+      throw org.postgresql.Driver.notImplemented(this.getClass(), "setAsciiStream(long)");
+    }
   }
 
-  public synchronized java.io.Writer setCharacterStream(long pos) throws SQLException {
-    checkFreed();
-    throw org.postgresql.Driver.notImplemented(this.getClass(), "setCharacteStream(long)");
+  public java.io.Writer setCharacterStream(long pos) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkFreed();
+      throw org.postgresql.Driver.notImplemented(this.getClass(), "setCharacteStream(long)");
+    }
   }
 
-  public synchronized InputStream getAsciiStream() throws SQLException {
-    return getBinaryStream();
+  public InputStream getAsciiStream() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      return getBinaryStream();
+    }
   }
 
-  public synchronized Reader getCharacterStream() throws SQLException {
-    Charset connectionCharset = Charset.forName(conn.getEncoding().name());
-    return new InputStreamReader(getBinaryStream(), connectionCharset);
+  public Reader getCharacterStream() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      Charset connectionCharset = Charset.forName(conn.getEncoding().name());
+      return new InputStreamReader(getBinaryStream(), connectionCharset);
+    }
   }
 
-  public synchronized String getSubString(long i, int j) throws SQLException {
-    assertPosition(i, j);
-    LargeObject lo = getLo(false);
-    lo.seek((int) i - 1);
-    return new String(lo.read(j));
+  public String getSubString(long i, int j) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      assertPosition(i, j);
+      LargeObject lo = getLo(false);
+      lo.seek((int) i - 1);
+      return new String(lo.read(j));
+    }
   }
 
   /**
    * For now, this is not implemented.
    */
-  public synchronized long position(String pattern, long start) throws SQLException {
-    checkFreed();
-    throw org.postgresql.Driver.notImplemented(this.getClass(), "position(String,long)");
+  public long position(String pattern, long start) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkFreed();
+      throw org.postgresql.Driver.notImplemented(this.getClass(), "position(String,long)");
+    }
   }
 
   /**
    * This should be simply passing the byte value of the pattern Blob.
    */
-  public synchronized long position(Clob pattern, long start) throws SQLException {
-    checkFreed();
-    throw org.postgresql.Driver.notImplemented(this.getClass(), "position(Clob,start)");
+  public long position(Clob pattern, long start) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkFreed();
+      throw org.postgresql.Driver.notImplemented(this.getClass(), "position(Clob,start)");
+    }
   }
 }
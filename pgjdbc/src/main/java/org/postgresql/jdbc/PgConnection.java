@@ -38,6 +38,7 @@ import org.postgresql.util.PGBinaryObject;
 import org.postgresql.util.PGobject;
 import org.postgresql.util.PSQLException;
 import org.postgresql.util.PSQLState;
+import org.postgresql.util.TinyLfuCache;
 import org.postgresql.xml.DefaultPGXmlFactoryFactory;
 import org.postgresql.xml.LegacyInsecurePGXmlFactoryFactory;
 import org.postgresql.xml.PGXmlFactoryFactory;
@@ -83,6 +84,8 @@ import java.util.StringTokenizer;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.locks.Condition;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -172,6 +175,16 @@ public class PgConnection implements BaseConnection {
   private final boolean logServerErrorDetail;
   // Bind String to UNSPECIFIED or VARCHAR?
   private final boolean bindStringAsVarchar;
+  // Percentage of a cursor batch consumed before the next one is prefetched, 0 when disabled
+  private final int prefetchThreshold;
+  // Read result sets with a fetch size off the wire in autocommit mode
+  private final boolean streamResults;
+  // Execute batched inserts of parameters as COPY FROM STDIN
+  private final boolean copyBatchedInserts;
+  // Execute batches as one statement over arrays of the parameters
+  private final boolean unnestBatches;
+  // Type information shared with the other connections to the same database, if enabled
+  private final @Nullable SharedTypeInfo sharedTypeInfo;
 
   // Current warnings; there might be more on queryExecutor too.
   private @Nullable SQLWarning firstWarning;
@@ -181,13 +194,25 @@ public class PgConnection implements BaseConnection {
   private volatile @Nullable Timer cancelTimer;
 
   private @Nullable PreparedStatement checkConnectionQuery;
+
+  private final ResourceLock lock = new ResourceLock();
+  // Signalled by PgStatement#cancel once a cancel request has been sent
+  private final Condition lockCondition = lock.newCondition();
+
+  // Executions queued in pipeline mode, null when the connection is not in pipeline mode.
+  private @Nullable PgPipeline pipeline;
+  // Executions submitted with the asynchronous execute methods, created on first use.
+  private volatile @Nullable PgAsyncQueue asyncQueue;
+  // Executor set with setAsyncExecutor, or the default one of the connection once created
+  private @Nullable Executor asyncExecutor;
+  private @Nullable ThreadPoolExecutor defaultAsyncExecutor;
   /**
    * Replication protocol in current version postgresql(10devel) supports a limited number of
    * commands.
    */
   private final boolean replicationConnection;
 
-  private final LruCache<FieldMetadata.Key, FieldMetadata> fieldMetadataCache;
+  private final TinyLfuCache<FieldMetadata.Key, FieldMetadata> fieldMetadataCache;
 
   private final @Nullable String xmlFactoryFactoryClass;
   private @Nullable PGXmlFactoryFactory xmlFactoryFactory;
@@ -313,6 +338,9 @@ public class PgConnection implements BaseConnection {
     rollbackQuery = createQuery("ROLLBACK", false, true).query;
 
     int unknownLength = PGProperty.UNKNOWN_LENGTH.getInt(info);
+    this.sharedTypeInfo = PGProperty.SHARED_TYPE_INFO_CACHE.getBoolean(info)
+        ? SharedTypeInfo.forServer(queryExecutor)
+        : null;
 
     // Initialize object handling
     typeCache = createTypeInfo(this, unknownLength);
@@ -322,6 +350,10 @@ public class PgConnection implements BaseConnection {
       openStackTrace = new Throwable("Connection was created at this point:");
     }
     this.logServerErrorDetail = PGProperty.LOG_SERVER_ERROR_DETAIL.getBoolean(info);
+    this.prefetchThreshold = PGProperty.PREFETCH_THRESHOLD.getInt(info);
+    this.streamResults = PGProperty.STREAM_RESULTS.getBoolean(info);
+    this.copyBatchedInserts = PGProperty.COPY_BATCHED_INSERTS.getBoolean(info);
+    this.unnestBatches = PGProperty.UNNEST_BATCHES.getBoolean(info);
     this.disableColumnSanitiser = PGProperty.DISABLE_COLUMN_SANITISER.getBoolean(info);
 
     if (haveMinimumServerVersion(ServerVersion.v8_3)) {
@@ -338,7 +370,7 @@ public class PgConnection implements BaseConnection {
       this.clientInfo.put("ApplicationName", appName);
     }
 
-    fieldMetadataCache = new LruCache<FieldMetadata.Key, FieldMetadata>(
+    fieldMetadataCache = new TinyLfuCache<FieldMetadata.Key, FieldMetadata>(
             Math.max(0, PGProperty.DATABASE_METADATA_CACHE_FIELDS.getInt(info)),
             Math.max(0, PGProperty.DATABASE_METADATA_CACHE_FIELDS_MIB.getInt(info) * 1024L * 1024L),
         false);
@@ -694,7 +726,7 @@ public class PgConnection implements BaseConnection {
   }
 
   protected TypeInfo createTypeInfo(BaseConnection conn, int unknownLength) {
-    return new TypeInfoCache(conn, unknownLength);
+    return new TypeInfoCache(conn, unknownLength, sharedTypeInfo);
   }
 
   public TypeInfo getTypeInfo() {
@@ -770,6 +802,23 @@ public class PgConnection implements BaseConnection {
       return;
     }
     releaseTimer();
+    PgPipeline pipeline = this.pipeline;
+    if (pipeline != null) {
+      this.pipeline = null;
+      pipeline.discard();
+    }
+    PgAsyncQueue asyncQueue = this.asyncQueue;
+    if (asyncQueue != null) {
+      asyncQueue.discard();
+    }
+    ThreadPoolExecutor defaultAsyncExecutor;
+    try (ResourceLock ignore = lock.obtain()) {
+      defaultAsyncExecutor = this.defaultAsyncExecutor;
+      this.defaultAsyncExecutor = null;
+    }
+    if (defaultAsyncExecutor != null) {
+      defaultAsyncExecutor.shutdown();
+    }
     queryExecutor.close();
     openStackTrace = null;
   }
@@ -783,24 +832,28 @@ public class PgConnection implements BaseConnection {
   }
 
   @Override
-  public synchronized @Nullable SQLWarning getWarnings() throws SQLException {
-    checkClosed();
-    SQLWarning newWarnings = queryExecutor.getWarnings(); // NB: also clears them.
-    if (firstWarning == null) {
-      firstWarning = newWarnings;
-    } else if (newWarnings != null) {
-      firstWarning.setNextWarning(newWarnings); // Chain them on.
-    }
+  public @Nullable SQLWarning getWarnings() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkClosed();
+      SQLWarning newWarnings = queryExecutor.getWarnings(); // NB: also clears them.
+      if (firstWarning == null) {
+        firstWarning = newWarnings;
+      } else if (newWarnings != null) {
+        firstWarning.setNextWarning(newWarnings); // Chain them on.
+      }
 
-    return firstWarning;
+      return firstWarning;
+    }
   }
 
   @Override
-  public synchronized void clearWarnings() throws SQLException {
-    checkClosed();
-    //noinspection ThrowableNotThrown
-    queryExecutor.getWarnings(); // Clear and discard.
-    firstWarning = null;
+  public void clearWarnings() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkClosed();
+      //noinspection ThrowableNotThrown
+      queryExecutor.getWarnings(); // Clear and discard.
+      firstWarning = null;
+    }
   }
 
   @Override
@@ -839,6 +892,9 @@ public class PgConnection implements BaseConnection {
       return;
     }
 
+    // The executions submitted before keep the auto-commit mode they were submitted with
+    awaitAsync();
+
     if (!this.autoCommit) {
       commit();
     }
@@ -869,6 +925,7 @@ public class PgConnection implements BaseConnection {
   }
 
   private void executeTransactionCommand(Query query) throws SQLException {
+    awaitAsync();
     int flags = QueryExecutor.QUERY_NO_METADATA | QueryExecutor.QUERY_NO_RESULTS
         | QueryExecutor.QUERY_SUPPRESS_BEGIN;
     if (prepareThreshold == 0) {
@@ -1242,17 +1299,21 @@ public class PgConnection implements BaseConnection {
     queryExecutor.abort();
   }
 
-  private synchronized Timer getTimer() {
-    if (cancelTimer == null) {
-      cancelTimer = Driver.getSharedTimer().getTimer();
+  private Timer getTimer() {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (cancelTimer == null) {
+        cancelTimer = Driver.getSharedTimer().getTimer();
+      }
+      return cancelTimer;
     }
-    return cancelTimer;
   }
 
-  private synchronized void releaseTimer() {
-    if (cancelTimer != null) {
-      cancelTimer = null;
-      Driver.getSharedTimer().releaseTimer();
+  private void releaseTimer() {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (cancelTimer != null) {
+        cancelTimer = null;
+        Driver.getSharedTimer().releaseTimer();
+      }
     }
   }
 
@@ -1567,6 +1628,39 @@ public class PgConnection implements BaseConnection {
     return logServerErrorDetail;
   }
 
+  /**
+   * @return percentage of a cursor batch consumed before the next one is prefetched, 0 when
+   *     prefetch is disabled
+   * @see PGProperty#PREFETCH_THRESHOLD
+   */
+  int getPrefetchThreshold() {
+    return prefetchThreshold;
+  }
+
+  /**
+   * @return true if result sets with a fetch size are read as they advance in autocommit mode
+   * @see PGProperty#STREAM_RESULTS
+   */
+  boolean getStreamResults() {
+    return streamResults;
+  }
+
+  /**
+   * @return true if batched inserts of parameters are executed as COPY FROM STDIN
+   * @see PGProperty#COPY_BATCHED_INSERTS
+   */
+  boolean getCopyBatchedInserts() {
+    return copyBatchedInserts;
+  }
+
+  /**
+   * @return true if batches are executed as one statement over arrays of the parameters
+   * @see PGProperty#UNNEST_BATCHES
+   */
+  boolean getUnnestBatches() {
+    return unnestBatches;
+  }
+
   @Override
   public boolean isWrapperFor(Class<?> iface) throws SQLException {
     checkClosed();
@@ -1848,6 +1942,124 @@ public class PgConnection implements BaseConnection {
     queryExecutor.setAdaptiveFetch(adaptiveFetch);
   }
 
+  @Override
+  public void beginPipeline() throws SQLException {
+    checkClosed();
+    if (pipeline != null) {
+      throw new PSQLException(GT.tr("The connection is already in pipeline mode."),
+          PSQLState.OBJECT_NOT_IN_STATE);
+    }
+    if (getPreferQueryMode() == PreferQueryMode.SIMPLE) {
+      throw new PSQLException(GT.tr("Pipeline mode requires the extended query protocol."),
+          PSQLState.NOT_IMPLEMENTED);
+    }
+    pipeline = new PgPipeline();
+  }
+
+  @Override
+  public void syncPipeline() throws SQLException {
+    checkClosed();
+    PgPipeline pipeline = this.pipeline;
+    if (pipeline == null) {
+      throw new PSQLException(GT.tr("The connection is not in pipeline mode."),
+          PSQLState.OBJECT_NOT_IN_STATE);
+    }
+    awaitAsync();
+    pipeline.sync(queryExecutor, getPipelineFlags());
+  }
+
+  @Override
+  public void endPipeline() throws SQLException {
+    try {
+      syncPipeline();
+    } finally {
+      pipeline = null;
+    }
+  }
+
+  @Override
+  public boolean isPipelineMode() {
+    return pipeline != null;
+  }
+
+  /**
+   * @return executions queued in pipeline mode, or null if the connection is not in pipeline mode
+   */
+  @Nullable PgPipeline getPipeline() {
+    return pipeline;
+  }
+
+  ResourceLock obtainLock() {
+    return lock.obtain();
+  }
+
+  Condition lockCondition() {
+    return lockCondition;
+  }
+
+  /**
+   * @return queue of the executions submitted with the asynchronous execute methods
+   */
+  PgAsyncQueue getAsyncQueue() {
+    try (ResourceLock ignore = lock.obtain()) {
+      PgAsyncQueue asyncQueue = this.asyncQueue;
+      if (asyncQueue == null) {
+        this.asyncQueue = asyncQueue = new PgAsyncQueue(this, lock);
+      }
+      return asyncQueue;
+    }
+  }
+
+  /**
+   * Sends the executions submitted with the asynchronous execute methods that are still queued, so
+   * that a synchronous operation runs after them.
+   */
+  void awaitAsync() {
+    PgAsyncQueue asyncQueue = this.asyncQueue;
+    if (asyncQueue != null) {
+      asyncQueue.await();
+    }
+  }
+
+  @Override
+  public void setAsyncExecutor(@Nullable Executor executor) {
+    try (ResourceLock ignore = lock.obtain()) {
+      this.asyncExecutor = executor;
+    }
+  }
+
+  /**
+   * @return the executor that sends the asynchronous executions and runs the background fetches
+   *     of result sets, see {@link #setAsyncExecutor(Executor)}
+   */
+  Executor getAsyncExecutor() {
+    try (ResourceLock ignore = lock.obtain()) {
+      Executor executor = asyncExecutor;
+      if (executor != null) {
+        return executor;
+      }
+      ThreadPoolExecutor defaultAsyncExecutor = this.defaultAsyncExecutor;
+      if (defaultAsyncExecutor == null) {
+        this.defaultAsyncExecutor = defaultAsyncExecutor = PgAsyncQueue.createExecutor();
+      }
+      return defaultAsyncExecutor;
+    }
+  }
+
+  /**
+   * @return connection-level flags for sending queued executions
+   */
+  int getPipelineFlags() {
+    int flags = 0;
+    if (autoCommit) {
+      flags |= QueryExecutor.QUERY_SUPPRESS_BEGIN;
+    }
+    if (hintReadOnly()) {
+      flags |= QueryExecutor.QUERY_READ_ONLY_HINT;
+    }
+    return flags;
+  }
+
   @Override
   public PGXmlFactoryFactory getXmlFactoryFactory() throws SQLException {
     PGXmlFactoryFactory xmlFactoryFactory = this.xmlFactoryFactory;
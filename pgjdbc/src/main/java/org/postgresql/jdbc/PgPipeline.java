@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jdbc;
+
+import org.postgresql.core.Field;
+import org.postgresql.core.ParameterList;
+import org.postgresql.core.Query;
+import org.postgresql.core.QueryExecutor;
+import org.postgresql.core.ResultCursor;
+import org.postgresql.core.ResultHandlerBase;
+import org.postgresql.core.Tuple;
+import org.postgresql.util.GT;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Statement executions queued while a connection is in pipeline mode. The queued executions are
+ * sent back-to-back followed by a single Sync when the pipeline is synchronized, and their
+ * results are handed to the futures returned when they were queued.
+ *
+ * @see org.postgresql.PGConnection#beginPipeline()
+ */
+class PgPipeline {
+
+  private final List<Entry> entries = new ArrayList<Entry>();
+
+  /**
+   * A single queued execution. Exactly one of {@code rows} and {@code count} is set.
+   */
+  private static final class Entry {
+    final PgStatement statement;
+    final Query query;
+    final ParameterList parameters;
+    final int maxRows;
+    final int flags;
+    final @Nullable CompletableFuture<ResultSet> rows;
+    final @Nullable CompletableFuture<Long> count;
+
+    // Outcome recorded while processing results; futures are completed once the query executor
+    // is no longer busy so that dependent stages may use the connection.
+    @Nullable ResultSet resultSet;
+    long updateCount;
+    @Nullable SQLException error;
+    boolean done;
+
+    Entry(PgStatement statement, Query query, ParameterList parameters, int maxRows, int flags,
+        @Nullable CompletableFuture<ResultSet> rows, @Nullable CompletableFuture<Long> count) {
+      this.statement = statement;
+      this.query = query;
+      this.parameters = parameters;
+      this.maxRows = maxRows;
+      this.flags = flags;
+      this.rows = rows;
+      this.count = count;
+    }
+
+    void complete() {
+      if (error != null) {
+        if (rows != null) {
+          rows.completeExceptionally(error);
+        } else if (count != null) {
+          count.completeExceptionally(error);
+        }
+      } else if (rows != null) {
+        rows.complete(resultSet);
+      } else if (count != null) {
+        count.complete(updateCount);
+      }
+    }
+  }
+
+  void add(PgStatement statement, Query query, ParameterList parameters, int maxRows, int flags,
+      @Nullable CompletableFuture<ResultSet> rows, @Nullable CompletableFuture<Long> count) {
+    entries.add(new Entry(statement, query, parameters, maxRows, flags, rows, count));
+  }
+
+  boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  /**
+   * Fails all queued executions without sending them, used when the connection is closed.
+   */
+  void discard() {
+    for (Entry entry : entries) {
+      entry.error = new PSQLException(GT.tr("This connection has been closed."),
+          PSQLState.CONNECTION_DOES_NOT_EXIST);
+      entry.complete();
+    }
+    entries.clear();
+  }
+
+  /**
+   * Sends all queued executions and completes their futures.
+   *
+   * @param executor query executor of the connection
+   * @param flags connection-level flags such as {@link QueryExecutor#QUERY_SUPPRESS_BEGIN}
+   * @throws SQLException if any of the queued executions failed
+   */
+  void sync(QueryExecutor executor, int flags) throws SQLException {
+    if (entries.isEmpty()) {
+      return;
+    }
+    List<Entry> batch = new ArrayList<Entry>(entries);
+    entries.clear();
+
+    int size = batch.size();
+    Query[] queries = new Query[size];
+    ParameterList[] parameterLists = new ParameterList[size];
+    int[] maxRows = new int[size];
+    int[] queryFlags = new int[size];
+    for (int i = 0; i < size; i++) {
+      Entry entry = batch.get(i);
+      queries[i] = entry.query;
+      parameterLists[i] = entry.parameters;
+      maxRows[i] = entry.maxRows;
+      queryFlags[i] = entry.flags | flags;
+    }
+
+    PipelineResultHandler handler = new PipelineResultHandler(batch);
+    SQLException failure = null;
+    try {
+      executor.executePipeline(queries, parameterLists, maxRows, queryFlags, handler);
+    } catch (SQLException e) {
+      failure = e;
+      throw e;
+    } finally {
+      handler.completeAll(failure);
+    }
+  }
+
+  /**
+   * Routes results to the queued executions in the order they were sent. The server skips
+   * everything up to the Sync after an error, so the first failure is attributed to the execution
+   * whose results were pending and all later executions are reported as not executed.
+   */
+  private static class PipelineResultHandler extends ResultHandlerBase {
+    private final List<Entry> batch;
+    private int index;
+
+    PipelineResultHandler(List<Entry> batch) {
+      this.batch = batch;
+    }
+
+    private @Nullable Entry next() {
+      return index < batch.size() ? batch.get(index++) : null;
+    }
+
+    @Override
+    public void handleResultRows(Query fromQuery, Field[] fields, List<Tuple> tuples,
+        @Nullable ResultCursor cursor) {
+      Entry entry = next();
+      if (entry == null) {
+        return;
+      }
+      entry.done = true;
+      if (entry.rows == null) {
+        entry.error = new PSQLException(GT.tr("A result was returned when none was expected."),
+            PSQLState.TOO_MANY_RESULTS);
+        return;
+      }
+      try {
+        entry.resultSet = entry.statement.createResultSet(fromQuery, fields, tuples, cursor);
+      } catch (SQLException e) {
+        entry.error = e;
+      }
+    }
+
+    @Override
+    public void handleCommandStatus(String status, long updateCount, long insertOID) {
+      Entry entry = next();
+      if (entry == null) {
+        return;
+      }
+      entry.done = true;
+      if (entry.count == null) {
+        entry.error = new PSQLException(GT.tr("No results were returned by the query."),
+            PSQLState.NO_DATA);
+        return;
+      }
+      entry.updateCount = updateCount;
+    }
+
+    @Override
+    public void handleWarning(SQLWarning warning) {
+      if (index < batch.size()) {
+        batch.get(index).statement.addWarning(warning);
+      } else {
+        super.handleWarning(warning);
+      }
+    }
+
+    @Override
+    public void handleError(SQLException error) {
+      if (getException() == null) {
+        Entry entry = next();
+        if (entry != null) {
+          entry.done = true;
+          entry.error = error;
+        }
+      }
+      super.handleError(error);
+    }
+
+    void completeAll(@Nullable SQLException failure) {
+      SQLException cause = getException();
+      if (cause == null) {
+        cause = failure;
+      }
+      for (Entry entry : batch) {
+        if (!entry.done) {
+          entry.error = new PSQLException(
+              GT.tr("The statement was not executed because the pipeline failed."),
+              PSQLState.OBJECT_NOT_IN_STATE, cause);
+        }
+        entry.complete();
+      }
+    }
+  }
+}
@@ -8,15 +8,27 @@ package org.postgresql.jdbc;
 import static org.postgresql.util.internal.Nullness.castNonNull;
 
 import org.postgresql.Driver;
+import org.postgresql.PGPreparedStatement;
+import org.postgresql.copy.CopyIn;
 import org.postgresql.core.BaseConnection;
 import org.postgresql.core.CachedQuery;
+import org.postgresql.core.Encoding;
+import org.postgresql.core.Field;
 import org.postgresql.core.Oid;
 import org.postgresql.core.ParameterList;
+import org.postgresql.core.Parser;
 import org.postgresql.core.Query;
 import org.postgresql.core.QueryExecutor;
+import org.postgresql.core.ResultCursor;
+import org.postgresql.core.ResultHandlerBase;
 import org.postgresql.core.ServerVersion;
+import org.postgresql.core.SqlCommand;
+import org.postgresql.core.SqlCommandType;
+import org.postgresql.core.Tuple;
 import org.postgresql.core.TypeInfo;
+import org.postgresql.core.v3.BatchArrayEncoder;
 import org.postgresql.core.v3.BatchedQuery;
+import org.postgresql.core.v3.CopyTextEncoder;
 import org.postgresql.largeobject.LargeObject;
 import org.postgresql.largeobject.LargeObjectManager;
 import org.postgresql.util.ByteConverter;
@@ -49,7 +61,9 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.sql.Array;
+import java.sql.BatchUpdateException;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.NClob;
@@ -62,6 +76,7 @@ import java.sql.RowId;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLXML;
+import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
@@ -71,18 +86,34 @@ import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
-class PgPreparedStatement extends PgStatement implements PreparedStatement {
+class PgPreparedStatement extends PgStatement implements PreparedStatement, PGPreparedStatement {
 
   protected final CachedQuery preparedQuery; // Query fragments for prepared statement.
   protected final ParameterList preparedParameters; // Parameter values for prepared statement.
 
+  // Characters of COPY rows sent at once when a batch is executed as COPY
+  private static final int COPY_BUFFER_SIZE = 65536;
+
   private @Nullable TimeZone defaultTimeZone;
 
+  // COPY statement that executes the batches, see PGProperty.COPY_BATCHED_INSERTS
+  private @Nullable String copyInsertSql;
+  private boolean copyInsertSqlParsed;
+  // Statement that executes the batches over arrays, see PGProperty.UNNEST_BATCHES
+  private @Nullable String unnestBatchSql;
+  private boolean unnestBatchSqlParsed;
+  // Parameter types resolved by the server for the batches bound with unnestBoundTypes
+  private int @Nullable [] unnestBoundTypes;
+  private int @Nullable [] unnestResolvedTypes;
+
   PgPreparedStatement(PgConnection connection, String sql, int rsType, int rsConcurrency,
       int rsHoldability) throws SQLException {
     this(connection, connection.borrowQuery(sql), rsType, rsConcurrency, rsHoldability);
@@ -180,7 +211,7 @@ class PgPreparedStatement extends PgStatement implements PreparedStatement {
 
       execute(preparedQuery, preparedParameters, flags);
 
-      synchronized (this) {
+      try (ResourceLock ignore = lock.obtain()) {
         checkClosed();
         return (result != null && result.getResultSet() != null);
       }
@@ -189,6 +220,91 @@ class PgPreparedStatement extends PgStatement implements PreparedStatement {
     }
   }
 
+  @Override
+  public CompletableFuture<ResultSet> executeQueryPipelined() throws SQLException {
+    CompletableFuture<ResultSet> future = new CompletableFuture<ResultSet>();
+    PgPipeline pipeline = getPipeline();
+    int flags = getPipelineFlags();
+    pipeline.add(this, preparedQuery.query, preparedParameters.copy(), maxrows, flags, future,
+        null);
+    return future;
+  }
+
+  @Override
+  public CompletableFuture<Long> executeUpdatePipelined() throws SQLException {
+    CompletableFuture<Long> future = new CompletableFuture<Long>();
+    PgPipeline pipeline = getPipeline();
+    int flags = getPipelineFlags();
+    pipeline.add(this, preparedQuery.query, preparedParameters.copy(), maxrows, flags,
+        null, future);
+    return future;
+  }
+
+  @Override
+  public CompletableFuture<ResultSet> executeQueryAsync() throws SQLException {
+    CompletableFuture<ResultSet> future = new CompletableFuture<ResultSet>();
+    int flags = getPipelineFlags();
+    PgConnection connection = (PgConnection) this.connection;
+    connection.getAsyncQueue().add(this, preparedQuery.query, preparedParameters.copy(), maxrows,
+        flags, connection.getPipelineFlags(), future, null);
+    return future;
+  }
+
+  @Override
+  public CompletableFuture<Long> executeUpdateAsync() throws SQLException {
+    CompletableFuture<Long> future = new CompletableFuture<Long>();
+    int flags = getPipelineFlags();
+    PgConnection connection = (PgConnection) this.connection;
+    connection.getAsyncQueue().add(this, preparedQuery.query, preparedParameters.copy(), maxrows,
+        flags, connection.getPipelineFlags(), null, future);
+    return future;
+  }
+
+  private PgPipeline getPipeline() throws SQLException {
+    checkClosed();
+    PgPipeline pipeline = ((PgConnection) connection).getPipeline();
+    if (pipeline == null) {
+      throw new PSQLException(GT.tr("The connection is not in pipeline mode."),
+          PSQLState.OBJECT_NOT_IN_STATE);
+    }
+    return pipeline;
+  }
+
+  /**
+   * Checks that this statement can be sent as part of a pipeline and computes the flags for it.
+   *
+   * @return QUERY_* flags for queuing this statement
+   * @throws SQLException if the statement cannot be pipelined
+   */
+  private int getPipelineFlags() throws SQLException {
+    checkClosed();
+    if (connection.getPreferQueryMode() == PreferQueryMode.SIMPLE) {
+      throw new PSQLException(GT.tr("Pipeline mode requires the extended query protocol."),
+          PSQLState.NOT_IMPLEMENTED);
+    }
+    if (preparedQuery.query.getSubqueries() != null) {
+      throw new PSQLException(
+          GT.tr("Multi-statement queries cannot be executed in pipeline mode."),
+          PSQLState.NOT_IMPLEMENTED);
+    }
+    if (wantsGeneratedKeysAlways) {
+      throw new PSQLException(GT.tr("Returning autogenerated keys is not supported."),
+          PSQLState.NOT_IMPLEMENTED);
+    }
+
+    // The same statement may be queued several times with different parameter types, so always
+    // describe the portal; see the comments in QueryExecutorImpl#sendOneQuery.
+    int flags = QueryExecutor.QUERY_FORCE_DESCRIBE_PORTAL;
+    if (isOneShotQuery(preparedQuery)) {
+      flags |= QueryExecutor.QUERY_ONESHOT;
+    }
+    // updateable result sets do not yet support binary updates
+    if (concurrency != ResultSet.CONCUR_READ_ONLY) {
+      flags |= QueryExecutor.QUERY_NO_BINARY_TRANSFER;
+    }
+    return flags;
+  }
+
   protected boolean isOneShotQuery(@Nullable CachedQuery cachedQuery) {
     if (cachedQuery == null) {
       cachedQuery = preparedQuery;
@@ -1650,6 +1766,14 @@ class PgPreparedStatement extends PgStatement implements PreparedStatement {
   @Override
   public int[] executeBatch() throws SQLException {
     try {
+      long[] rewritten = executeBatchRewritten();
+      if (rewritten != null) {
+        int[] updateCounts = new int[rewritten.length];
+        for (int i = 0; i < rewritten.length; i++) {
+          updateCounts[i] = (int) rewritten[i];
+        }
+        return updateCounts;
+      }
       // Note: in batch prepared statements batchStatements == 1, and batchParameters is equal
       // to the number of addBatch calls
       // batchParameters might be empty in case of empty batch
@@ -1666,6 +1790,264 @@ class PgPreparedStatement extends PgStatement implements PreparedStatement {
     }
   }
 
+  @Override
+  public long[] executeLargeBatch() throws SQLException {
+    long[] rewritten = executeBatchRewritten();
+    if (rewritten != null) {
+      return rewritten;
+    }
+    return super.executeLargeBatch();
+  }
+
+  /**
+   * Executes the batch as a single statement if a batch rewrite is enabled and applies to it.
+   *
+   * @return the update counts, or null if the batch must be executed as usual
+   * @throws SQLException if the execution fails
+   */
+  private long @Nullable [] executeBatchRewritten() throws SQLException {
+    ((PgConnection) connection).awaitAsync();
+    long[] updateCounts = executeBatchAsCopy();
+    if (updateCounts == null) {
+      updateCounts = executeBatchAsUnnest();
+    }
+    return updateCounts;
+  }
+
+  /**
+   * Executes the batch as a single {@code COPY ... FROM STDIN} if
+   * {@link org.postgresql.PGProperty#COPY_BATCHED_INSERTS} is enabled, the statement inserts a row
+   * of parameters and all the parameters can be written as COPY text.
+   *
+   * @return the update counts, or null if the batch must be executed as usual
+   * @throws SQLException if the copy fails
+   */
+  private long @Nullable [] executeBatchAsCopy() throws SQLException {
+    checkClosed();
+    ArrayList<@Nullable ParameterList> batchParameters = this.batchParameters;
+    PgConnection pgConnection = (PgConnection) connection;
+    if (!pgConnection.getCopyBatchedInserts() || batchParameters == null
+        || batchParameters.size() < 2 || wantsGeneratedKeysAlways
+        || pgConnection.getPipeline() != null) {
+      return null;
+    }
+    if (!copyInsertSqlParsed) {
+      copyInsertSql = Parser.toCopyFromStdin(preparedQuery.query.getNativeSql(),
+          preparedParameters.getParameterCount());
+      copyInsertSqlParsed = true;
+    }
+    String copySql = copyInsertSql;
+    if (copySql == null) {
+      return null;
+    }
+    for (ParameterList parameters : batchParameters) {
+      if (!CopyTextEncoder.isEncodable(parameters)) {
+        return null;
+      }
+    }
+
+    closeForNextExecution();
+    @Nullable ParameterList[] parameterLists = batchParameters.toArray(new ParameterList[0]);
+    batchParameters.clear();
+    ArrayList<Query> batchStatements = this.batchStatements;
+    if (batchStatements != null) {
+      batchStatements.clear();
+    }
+    try (ResourceLock ignore = lock.obtain()) {
+      result = null;
+    }
+
+    long rows;
+    startTimer();
+    try {
+      rows = copyRows(copySql, parameterLists);
+    } catch (SQLException e) {
+      throw new BatchUpdateException(
+          GT.tr("Batch executed as {0} was aborted: {1}", copySql, e.getMessage()),
+          e.getSQLState(), 0, new long[0], e);
+    } finally {
+      killTimerTask();
+    }
+    long[] updateCounts = new long[parameterLists.length];
+    // COPY reports the total, it is the count of each row if every row was inserted
+    Arrays.fill(updateCounts, rows == parameterLists.length ? 1 : Statement.SUCCESS_NO_INFO);
+    return updateCounts;
+  }
+
+  private long copyRows(String copySql, @Nullable ParameterList[] parameterLists)
+      throws SQLException {
+    Encoding encoding = connection.getEncoding();
+    CopyIn copyIn = connection.getCopyAPI().copyIn(copySql);
+    try {
+      StringBuilder rows = new StringBuilder();
+      for (ParameterList parameters : parameterLists) {
+        CopyTextEncoder.appendRow(rows, castNonNull(parameters));
+        if (rows.length() >= COPY_BUFFER_SIZE) {
+          writeRows(copyIn, encoding, rows);
+        }
+      }
+      writeRows(copyIn, encoding, rows);
+      return copyIn.endCopy();
+    } catch (IOException e) {
+      throw new PSQLException(GT.tr("Unable to translate data into the desired encoding."),
+          PSQLState.DATA_ERROR, e);
+    } finally {
+      if (copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+    }
+  }
+
+  /**
+   * Executes the batch as a single statement over arrays of the parameter values if
+   * {@link org.postgresql.PGProperty#UNNEST_BATCHES} is enabled, and the statement and the
+   * parameters can be converted, see {@link Parser#toUnnestBatch(String, int, boolean)}.
+   *
+   * @return the update counts, or null if the batch must be executed as usual
+   * @throws SQLException if the execution fails
+   */
+  private long @Nullable [] executeBatchAsUnnest() throws SQLException {
+    checkClosed();
+    ArrayList<@Nullable ParameterList> batchParameters = this.batchParameters;
+    PgConnection pgConnection = (PgConnection) connection;
+    if (!pgConnection.getUnnestBatches() || batchParameters == null
+        || batchParameters.size() < 2 || wantsGeneratedKeysAlways
+        || pgConnection.getPipeline() != null
+        || connection.getPreferQueryMode() == PreferQueryMode.SIMPLE
+        || !connection.haveMinimumServerVersion(ServerVersion.v9_4)) {
+      return null;
+    }
+    if (!unnestBatchSqlParsed) {
+      unnestBatchSql = Parser.toUnnestBatch(preparedQuery.query.getNativeSql(),
+          preparedParameters.getParameterCount(), connection.getStandardConformingStrings());
+      unnestBatchSqlParsed = true;
+    }
+    String unnestSql = unnestBatchSql;
+    if (unnestSql == null) {
+      return null;
+    }
+
+    @Nullable ParameterList[] parameterLists = batchParameters.toArray(new ParameterList[0]);
+    int[] types = resolveParameterTypes(castNonNull(parameterLists[0]));
+    TypeInfo typeInfo = connection.getTypeInfo();
+    QueryExecutor queryExecutor = connection.getQueryExecutor();
+    CachedQuery cachedQuery = queryExecutor.borrowQuery(unnestSql);
+    try {
+      ParameterList arrays = cachedQuery.query.createParameterList();
+      for (int i = 1; i <= types.length; i++) {
+        String typeName = typeInfo.getPGType(types[i - 1]);
+        int arrayOid = typeName == null ? Oid.UNSPECIFIED : typeInfo.getPGArrayType(typeName);
+        if (arrayOid == Oid.UNSPECIFIED
+            || !BatchArrayEncoder.setArrayParameter(arrays, parameterLists, i, types[i - 1],
+                arrayOid, typeInfo.getArrayDelimiter(arrayOid))) {
+          return null;
+        }
+      }
+
+      closeForNextExecution();
+      batchParameters.clear();
+      ArrayList<Query> batchStatements = this.batchStatements;
+      if (batchStatements != null) {
+        batchStatements.clear();
+      }
+      try (ResourceLock ignore = lock.obtain()) {
+        result = null;
+      }
+
+      SqlCommand command = preparedQuery.query.getSqlCommand();
+      UnnestBatchResultHandler handler = new UnnestBatchResultHandler(parameterLists.length,
+          command == null || command.getType() != SqlCommandType.INSERT);
+      int flags = QueryExecutor.QUERY_NO_BINARY_TRANSFER;
+      if (isOneShotQuery(cachedQuery)) {
+        flags |= QueryExecutor.QUERY_ONESHOT;
+      }
+      if (connection.getAutoCommit()) {
+        flags |= QueryExecutor.QUERY_SUPPRESS_BEGIN;
+      }
+      startTimer();
+      try {
+        queryExecutor.execute(cachedQuery.query, arrays, handler, 0, 0, flags);
+      } catch (SQLException e) {
+        throw new BatchUpdateException(
+            GT.tr("Batch executed as {0} was aborted: {1}", unnestSql, e.getMessage()),
+            e.getSQLState(), 0, new long[0], e);
+      } finally {
+        killTimerTask();
+      }
+      return handler.getUpdateCounts();
+    } finally {
+      queryExecutor.releaseQuery(cachedQuery);
+    }
+  }
+
+  /**
+   * Returns the types of the parameters as resolved by the server for the given parameters. The
+   * statement is described once for each set of bound types.
+   */
+  private int[] resolveParameterTypes(ParameterList parameters) throws SQLException {
+    int[] boundTypes = parameters.getTypeOIDs();
+    int[] resolvedTypes = unnestResolvedTypes;
+    if (resolvedTypes != null && Arrays.equals(boundTypes, unnestBoundTypes)) {
+      return resolvedTypes;
+    }
+    ParameterList described = parameters.copy();
+    int flags = QueryExecutor.QUERY_ONESHOT | QueryExecutor.QUERY_DESCRIBE_ONLY
+        | QueryExecutor.QUERY_SUPPRESS_BEGIN;
+    connection.getQueryExecutor().execute(preparedQuery.query, described,
+        new ResultHandlerBase(), 0, 0, flags);
+    resolvedTypes = described.getTypeOIDs().clone();
+    unnestBoundTypes = boundTypes.clone();
+    unnestResolvedTypes = resolvedTypes;
+    return resolvedTypes;
+  }
+
+  /**
+   * Computes the update counts of a batch executed over arrays from the ordinals of the rows of
+   * parameters returned for each changed row, or from the total for inserts.
+   */
+  private static class UnnestBatchResultHandler extends ResultHandlerBase {
+    private final long[] updateCounts;
+    private final boolean ordinals;
+    private long updateCount;
+
+    UnnestBatchResultHandler(int size, boolean ordinals) {
+      this.updateCounts = new long[size];
+      this.ordinals = ordinals;
+    }
+
+    @Override
+    public void handleResultRows(Query fromQuery, Field[] fields, List<Tuple> tuples,
+        @Nullable ResultCursor cursor) {
+      for (Tuple tuple : tuples) {
+        String ordinal = new String(castNonNull(tuple.get(0)), StandardCharsets.US_ASCII);
+        updateCounts[Integer.parseInt(ordinal) - 1]++;
+      }
+    }
+
+    @Override
+    public void handleCommandStatus(String status, long updateCount, long insertOID) {
+      this.updateCount = updateCount;
+    }
+
+    long[] getUpdateCounts() {
+      if (!ordinals) {
+        // An insert reports the total, it is the count of each row if every row was inserted
+        Arrays.fill(updateCounts,
+            updateCount == updateCounts.length ? 1 : Statement.SUCCESS_NO_INFO);
+      }
+      return updateCounts;
+    }
+  }
+
+  private static void writeRows(CopyIn copyIn, Encoding encoding, StringBuilder rows)
+      throws SQLException, IOException {
+    if (rows.length() > 0) {
+      byte[] data = encoding.encode(rows.toString());
+      copyIn.writeToCopy(data, 0, data.length);
+      rows.setLength(0);
+    }
+  }
+
   private Calendar getDefaultCalendar() {
     if (getTimestampUtils().hasFastDefaultTimeZone()) {
       return getTimestampUtils().getSharedCalendar(null);
@@ -76,7 +76,6 @@ import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -87,6 +86,10 @@ import java.util.Objects;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
@@ -108,6 +111,7 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   private @Nullable TimeZone defaultTimeZone;
   protected final BaseConnection connection; // the connection we belong to
   protected final BaseStatement statement; // the statement we belong to
+  private final ResourceLock lock = new ResourceLock();
   protected final Field[] fields; // Field metadata for this resultset.
   protected final @Nullable Query originalQuery; // Query we originated from
   private @Nullable TimestampUtils timestampUtils; // our own Object because it's not thread safe
@@ -134,6 +138,12 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   protected int lastUsedFetchSize; // Fetch size used during last fetch
   protected boolean adaptiveFetch = false;
   protected @Nullable ResultCursor cursor; // Cursor for fetching additional data.
+  // Percentage of the current batch consumed before the next one is prefetched, 0 when disabled
+  private int prefetchThreshold;
+  // Row of the current batch that starts the prefetch of the next one, -1 for none
+  private int prefetchRow = -1;
+  // Next batch, being fetched in the background.
+  private @Nullable FutureTask<PrefetchResultHandler> prefetch;
 
   // Speed up findColumn by caching lookups
   private @Nullable Map<String, Integer> columnNameIndexMap;
@@ -581,8 +591,7 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   public @Nullable Timestamp getTimestamp(
       int i, java.util.@Nullable Calendar cal) throws SQLException {
 
-    byte[] value = getRawValue(i);
-    if (value == null) {
+    if (isNullValue(i)) {
       return null;
     }
 
@@ -593,22 +602,25 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
     int oid = fields[col].getOID();
 
     if (isBinary(i)) {
-      byte [] row = castNonNull(thisRow).get(col);
+      Tuple row = thisRow;
       if (oid == Oid.TIMESTAMPTZ || oid == Oid.TIMESTAMP) {
         boolean hasTimeZone = oid == Oid.TIMESTAMPTZ;
         TimeZone tz = cal.getTimeZone();
-        return connection.getTimestampUtils().toTimestampBin(tz, castNonNull(row), hasTimeZone);
+        return connection.getTimestampUtils().toTimestampBin(tz, castNonNull(row.getBuffer(col)),
+            row.getOffset(col), row.getLength(col), hasTimeZone);
       } else if (oid == Oid.TIME) {
         // JDBC spec says getTimestamp of Time and Date must be supported
-        Timestamp tsWithMicros = connection.getTimestampUtils().toTimestampBin(cal.getTimeZone(), castNonNull(row), false);
+        Timestamp tsWithMicros = connection.getTimestampUtils().toTimestampBin(cal.getTimeZone(),
+            castNonNull(row.getBuffer(col)), row.getOffset(col), row.getLength(col), false);
         // If server sends us a TIME, we ensure java counterpart has date of 1970-01-01
         Timestamp tsUnixEpochDate = new Timestamp(castNonNull(getTime(i, cal)).getTime());
         tsUnixEpochDate.setNanos(tsWithMicros.getNanos());
         return tsUnixEpochDate;
       } else if (oid == Oid.TIMETZ) {
         TimeZone tz = cal.getTimeZone();
-        byte[] timeBytesWithoutTimeZone = Arrays.copyOfRange(castNonNull(row), 0, 8);
-        Timestamp tsWithMicros = connection.getTimestampUtils().toTimestampBin(tz, timeBytesWithoutTimeZone, false);
+        // the first 8 bytes are the time, the time zone follows
+        Timestamp tsWithMicros = connection.getTimestampUtils().toTimestampBin(tz,
+            castNonNull(row.getBuffer(col)), row.getOffset(col), 8, false);
         // If server sends us a TIMETZ, we ensure java counterpart has date of 1970-01-01
         Timestamp tsUnixEpochDate = new Timestamp(castNonNull(getTime(i, cal)).getTime());
         tsUnixEpochDate.setNanos(tsWithMicros.getNanos());
@@ -940,28 +952,9 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
 
     rowOffset += rows_size - 1; // Discarding all but one row.
 
-    // Work out how many rows maxRows will let us fetch.
-    int fetchRows = fetchSize;
-    int adaptiveFetchRows = connection.getQueryExecutor()
-        .getAdaptiveFetchSize(adaptiveFetch, cursor);
-
-    if (adaptiveFetchRows != -1) {
-      fetchRows = adaptiveFetchRows;
-    }
-
-    if (maxRows != 0) {
-      if (fetchRows == 0 || rowOffset + fetchRows > maxRows) {
-        // Fetch would exceed maxRows, limit it.
-        fetchRows = maxRows - rowOffset;
-      }
-    }
-
     // Do the actual fetch.
-    connection.getQueryExecutor()
-        .fetch(cursor, new CursorResultHandler(), fetchRows, adaptiveFetch);
-
     // After fetch, update last used fetch size (could be useful during adaptive fetch).
-    lastUsedFetchSize = fetchRows;
+    lastUsedFetchSize = fetchNextRows(cursor, rowOffset);
 
     rows = castNonNull(this.rows, "rows");
     // Now prepend our one saved row and move to it.
@@ -1044,191 +1037,203 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
     this.fetchdirection = direction;
   }
 
-  public synchronized void cancelRowUpdates() throws SQLException {
-    checkClosed();
-    if (onInsertRow) {
-      throw new PSQLException(GT.tr("Cannot call cancelRowUpdates() when on the insert row."),
-          PSQLState.INVALID_CURSOR_STATE);
-    }
+  public void cancelRowUpdates() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkClosed();
+      if (onInsertRow) {
+        throw new PSQLException(GT.tr("Cannot call cancelRowUpdates() when on the insert row."),
+            PSQLState.INVALID_CURSOR_STATE);
+      }
 
-    if (doingUpdates) {
-      doingUpdates = false;
+      if (doingUpdates) {
+        doingUpdates = false;
 
-      clearRowBuffer(true);
+        clearRowBuffer(true);
+      }
     }
   }
 
-  public synchronized void deleteRow() throws SQLException {
-    checkUpdateable();
+  public void deleteRow() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkUpdateable();
 
-    if (onInsertRow) {
-      throw new PSQLException(GT.tr("Cannot call deleteRow() when on the insert row."),
-          PSQLState.INVALID_CURSOR_STATE);
-    }
+      if (onInsertRow) {
+        throw new PSQLException(GT.tr("Cannot call deleteRow() when on the insert row."),
+            PSQLState.INVALID_CURSOR_STATE);
+      }
 
-    if (isBeforeFirst()) {
-      throw new PSQLException(
-          GT.tr(
-              "Currently positioned before the start of the ResultSet.  You cannot call deleteRow() here."),
-          PSQLState.INVALID_CURSOR_STATE);
-    }
-    if (isAfterLast()) {
-      throw new PSQLException(
-          GT.tr(
-              "Currently positioned after the end of the ResultSet.  You cannot call deleteRow() here."),
-          PSQLState.INVALID_CURSOR_STATE);
-    }
-    List<Tuple> rows = castNonNull(this.rows, "rows");
-    if (rows.isEmpty()) {
-      throw new PSQLException(GT.tr("There are no rows in this ResultSet."),
-          PSQLState.INVALID_CURSOR_STATE);
-    }
+      if (isBeforeFirst()) {
+        throw new PSQLException(
+            GT.tr(
+                "Currently positioned before the start of the ResultSet.  You cannot call deleteRow() here."),
+            PSQLState.INVALID_CURSOR_STATE);
+      }
+      if (isAfterLast()) {
+        throw new PSQLException(
+            GT.tr(
+                "Currently positioned after the end of the ResultSet.  You cannot call deleteRow() here."),
+            PSQLState.INVALID_CURSOR_STATE);
+      }
+      List<Tuple> rows = castNonNull(this.rows, "rows");
+      if (rows.isEmpty()) {
+        throw new PSQLException(GT.tr("There are no rows in this ResultSet."),
+            PSQLState.INVALID_CURSOR_STATE);
+      }
 
-    List<PrimaryKey> primaryKeys = castNonNull(this.primaryKeys, "primaryKeys");
-    int numKeys = primaryKeys.size();
-    if (deleteStatement == null) {
-      StringBuilder deleteSQL =
-          new StringBuilder("DELETE FROM ").append(onlyTable).append(tableName).append(" where ");
+      List<PrimaryKey> primaryKeys = castNonNull(this.primaryKeys, "primaryKeys");
+      int numKeys = primaryKeys.size();
+      if (deleteStatement == null) {
+        StringBuilder deleteSQL =
+            new StringBuilder("DELETE FROM ").append(onlyTable).append(tableName).append(" where ");
+
+        for (int i = 0; i < numKeys; i++) {
+          Utils.escapeIdentifier(deleteSQL, primaryKeys.get(i).name);
+          deleteSQL.append(" = ?");
+          if (i < numKeys - 1) {
+            deleteSQL.append(" and ");
+          }
+        }
+
+        deleteStatement = connection.prepareStatement(deleteSQL.toString());
+      }
+      deleteStatement.clearParameters();
 
       for (int i = 0; i < numKeys; i++) {
-        Utils.escapeIdentifier(deleteSQL, primaryKeys.get(i).name);
-        deleteSQL.append(" = ?");
-        if (i < numKeys - 1) {
-          deleteSQL.append(" and ");
-        }
+        deleteStatement.setObject(i + 1, primaryKeys.get(i).getValue());
       }
 
-      deleteStatement = connection.prepareStatement(deleteSQL.toString());
-    }
-    deleteStatement.clearParameters();
+      deleteStatement.executeUpdate();
 
-    for (int i = 0; i < numKeys; i++) {
-      deleteStatement.setObject(i + 1, primaryKeys.get(i).getValue());
+      rows.remove(currentRow);
+      currentRow--;
+      moveToCurrentRow();
     }
-
-    deleteStatement.executeUpdate();
-
-    rows.remove(currentRow);
-    currentRow--;
-    moveToCurrentRow();
   }
 
   @Override
-  public synchronized void insertRow() throws SQLException {
-    checkUpdateable();
-    castNonNull(rows, "rows");
-    if (!onInsertRow) {
-      throw new PSQLException(GT.tr("Not on the insert row."), PSQLState.INVALID_CURSOR_STATE);
-    }
-    HashMap<String, Object> updateValues = this.updateValues;
-    if (updateValues == null || updateValues.isEmpty()) {
-      throw new PSQLException(GT.tr("You must specify at least one column value to insert a row."),
-          PSQLState.INVALID_PARAMETER_VALUE);
-    }
+  public void insertRow() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkUpdateable();
+      castNonNull(rows, "rows");
+      if (!onInsertRow) {
+        throw new PSQLException(GT.tr("Not on the insert row."), PSQLState.INVALID_CURSOR_STATE);
+      }
+      HashMap<String, Object> updateValues = this.updateValues;
+      if (updateValues == null || updateValues.isEmpty()) {
+        throw new PSQLException(GT.tr("You must specify at least one column value to insert a row."),
+            PSQLState.INVALID_PARAMETER_VALUE);
+      }
 
-    // loop through the keys in the insertTable and create the sql statement
-    // we have to create the sql every time since the user could insert different
-    // columns each time
+      // loop through the keys in the insertTable and create the sql statement
+      // we have to create the sql every time since the user could insert different
+      // columns each time
 
-    StringBuilder insertSQL = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
-    StringBuilder paramSQL = new StringBuilder(") values (");
+      StringBuilder insertSQL = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
+      StringBuilder paramSQL = new StringBuilder(") values (");
 
-    Iterator<String> columnNames = updateValues.keySet().iterator();
-    int numColumns = updateValues.size();
+      Iterator<String> columnNames = updateValues.keySet().iterator();
+      int numColumns = updateValues.size();
 
-    for (int i = 0; columnNames.hasNext(); i++) {
-      String columnName = columnNames.next();
+      for (int i = 0; columnNames.hasNext(); i++) {
+        String columnName = columnNames.next();
+
+        Utils.escapeIdentifier(insertSQL, columnName);
+        if (i < numColumns - 1) {
+          insertSQL.append(", ");
+          paramSQL.append("?,");
+        } else {
+          paramSQL.append("?)");
+        }
 
-      Utils.escapeIdentifier(insertSQL, columnName);
-      if (i < numColumns - 1) {
-        insertSQL.append(", ");
-        paramSQL.append("?,");
-      } else {
-        paramSQL.append("?)");
       }
 
-    }
+      insertSQL.append(paramSQL.toString());
+      PreparedStatement insertStatement = null;
 
-    insertSQL.append(paramSQL.toString());
-    PreparedStatement insertStatement = null;
+      Tuple rowBuffer = castNonNull(this.rowBuffer);
+      try {
+        insertStatement = connection.prepareStatement(insertSQL.toString(), Statement.RETURN_GENERATED_KEYS);
 
-    Tuple rowBuffer = castNonNull(this.rowBuffer);
-    try {
-      insertStatement = connection.prepareStatement(insertSQL.toString(), Statement.RETURN_GENERATED_KEYS);
+        Iterator<Object> values = updateValues.values().iterator();
 
-      Iterator<Object> values = updateValues.values().iterator();
+        for (int i = 1; values.hasNext(); i++) {
+          insertStatement.setObject(i, values.next());
+        }
 
-      for (int i = 1; values.hasNext(); i++) {
-        insertStatement.setObject(i, values.next());
-      }
+        insertStatement.executeUpdate();
 
-      insertStatement.executeUpdate();
+        if (usingOID) {
+          // we have to get the last inserted OID and put it in the resultset
 
-      if (usingOID) {
-        // we have to get the last inserted OID and put it in the resultset
+          long insertedOID = ((PgStatement) insertStatement).getLastOID();
 
-        long insertedOID = ((PgStatement) insertStatement).getLastOID();
+          updateValues.put("oid", insertedOID);
 
-        updateValues.put("oid", insertedOID);
+        }
 
+        // update the underlying row to the new inserted data
+        updateRowBuffer(insertStatement, rowBuffer, castNonNull(updateValues));
+      } finally {
+        JdbcBlackHole.close(insertStatement);
       }
 
-      // update the underlying row to the new inserted data
-      updateRowBuffer(insertStatement, rowBuffer, castNonNull(updateValues));
-    } finally {
-      JdbcBlackHole.close(insertStatement);
-    }
-
-    castNonNull(rows).add(rowBuffer);
+      castNonNull(rows).add(rowBuffer);
 
-    // we should now reflect the current data in thisRow
-    // that way getXXX will get the newly inserted data
-    thisRow = rowBuffer;
+      // we should now reflect the current data in thisRow
+      // that way getXXX will get the newly inserted data
+      thisRow = rowBuffer;
 
-    // need to clear this in case of another insert
-    clearRowBuffer(false);
+      // need to clear this in case of another insert
+      clearRowBuffer(false);
+    }
   }
 
   @Override
-  public synchronized void moveToCurrentRow() throws SQLException {
-    checkUpdateable();
-    castNonNull(rows, "rows");
+  public void moveToCurrentRow() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkUpdateable();
+      castNonNull(rows, "rows");
 
-    if (currentRow < 0 || currentRow >= rows.size()) {
-      thisRow = null;
-      rowBuffer = null;
-    } else {
-      initRowBuffer();
-    }
+      if (currentRow < 0 || currentRow >= rows.size()) {
+        thisRow = null;
+        rowBuffer = null;
+      } else {
+        initRowBuffer();
+      }
 
-    onInsertRow = false;
-    doingUpdates = false;
+      onInsertRow = false;
+      doingUpdates = false;
+    }
   }
 
   @Override
-  public synchronized void moveToInsertRow() throws SQLException {
-    checkUpdateable();
+  public void moveToInsertRow() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkUpdateable();
 
-    // make sure the underlying data is null
-    clearRowBuffer(false);
+      // make sure the underlying data is null
+      clearRowBuffer(false);
 
-    onInsertRow = true;
-    doingUpdates = false;
+      onInsertRow = true;
+      doingUpdates = false;
+    }
   }
 
   // rowBuffer is the temporary storage for the row
-  private synchronized void clearRowBuffer(boolean copyCurrentRow) throws SQLException {
-    // inserts want an empty array while updates want a copy of the current row
-    if (copyCurrentRow) {
-      rowBuffer = castNonNull(thisRow, "thisRow").updateableCopy();
-    } else {
-      rowBuffer = new Tuple(fields.length);
-    }
+  private void clearRowBuffer(boolean copyCurrentRow) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      // inserts want an empty array while updates want a copy of the current row
+      if (copyCurrentRow) {
+        rowBuffer = castNonNull(thisRow, "thisRow").updateableCopy();
+      } else {
+        rowBuffer = new Tuple(fields.length);
+      }
 
-    // clear the updateValues hash map for the next set of updates
-    HashMap<String, Object> updateValues = this.updateValues;
-    if (updateValues != null) {
-      updateValues.clear();
+      // clear the updateValues hash map for the next set of updates
+      HashMap<String, Object> updateValues = this.updateValues;
+      if (updateValues != null) {
+        updateValues.clear();
+      }
     }
   }
 
@@ -1247,155 +1252,185 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
     return false;
   }
 
-  public synchronized void updateAsciiStream(@Positive int columnIndex,
+  public void updateAsciiStream(@Positive int columnIndex,
       java.io.@Nullable InputStream x, int length)
       throws SQLException {
-    if (x == null) {
-      updateNull(columnIndex);
-      return;
-    }
+    try (ResourceLock ignore = lock.obtain()) {
+      if (x == null) {
+        updateNull(columnIndex);
+        return;
+      }
 
-    try {
-      InputStreamReader reader = new InputStreamReader(x, StandardCharsets.US_ASCII);
-      char[] data = new char[length];
-      int numRead = 0;
-      while (true) {
-        int n = reader.read(data, numRead, length - numRead);
-        if (n == -1) {
-          break;
-        }
+      try {
+        InputStreamReader reader = new InputStreamReader(x, StandardCharsets.US_ASCII);
+        char[] data = new char[length];
+        int numRead = 0;
+        while (true) {
+          int n = reader.read(data, numRead, length - numRead);
+          if (n == -1) {
+            break;
+          }
 
-        numRead += n;
+          numRead += n;
 
-        if (numRead == length) {
-          break;
+          if (numRead == length) {
+            break;
+          }
         }
+        updateString(columnIndex, new String(data, 0, numRead));
+      } catch (IOException ie) {
+        throw new PSQLException(GT.tr("Provided InputStream failed."), null, ie);
       }
-      updateString(columnIndex, new String(data, 0, numRead));
-    } catch (IOException ie) {
-      throw new PSQLException(GT.tr("Provided InputStream failed."), null, ie);
     }
   }
 
-  public synchronized void updateBigDecimal(@Positive int columnIndex, java.math.@Nullable BigDecimal x)
+  public void updateBigDecimal(@Positive int columnIndex, java.math.@Nullable BigDecimal x)
       throws SQLException {
-    updateValue(columnIndex, x);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
+    }
   }
 
-  public synchronized void updateBinaryStream(@Positive int columnIndex,
+  public void updateBinaryStream(@Positive int columnIndex,
       java.io.@Nullable InputStream x, int length)
       throws SQLException {
-    if (x == null) {
-      updateNull(columnIndex);
-      return;
-    }
+    try (ResourceLock ignore = lock.obtain()) {
+      if (x == null) {
+        updateNull(columnIndex);
+        return;
+      }
 
-    byte[] data = new byte[length];
-    int numRead = 0;
-    try {
-      while (true) {
-        int n = x.read(data, numRead, length - numRead);
-        if (n == -1) {
-          break;
-        }
+      byte[] data = new byte[length];
+      int numRead = 0;
+      try {
+        while (true) {
+          int n = x.read(data, numRead, length - numRead);
+          if (n == -1) {
+            break;
+          }
 
-        numRead += n;
+          numRead += n;
 
-        if (numRead == length) {
-          break;
+          if (numRead == length) {
+            break;
+          }
         }
+      } catch (IOException ie) {
+        throw new PSQLException(GT.tr("Provided InputStream failed."), null, ie);
       }
-    } catch (IOException ie) {
-      throw new PSQLException(GT.tr("Provided InputStream failed."), null, ie);
-    }
 
-    if (numRead == length) {
-      updateBytes(columnIndex, data);
-    } else {
-      // the stream contained less data than they said
-      // perhaps this is an error?
-      byte[] data2 = new byte[numRead];
-      System.arraycopy(data, 0, data2, 0, numRead);
-      updateBytes(columnIndex, data2);
+      if (numRead == length) {
+        updateBytes(columnIndex, data);
+      } else {
+        // the stream contained less data than they said
+        // perhaps this is an error?
+        byte[] data2 = new byte[numRead];
+        System.arraycopy(data, 0, data2, 0, numRead);
+        updateBytes(columnIndex, data2);
+      }
     }
   }
 
-  public synchronized void updateBoolean(@Positive int columnIndex, boolean x) throws SQLException {
-    updateValue(columnIndex, x);
+  public void updateBoolean(@Positive int columnIndex, boolean x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
+    }
   }
 
-  public synchronized void updateByte(@Positive int columnIndex, byte x) throws SQLException {
-    updateValue(columnIndex, String.valueOf(x));
+  public void updateByte(@Positive int columnIndex, byte x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, String.valueOf(x));
+    }
   }
 
-  public synchronized void updateBytes(@Positive int columnIndex, byte @Nullable [] x) throws SQLException {
-    updateValue(columnIndex, x);
+  public void updateBytes(@Positive int columnIndex, byte @Nullable [] x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
+    }
   }
 
-  public synchronized void updateCharacterStream(@Positive int columnIndex,
+  public void updateCharacterStream(@Positive int columnIndex,
       java.io.@Nullable Reader x, int length)
       throws SQLException {
-    if (x == null) {
-      updateNull(columnIndex);
-      return;
-    }
+    try (ResourceLock ignore = lock.obtain()) {
+      if (x == null) {
+        updateNull(columnIndex);
+        return;
+      }
 
-    try {
-      char[] data = new char[length];
-      int numRead = 0;
-      while (true) {
-        int n = x.read(data, numRead, length - numRead);
-        if (n == -1) {
-          break;
-        }
+      try {
+        char[] data = new char[length];
+        int numRead = 0;
+        while (true) {
+          int n = x.read(data, numRead, length - numRead);
+          if (n == -1) {
+            break;
+          }
 
-        numRead += n;
+          numRead += n;
 
-        if (numRead == length) {
-          break;
+          if (numRead == length) {
+            break;
+          }
         }
+        updateString(columnIndex, new String(data, 0, numRead));
+      } catch (IOException ie) {
+        throw new PSQLException(GT.tr("Provided Reader failed."), null, ie);
       }
-      updateString(columnIndex, new String(data, 0, numRead));
-    } catch (IOException ie) {
-      throw new PSQLException(GT.tr("Provided Reader failed."), null, ie);
     }
   }
 
-  public synchronized void updateDate(@Positive int columnIndex,
+  public void updateDate(@Positive int columnIndex,
       java.sql.@Nullable Date x) throws SQLException {
-    updateValue(columnIndex, x);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
+    }
   }
 
-  public synchronized void updateDouble(@Positive int columnIndex, double x) throws SQLException {
-    updateValue(columnIndex, x);
+  public void updateDouble(@Positive int columnIndex, double x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
+    }
   }
 
-  public synchronized void updateFloat(@Positive int columnIndex, float x) throws SQLException {
-    updateValue(columnIndex, x);
+  public void updateFloat(@Positive int columnIndex, float x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
+    }
   }
 
-  public synchronized void updateInt(@Positive int columnIndex, int x) throws SQLException {
-    updateValue(columnIndex, x);
+  public void updateInt(@Positive int columnIndex, int x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
+    }
   }
 
-  public synchronized void updateLong(@Positive int columnIndex, long x) throws SQLException {
-    updateValue(columnIndex, x);
+  public void updateLong(@Positive int columnIndex, long x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
+    }
   }
 
-  public synchronized void updateNull(@Positive int columnIndex) throws SQLException {
-    checkColumnIndex(columnIndex);
-    String columnTypeName = getPGType(columnIndex);
-    updateValue(columnIndex, new NullObject(columnTypeName));
+  public void updateNull(@Positive int columnIndex) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkColumnIndex(columnIndex);
+      String columnTypeName = getPGType(columnIndex);
+      updateValue(columnIndex, new NullObject(columnTypeName));
+    }
   }
 
-  public synchronized void updateObject(
+  public void updateObject(
       int columnIndex, @Nullable Object x) throws SQLException {
-    updateValue(columnIndex, x);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
+    }
   }
 
-  public synchronized void updateObject(
+  public void updateObject(
       int columnIndex, @Nullable Object x, int scale) throws SQLException {
-    this.updateObject(columnIndex, x);
+    try (ResourceLock ignore = lock.obtain()) {
+      this.updateObject(columnIndex, x);
+    }
   }
 
   @Override
@@ -1472,201 +1507,249 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   }
 
   @Override
-  public synchronized void updateRow() throws SQLException {
-    checkUpdateable();
+  public void updateRow() throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      checkUpdateable();
 
-    if (onInsertRow) {
-      throw new PSQLException(GT.tr("Cannot call updateRow() when on the insert row."),
-          PSQLState.INVALID_CURSOR_STATE);
-    }
+      if (onInsertRow) {
+        throw new PSQLException(GT.tr("Cannot call updateRow() when on the insert row."),
+            PSQLState.INVALID_CURSOR_STATE);
+      }
 
-    List<Tuple> rows = castNonNull(this.rows, "rows");
-    if (isBeforeFirst() || isAfterLast() || rows.isEmpty()) {
-      throw new PSQLException(
-          GT.tr(
-              "Cannot update the ResultSet because it is either before the start or after the end of the results."),
-          PSQLState.INVALID_CURSOR_STATE);
-    }
+      List<Tuple> rows = castNonNull(this.rows, "rows");
+      if (isBeforeFirst() || isAfterLast() || rows.isEmpty()) {
+        throw new PSQLException(
+            GT.tr(
+                "Cannot update the ResultSet because it is either before the start or after the end of the results."),
+            PSQLState.INVALID_CURSOR_STATE);
+      }
 
-    if (!doingUpdates) {
-      return; // No work pending.
-    }
+      if (!doingUpdates) {
+        return; // No work pending.
+      }
 
-    StringBuilder updateSQL = new StringBuilder("UPDATE " + onlyTable + tableName + " SET  ");
+      StringBuilder updateSQL = new StringBuilder("UPDATE " + onlyTable + tableName + " SET  ");
 
-    HashMap<String, Object> updateValues = castNonNull(this.updateValues);
-    int numColumns = updateValues.size();
-    Iterator<String> columns = updateValues.keySet().iterator();
+      HashMap<String, Object> updateValues = castNonNull(this.updateValues);
+      int numColumns = updateValues.size();
+      Iterator<String> columns = updateValues.keySet().iterator();
 
-    for (int i = 0; columns.hasNext(); i++) {
-      String column = columns.next();
-      Utils.escapeIdentifier(updateSQL, column);
-      updateSQL.append(" = ?");
+      for (int i = 0; columns.hasNext(); i++) {
+        String column = columns.next();
+        Utils.escapeIdentifier(updateSQL, column);
+        updateSQL.append(" = ?");
 
-      if (i < numColumns - 1) {
-        updateSQL.append(", ");
+        if (i < numColumns - 1) {
+          updateSQL.append(", ");
+        }
       }
-    }
 
-    updateSQL.append(" WHERE ");
+      updateSQL.append(" WHERE ");
 
-    List<PrimaryKey> primaryKeys = castNonNull(this.primaryKeys, "primaryKeys");
-    int numKeys = primaryKeys.size();
+      List<PrimaryKey> primaryKeys = castNonNull(this.primaryKeys, "primaryKeys");
+      int numKeys = primaryKeys.size();
 
-    for (int i = 0; i < numKeys; i++) {
-      PrimaryKey primaryKey = primaryKeys.get(i);
-      Utils.escapeIdentifier(updateSQL, primaryKey.name);
-      updateSQL.append(" = ?");
+      for (int i = 0; i < numKeys; i++) {
+        PrimaryKey primaryKey = primaryKeys.get(i);
+        Utils.escapeIdentifier(updateSQL, primaryKey.name);
+        updateSQL.append(" = ?");
 
-      if (i < numKeys - 1) {
-        updateSQL.append(" and ");
+        if (i < numKeys - 1) {
+          updateSQL.append(" and ");
+        }
       }
-    }
-
-    String sqlText = updateSQL.toString();
-    if (connection.getLogger().isLoggable(Level.FINE)) {
-      connection.getLogger().log(Level.FINE, "updating {0}", sqlText);
-    }
-    PreparedStatement updateStatement = null;
-    try {
-      updateStatement = connection.prepareStatement(sqlText);
 
-      int i = 0;
-      Iterator<Object> iterator = updateValues.values().iterator();
-      for (; iterator.hasNext(); i++) {
-        Object o = iterator.next();
-        updateStatement.setObject(i + 1, o);
+      String sqlText = updateSQL.toString();
+      if (connection.getLogger().isLoggable(Level.FINE)) {
+        connection.getLogger().log(Level.FINE, "updating {0}", sqlText);
       }
+      PreparedStatement updateStatement = null;
+      try {
+        updateStatement = connection.prepareStatement(sqlText);
 
-      for (int j = 0; j < numKeys; j++, i++) {
-        updateStatement.setObject(i + 1, primaryKeys.get(j).getValue());
-      }
+        int i = 0;
+        Iterator<Object> iterator = updateValues.values().iterator();
+        for (; iterator.hasNext(); i++) {
+          Object o = iterator.next();
+          updateStatement.setObject(i + 1, o);
+        }
 
-      updateStatement.executeUpdate();
-    } finally {
-      JdbcBlackHole.close(updateStatement);
-    }
+        for (int j = 0; j < numKeys; j++, i++) {
+          updateStatement.setObject(i + 1, primaryKeys.get(j).getValue());
+        }
+
+        updateStatement.executeUpdate();
+      } finally {
+        JdbcBlackHole.close(updateStatement);
+      }
 
-    Tuple rowBuffer = castNonNull(this.rowBuffer, "rowBuffer");
-    updateRowBuffer(null, rowBuffer, updateValues);
+      Tuple rowBuffer = castNonNull(this.rowBuffer, "rowBuffer");
+      updateRowBuffer(null, rowBuffer, updateValues);
 
-    connection.getLogger().log(Level.FINE, "copying data");
-    thisRow = rowBuffer.readOnlyCopy();
-    rows.set(currentRow, rowBuffer);
+      connection.getLogger().log(Level.FINE, "copying data");
+      thisRow = rowBuffer.readOnlyCopy();
+      rows.set(currentRow, rowBuffer);
 
-    connection.getLogger().log(Level.FINE, "done updates");
-    updateValues.clear();
-    doingUpdates = false;
+      connection.getLogger().log(Level.FINE, "done updates");
+      updateValues.clear();
+      doingUpdates = false;
+    }
   }
 
-  public synchronized void updateShort(@Positive int columnIndex, short x) throws SQLException {
-    updateValue(columnIndex, x);
+  public void updateShort(@Positive int columnIndex, short x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
+    }
   }
 
-  public synchronized void updateString(@Positive int columnIndex, @Nullable String x) throws SQLException {
-    updateValue(columnIndex, x);
+  public void updateString(@Positive int columnIndex, @Nullable String x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
+    }
   }
 
-  public synchronized void updateTime(@Positive int columnIndex, @Nullable Time x) throws SQLException {
-    updateValue(columnIndex, x);
+  public void updateTime(@Positive int columnIndex, @Nullable Time x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
+    }
   }
 
-  public synchronized void updateTimestamp(
+  public void updateTimestamp(
       int columnIndex, @Nullable Timestamp x) throws SQLException {
-    updateValue(columnIndex, x);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateValue(columnIndex, x);
 
+    }
   }
 
-  public synchronized void updateNull(String columnName) throws SQLException {
-    updateNull(findColumn(columnName));
+  public void updateNull(String columnName) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateNull(findColumn(columnName));
+    }
   }
 
-  public synchronized void updateBoolean(String columnName, boolean x) throws SQLException {
-    updateBoolean(findColumn(columnName), x);
+  public void updateBoolean(String columnName, boolean x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateBoolean(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateByte(String columnName, byte x) throws SQLException {
-    updateByte(findColumn(columnName), x);
+  public void updateByte(String columnName, byte x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateByte(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateShort(String columnName, short x) throws SQLException {
-    updateShort(findColumn(columnName), x);
+  public void updateShort(String columnName, short x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateShort(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateInt(String columnName, int x) throws SQLException {
-    updateInt(findColumn(columnName), x);
+  public void updateInt(String columnName, int x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateInt(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateLong(String columnName, long x) throws SQLException {
-    updateLong(findColumn(columnName), x);
+  public void updateLong(String columnName, long x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateLong(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateFloat(String columnName, float x) throws SQLException {
-    updateFloat(findColumn(columnName), x);
+  public void updateFloat(String columnName, float x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateFloat(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateDouble(String columnName, double x) throws SQLException {
-    updateDouble(findColumn(columnName), x);
+  public void updateDouble(String columnName, double x) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      updateDouble(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateBigDecimal(
+  public void updateBigDecimal(
       String columnName, @Nullable BigDecimal x) throws SQLException {
-    updateBigDecimal(findColumn(columnName), x);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateBigDecimal(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateString(
+  public void updateString(
       String columnName, @Nullable String x) throws SQLException {
-    updateString(findColumn(columnName), x);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateString(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateBytes(
+  public void updateBytes(
       String columnName, byte @Nullable [] x) throws SQLException {
-    updateBytes(findColumn(columnName), x);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateBytes(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateDate(
+  public void updateDate(
       String columnName, java.sql.@Nullable Date x) throws SQLException {
-    updateDate(findColumn(columnName), x);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateDate(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateTime(
+  public void updateTime(
       String columnName, java.sql.@Nullable Time x) throws SQLException {
-    updateTime(findColumn(columnName), x);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateTime(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateTimestamp(
+  public void updateTimestamp(
       String columnName, java.sql.@Nullable Timestamp x)
       throws SQLException {
-    updateTimestamp(findColumn(columnName), x);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateTimestamp(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateAsciiStream(
+  public void updateAsciiStream(
       String columnName, java.io.@Nullable InputStream x, int length)
       throws SQLException {
-    updateAsciiStream(findColumn(columnName), x, length);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateAsciiStream(findColumn(columnName), x, length);
+    }
   }
 
-  public synchronized void updateBinaryStream(
+  public void updateBinaryStream(
       String columnName, java.io.@Nullable InputStream x, int length)
       throws SQLException {
-    updateBinaryStream(findColumn(columnName), x, length);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateBinaryStream(findColumn(columnName), x, length);
+    }
   }
 
-  public synchronized void updateCharacterStream(
+  public void updateCharacterStream(
       String columnName, java.io.@Nullable Reader reader,
       int length) throws SQLException {
-    updateCharacterStream(findColumn(columnName), reader, length);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateCharacterStream(findColumn(columnName), reader, length);
+    }
   }
 
-  public synchronized void updateObject(
+  public void updateObject(
       String columnName, @Nullable Object x, int scale)
       throws SQLException {
-    updateObject(findColumn(columnName), x);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateObject(findColumn(columnName), x);
+    }
   }
 
-  public synchronized void updateObject(
+  public void updateObject(
       String columnName, @Nullable Object x) throws SQLException {
-    updateObject(findColumn(columnName), x);
+    try (ResourceLock ignore = lock.obtain()) {
+      updateObject(findColumn(columnName), x);
+    }
   }
 
   /**
@@ -2050,6 +2133,45 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
     }
   }
 
+  /**
+   * Fetches the next batch of rows of a cursor on the executor of the connection, see
+   * {@link PgConnection#getAsyncExecutor()}, and keeps it until the consumer is done with the
+   * current batch.
+   */
+  private class PrefetchResultHandler extends ResultHandlerBase
+      implements Callable<PrefetchResultHandler> {
+    private final ResultCursor cursor;
+    private final int fetchRows;
+    private final boolean adaptiveFetch;
+    private List<Tuple> tuples = new ArrayList<Tuple>();
+    private @Nullable ResultCursor nextCursor;
+
+    PrefetchResultHandler(ResultCursor cursor, int fetchRows, boolean adaptiveFetch) {
+      this.cursor = cursor;
+      this.fetchRows = fetchRows;
+      this.adaptiveFetch = adaptiveFetch;
+    }
+
+    @Override
+    public PrefetchResultHandler call() throws SQLException {
+      connection.getQueryExecutor().fetch(cursor, this, fetchRows, adaptiveFetch);
+      return this;
+    }
+
+    @Override
+    public void handleResultRows(Query fromQuery, Field[] fields, List<Tuple> tuples,
+        @Nullable ResultCursor cursor) {
+      this.tuples = tuples;
+      this.nextCursor = cursor;
+    }
+
+    @Override
+    public void handleCommandStatus(String status, long updateCount, long insertOID) {
+      handleError(new PSQLException(GT.tr("Unexpected command status: {0}.", status),
+          PSQLState.PROTOCOL_VIOLATION));
+    }
+  }
+
   public BaseStatement getPGStatement() {
     return statement;
   }
@@ -2124,24 +2246,8 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
       // Ask for some more data.
       rowOffset += rows.size(); // We are discarding some data.
 
-      int fetchRows = fetchSize;
-      int adaptiveFetchRows = connection.getQueryExecutor()
-          .getAdaptiveFetchSize(adaptiveFetch, cursor);
-
-      if (adaptiveFetchRows != -1) {
-        fetchRows = adaptiveFetchRows;
-      }
-
-      if (maxRows != 0) {
-        if (fetchRows == 0 || rowOffset + fetchRows > maxRows) {
-          // Fetch would exceed maxRows, limit it.
-          fetchRows = maxRows - rowOffset;
-        }
-      }
-
       // Execute the fetch and update this resultset.
-      connection.getQueryExecutor()
-          .fetch(cursor, new CursorResultHandler(), fetchRows, adaptiveFetch);
+      int fetchRows = fetchNextRows(cursor, rowOffset);
 
       // .fetch(...) could update this.cursor, and cursor==null means
       // there are no more rows to fetch
@@ -2162,10 +2268,156 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
       currentRow++;
     }
 
+    if (currentRow == prefetchRow) {
+      startPrefetch();
+    }
+
     initRowBuffer();
     return true;
   }
 
+  /**
+   * Works out how many rows the next fetch should request.
+   *
+   * @param cursor the cursor to fetch from
+   * @param offset the index of the first row the fetch returns
+   * @return the number of rows to fetch, 0 for all
+   */
+  private int getFetchRows(ResultCursor cursor, int offset) {
+    int fetchRows = fetchSize;
+    int adaptiveFetchRows = connection.getQueryExecutor()
+        .getAdaptiveFetchSize(adaptiveFetch, cursor);
+
+    if (adaptiveFetchRows != -1) {
+      fetchRows = adaptiveFetchRows;
+    }
+
+    if (maxRows != 0) {
+      if (fetchRows == 0 || offset + fetchRows > maxRows) {
+        // Fetch would exceed maxRows, limit it.
+        fetchRows = maxRows - offset;
+      }
+    }
+    return fetchRows;
+  }
+
+  /**
+   * Replaces {@link #rows} and {@link #cursor} with the next batch of rows, taking the prefetched
+   * batch if there is one.
+   *
+   * @param cursor the cursor to fetch from
+   * @param offset the index of the first row the fetch returns
+   * @return the number of rows requested by the fetch
+   * @throws SQLException if the fetch fails
+   */
+  private int fetchNextRows(ResultCursor cursor, int offset) throws SQLException {
+    int fetchRows;
+    FutureTask<PrefetchResultHandler> prefetch = this.prefetch;
+    if (prefetch != null) {
+      this.prefetch = null;
+      PrefetchResultHandler handler = awaitPrefetch(prefetch);
+      rows = handler.tuples;
+      this.cursor = handler.nextCursor;
+      SQLWarning warning = handler.getWarning();
+      if (warning != null) {
+        addWarning(warning);
+      }
+      fetchRows = handler.fetchRows;
+    } else {
+      fetchRows = getFetchRows(cursor, offset);
+      connection.getQueryExecutor()
+          .fetch(cursor, new CursorResultHandler(), fetchRows, adaptiveFetch);
+    }
+    schedulePrefetch();
+    return fetchRows;
+  }
+
+  /**
+   * Sets the percentage of a fetched batch consumed before the next batch is requested in the
+   * background.
+   *
+   * @param prefetchThreshold percentage of the batch, 0 disables prefetch
+   * @see org.postgresql.PGProperty#PREFETCH_THRESHOLD
+   */
+  void setPrefetchThreshold(int prefetchThreshold) {
+    this.prefetchThreshold = Math.min(prefetchThreshold, 100);
+    schedulePrefetch();
+  }
+
+  /**
+   * Works out at which row of the current batch the next batch should be requested. Prefetch
+   * needs a forward-only cursor with rows left, and is skipped when holding two batches at once
+   * could exceed maxResultBuffer.
+   */
+  private void schedulePrefetch() {
+    prefetchRow = -1;
+    List<Tuple> rows = this.rows;
+    if (prefetchThreshold <= 0 || cursor == null || rows == null || rows.isEmpty()
+        || resultsettype != ResultSet.TYPE_FORWARD_ONLY
+        || (maxRows > 0 && rowOffset + rows.size() >= maxRows)) {
+      return;
+    }
+    long maxResultBuffer = connection.getQueryExecutor().getMaxResultBuffer();
+    if (maxResultBuffer != -1) {
+      long batchBytes = 0;
+      for (Tuple row : rows) {
+        batchBytes += row.length();
+      }
+      // The current and the prefetched batch are both held until the current one is done
+      if (batchBytes * 2 > maxResultBuffer) {
+        return;
+      }
+    }
+    prefetchRow = (int) (((long) rows.size() * prefetchThreshold + 99) / 100) - 1;
+  }
+
+  private void startPrefetch() {
+    prefetchRow = -1;
+    ResultCursor cursor = castNonNull(this.cursor);
+    int fetchRows = getFetchRows(cursor, rowOffset + castNonNull(rows).size());
+    FutureTask<PrefetchResultHandler> prefetch =
+        new FutureTask<PrefetchResultHandler>(
+            new PrefetchResultHandler(cursor, fetchRows, adaptiveFetch));
+    this.prefetch = prefetch;
+    try {
+      ((PgConnection) connection).getAsyncExecutor().execute(prefetch);
+    } catch (RejectedExecutionException e) {
+      // The fetch runs when its rows are needed instead
+    }
+  }
+
+  /**
+   * Waits for a background fetch to finish, or runs it from the calling thread if the executor
+   * has not started it yet. The wait is not interruptible as the fetch keeps using the connection
+   * anyway, the interrupt status is restored afterwards.
+   */
+  private static PrefetchResultHandler awaitPrefetch(FutureTask<PrefetchResultHandler> prefetch)
+      throws SQLException {
+    // Does nothing if the executor started the fetch already
+    prefetch.run();
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return prefetch.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof SQLException) {
+            throw (SQLException) cause;
+          }
+          throw new PSQLException(GT.tr("Fetching the next rows in the background failed."),
+              PSQLState.UNEXPECTED_ERROR, cause);
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
   public void close() throws SQLException {
     try {
       closeInternally();
@@ -2183,6 +2435,17 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   protected void closeInternally() throws SQLException {
     // release resources held (memory for tuples)
     rows = null;
+    prefetchRow = -1;
+    FutureTask<PrefetchResultHandler> prefetch = this.prefetch;
+    if (prefetch != null) {
+      this.prefetch = null;
+      // The portal can't be closed while the background fetch still reads from it
+      try {
+        awaitPrefetch(prefetch);
+      } catch (SQLException e) {
+        // The rows are discarded anyway
+      }
+    }
     JdbcBlackHole.close(deleteStatement);
     deleteStatement = null;
     if (cursor != null) {
@@ -2221,8 +2484,7 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   @Override
   public @Nullable String getString(@Positive int columnIndex) throws SQLException {
     connection.getLogger().log(Level.FINEST, "  getString columnIndex: {0}", columnIndex);
-    byte[] value = getRawValue(columnIndex);
-    if (value == null) {
+    if (isNullValue(columnIndex)) {
       return null;
     }
 
@@ -2252,8 +2514,11 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
     }
 
     Encoding encoding = connection.getEncoding();
+    Tuple row = thisRow;
+    int col = columnIndex - 1;
     try {
-      return trimString(columnIndex, encoding.decode(value));
+      return trimString(columnIndex,
+          encoding.decode(castNonNull(row.getBuffer(col)), row.getOffset(col), row.getLength(col)));
     } catch (IOException ioe) {
       throw new PSQLException(
           GT.tr(
@@ -2288,19 +2553,20 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   @Override
   public boolean getBoolean(@Positive int columnIndex) throws SQLException {
     connection.getLogger().log(Level.FINEST, "  getBoolean columnIndex: {0}", columnIndex);
-    byte[] value = getRawValue(columnIndex);
-    if (value == null) {
+    if (isNullValue(columnIndex)) {
       return false;
     }
 
     int col = columnIndex - 1;
+    Tuple row = thisRow;
+    byte[] buffer = castNonNull(row.getBuffer(col));
     if (Oid.BOOL == fields[col].getOID()) {
-      final byte[] v = value;
-      return (1 == v.length) && (116 == v[0]); // 116 = 't'
+      return (1 == row.getLength(col)) && (116 == buffer[row.getOffset(col)]); // 116 = 't'
     }
 
     if (isBinary(columnIndex)) {
-      return BooleanTypeUtil.castToBoolean(readDoubleValue(value, fields[col].getOID(), "boolean"));
+      return BooleanTypeUtil.castToBoolean(readDoubleValue(buffer, row.getOffset(col),
+          row.getLength(col), fields[col].getOID(), "boolean"));
     }
 
     String stringValue = castNonNull(getString(columnIndex));
@@ -2313,17 +2579,17 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   @Override
   public byte getByte(@Positive int columnIndex) throws SQLException {
     connection.getLogger().log(Level.FINEST, "  getByte columnIndex: {0}", columnIndex);
-    byte[] value = getRawValue(columnIndex);
-    if (value == null) {
+    if (isNullValue(columnIndex)) {
       return 0; // SQL NULL
     }
 
     if (isBinary(columnIndex)) {
       int col = columnIndex - 1;
+      Tuple row = thisRow;
       // there is no Oid for byte so must always do conversion from
       // some other numeric type
-      return (byte) readLongValue(value, fields[col].getOID(), Byte.MIN_VALUE,
-          Byte.MAX_VALUE, "byte");
+      return (byte) readLongValue(castNonNull(row.getBuffer(col)), row.getOffset(col),
+          row.getLength(col), fields[col].getOID(), Byte.MIN_VALUE, Byte.MAX_VALUE, "byte");
     }
 
     String s = getString(columnIndex);
@@ -2362,18 +2628,20 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   @Override
   public short getShort(@Positive int columnIndex) throws SQLException {
     connection.getLogger().log(Level.FINEST, "  getShort columnIndex: {0}", columnIndex);
-    byte[] value = getRawValue(columnIndex);
-    if (value == null) {
+    if (isNullValue(columnIndex)) {
       return 0; // SQL NULL
     }
 
     if (isBinary(columnIndex)) {
       int col = columnIndex - 1;
       int oid = fields[col].getOID();
+      Tuple row = thisRow;
+      byte[] buffer = castNonNull(row.getBuffer(col));
       if (oid == Oid.INT2) {
-        return ByteConverter.int2(value, 0);
+        return ByteConverter.int2(buffer, row.getOffset(col));
       }
-      return (short) readLongValue(value, oid, Short.MIN_VALUE, Short.MAX_VALUE, "short");
+      return (short) readLongValue(buffer, row.getOffset(col), row.getLength(col), oid,
+          Short.MIN_VALUE, Short.MAX_VALUE, "short");
     }
 
     return toShort(getFixedString(columnIndex));
@@ -2383,24 +2651,26 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   @Override
   public int getInt(@Positive int columnIndex) throws SQLException {
     connection.getLogger().log(Level.FINEST, "  getInt columnIndex: {0}", columnIndex);
-    byte[] value = getRawValue(columnIndex);
-    if (value == null) {
+    if (isNullValue(columnIndex)) {
       return 0; // SQL NULL
     }
 
+    int col = columnIndex - 1;
+    Tuple row = thisRow;
+    byte[] buffer = castNonNull(row.getBuffer(col));
     if (isBinary(columnIndex)) {
-      int col = columnIndex - 1;
       int oid = fields[col].getOID();
       if (oid == Oid.INT4) {
-        return ByteConverter.int4(value, 0);
+        return ByteConverter.int4(buffer, row.getOffset(col));
       }
-      return (int) readLongValue(value, oid, Integer.MIN_VALUE, Integer.MAX_VALUE, "int");
+      return (int) readLongValue(buffer, row.getOffset(col), row.getLength(col), oid,
+          Integer.MIN_VALUE, Integer.MAX_VALUE, "int");
     }
 
     Encoding encoding = connection.getEncoding();
     if (encoding.hasAsciiNumbers()) {
       try {
-        return getFastInt(value);
+        return getFastInt(buffer, row.getOffset(col), row.getLength(col));
       } catch (NumberFormatException ignored) {
       }
     }
@@ -2411,24 +2681,26 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   @Override
   public long getLong(@Positive int columnIndex) throws SQLException {
     connection.getLogger().log(Level.FINEST, "  getLong columnIndex: {0}", columnIndex);
-    byte[] value = getRawValue(columnIndex);
-    if (value == null) {
+    if (isNullValue(columnIndex)) {
       return 0; // SQL NULL
     }
 
+    int col = columnIndex - 1;
+    Tuple row = thisRow;
+    byte[] buffer = castNonNull(row.getBuffer(col));
     if (isBinary(columnIndex)) {
-      int col = columnIndex - 1;
       int oid = fields[col].getOID();
       if (oid == Oid.INT8) {
-        return ByteConverter.int8(value, 0);
+        return ByteConverter.int8(buffer, row.getOffset(col));
       }
-      return readLongValue(value, oid, Long.MIN_VALUE, Long.MAX_VALUE, "long");
+      return readLongValue(buffer, row.getOffset(col), row.getLength(col), oid,
+          Long.MIN_VALUE, Long.MAX_VALUE, "long");
     }
 
     Encoding encoding = connection.getEncoding();
     if (encoding.hasAsciiNumbers()) {
       try {
-        return getFastLong(value);
+        return getFastLong(buffer, row.getOffset(col), row.getLength(col));
       } catch (NumberFormatException ignored) {
       }
     }
@@ -2457,34 +2729,36 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
    * Optimised byte[] to number parser. This code does not handle null values, so the caller must do
    * checkResultSet and handle null values prior to calling this function.
    *
-   * @param bytes integer represented as a sequence of ASCII bytes
+   * @param bytes buffer holding the integer represented as a sequence of ASCII bytes
+   * @param offset position of the first byte of the value
+   * @param length number of bytes of the value
    * @return The parsed number.
    * @throws NumberFormatException If the number is invalid or the out of range for fast parsing.
    *         The value must then be parsed by {@link #toLong(String)}.
    */
-  private long getFastLong(byte[] bytes) throws NumberFormatException {
-    if (bytes.length == 0) {
+  private long getFastLong(byte[] bytes, int offset, int length) throws NumberFormatException {
+    if (length == 0) {
       throw FAST_NUMBER_FAILED;
     }
 
     long val = 0;
-    int start;
+    int start = offset;
+    int end = offset + length;
     boolean neg;
-    if (bytes[0] == '-') {
+    if (bytes[start] == '-') {
       neg = true;
-      start = 1;
-      if (bytes.length == 1 || bytes.length > 19) {
+      start++;
+      if (length == 1 || length > 19) {
         throw FAST_NUMBER_FAILED;
       }
     } else {
-      start = 0;
       neg = false;
-      if (bytes.length > 18) {
+      if (length > 18) {
         throw FAST_NUMBER_FAILED;
       }
     }
 
-    while (start < bytes.length) {
+    while (start < end) {
       byte b = bytes[start++];
       if (b < '0' || b > '9') {
         throw FAST_NUMBER_FAILED;
@@ -2505,34 +2779,36 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
    * Optimised byte[] to number parser. This code does not handle null values, so the caller must do
    * checkResultSet and handle null values prior to calling this function.
    *
-   * @param bytes integer represented as a sequence of ASCII bytes
+   * @param bytes buffer holding the integer represented as a sequence of ASCII bytes
+   * @param offset position of the first byte of the value
+   * @param length number of bytes of the value
    * @return The parsed number.
    * @throws NumberFormatException If the number is invalid or the out of range for fast parsing.
    *         The value must then be parsed by {@link #toInt(String)}.
    */
-  private int getFastInt(byte[] bytes) throws NumberFormatException {
-    if (bytes.length == 0) {
+  private int getFastInt(byte[] bytes, int offset, int length) throws NumberFormatException {
+    if (length == 0) {
       throw FAST_NUMBER_FAILED;
     }
 
     int val = 0;
-    int start;
+    int start = offset;
+    int end = offset + length;
     boolean neg;
-    if (bytes[0] == '-') {
+    if (bytes[start] == '-') {
       neg = true;
-      start = 1;
-      if (bytes.length == 1 || bytes.length > 10) {
+      start++;
+      if (length == 1 || length > 10) {
         throw FAST_NUMBER_FAILED;
       }
     } else {
-      start = 0;
       neg = false;
-      if (bytes.length > 9) {
+      if (length > 9) {
         throw FAST_NUMBER_FAILED;
       }
     }
 
-    while (start < bytes.length) {
+    while (start < end) {
       byte b = bytes[start++];
       if (b < '0' || b > '9') {
         throw FAST_NUMBER_FAILED;
@@ -2553,40 +2829,43 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
    * Optimised byte[] to number parser. This code does not handle null values, so the caller must do
    * checkResultSet and handle null values prior to calling this function.
    *
-   * @param bytes integer represented as a sequence of ASCII bytes
+   * @param bytes buffer holding the number represented as a sequence of ASCII bytes
+   * @param offset position of the first byte of the value
+   * @param length number of bytes of the value
    * @return The parsed number.
    * @throws NumberFormatException If the number is invalid or the out of range for fast parsing.
    *         The value must then be parsed by {@link #toBigDecimal(String, int)}.
    */
-  private BigDecimal getFastBigDecimal(byte[] bytes) throws NumberFormatException {
-    if (bytes.length == 0) {
+  private BigDecimal getFastBigDecimal(byte[] bytes, int offset, int length)
+      throws NumberFormatException {
+    if (length == 0) {
       throw FAST_NUMBER_FAILED;
     }
 
     int scale = 0;
     long val = 0;
-    int start;
+    int start = offset;
+    int end = offset + length;
     boolean neg;
-    if (bytes[0] == '-') {
+    if (bytes[start] == '-') {
       neg = true;
-      start = 1;
-      if (bytes.length == 1 || bytes.length > 19) {
+      start++;
+      if (length == 1 || length > 19) {
         throw FAST_NUMBER_FAILED;
       }
     } else {
-      start = 0;
       neg = false;
-      if (bytes.length > 18) {
+      if (length > 18) {
         throw FAST_NUMBER_FAILED;
       }
     }
 
     int periodsSeen = 0;
-    while (start < bytes.length) {
+    while (start < end) {
       byte b = bytes[start++];
       if (b < '0' || b > '9') {
         if (b == '.') {
-          scale = bytes.length - start;
+          scale = end - start;
           periodsSeen++;
           continue;
         } else {
@@ -2597,7 +2876,7 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
       val += b - '0';
     }
 
-    int numNonSignChars = neg ? bytes.length - 1 : bytes.length;
+    int numNonSignChars = neg ? length - 1 : length;
     if (periodsSeen > 1 || periodsSeen == numNonSignChars) {
       throw FAST_NUMBER_FAILED;
     }
@@ -2613,18 +2892,19 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   @Override
   public float getFloat(@Positive int columnIndex) throws SQLException {
     connection.getLogger().log(Level.FINEST, "  getFloat columnIndex: {0}", columnIndex);
-    byte[] value = getRawValue(columnIndex);
-    if (value == null) {
+    if (isNullValue(columnIndex)) {
       return 0; // SQL NULL
     }
 
     if (isBinary(columnIndex)) {
       int col = columnIndex - 1;
       int oid = fields[col].getOID();
+      Tuple row = thisRow;
+      byte[] buffer = castNonNull(row.getBuffer(col));
       if (oid == Oid.FLOAT4) {
-        return ByteConverter.float4(value, 0);
+        return ByteConverter.float4(buffer, row.getOffset(col));
       }
-      return (float) readDoubleValue(value, oid, "float");
+      return (float) readDoubleValue(buffer, row.getOffset(col), row.getLength(col), oid, "float");
     }
 
     return toFloat(getFixedString(columnIndex));
@@ -2634,18 +2914,19 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   @Override
   public double getDouble(@Positive int columnIndex) throws SQLException {
     connection.getLogger().log(Level.FINEST, "  getDouble columnIndex: {0}", columnIndex);
-    byte[] value = getRawValue(columnIndex);
-    if (value == null) {
+    if (isNullValue(columnIndex)) {
       return 0; // SQL NULL
     }
 
     if (isBinary(columnIndex)) {
       int col = columnIndex - 1;
       int oid = fields[col].getOID();
+      Tuple row = thisRow;
+      byte[] buffer = castNonNull(row.getBuffer(col));
       if (oid == Oid.FLOAT8) {
-        return ByteConverter.float8(value, 0);
+        return ByteConverter.float8(buffer, row.getOffset(col));
       }
-      return readDoubleValue(value, oid, "double");
+      return readDoubleValue(buffer, row.getOffset(col), row.getLength(col), oid, "double");
     }
 
     return toDouble(getFixedString(columnIndex));
@@ -2660,11 +2941,13 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   @Pure
   private @Nullable Number getNumeric(
       int columnIndex, int scale, boolean allowNaN) throws SQLException {
-    byte[] value = getRawValue(columnIndex);
-    if (value == null) {
+    if (isNullValue(columnIndex)) {
       return null;
     }
 
+    int col = columnIndex - 1;
+    Tuple row = thisRow;
+    byte[] buffer = castNonNull(row.getBuffer(col));
     if (isBinary(columnIndex)) {
       int sqlType = getSQLType(columnIndex);
       if (sqlType != Types.NUMERIC && sqlType != Types.DECIMAL) {
@@ -2679,7 +2962,7 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
         }
         return toBigDecimal(trimMoney(String.valueOf(obj)), scale);
       } else {
-        Number num = ByteConverter.numeric(value);
+        Number num = ByteConverter.numeric(buffer, row.getOffset(col), row.getLength(col));
         if (allowNaN && Double.isNaN(num.doubleValue())) {
           return Double.NaN;
         }
@@ -2691,7 +2974,7 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
     Encoding encoding = connection.getEncoding();
     if (encoding.hasAsciiNumbers()) {
       try {
-        BigDecimal res = getFastBigDecimal(value);
+        BigDecimal res = getFastBigDecimal(buffer, row.getOffset(col), row.getLength(col));
         res = scaleBigDecimal(res, scale);
         return res;
       } catch (NumberFormatException ignore) {
@@ -3142,6 +3425,23 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
    */
   @EnsuresNonNull("thisRow")
   protected byte @Nullable [] getRawValue(@Positive int column) throws SQLException {
+    if (isNullValue(column)) {
+      return null;
+    }
+    return thisRow.get(column - 1);
+  }
+
+  /**
+   * Same checks as {@link #getRawValue(int)}, but does not copy the value out of slab backed rows.
+   * Getters that decode the value in place use {@link Tuple#getBuffer(int)},
+   * {@link Tuple#getOffset(int)} and {@link Tuple#getLength(int)} afterwards.
+   *
+   * @param column The column number to check. Range starts from 1.
+   * @return true if the value is SQL NULL
+   * @throws SQLException If state or column is invalid.
+   */
+  @EnsuresNonNull("thisRow")
+  private boolean isNullValue(@Positive int column) throws SQLException {
     checkClosed();
     if (thisRow == null) {
       throw new PSQLException(
@@ -3149,9 +3449,8 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
           PSQLState.INVALID_CURSOR_STATE);
     }
     checkColumnIndex(column);
-    byte[] bytes = thisRow.get(column - 1);
-    wasNullFlag = bytes == null;
-    return bytes;
+    wasNullFlag = thisRow.isNull(column - 1);
+    return wasNullFlag;
   }
 
   /**
@@ -3367,28 +3666,31 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
   /**
    * Converts any numeric binary field to double value. This method does no overflow checking.
    *
-   * @param bytes The bytes of the numeric field.
+   * @param bytes The buffer holding the numeric field.
+   * @param offset The position of the field in the buffer.
+   * @param length The number of bytes of the field.
    * @param oid The oid of the field.
    * @param targetType The target type. Used for error reporting.
    * @return The value as double.
    * @throws PSQLException If the field type is not supported numeric type.
    */
-  private double readDoubleValue(byte[] bytes, int oid, String targetType) throws PSQLException {
+  private double readDoubleValue(byte[] bytes, int offset, int length, int oid,
+      String targetType) throws PSQLException {
     // currently implemented binary encoded fields
     switch (oid) {
       case Oid.INT2:
-        return ByteConverter.int2(bytes, 0);
+        return ByteConverter.int2(bytes, offset);
       case Oid.INT4:
-        return ByteConverter.int4(bytes, 0);
+        return ByteConverter.int4(bytes, offset);
       case Oid.INT8:
         // might not fit but there still should be no overflow checking
-        return ByteConverter.int8(bytes, 0);
+        return ByteConverter.int8(bytes, offset);
       case Oid.FLOAT4:
-        return ByteConverter.float4(bytes, 0);
+        return ByteConverter.float4(bytes, offset);
       case Oid.FLOAT8:
-        return ByteConverter.float8(bytes, 0);
+        return ByteConverter.float8(bytes, offset);
       case Oid.NUMERIC:
-        return ByteConverter.numeric(bytes).doubleValue();
+        return ByteConverter.numeric(bytes, offset, length).doubleValue();
     }
     throw new PSQLException(GT.tr("Cannot convert the column of type {0} to requested type {1}.",
         Oid.toString(oid), targetType), PSQLState.DATA_TYPE_MISMATCH);
@@ -3404,7 +3706,9 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
    * <code>byte,short,int,long,float,double,BigDecimal,boolean,string</code>.
    * </p>
    *
-   * @param bytes The bytes of the numeric field.
+   * @param bytes The buffer holding the numeric field.
+   * @param offset The position of the field in the buffer.
+   * @param length The number of bytes of the field.
    * @param oid The oid of the field.
    * @param minVal the minimum value allowed.
    * @param maxVal the maximum value allowed.
@@ -3414,28 +3718,28 @@ public class PgResultSet implements ResultSet, org.postgresql.PGRefCursorResultS
    *         range.
    */
   @Pure
-  private long readLongValue(byte[] bytes, int oid, long minVal, long maxVal, String targetType)
-      throws PSQLException {
+  private long readLongValue(byte[] bytes, int offset, int length, int oid, long minVal,
+      long maxVal, String targetType) throws PSQLException {
     long val;
     // currently implemented binary encoded fields
     switch (oid) {
       case Oid.INT2:
-        val = ByteConverter.int2(bytes, 0);
+        val = ByteConverter.int2(bytes, offset);
         break;
       case Oid.INT4:
-        val = ByteConverter.int4(bytes, 0);
+        val = ByteConverter.int4(bytes, offset);
         break;
       case Oid.INT8:
-        val = ByteConverter.int8(bytes, 0);
+        val = ByteConverter.int8(bytes, offset);
         break;
       case Oid.FLOAT4:
-        val = (long) ByteConverter.float4(bytes, 0);
+        val = (long) ByteConverter.float4(bytes, offset);
         break;
       case Oid.FLOAT8:
-        val = (long) ByteConverter.float8(bytes, 0);
+        val = (long) ByteConverter.float8(bytes, offset);
         break;
       case Oid.NUMERIC:
-        Number num = ByteConverter.numeric(bytes);
+        Number num = ByteConverter.numeric(bytes, offset, length);
         if (num instanceof  BigDecimal) {
           val = ((BigDecimal) num).setScale(0 , RoundingMode.DOWN).longValueExact();
         } else {
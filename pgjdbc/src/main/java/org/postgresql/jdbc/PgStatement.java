@@ -38,6 +38,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.TimeZone;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
@@ -106,6 +107,8 @@ public class PgStatement implements Statement, BaseStatement {
   // The connection who created us
   protected final BaseConnection connection;
 
+  protected final ResourceLock lock = new ResourceLock();
+
   /**
    * The warnings chain.
    */
@@ -172,6 +175,7 @@ public class PgStatement implements Statement, BaseStatement {
         getResultSetHoldability(), getAdaptiveFetch());
     newResult.setFetchSize(getFetchSize());
     newResult.setFetchDirection(getFetchDirection());
+    newResult.setPrefetchThreshold(((PgConnection) connection).getPrefetchThreshold());
     return newResult;
   }
 
@@ -248,7 +252,7 @@ public class PgStatement implements Statement, BaseStatement {
   }
 
   protected ResultSet getSingleResultSet() throws SQLException {
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       checkClosed();
       ResultWrapper result = castNonNull(this.result);
       if (result.getNext() != null) {
@@ -268,7 +272,7 @@ public class PgStatement implements Statement, BaseStatement {
   }
 
   protected final void checkNoResultUpdate() throws SQLException {
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       checkClosed();
       ResultWrapper iter = result;
       while (iter != null) {
@@ -327,7 +331,7 @@ public class PgStatement implements Statement, BaseStatement {
       flags |= QueryExecutor.QUERY_EXECUTE_AS_SIMPLE;
     }
     execute(simpleQuery, null, flags);
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       checkClosed();
       return (result != null && result.getResultSet() != null);
     }
@@ -344,7 +348,7 @@ public class PgStatement implements Statement, BaseStatement {
   by the client.
    */
   private void closeUnclosedProcessedResults() throws SQLException {
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       ResultWrapper resultWrapper = this.firstUnclosedResult;
       ResultWrapper currentResult = this.result;
       for (; resultWrapper != currentResult && resultWrapper != null;
@@ -364,7 +368,7 @@ public class PgStatement implements Statement, BaseStatement {
     clearWarnings();
 
     // Close any existing resultsets associated with this statement.
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       closeUnclosedProcessedResults();
 
       if ( this.result != null && this.result.getResultSet() != null ) {
@@ -422,11 +426,16 @@ public class PgStatement implements Statement, BaseStatement {
       @Nullable ParameterList queryParameters, int flags)
       throws SQLException {
     closeForNextExecution();
+    ((PgConnection) connection).awaitAsync();
 
     // Enable cursor-based resultset if possible.
     if (fetchSize > 0 && !wantsScrollableResultSet() && !connection.getAutoCommit()
         && !wantsHoldableResultSet()) {
       flags |= QueryExecutor.QUERY_FORWARD_CURSOR;
+    } else if (fetchSize > 0 && !wantsScrollableResultSet() && connection.getAutoCommit()
+        && ((PgConnection) connection).getStreamResults()) {
+      // There is no transaction to keep a portal open, leave the rows on the wire instead
+      flags |= QueryExecutor.QUERY_STREAM_RESULTS;
     }
 
     if (wantsGeneratedKeysOnce || wantsGeneratedKeysAlways) {
@@ -482,7 +491,7 @@ public class PgStatement implements Statement, BaseStatement {
     }
 
     StatementResultHandler handler = new StatementResultHandler();
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       result = null;
     }
     try {
@@ -492,7 +501,7 @@ public class PgStatement implements Statement, BaseStatement {
     } finally {
       killTimerTask();
     }
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       checkClosed();
 
       ResultWrapper currentResult = handler.getResults();
@@ -518,7 +527,7 @@ public class PgStatement implements Statement, BaseStatement {
 
   @Override
   public int getUpdateCount() throws SQLException {
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       checkClosed();
       if (result == null || result.getResultSet() != null) {
         return -1;
@@ -648,7 +657,7 @@ public class PgStatement implements Statement, BaseStatement {
   }
 
   public @Nullable ResultSet getResultSet() throws SQLException {
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       checkClosed();
 
       if (result == null) {
@@ -667,7 +676,7 @@ public class PgStatement implements Statement, BaseStatement {
    */
   public final void close() throws SQLException {
     // closing an already closed Statement is a no-op.
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       if (isClosed) {
         return;
       }
@@ -695,7 +704,7 @@ public class PgStatement implements Statement, BaseStatement {
    */
 
   public long getLastOID() throws SQLException {
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       checkClosed();
       if (result == null) {
         return 0;
@@ -778,6 +787,7 @@ public class PgStatement implements Statement, BaseStatement {
 
   @RequiresNonNull({"batchStatements", "batchParameters"})
   private BatchResultHandler internalExecuteBatch() throws SQLException {
+    ((PgConnection) connection).awaitAsync();
     // Construct query/parameter arrays.
     transformQueriesAndParameters();
     ArrayList<Query> batchStatements = castNonNull(this.batchStatements);
@@ -878,7 +888,7 @@ public class PgStatement implements Statement, BaseStatement {
       }
     }
 
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       result = null;
     }
 
@@ -889,7 +899,7 @@ public class PgStatement implements Statement, BaseStatement {
     } finally {
       killTimerTask();
       // There might be some rows generated even in case of failures
-      synchronized (this) {
+      try (ResourceLock ignore = lock.obtain()) {
         checkClosed();
         if (wantsGeneratedKeysAlways) {
           generatedKeys = new ResultWrapper(handler.getGeneratedKeys());
@@ -919,13 +929,14 @@ public class PgStatement implements Statement, BaseStatement {
       // Not in query, there's nothing to cancel
       return;
     }
-    // Synchronize on connection to avoid spinning in killTimerTask
-    synchronized (connection) {
+    // Lock the connection to avoid spinning in killTimerTask
+    PgConnection pgConnection = (PgConnection) connection;
+    try (ResourceLock ignore = pgConnection.obtainLock()) {
       try {
         connection.cancelQuery();
       } finally {
         STATE_UPDATER.set(this, StatementCancelState.CANCELLED);
-        connection.notifyAll(); // wake-up killTimerTask
+        pgConnection.lockCondition().signalAll(); // wake-up killTimerTask
       }
     }
   }
@@ -968,7 +979,7 @@ public class PgStatement implements Statement, BaseStatement {
     fetchSize = rows;
   }
 
-  private void startTimer() {
+  void startTimer() {
     /*
      * there shouldn't be any previous timer active, but better safe than sorry.
      */
@@ -1019,7 +1030,7 @@ public class PgStatement implements Statement, BaseStatement {
     return true;
   }
 
-  private void killTimerTask() {
+  void killTimerTask() {
     boolean timerTaskIsClear = cleanupTimer();
     // The order is important here: in case we need to wait for the cancel task, the state must be
     // kept StatementCancelState.IN_QUERY, so cancelTask would be able to cancel the query.
@@ -1033,14 +1044,15 @@ public class PgStatement implements Statement, BaseStatement {
     // "timeout error"
     // We wait till state becomes "cancelled"
     boolean interrupted = false;
-    synchronized (connection) {
-      // state check is performed under synchronized so it detects "cancelled" state faster
-      // In other words, it prevents unnecessary ".wait()" call
+    PgConnection pgConnection = (PgConnection) connection;
+    try (ResourceLock ignore = pgConnection.obtainLock()) {
+      // state check is performed under the lock so it detects "cancelled" state faster
+      // In other words, it prevents unnecessary ".await()" call
       while (!STATE_UPDATER.compareAndSet(this, StatementCancelState.CANCELLED, StatementCancelState.IDLE)) {
         try {
-          // Note: wait timeout here is irrelevant since synchronized(connection) would block until
+          // Note: wait timeout here is irrelevant since the connection lock would block until
           // .cancel finishes
-          connection.wait(10);
+          pgConnection.lockCondition().await(10, TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) { // NOSONAR
           // Either re-interrupt this method or rethrow the "InterruptedException"
           interrupted = true;
@@ -1058,7 +1070,7 @@ public class PgStatement implements Statement, BaseStatement {
 
   @Override
   public long getLargeUpdateCount() throws SQLException {
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       checkClosed();
       if (result == null || result.getResultSet() != null) {
         return -1;
@@ -1165,7 +1177,7 @@ public class PgStatement implements Statement, BaseStatement {
       return;
     }
 
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       ResultWrapper result = firstUnclosedResult;
       while (result != null) {
         ResultSet resultSet = result.getResultSet();
@@ -1187,7 +1199,7 @@ public class PgStatement implements Statement, BaseStatement {
   }
 
   public boolean getMoreResults(int current) throws SQLException {
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       checkClosed();
       // CLOSE_CURRENT_RESULT
       if (current == Statement.CLOSE_CURRENT_RESULT && result != null
@@ -1212,7 +1224,7 @@ public class PgStatement implements Statement, BaseStatement {
   }
 
   public ResultSet getGeneratedKeys() throws SQLException {
-    synchronized (this) {
+    try (ResourceLock ignore = lock.obtain()) {
       checkClosed();
       if (generatedKeys == null || generatedKeys.getResultSet() == null) {
         return createDriverResultSet(new Field[0], new ArrayList<Tuple>());
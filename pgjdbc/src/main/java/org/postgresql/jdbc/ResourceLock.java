@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jdbc;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>A {@link ReentrantLock} that can be used with try-with-resources:</p>
+ *
+ * <pre>
+ * try (ResourceLock ignore = lock.obtain()) {
+ *   // critical section
+ * }
+ * </pre>
+ *
+ * <p>It replaces {@code synchronized} around code that performs blocking I/O: a virtual thread
+ * that blocks while holding a monitor pins its carrier thread, whereas blocking while holding a
+ * {@link java.util.concurrent.locks.Lock} does not.</p>
+ */
+public final class ResourceLock extends ReentrantLock implements AutoCloseable {
+  private static final long serialVersionUID = 8459051451899973878L;
+
+  /**
+   * Obtains the lock, waiting if necessary.
+   *
+   * @return this lock, so it can be released with try-with-resources
+   */
+  public ResourceLock obtain() {
+    lock();
+    return this;
+  }
+
+  /**
+   * Releases the lock.
+   */
+  @Override
+  public void close() {
+    this.unlock();
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jdbc;
+
+import org.postgresql.core.QueryExecutor;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Data type information shared by the connections of the JVM to the same server and database, see
+ * {@link org.postgresql.PGProperty#SHARED_TYPE_INFO_CACHE}. {@link TypeInfoCache} consults it
+ * before querying pg_type and publishes what it learns, so the connections a pool opens don't
+ * each query the catalog for the same types.</p>
+ *
+ * <p>Only facts that do not depend on the search_path of the session are shared: the
+ * {@link java.sql.Types} of a type, the element type of an array type, the delimiter of its
+ * elements, and the oids of schema-qualified type names. The oid of an unqualified name depends on
+ * the search_path, so it is only shared between sessions of the same user that report the same
+ * search_path to the driver.</p>
+ *
+ * <p>A server is identified by host, port, database and server version. If a connection finds an
+ * oid the server does not know, the database might have been recreated or replaced behind the same
+ * address, so everything shared for the server is dropped and learned again. The information of
+ * the least recently used servers is dropped once {@value #MAX_SERVERS} servers are known; the
+ * connections already using it keep sharing it with each other.</p>
+ */
+final class SharedTypeInfo {
+  private static final Logger LOGGER = Logger.getLogger(SharedTypeInfo.class.getName());
+
+  // Bounds the memory of databases with many types, the connections still query what is missing
+  private static final int MAX_TYPES = 10000;
+
+  // Bounds the number of servers an application talking to many databases keeps information of
+  private static final int MAX_SERVERS = 64;
+
+  private static final ResourceLock SERVERS_LOCK = new ResourceLock();
+  private static final Map<String, SharedTypeInfo> SERVERS =
+      new LinkedHashMap<String, SharedTypeInfo>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SharedTypeInfo> eldest) {
+          return size() > MAX_SERVERS;
+        }
+      };
+
+  private final String server;
+  // oid -> java.sql.Types
+  private final ConcurrentMap<Integer, Integer> oidToSQLType =
+      new ConcurrentHashMap<Integer, Integer>();
+  // array type oid -> element type oid
+  private final ConcurrentMap<Integer, Integer> arrayOidToElementOid =
+      new ConcurrentHashMap<Integer, Integer>();
+  // array type oid -> element delimiter
+  private final ConcurrentMap<Integer, Character> arrayOidToDelimiter =
+      new ConcurrentHashMap<Integer, Character>();
+  // type name -> oid, see TypeInfoCache#getPGType(String) for the names that are shared
+  private final ConcurrentMap<String, Integer> nameToOid = new ConcurrentHashMap<String, Integer>();
+
+  private SharedTypeInfo(String server) {
+    this.server = server;
+  }
+
+  /**
+   * Returns the type information shared by the connections to the server of the given executor.
+   *
+   * @param executor query executor of the connection
+   * @return shared type information of the server
+   */
+  static SharedTypeInfo forServer(QueryExecutor executor) {
+    String server = executor.getHostSpec() + "/" + executor.getDatabase() + "/"
+        + executor.getServerVersionNum();
+    try (ResourceLock ignore = SERVERS_LOCK.obtain()) {
+      SharedTypeInfo info = SERVERS.get(server);
+      if (info == null) {
+        info = new SharedTypeInfo(server);
+        SERVERS.put(server, info);
+      }
+      return info;
+    }
+  }
+
+  @Nullable Integer getSQLType(int oid) {
+    return oidToSQLType.get(oid);
+  }
+
+  void putSQLType(int oid, int sqlType) {
+    put(oidToSQLType, oid, sqlType);
+  }
+
+  @Nullable Integer getArrayElement(int arrayOid) {
+    return arrayOidToElementOid.get(arrayOid);
+  }
+
+  void putArrayElement(int arrayOid, int elementOid) {
+    put(arrayOidToElementOid, arrayOid, elementOid);
+  }
+
+  @Nullable Character getArrayDelimiter(int arrayOid) {
+    return arrayOidToDelimiter.get(arrayOid);
+  }
+
+  void putArrayDelimiter(int arrayOid, char delimiter) {
+    put(arrayOidToDelimiter, arrayOid, delimiter);
+  }
+
+  @Nullable Integer getOid(String name) {
+    return nameToOid.get(name);
+  }
+
+  void putOid(String name, int oid) {
+    if (nameToOid.size() < MAX_TYPES) {
+      nameToOid.put(name, oid);
+    }
+  }
+
+  /**
+   * Drops everything shared for the server, called when a connection finds an oid the server does
+   * not know.
+   *
+   * @param oid the unknown oid
+   */
+  void invalidate(int oid) {
+    LOGGER.log(Level.FINE, "oid {0} is unknown to {1}, dropping shared type information",
+        new Object[]{oid, server});
+    oidToSQLType.clear();
+    arrayOidToElementOid.clear();
+    arrayOidToDelimiter.clear();
+    nameToOid.clear();
+  }
+
+  private static <V> void put(ConcurrentMap<Integer, V> map, int oid, V value) {
+    if (map.size() < MAX_TYPES) {
+      map.put(oid, value);
+    }
+  }
+}
@@ -1047,11 +1047,26 @@ public class TimestampUtils {
    * @throws PSQLException If binary format could not be parsed.
    */
   public Date toDateBin(@Nullable TimeZone tz, byte[] bytes) throws PSQLException {
-    if (bytes.length != 4) {
+    return toDateBin(tz, bytes, 0, bytes.length);
+  }
+
+  /**
+   * Returns the SQL Date object matching the given slice of bytes with {@link Oid#DATE}.
+   *
+   * @param tz The timezone used.
+   * @param bytes The buffer holding the binary encoded date value.
+   * @param offset The position of the value in the buffer.
+   * @param length The number of bytes of the value.
+   * @return The parsed date object.
+   * @throws PSQLException If binary format could not be parsed.
+   */
+  public Date toDateBin(@Nullable TimeZone tz, byte[] bytes, int offset, int length)
+      throws PSQLException {
+    if (length != 4) {
       throw new PSQLException(GT.tr("Unsupported binary encoding of {0}.", "date"),
           PSQLState.BAD_DATETIME_FORMAT);
     }
-    int days = ByteConverter.int4(bytes, 0);
+    int days = ByteConverter.int4(bytes, offset);
     if (tz == null) {
       tz = getDefaultTz();
     }
@@ -1179,8 +1194,27 @@ public class TimestampUtils {
    */
   public Timestamp toTimestampBin(@Nullable TimeZone tz, byte[] bytes, boolean timestamptz)
       throws PSQLException {
+    return toTimestampBin(tz, bytes, 0, bytes.length, timestamptz);
+  }
 
-    ParsedBinaryTimestamp parsedTimestamp = this.toParsedTimestampBin(tz, bytes, timestamptz);
+  /**
+   * Returns the SQL Timestamp object matching the given slice of bytes with {@link Oid#TIMESTAMP}
+   * or {@link Oid#TIMESTAMPTZ}.
+   *
+   * @param tz The timezone used when received data is {@link Oid#TIMESTAMP}, ignored if data
+   *        already contains {@link Oid#TIMESTAMPTZ}.
+   * @param bytes The buffer holding the binary encoded timestamp value.
+   * @param offset The position of the value in the buffer.
+   * @param length The number of bytes of the value.
+   * @param timestamptz True if the binary is in GMT.
+   * @return The parsed timestamp object.
+   * @throws PSQLException If binary format could not be parsed.
+   */
+  public Timestamp toTimestampBin(@Nullable TimeZone tz, byte[] bytes, int offset, int length,
+      boolean timestamptz) throws PSQLException {
+
+    ParsedBinaryTimestamp parsedTimestamp =
+        this.toParsedTimestampBin(tz, bytes, offset, length, timestamptz);
     if (parsedTimestamp.infinity == Infinity.POSITIVE) {
       return new Timestamp(PGStatement.DATE_POSITIVE_INFINITY);
     } else if (parsedTimestamp.infinity == Infinity.NEGATIVE) {
@@ -1192,10 +1226,10 @@ public class TimestampUtils {
     return ts;
   }
 
-  private ParsedBinaryTimestamp toParsedTimestampBinPlain( byte[] bytes)
+  private ParsedBinaryTimestamp toParsedTimestampBinPlain(byte[] bytes, int offset, int length)
       throws PSQLException {
 
-    if (bytes.length != 8) {
+    if (length != 8) {
       throw new PSQLException(GT.tr("Unsupported binary encoding of {0}.", "timestamp"),
               PSQLState.BAD_DATETIME_FORMAT);
     }
@@ -1204,7 +1238,7 @@ public class TimestampUtils {
     int nanos;
 
     if (usesDouble) {
-      double time = ByteConverter.float8(bytes, 0);
+      double time = ByteConverter.float8(bytes, offset);
       if (time == Double.POSITIVE_INFINITY) {
         ParsedBinaryTimestamp ts = new ParsedBinaryTimestamp();
         ts.infinity = Infinity.POSITIVE;
@@ -1218,7 +1252,7 @@ public class TimestampUtils {
       secs = (long) time;
       nanos = (int) ((time - secs) * 1000000);
     } else {
-      long time = ByteConverter.int8(bytes, 0);
+      long time = ByteConverter.int8(bytes, offset);
 
       // compatibility with text based receiving, not strictly necessary
       // and can actually be confusing because there are timestamps
@@ -1251,10 +1285,10 @@ public class TimestampUtils {
   }
 
   private ParsedBinaryTimestamp toParsedTimestampBin(@Nullable TimeZone tz, byte[] bytes,
-      boolean timestamptz)
+      int offset, int length, boolean timestamptz)
       throws PSQLException {
 
-    ParsedBinaryTimestamp ts = toParsedTimestampBinPlain(bytes);
+    ParsedBinaryTimestamp ts = toParsedTimestampBinPlain(bytes, offset, length);
     if (ts.infinity != null) {
       return ts;
     }
@@ -1276,7 +1310,7 @@ public class TimestampUtils {
   private ParsedBinaryTimestamp toProlepticParsedTimestampBin(byte[] bytes)
       throws PSQLException {
 
-    ParsedBinaryTimestamp ts = toParsedTimestampBinPlain(bytes);
+    ParsedBinaryTimestamp ts = toParsedTimestampBinPlain(bytes, 0, bytes.length);
     if (ts.infinity != null) {
       return ts;
     }
@@ -1322,11 +1356,24 @@ public class TimestampUtils {
    * @throws PSQLException If binary format could not be parsed.
    */
   public LocalDate toLocalDateBin(byte[] bytes) throws PSQLException {
-    if (bytes.length != 4) {
+    return toLocalDateBin(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Returns the local date object matching the given slice of bytes with {@link Oid#DATE}.
+   *
+   * @param bytes The buffer holding the binary encoded local date value.
+   * @param offset The position of the value in the buffer.
+   * @param length The number of bytes of the value.
+   * @return The parsed local date object.
+   * @throws PSQLException If binary format could not be parsed.
+   */
+  public LocalDate toLocalDateBin(byte[] bytes, int offset, int length) throws PSQLException {
+    if (length != 4) {
       throw new PSQLException(GT.tr("Unsupported binary encoding of {0}.", "date"),
           PSQLState.BAD_DATETIME_FORMAT);
     }
-    int days = ByteConverter.int4(bytes, 0);
+    int days = ByteConverter.int4(bytes, offset);
     if (days == Integer.MAX_VALUE) {
       return LocalDate.MAX;
     } else if (days == Integer.MIN_VALUE) {
@@ -1590,6 +1637,114 @@ public class TimestampUtils {
     ByteConverter.int4(bytes, 0, (int) (secs / 86400));
   }
 
+  /**
+   * Converts the SQL Timestamp to binary representation for {@link Oid#TIMESTAMP} or
+   * {@link Oid#TIMESTAMPTZ}, see {@link #toTimestampBin(TimeZone, byte[], boolean)} for the reverse
+   * operation.
+   *
+   * @param tz The timezone used for {@link Oid#TIMESTAMP}, ignored for {@link Oid#TIMESTAMPTZ}.
+   * @param bytes The buffer that receives the eight bytes of the value.
+   * @param offset The position of the value in the buffer.
+   * @param value value
+   * @param timestamptz True if the binary is in GMT.
+   */
+  public void toBinTimestamp(@Nullable TimeZone tz, byte[] bytes, int offset, Timestamp value,
+      boolean timestamptz) {
+    long millis = value.getTime();
+    if (millis == PGStatement.DATE_POSITIVE_INFINITY) {
+      toBinTimestampInfinity(bytes, offset, true);
+      return;
+    } else if (millis == PGStatement.DATE_NEGATIVE_INFINITY) {
+      toBinTimestampInfinity(bytes, offset, false);
+      return;
+    }
+    if (!timestamptz) {
+      if (tz == null) {
+        tz = getDefaultTz();
+      }
+      millis += tz.getOffset(millis);
+    }
+    long secs = toPgSecs(floorDiv(millis, 1000));
+    toBinTimestamp(bytes, offset, secs, value.getNanos() / 1000);
+  }
+
+  /**
+   * Converts the local date time to binary representation for {@link Oid#TIMESTAMP}, see
+   * {@link #toLocalDateTimeBin(byte[])} for the reverse operation.
+   *
+   * @param bytes The buffer that receives the eight bytes of the value.
+   * @param offset The position of the value in the buffer.
+   * @param value value
+   */
+  public void toBinLocalDateTime(byte[] bytes, int offset, LocalDateTime value) {
+    if (value.equals(LocalDateTime.MAX)) {
+      toBinTimestampInfinity(bytes, offset, true);
+      return;
+    } else if (value.equals(LocalDateTime.MIN)) {
+      toBinTimestampInfinity(bytes, offset, false);
+      return;
+    }
+    long secs = value.toEpochSecond(ZoneOffset.UTC) - PG_EPOCH_DIFF.getSeconds();
+    toBinTimestamp(bytes, offset, secs, value.getNano() / 1000);
+  }
+
+  /**
+   * Converts the offset date time to binary representation for {@link Oid#TIMESTAMPTZ}, see
+   * {@link #toOffsetDateTimeBin(byte[])} for the reverse operation.
+   *
+   * @param bytes The buffer that receives the eight bytes of the value.
+   * @param offset The position of the value in the buffer.
+   * @param value value
+   */
+  public void toBinOffsetDateTime(byte[] bytes, int offset, OffsetDateTime value) {
+    if (value.equals(OffsetDateTime.MAX)) {
+      toBinTimestampInfinity(bytes, offset, true);
+      return;
+    } else if (value.equals(OffsetDateTime.MIN)) {
+      toBinTimestampInfinity(bytes, offset, false);
+      return;
+    }
+    long secs = value.toEpochSecond() - PG_EPOCH_DIFF.getSeconds();
+    toBinTimestamp(bytes, offset, secs, value.getNano() / 1000);
+  }
+
+  private void toBinTimestamp(byte[] bytes, int offset, long pgSecs, int micros) {
+    if (usesDouble) {
+      ByteConverter.float8(bytes, offset, pgSecs + micros / 1000000.0);
+    } else {
+      ByteConverter.int8(bytes, offset, pgSecs * 1000000 + micros);
+    }
+  }
+
+  private void toBinTimestampInfinity(byte[] bytes, int offset, boolean positive) {
+    if (usesDouble) {
+      ByteConverter.float8(bytes, offset,
+          positive ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
+    } else {
+      ByteConverter.int8(bytes, offset, positive ? Long.MAX_VALUE : Long.MIN_VALUE);
+    }
+  }
+
+  /**
+   * Converts the local date to binary representation for {@link Oid#DATE}, see
+   * {@link #toLocalDateBin(byte[])} for the reverse operation.
+   *
+   * @param bytes The buffer that receives the four bytes of the value.
+   * @param offset The position of the value in the buffer.
+   * @param value value
+   */
+  public void toBinLocalDate(byte[] bytes, int offset, LocalDate value) {
+    int days;
+    if (value.equals(LocalDate.MAX)) {
+      days = Integer.MAX_VALUE;
+    } else if (value.equals(LocalDate.MIN)) {
+      days = Integer.MIN_VALUE;
+    } else {
+      days = (int) (value.toEpochDay() - PG_EPOCH_DIFF.toDays());
+    }
+    ByteConverter.int4(bytes, offset, days);
+  }
+
   /**
    * Converts backend's TimeZone parameter to java format.
    * Notable difference: backend's gmt-3 is GMT+03 in Java.
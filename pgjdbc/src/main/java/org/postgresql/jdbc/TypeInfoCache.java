@@ -62,7 +62,10 @@ public class TypeInfoCache implements TypeInfo {
   private Map<Integer, Character> arrayOidToDelimiter;
 
   private final BaseConnection conn;
+  private final ResourceLock lock = new ResourceLock();
   private final int unknownLength;
+  // Type information shared with the other connections to the same database, if enabled
+  private final @Nullable SharedTypeInfo sharedTypeInfo;
   private @Nullable PreparedStatement getOidStatementSimple;
   private @Nullable PreparedStatement getOidStatementComplexNonArray;
   private @Nullable PreparedStatement getOidStatementComplexArray;
@@ -134,10 +137,15 @@ public class TypeInfoCache implements TypeInfo {
     TYPE_ALIASES.put("numeric", "numeric");
   }
 
-  @SuppressWarnings("method.invocation.invalid")
   public TypeInfoCache(BaseConnection conn, int unknownLength) {
+    this(conn, unknownLength, null);
+  }
+
+  @SuppressWarnings("method.invocation.invalid")
+  TypeInfoCache(BaseConnection conn, int unknownLength, @Nullable SharedTypeInfo sharedTypeInfo) {
     this.conn = conn;
     this.unknownLength = unknownLength;
+    this.sharedTypeInfo = sharedTypeInfo;
     oidToPgName = new HashMap<Integer, String>((int) Math.round(types.length * 1.5));
     pgNameToOid = new HashMap<String, Integer>((int) Math.round(types.length * 1.5));
     pgNameToJavaClass = new HashMap<String, String>((int) Math.round(types.length * 1.5));
@@ -163,41 +171,45 @@ public class TypeInfoCache implements TypeInfo {
     pgNameToJavaClass.put("hstore", Map.class.getName());
   }
 
-  public synchronized void addCoreType(String pgTypeName, Integer oid, Integer sqlType,
+  public void addCoreType(String pgTypeName, Integer oid, Integer sqlType,
       String javaClass, Integer arrayOid) {
-    pgNameToJavaClass.put(pgTypeName, javaClass);
-    pgNameToOid.put(pgTypeName, oid);
-    oidToPgName.put(oid, pgTypeName);
-    pgArrayToPgType.put(arrayOid, oid);
-    pgNameToSQLType.put(pgTypeName, sqlType);
-    oidToSQLType.put(oid, sqlType);
-
-    // Currently we hardcode all core types array delimiter
-    // to a comma. In a stock install the only exception is
-    // the box datatype and it's not a JDBC core type.
-    //
-    Character delim = ',';
-    arrayOidToDelimiter.put(oid, delim);
-    arrayOidToDelimiter.put(arrayOid, delim);
-
-    String pgArrayTypeName = pgTypeName + "[]";
-    pgNameToJavaClass.put(pgArrayTypeName, "java.sql.Array");
-    pgNameToSQLType.put(pgArrayTypeName, Types.ARRAY);
-    oidToSQLType.put(arrayOid, Types.ARRAY);
-    pgNameToOid.put(pgArrayTypeName, arrayOid);
-    pgArrayTypeName = "_" + pgTypeName;
-    if (!pgNameToJavaClass.containsKey(pgArrayTypeName)) {
+    try (ResourceLock ignore = lock.obtain()) {
+      pgNameToJavaClass.put(pgTypeName, javaClass);
+      pgNameToOid.put(pgTypeName, oid);
+      oidToPgName.put(oid, pgTypeName);
+      pgArrayToPgType.put(arrayOid, oid);
+      pgNameToSQLType.put(pgTypeName, sqlType);
+      oidToSQLType.put(oid, sqlType);
+
+      // Currently we hardcode all core types array delimiter
+      // to a comma. In a stock install the only exception is
+      // the box datatype and it's not a JDBC core type.
+      //
+      Character delim = ',';
+      arrayOidToDelimiter.put(oid, delim);
+      arrayOidToDelimiter.put(arrayOid, delim);
+
+      String pgArrayTypeName = pgTypeName + "[]";
       pgNameToJavaClass.put(pgArrayTypeName, "java.sql.Array");
       pgNameToSQLType.put(pgArrayTypeName, Types.ARRAY);
+      oidToSQLType.put(arrayOid, Types.ARRAY);
       pgNameToOid.put(pgArrayTypeName, arrayOid);
-      oidToPgName.put(arrayOid, pgArrayTypeName);
+      pgArrayTypeName = "_" + pgTypeName;
+      if (!pgNameToJavaClass.containsKey(pgArrayTypeName)) {
+        pgNameToJavaClass.put(pgArrayTypeName, "java.sql.Array");
+        pgNameToSQLType.put(pgArrayTypeName, Types.ARRAY);
+        pgNameToOid.put(pgArrayTypeName, arrayOid);
+        oidToPgName.put(arrayOid, pgArrayTypeName);
+      }
     }
   }
 
-  public synchronized void addDataType(String type, Class<? extends PGobject> klass)
+  public void addDataType(String type, Class<? extends PGobject> klass)
       throws SQLException {
-    pgNameToPgObject.put(type, klass);
-    pgNameToJavaClass.put(type, klass.getName());
+    try (ResourceLock ignore = lock.obtain()) {
+      pgNameToPgObject.put(type, klass);
+      pgNameToJavaClass.put(type, klass.getName());
+    }
   }
 
   public Iterator<String> getPGTypeNamesWithSQLTypes() {
@@ -284,6 +296,9 @@ public class TypeInfoCache implements TypeInfo {
       if (!oidToSQLType.containsKey(typeOid)) {
         oidToSQLType.put(typeOid, type);
       }
+      if (sharedTypeInfo != null) {
+        sharedTypeInfo.putSQLType(typeOid, type);
+      }
     }
     rs.close();
   }
@@ -297,60 +312,78 @@ public class TypeInfoCache implements TypeInfo {
     return getTypeInfoStatement;
   }
 
-  public synchronized int getSQLType(String pgTypeName) throws SQLException {
-    /*
-    Get a few things out of the way such as arrays and known types
-     */
-    if (pgTypeName.endsWith("[]")) {
-      return Types.ARRAY;
-    }
-    Integer i = this.pgNameToSQLType.get(pgTypeName);
-    if (i != null) {
+  public int getSQLType(String pgTypeName) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      /*
+      Get a few things out of the way such as arrays and known types
+       */
+      if (pgTypeName.endsWith("[]")) {
+        return Types.ARRAY;
+      }
+      Integer i = this.pgNameToSQLType.get(pgTypeName);
+      if (i != null) {
+        return i;
+      }
+
+      /*
+        All else fails then we will query the database.
+        save for future calls
+      */
+      i = getSQLType(castNonNull(getPGType(pgTypeName)));
+
+      pgNameToSQLType.put(pgTypeName, i);
       return i;
     }
+  }
 
-    /*
-      All else fails then we will query the database.
-      save for future calls
-    */
-    i = getSQLType(castNonNull(getPGType(pgTypeName)));
+  public int getSQLType(int typeOid) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (typeOid == Oid.UNSPECIFIED) {
+        return Types.OTHER;
+      }
 
-    pgNameToSQLType.put(pgTypeName, i);
-    return i;
-  }
+      Integer i = oidToSQLType.get(typeOid);
+      if (i != null) {
+        return i;
+      }
 
-  public synchronized int getSQLType(int typeOid) throws SQLException {
-    if (typeOid == Oid.UNSPECIFIED) {
-      return Types.OTHER;
-    }
+      SharedTypeInfo sharedTypeInfo = this.sharedTypeInfo;
+      if (sharedTypeInfo != null) {
+        i = sharedTypeInfo.getSQLType(typeOid);
+        if (i != null) {
+          oidToSQLType.put(typeOid, i);
+          return i;
+        }
+      }
 
-    Integer i = oidToSQLType.get(typeOid);
-    if (i != null) {
-      return i;
-    }
+      LOGGER.log(Level.FINEST, "querying SQL typecode for pg type oid '{0}'", intOidToLong(typeOid));
 
-    LOGGER.log(Level.FINEST, "querying SQL typecode for pg type oid '{0}'", intOidToLong(typeOid));
+      PreparedStatement getTypeInfoStatement = prepareGetTypeInfoStatement();
 
-    PreparedStatement getTypeInfoStatement = prepareGetTypeInfoStatement();
+      getTypeInfoStatement.setLong(1, intOidToLong(typeOid));
 
-    getTypeInfoStatement.setLong(1, intOidToLong(typeOid));
+      // Go through BaseStatement to avoid transaction start.
+      if (!((BaseStatement) getTypeInfoStatement)
+          .executeWithFlags(QueryExecutor.QUERY_SUPPRESS_BEGIN)) {
+        throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
+      }
 
-    // Go through BaseStatement to avoid transaction start.
-    if (!((BaseStatement) getTypeInfoStatement)
-        .executeWithFlags(QueryExecutor.QUERY_SUPPRESS_BEGIN)) {
-      throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
-    }
+      ResultSet rs = castNonNull(getTypeInfoStatement.getResultSet());
 
-    ResultSet rs = castNonNull(getTypeInfoStatement.getResultSet());
+      int sqlType = Types.OTHER;
+      if (rs.next()) {
+        sqlType = getSQLTypeFromQueryResult(rs);
+        if (sharedTypeInfo != null) {
+          sharedTypeInfo.putSQLType(typeOid, sqlType);
+        }
+      } else if (sharedTypeInfo != null) {
+        sharedTypeInfo.invalidate(typeOid);
+      }
+      rs.close();
 
-    int sqlType = Types.OTHER;
-    if (rs.next()) {
-      sqlType = getSQLTypeFromQueryResult(rs);
+      oidToSQLType.put(typeOid, sqlType);
+      return sqlType;
     }
-    rs.close();
-
-    oidToSQLType.put(typeOid, sqlType);
-    return sqlType;
   }
 
   private PreparedStatement getOidStatement(String pgTypeName) throws SQLException {
@@ -459,82 +492,125 @@ public class TypeInfoCache implements TypeInfo {
     return oidStatementComplex;
   }
 
-  public synchronized int getPGType(String pgTypeName) throws SQLException {
-    // there really isn't anything else to return other than UNSPECIFIED here.
-    if ( pgTypeName == null ) {
-      return Oid.UNSPECIFIED;
+  /**
+   * Returns the key of a type name in the {@link SharedTypeInfo}. A schema-qualified name resolves
+   * to the same type in every session. An unqualified name is resolved through the search_path, so
+   * it is only shared by the sessions of the same user that report the same search_path.
+   *
+   * @param pgTypeName type name as passed to {@link #getPGType(String)}
+   * @return key of the name, or null if its oid cannot be shared
+   */
+  private @Nullable String getSharedName(String pgTypeName) {
+    int dotIndex = pgTypeName.indexOf('.');
+    // "a.b" is a quoted name without schema, see getOidStatement
+    if (dotIndex != -1 && (!pgTypeName.startsWith("\"") || pgTypeName.contains("\"."))) {
+      return pgTypeName;
     }
-
-    Integer oid = pgNameToOid.get(pgTypeName);
-    if (oid != null) {
-      return oid;
+    QueryExecutor executor = conn.getQueryExecutor();
+    String searchPath = executor.getParameterStatus("search_path");
+    if (searchPath == null) {
+      return null;
     }
+    // "$user" in the search_path depends on the user
+    return executor.getUser() + "/" + searchPath + "/" + pgTypeName;
+  }
 
-    PreparedStatement oidStatement = getOidStatement(pgTypeName);
+  public int getPGType(String pgTypeName) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      // there really isn't anything else to return other than UNSPECIFIED here.
+      if ( pgTypeName == null ) {
+        return Oid.UNSPECIFIED;
+      }
 
-    // Go through BaseStatement to avoid transaction start.
-    if (!((BaseStatement) oidStatement).executeWithFlags(QueryExecutor.QUERY_SUPPRESS_BEGIN)) {
-      throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
-    }
+      Integer oid = pgNameToOid.get(pgTypeName);
+      if (oid != null) {
+        return oid;
+      }
 
-    oid = Oid.UNSPECIFIED;
-    ResultSet rs = castNonNull(oidStatement.getResultSet());
-    if (rs.next()) {
-      oid = (int) rs.getLong(1);
-      String internalName = castNonNull(rs.getString(2));
-      oidToPgName.put(oid, internalName);
-      pgNameToOid.put(internalName, oid);
-    }
-    pgNameToOid.put(pgTypeName, oid);
-    rs.close();
+      SharedTypeInfo sharedTypeInfo = this.sharedTypeInfo;
+      String sharedName = sharedTypeInfo != null ? getSharedName(pgTypeName) : null;
+      if (sharedTypeInfo != null && sharedName != null) {
+        oid = sharedTypeInfo.getOid(sharedName);
+        if (oid != null) {
+          pgNameToOid.put(pgTypeName, oid);
+          return oid;
+        }
+      }
 
-    return oid;
-  }
+      PreparedStatement oidStatement = getOidStatement(pgTypeName);
 
-  public synchronized @Nullable String getPGType(int oid) throws SQLException {
-    if (oid == Oid.UNSPECIFIED) {
-      // TODO: it would be great to forbid UNSPECIFIED argument, and make the return type non-nullable
-      return null;
-    }
+      // Go through BaseStatement to avoid transaction start.
+      if (!((BaseStatement) oidStatement).executeWithFlags(QueryExecutor.QUERY_SUPPRESS_BEGIN)) {
+        throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
+      }
 
-    String pgTypeName = oidToPgName.get(oid);
-    if (pgTypeName != null) {
-      return pgTypeName;
+      oid = Oid.UNSPECIFIED;
+      ResultSet rs = castNonNull(oidStatement.getResultSet());
+      if (rs.next()) {
+        oid = (int) rs.getLong(1);
+        String internalName = castNonNull(rs.getString(2));
+        oidToPgName.put(oid, internalName);
+        pgNameToOid.put(internalName, oid);
+      }
+      pgNameToOid.put(pgTypeName, oid);
+      rs.close();
+      // Types created later could still match, so unknown names are not shared
+      if (sharedTypeInfo != null && sharedName != null && oid != Oid.UNSPECIFIED) {
+        sharedTypeInfo.putOid(sharedName, oid);
+      }
+
+      return oid;
     }
+  }
 
-    PreparedStatement getNameStatement = prepareGetNameStatement();
+  public @Nullable String getPGType(int oid) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (oid == Oid.UNSPECIFIED) {
+        // TODO: it would be great to forbid UNSPECIFIED argument, and make the return type non-nullable
+        return null;
+      }
 
-    getNameStatement.setInt(1, oid);
+      String pgTypeName = oidToPgName.get(oid);
+      if (pgTypeName != null) {
+        return pgTypeName;
+      }
 
-    // Go through BaseStatement to avoid transaction start.
-    if (!((BaseStatement) getNameStatement).executeWithFlags(QueryExecutor.QUERY_SUPPRESS_BEGIN)) {
-      throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
-    }
+      PreparedStatement getNameStatement = prepareGetNameStatement();
 
-    ResultSet rs = castNonNull(getNameStatement.getResultSet());
-    if (rs.next()) {
-      boolean onPath = rs.getBoolean(1);
-      String schema = castNonNull(rs.getString(2), "schema");
-      String name = castNonNull(rs.getString(3), "name");
-      if (onPath) {
-        pgTypeName = name;
-        pgNameToOid.put(schema + "." + name, oid);
-      } else {
-        // TODO: escaping !?
-        pgTypeName = "\"" + schema + "\".\"" + name + "\"";
-        // if all is lowercase add special type info
-        // TODO: should probably check for all special chars
-        if (schema.equals(schema.toLowerCase(Locale.ROOT)) && schema.indexOf('.') == -1
-            && name.equals(name.toLowerCase(Locale.ROOT)) && name.indexOf('.') == -1) {
+      getNameStatement.setInt(1, oid);
+
+      // Go through BaseStatement to avoid transaction start.
+      if (!((BaseStatement) getNameStatement).executeWithFlags(QueryExecutor.QUERY_SUPPRESS_BEGIN)) {
+        throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
+      }
+
+      ResultSet rs = castNonNull(getNameStatement.getResultSet());
+      if (rs.next()) {
+        boolean onPath = rs.getBoolean(1);
+        String schema = castNonNull(rs.getString(2), "schema");
+        String name = castNonNull(rs.getString(3), "name");
+        if (onPath) {
+          pgTypeName = name;
           pgNameToOid.put(schema + "." + name, oid);
+        } else {
+          // TODO: escaping !?
+          pgTypeName = "\"" + schema + "\".\"" + name + "\"";
+          // if all is lowercase add special type info
+          // TODO: should probably check for all special chars
+          if (schema.equals(schema.toLowerCase(Locale.ROOT)) && schema.indexOf('.') == -1
+              && name.equals(name.toLowerCase(Locale.ROOT)) && name.indexOf('.') == -1) {
+            pgNameToOid.put(schema + "." + name, oid);
+          }
         }
+        pgNameToOid.put(pgTypeName, oid);
+        oidToPgName.put(oid, pgTypeName);
+      } else if (sharedTypeInfo != null) {
+        sharedTypeInfo.invalidate(oid);
       }
-      pgNameToOid.put(pgTypeName, oid);
-      oidToPgName.put(oid, pgTypeName);
-    }
-    rs.close();
+      rs.close();
 
-    return pgTypeName;
+      return pgTypeName;
+    }
   }
 
   private PreparedStatement prepareGetNameStatement() throws SQLException {
@@ -564,47 +640,66 @@ public class TypeInfoCache implements TypeInfo {
    * @param oid input oid
    * @return oid of the array's base element or the provided oid (if not array)
    */
-  protected synchronized int convertArrayToBaseOid(int oid) {
-    Integer i = pgArrayToPgType.get(oid);
-    if (i == null) {
-      return oid;
+  protected int convertArrayToBaseOid(int oid) {
+    try (ResourceLock ignore = lock.obtain()) {
+      Integer i = pgArrayToPgType.get(oid);
+      if (i == null) {
+        return oid;
+      }
+      return i;
     }
-    return i;
   }
 
-  public synchronized char getArrayDelimiter(int oid) throws SQLException {
-    if (oid == Oid.UNSPECIFIED) {
-      return ',';
-    }
+  public char getArrayDelimiter(int oid) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (oid == Oid.UNSPECIFIED) {
+        return ',';
+      }
 
-    Character delim = arrayOidToDelimiter.get(oid);
-    if (delim != null) {
-      return delim;
-    }
+      Character delim = arrayOidToDelimiter.get(oid);
+      if (delim != null) {
+        return delim;
+      }
 
-    PreparedStatement getArrayDelimiterStatement = prepareGetArrayDelimiterStatement();
+      SharedTypeInfo sharedTypeInfo = this.sharedTypeInfo;
+      if (sharedTypeInfo != null) {
+        delim = sharedTypeInfo.getArrayDelimiter(oid);
+        if (delim != null) {
+          arrayOidToDelimiter.put(oid, delim);
+          return delim;
+        }
+      }
 
-    getArrayDelimiterStatement.setInt(1, oid);
+      PreparedStatement getArrayDelimiterStatement = prepareGetArrayDelimiterStatement();
 
-    // Go through BaseStatement to avoid transaction start.
-    if (!((BaseStatement) getArrayDelimiterStatement)
-        .executeWithFlags(QueryExecutor.QUERY_SUPPRESS_BEGIN)) {
-      throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
-    }
+      getArrayDelimiterStatement.setInt(1, oid);
 
-    ResultSet rs = castNonNull(getArrayDelimiterStatement.getResultSet());
-    if (!rs.next()) {
-      throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
-    }
+      // Go through BaseStatement to avoid transaction start.
+      if (!((BaseStatement) getArrayDelimiterStatement)
+          .executeWithFlags(QueryExecutor.QUERY_SUPPRESS_BEGIN)) {
+        throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
+      }
 
-    String s = castNonNull(rs.getString(1));
-    delim = s.charAt(0);
+      ResultSet rs = castNonNull(getArrayDelimiterStatement.getResultSet());
+      if (!rs.next()) {
+        if (sharedTypeInfo != null) {
+          sharedTypeInfo.invalidate(oid);
+        }
+        throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
+      }
 
-    arrayOidToDelimiter.put(oid, delim);
+      String s = castNonNull(rs.getString(1));
+      delim = s.charAt(0);
 
-    rs.close();
+      arrayOidToDelimiter.put(oid, delim);
+      if (sharedTypeInfo != null) {
+        sharedTypeInfo.putArrayDelimiter(oid, delim);
+      }
+
+      rs.close();
 
-    return delim;
+      return delim;
+    }
   }
 
   private PreparedStatement prepareGetArrayDelimiterStatement() throws SQLException {
@@ -618,50 +713,69 @@ public class TypeInfoCache implements TypeInfo {
     return getArrayDelimiterStatement;
   }
 
-  public synchronized int getPGArrayElement(int oid) throws SQLException {
-    if (oid == Oid.UNSPECIFIED) {
-      return Oid.UNSPECIFIED;
-    }
+  public int getPGArrayElement(int oid) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      if (oid == Oid.UNSPECIFIED) {
+        return Oid.UNSPECIFIED;
+      }
 
-    Integer pgType = pgArrayToPgType.get(oid);
+      Integer pgType = pgArrayToPgType.get(oid);
 
-    if (pgType != null) {
-      return pgType;
-    }
+      if (pgType != null) {
+        return pgType;
+      }
 
-    PreparedStatement getArrayElementOidStatement = prepareGetArrayElementOidStatement();
+      SharedTypeInfo sharedTypeInfo = this.sharedTypeInfo;
+      if (sharedTypeInfo != null) {
+        // The name of the element type depends on the search_path, getPGType(int) looks it up if
+        // it is needed
+        pgType = sharedTypeInfo.getArrayElement(oid);
+        if (pgType != null) {
+          pgArrayToPgType.put(oid, pgType);
+          return pgType;
+        }
+      }
 
-    getArrayElementOidStatement.setInt(1, oid);
+      PreparedStatement getArrayElementOidStatement = prepareGetArrayElementOidStatement();
 
-    // Go through BaseStatement to avoid transaction start.
-    if (!((BaseStatement) getArrayElementOidStatement)
-        .executeWithFlags(QueryExecutor.QUERY_SUPPRESS_BEGIN)) {
-      throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
-    }
+      getArrayElementOidStatement.setInt(1, oid);
 
-    ResultSet rs = castNonNull(getArrayElementOidStatement.getResultSet());
-    if (!rs.next()) {
-      throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
-    }
+      // Go through BaseStatement to avoid transaction start.
+      if (!((BaseStatement) getArrayElementOidStatement)
+          .executeWithFlags(QueryExecutor.QUERY_SUPPRESS_BEGIN)) {
+        throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
+      }
 
-    pgType = (int) rs.getLong(1);
-    boolean onPath = rs.getBoolean(2);
-    String schema = rs.getString(3);
-    String name = castNonNull(rs.getString(4));
-    pgArrayToPgType.put(oid, pgType);
-    pgNameToOid.put(schema + "." + name, pgType);
-    String fullName = "\"" + schema + "\".\"" + name + "\"";
-    pgNameToOid.put(fullName, pgType);
-    if (onPath && name.equals(name.toLowerCase(Locale.ROOT))) {
-      oidToPgName.put(pgType, name);
-      pgNameToOid.put(name, pgType);
-    } else {
-      oidToPgName.put(pgType, fullName);
-    }
+      ResultSet rs = castNonNull(getArrayElementOidStatement.getResultSet());
+      if (!rs.next()) {
+        if (sharedTypeInfo != null) {
+          sharedTypeInfo.invalidate(oid);
+        }
+        throw new PSQLException(GT.tr("No results were returned by the query."), PSQLState.NO_DATA);
+      }
 
-    rs.close();
+      pgType = (int) rs.getLong(1);
+      boolean onPath = rs.getBoolean(2);
+      String schema = rs.getString(3);
+      String name = castNonNull(rs.getString(4));
+      pgArrayToPgType.put(oid, pgType);
+      if (sharedTypeInfo != null) {
+        sharedTypeInfo.putArrayElement(oid, pgType);
+      }
+      pgNameToOid.put(schema + "." + name, pgType);
+      String fullName = "\"" + schema + "\".\"" + name + "\"";
+      pgNameToOid.put(fullName, pgType);
+      if (onPath && name.equals(name.toLowerCase(Locale.ROOT))) {
+        oidToPgName.put(pgType, name);
+        pgNameToOid.put(name, pgType);
+      } else {
+        oidToPgName.put(pgType, fullName);
+      }
+
+      rs.close();
 
-    return pgType;
+      return pgType;
+    }
   }
 
   private PreparedStatement prepareGetArrayElementOidStatement() throws SQLException {
@@ -676,30 +790,34 @@ public class TypeInfoCache implements TypeInfo {
     return getArrayElementOidStatement;
   }
 
-  public synchronized @Nullable Class<? extends PGobject> getPGobject(String type) {
-    return pgNameToPgObject.get(type);
+  public @Nullable Class<? extends PGobject> getPGobject(String type) {
+    try (ResourceLock ignore = lock.obtain()) {
+      return pgNameToPgObject.get(type);
+    }
   }
 
-  public synchronized String getJavaClass(int oid) throws SQLException {
-    String pgTypeName = getPGType(oid);
-    if (pgTypeName == null) {
-      // Technically speaking, we should not be here
-      // null result probably means oid == UNSPECIFIED which has no clear way
-      // to map to Java
-      return "java.lang.String";
-    }
+  public String getJavaClass(int oid) throws SQLException {
+    try (ResourceLock ignore = lock.obtain()) {
+      String pgTypeName = getPGType(oid);
+      if (pgTypeName == null) {
+        // Technically speaking, we should not be here
+        // null result probably means oid == UNSPECIFIED which has no clear way
+        // to map to Java
+        return "java.lang.String";
+      }
 
-    String result = pgNameToJavaClass.get(pgTypeName);
-    if (result != null) {
-      return result;
-    }
+      String result = pgNameToJavaClass.get(pgTypeName);
+      if (result != null) {
+        return result;
+      }
 
-    if (getSQLType(pgTypeName) == Types.ARRAY) {
-      result = "java.sql.Array";
-      pgNameToJavaClass.put(pgTypeName, result);
-    }
+      if (getSQLType(pgTypeName) == Types.ARRAY) {
+        result = "java.sql.Array";
+        pgNameToJavaClass.put(pgTypeName, result);
+      }
 
-    return result == null ? "java.lang.String" : result;
+      return result == null ? "java.lang.String" : result;
+    }
   }
 
   public @Nullable String getTypeForAlias(@Nullable String alias) {
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.postgresql.Cancel")
+@Label("Cancel Request")
+@Category("PostgreSQL JDBC")
+@Description("Cancel request sent to the server over a new connection")
+final class CancelEvent extends jdk.jfr.Event {
+  @Label("Host")
+  String host;
+
+  @Label("Port")
+  int port;
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("org.postgresql.Connect")
+@Label("Connect")
+@Category("PostgreSQL JDBC")
+@Description("Attempt to open a connection to a host")
+final class ConnectEvent extends jdk.jfr.Event {
+  @Label("Host")
+  String host;
+
+  @Label("Port")
+  int port;
+
+  @Label("Database")
+  String database;
+
+  @Label("User")
+  String user;
+
+  @Label("TCP Connect")
+  @Timespan
+  long tcpConnect;
+
+  @Label("Encryption")
+  @Description("Negotiation of TLS or GSS encryption")
+  @Timespan
+  long encryption;
+
+  @Label("Authentication")
+  @Timespan
+  long authentication;
+
+  @Label("Startup")
+  @Description("Reading the startup messages of the server")
+  @Timespan
+  long startup;
+
+  @Label("Initial Queries")
+  @Description("Checking the server type, if required, and running the initial queries")
+  @Timespan
+  long initialQueries;
+
+  @Label("Connected")
+  boolean connected;
+
+  // End of the previous phase, not recorded
+  transient long lastMark;
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("org.postgresql.Copy")
+@Label("Copy")
+@Category("PostgreSQL JDBC")
+@Description("COPY operation, from the start of the copy until the server completes it")
+@Threshold("20 ms")
+final class CopyEvent extends jdk.jfr.Event {
+  @Label("SQL")
+  String sql;
+
+  @Label("Fingerprint")
+  @Description("Hash of the SQL, the same for all the executions of a statement")
+  String fingerprint;
+
+  @Label("Rows")
+  @Description("Number of rows copied, -1 if the copy did not complete")
+  long rows;
+
+  @Label("Bytes Sent")
+  @DataAmount
+  long bytesSent;
+
+  @Label("Bytes Received")
+  @DataAmount
+  long bytesReceived;
+
+  // Byte counters of the connection when the copy started, not recorded
+  transient long startBytesSent;
+  transient long startBytesReceived;
+}
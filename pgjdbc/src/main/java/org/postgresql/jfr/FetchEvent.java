@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("org.postgresql.Fetch")
+@Label("Fetch")
+@Category("PostgreSQL JDBC")
+@Description("Fetch of the next rows of a cursor based or streamed ResultSet")
+@Threshold("20 ms")
+final class FetchEvent extends jdk.jfr.Event {
+  @Label("Round Trips")
+  @Description("Number of times the driver waited for the server to answer")
+  int roundTrips;
+
+  @Label("Rows")
+  @Description("Number of rows received")
+  long rows;
+
+  @Label("Bytes Sent")
+  @DataAmount
+  long bytesSent;
+
+  @Label("Bytes Received")
+  @DataAmount
+  long bytesReceived;
+
+  @Label("Failed")
+  boolean failed;
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jfr;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Emits JDK Flight Recorder events for queries, fetches, copies, connection attempts, cancel
+ * requests and statement cache evictions, so the time spent in the driver can be seen next to the
+ * rest of the application in a recording.</p>
+ *
+ * <p>The signatures do not refer to {@code jdk.jfr}, so the driver still runs on JVMs that do not
+ * provide it, in which case every method does nothing. The {@code begin} methods return
+ * {@code null} unless a recording enabled the event, and the other methods do nothing for a
+ * {@code null} event, so a disabled event only costs a volatile read.</p>
+ *
+ * <p>This class is internal to the driver, applications configure the events like any other
+ * event, by their names, for instance {@code org.postgresql.Query}.</p>
+ */
+public final class FlightRecorderEvents {
+  private static final Logger LOGGER = Logger.getLogger(FlightRecorderEvents.class.getName());
+
+  public static final int TCP_CONNECT = 0;
+  public static final int ENCRYPTION = 1;
+  public static final int AUTHENTICATION = 2;
+  public static final int STARTUP = 3;
+  public static final int INITIAL_QUERIES = 4;
+
+  private static final boolean AVAILABLE = isAvailable();
+
+  private FlightRecorderEvents() {
+  }
+
+  private static boolean isAvailable() {
+    try {
+      Class.forName("jdk.jfr.Event");
+      JfrEvents.init();
+      return true;
+    } catch (Throwable t) {
+      LOGGER.log(Level.FINE, "JDK Flight Recorder events are not available", t);
+      return false;
+    }
+  }
+
+  /**
+   * Returns a hash of the SQL, so all the events of a statement can be grouped without comparing
+   * the text.
+   *
+   * @param sql SQL
+   * @return hexadecimal hash of the SQL
+   */
+  static String fingerprint(String sql) {
+    // 64-bit FNV-1a
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < sql.length(); i++) {
+      hash ^= sql.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return Long.toHexString(hash);
+  }
+
+  /**
+   * Tells if a recording of the events that report the bytes moved by a connection (query, fetch
+   * and copy events) is running. Connections only count bytes if that is the case when they are
+   * opened, or if they have a {@link org.postgresql.plugin.MetricsListener}.
+   *
+   * @return true if bytes should be counted for the events
+   */
+  public static boolean isByteCountEnabled() {
+    return AVAILABLE && JfrEvents.isByteCountEnabled();
+  }
+
+  /**
+   * Starts a query event, for the execution of a statement, a batch or a pipeline.
+   *
+   * @return the event, or null if it is not enabled
+   */
+  public static @Nullable Object beginQuery() {
+    return AVAILABLE ? JfrEvents.beginQuery() : null;
+  }
+
+  public static void commitQuery(@Nullable Object event, String sql, int statements,
+      int roundTrips, long rows, long bytesSent, long bytesReceived, boolean failed) {
+    if (event != null) {
+      JfrEvents.commitQuery(event, sql, statements, roundTrips, rows, bytesSent, bytesReceived,
+          failed);
+    }
+  }
+
+  /**
+   * Starts a fetch event, for reading the next rows of a cursor or of a streamed result.
+   *
+   * @return the event, or null if it is not enabled
+   */
+  public static @Nullable Object beginFetch() {
+    return AVAILABLE ? JfrEvents.beginFetch() : null;
+  }
+
+  public static void commitFetch(@Nullable Object event, int roundTrips, long rows,
+      long bytesSent, long bytesReceived, boolean failed) {
+    if (event != null) {
+      JfrEvents.commitFetch(event, roundTrips, rows, bytesSent, bytesReceived, failed);
+    }
+  }
+
+  /**
+   * Starts a copy event.
+   *
+   * @param bytesSent bytes sent by the connection so far
+   * @param bytesReceived bytes received by the connection so far
+   * @return the event, or null if it is not enabled
+   */
+  public static @Nullable Object beginCopy(long bytesSent, long bytesReceived) {
+    return AVAILABLE ? JfrEvents.beginCopy(bytesSent, bytesReceived) : null;
+  }
+
+  /**
+   * Commits a copy event.
+   *
+   * @param event the event returned by {@link #beginCopy(long, long)}
+   * @param sql the COPY statement
+   * @param rows number of rows copied, or -1 if the copy did not complete
+   * @param bytesSent bytes sent by the connection so far
+   * @param bytesReceived bytes received by the connection so far
+   */
+  public static void commitCopy(@Nullable Object event, String sql, long rows, long bytesSent,
+      long bytesReceived) {
+    if (event != null) {
+      JfrEvents.commitCopy(event, sql, rows, bytesSent, bytesReceived);
+    }
+  }
+
+  /**
+   * Starts a connect event, for the attempt to connect to a single host.
+   *
+   * @param host host
+   * @param port port
+   * @param database database
+   * @param user user
+   * @return the event, or null if it is not enabled
+   */
+  public static @Nullable Object beginConnect(String host, int port, @Nullable String database,
+      @Nullable String user) {
+    return AVAILABLE ? JfrEvents.beginConnect(host, port, database, user) : null;
+  }
+
+  /**
+   * Adds the time since the start of the event, or since the end of the previous phase, to the
+   * given phase of a connect event.
+   *
+   * @param event the event returned by {@link #beginConnect(String, int, String, String)}
+   * @param phase one of {@link #TCP_CONNECT}, {@link #ENCRYPTION}, {@link #AUTHENTICATION},
+   *     {@link #STARTUP} and {@link #INITIAL_QUERIES}
+   */
+  public static void connectPhase(@Nullable Object event, int phase) {
+    if (event != null) {
+      JfrEvents.connectPhase(event, phase);
+    }
+  }
+
+  public static void commitConnect(@Nullable Object event, boolean connected) {
+    if (event != null) {
+      JfrEvents.commitConnect(event, connected);
+    }
+  }
+
+  /**
+   * Starts a cancel event, for sending a cancel request.
+   *
+   * @param host host the request is sent to
+   * @param port port the request is sent to
+   * @return the event, or null if it is not enabled
+   */
+  public static @Nullable Object beginCancel(String host, int port) {
+    return AVAILABLE ? JfrEvents.beginCancel(host, port) : null;
+  }
+
+  public static void commitCancel(@Nullable Object event) {
+    if (event != null) {
+      JfrEvents.commitCancel(event);
+    }
+  }
+
+  /**
+   * Records that a prepared statement left the statement cache.
+   *
+   * @param sql SQL of the statement
+   */
+  public static void statementCacheEviction(String sql) {
+    if (AVAILABLE) {
+      JfrEvents.statementCacheEviction(sql);
+    }
+  }
+}
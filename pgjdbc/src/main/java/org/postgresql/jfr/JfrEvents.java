@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jfr;
+
+import jdk.jfr.EventType;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Creates and commits the events. This is the only class besides the events that refers to
+ * {@code jdk.jfr}, and it is only loaded once {@link FlightRecorderEvents} found that the JVM
+ * provides it.
+ */
+final class JfrEvents {
+  private static final EventType QUERY = EventType.getEventType(QueryEvent.class);
+  private static final EventType FETCH = EventType.getEventType(FetchEvent.class);
+  private static final EventType COPY = EventType.getEventType(CopyEvent.class);
+  private static final EventType CONNECT = EventType.getEventType(ConnectEvent.class);
+  private static final EventType CANCEL = EventType.getEventType(CancelEvent.class);
+  private static final EventType EVICTION =
+      EventType.getEventType(StatementCacheEvictionEvent.class);
+
+  private JfrEvents() {
+  }
+
+  static void init() {
+    // Registers the event types in the static initializer
+  }
+
+  static boolean isByteCountEnabled() {
+    return QUERY.isEnabled() || FETCH.isEnabled() || COPY.isEnabled();
+  }
+
+  static @Nullable Object beginQuery() {
+    if (!QUERY.isEnabled()) {
+      return null;
+    }
+    QueryEvent event = new QueryEvent();
+    event.begin();
+    return event;
+  }
+
+  static void commitQuery(Object token, String sql, int statements, int roundTrips,
+      long rows, long bytesSent, long bytesReceived, boolean failed) {
+    QueryEvent event = (QueryEvent) token;
+    event.end();
+    if (event.shouldCommit()) {
+      event.sql = sql;
+      event.fingerprint = FlightRecorderEvents.fingerprint(sql);
+      event.statements = statements;
+      event.roundTrips = roundTrips;
+      event.rows = rows;
+      event.bytesSent = bytesSent;
+      event.bytesReceived = bytesReceived;
+      event.failed = failed;
+      event.commit();
+    }
+  }
+
+  static @Nullable Object beginFetch() {
+    if (!FETCH.isEnabled()) {
+      return null;
+    }
+    FetchEvent event = new FetchEvent();
+    event.begin();
+    return event;
+  }
+
+  static void commitFetch(Object token, int roundTrips, long rows, long bytesSent,
+      long bytesReceived, boolean failed) {
+    FetchEvent event = (FetchEvent) token;
+    event.end();
+    if (event.shouldCommit()) {
+      event.roundTrips = roundTrips;
+      event.rows = rows;
+      event.bytesSent = bytesSent;
+      event.bytesReceived = bytesReceived;
+      event.failed = failed;
+      event.commit();
+    }
+  }
+
+  static @Nullable Object beginCopy(long bytesSent, long bytesReceived) {
+    if (!COPY.isEnabled()) {
+      return null;
+    }
+    CopyEvent event = new CopyEvent();
+    event.startBytesSent = bytesSent;
+    event.startBytesReceived = bytesReceived;
+    event.begin();
+    return event;
+  }
+
+  static void commitCopy(Object token, String sql, long rows, long bytesSent,
+      long bytesReceived) {
+    CopyEvent event = (CopyEvent) token;
+    event.end();
+    if (event.shouldCommit()) {
+      event.sql = sql;
+      event.fingerprint = FlightRecorderEvents.fingerprint(sql);
+      event.rows = rows;
+      event.bytesSent = bytesSent - event.startBytesSent;
+      event.bytesReceived = bytesReceived - event.startBytesReceived;
+      event.commit();
+    }
+  }
+
+  static @Nullable Object beginConnect(String host, int port, @Nullable String database,
+      @Nullable String user) {
+    if (!CONNECT.isEnabled()) {
+      return null;
+    }
+    ConnectEvent event = new ConnectEvent();
+    event.host = host;
+    event.port = port;
+    event.database = database;
+    event.user = user;
+    event.begin();
+    event.lastMark = System.nanoTime();
+    return event;
+  }
+
+  static void connectPhase(Object token, int phase) {
+    ConnectEvent event = (ConnectEvent) token;
+    long now = System.nanoTime();
+    long elapsed = now - event.lastMark;
+    event.lastMark = now;
+    switch (phase) {
+      case FlightRecorderEvents.TCP_CONNECT:
+        event.tcpConnect += elapsed;
+        break;
+      case FlightRecorderEvents.ENCRYPTION:
+        event.encryption += elapsed;
+        break;
+      case FlightRecorderEvents.AUTHENTICATION:
+        event.authentication += elapsed;
+        break;
+      case FlightRecorderEvents.STARTUP:
+        event.startup += elapsed;
+        break;
+      case FlightRecorderEvents.INITIAL_QUERIES:
+        event.initialQueries += elapsed;
+        break;
+      default:
+        break;
+    }
+  }
+
+  static void commitConnect(Object token, boolean connected) {
+    ConnectEvent event = (ConnectEvent) token;
+    event.end();
+    if (event.shouldCommit()) {
+      event.connected = connected;
+      event.commit();
+    }
+  }
+
+  static @Nullable Object beginCancel(String host, int port) {
+    if (!CANCEL.isEnabled()) {
+      return null;
+    }
+    CancelEvent event = new CancelEvent();
+    event.host = host;
+    event.port = port;
+    event.begin();
+    return event;
+  }
+
+  static void commitCancel(Object token) {
+    CancelEvent event = (CancelEvent) token;
+    event.end();
+    if (event.shouldCommit()) {
+      event.commit();
+    }
+  }
+
+  static void statementCacheEviction(String sql) {
+    if (!EVICTION.isEnabled()) {
+      return;
+    }
+    StatementCacheEvictionEvent event = new StatementCacheEvictionEvent();
+    if (event.shouldCommit()) {
+      event.sql = sql;
+      event.fingerprint = FlightRecorderEvents.fingerprint(sql);
+      event.commit();
+    }
+  }
+}
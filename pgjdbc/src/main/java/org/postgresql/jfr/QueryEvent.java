@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("org.postgresql.Query")
+@Label("Query Execution")
+@Category("PostgreSQL JDBC")
+@Description("Execution of a statement, a batch or a pipeline")
+@Threshold("20 ms")
+final class QueryEvent extends jdk.jfr.Event {
+  @Label("SQL")
+  @Description("SQL of the statement, or of the first statement of a batch")
+  String sql;
+
+  @Label("Fingerprint")
+  @Description("Hash of the SQL, the same for all the executions of a statement")
+  String fingerprint;
+
+  @Label("Statements")
+  int statements;
+
+  @Label("Round Trips")
+  @Description("Number of times the driver waited for the server to answer")
+  int roundTrips;
+
+  @Label("Rows")
+  @Description("Number of rows received")
+  long rows;
+
+  @Label("Bytes Sent")
+  @DataAmount
+  long bytesSent;
+
+  @Label("Bytes Received")
+  @DataAmount
+  long bytesReceived;
+
+  @Label("Failed")
+  boolean failed;
+}
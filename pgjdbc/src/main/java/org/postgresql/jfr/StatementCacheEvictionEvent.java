@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.postgresql.StatementCacheEviction")
+@Label("Statement Cache Eviction")
+@Category("PostgreSQL JDBC")
+@Description("Prepared statement removed from the statement cache of a connection, or not admitted to it")
+final class StatementCacheEvictionEvent extends jdk.jfr.Event {
+  @Label("SQL")
+  String sql;
+
+  @Label("Fingerprint")
+  @Description("Hash of the SQL, the same for all the executions of a statement")
+  String fingerprint;
+}
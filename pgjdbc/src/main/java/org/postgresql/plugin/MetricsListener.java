@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.plugin;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * <p>Receives measurements of what the driver does on a connection, so they can be fed into any
+ * metrics registry. The implementation is configured with the
+ * {@link org.postgresql.PGProperty#METRICS_LISTENER_CLASS_NAME} connection property, and each
+ * connection creates its own instance with a public constructor that takes the connection
+ * {@link java.util.Properties}, or with a public no-argument constructor.</p>
+ *
+ * <p>The methods are called on the thread that uses the connection, while the connection is busy,
+ * so they should return quickly, typically by updating counters or histograms. All the methods do
+ * nothing by default.</p>
+ */
+public interface MetricsListener {
+
+  /**
+   * Called when the execution of a statement, a batch or a fetch of rows from a cursor completes.
+   *
+   * @param sql SQL of the statement, of the first statement of a batch, or null for a fetch
+   * @param statements number of statements executed, more than one for a batch
+   * @param elapsedNanos time from the start of the execution until the results were read
+   * @param roundTrips number of times the driver waited for the server to answer
+   * @param failed whether the execution failed
+   */
+  default void queryExecuted(@Nullable String sql, int statements, long elapsedNanos,
+      int roundTrips, boolean failed) {
+  }
+
+  /**
+   * Called after an execution or a fetch that received rows.
+   *
+   * @param rows number of rows received from the server
+   */
+  default void rowsFetched(long rows) {
+  }
+
+  /**
+   * Called after an execution or a fetch with the number of bytes it moved over the network.
+   *
+   * @param sent number of bytes sent to the server
+   * @param received number of bytes received from the server
+   */
+  default void bytesTransferred(long sent, long received) {
+  }
+
+  /**
+   * Called when a prepared statement is found in the statement cache of the connection.
+   */
+  default void statementCacheHit() {
+  }
+
+  /**
+   * Called when a prepared statement is not found in the statement cache of the connection and has
+   * to be parsed.
+   */
+  default void statementCacheMiss() {
+  }
+
+  /**
+   * Called when a prepared statement is removed from the statement cache of the connection, or not
+   * admitted to it.
+   */
+  default void statementCacheEviction() {
+  }
+
+  /**
+   * Called when the driver sends a Sync in the middle of a batch and waits for the results, because
+   * the server might otherwise block writing results the driver does not read.
+   */
+  default void forcedSync() {
+  }
+}
@@ -12,13 +12,17 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.nio.ByteBuffer;
 import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Not tread safe replication stream (though certain methods can be safely called by different
  * threads). After complete streaming should be close, for free resource on backend. Periodical
  * status update work only when use {@link PGReplicationStream#read()} method. It means that
  * process wal record should be fast as possible, because during process wal record lead to
- * disconnect by timeout from server.
+ * disconnect by timeout from server, unless the stream was started with
+ * {@link org.postgresql.replication.fluent.ChainedCommonStreamBuilder#withBackgroundStatusUpdate(boolean)
+ * background status updates}.
  */
 public interface PGReplicationStream
     extends AutoCloseable
@@ -33,6 +37,10 @@ public interface PGReplicationStream
    * at the page boundary. In other words, the first main WAL record and its continuation records
    * can be sent in different XLogData messages.</p>
    *
+   * <p>When the stream was started {@link CommonOptions#isBufferReuse() with buffer reuse}, every
+   * call returns a slice of the same receive buffer, so its content is only valid until the next
+   * read.</p>
+   *
    * @return not null byte array received by replication protocol, return ByteBuffer wrap around
    *     received byte array with use offset, so, use {@link ByteBuffer#array()} carefully
    * @throws SQLException when some internal exception occurs during read from stream
@@ -57,6 +65,50 @@ public interface PGReplicationStream
    */
   @Nullable ByteBuffer readPending() throws SQLException;
 
+  /**
+   * <p>Reads the WAL records that were already received, up to a number of records, and passes
+   * them to a consumer. When no record was received, it waits up to the given time for one. This
+   * lets the caller process the records in batches, for instance to write them together to a
+   * sink, and saves the checks made for each call of {@link #read()}.</p>
+   *
+   * <p>The buffers passed to the consumer are the ones {@link #read()} would return, so when the
+   * receive buffer is reused, a buffer is only valid until the consumer returns.</p>
+   *
+   * @param maxMessages the largest number of records to read
+   * @param maxWaitMillis the longest time to wait for a first record, zero to only read the
+   *     records already received
+   * @param consumer processes the records, in the order of the stream
+   * @return the number of records passed to the consumer
+   * @throws SQLException when some internal exception occurs during read from stream
+   */
+  default int readBatch(int maxMessages, long maxWaitMillis, Consumer<ByteBuffer> consumer)
+      throws SQLException {
+    if (maxMessages < 1) {
+      throw new IllegalArgumentException("maxMessages must be positive: " + maxMessages);
+    }
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    int count = 0;
+    while (count < maxMessages && !isClosed()) {
+      ByteBuffer buffer = readPending();
+      if (buffer != null) {
+        consumer.accept(buffer);
+        count++;
+        continue;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (count > 0 || remaining <= 0) {
+        break;
+      }
+      try {
+        TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(10)));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    return count;
+  }
+
   /**
    * <p>Parameter updates by execute {@link PGReplicationStream#read()} method.</p>
    *
@@ -113,6 +165,53 @@ public interface PGReplicationStream
    */
   void setAppliedLSN(LogSequenceNumber applied);
 
+  /**
+   * Same as {@link #getLastReceiveLSN()}, without allocating a {@link LogSequenceNumber}.
+   *
+   * @return LSN position that was received last time, as a long
+   */
+  default long getLastReceiveLSNAsLong() {
+    return getLastReceiveLSN().asLong();
+  }
+
+  /**
+   * Same as {@link #getLastFlushedLSN()}, without allocating a {@link LogSequenceNumber}.
+   *
+   * @return last flushed LSN, as a long
+   */
+  default long getLastFlushedLSNAsLong() {
+    return getLastFlushedLSN().asLong();
+  }
+
+  /**
+   * Same as {@link #getLastAppliedLSN()}, without allocating a {@link LogSequenceNumber}.
+   *
+   * @return last applied LSN, as a long
+   */
+  default long getLastAppliedLSNAsLong() {
+    return getLastAppliedLSN().asLong();
+  }
+
+  /**
+   * Same as {@link #setFlushedLSN(LogSequenceNumber)}, without allocating a
+   * {@link LogSequenceNumber} for each record.
+   *
+   * @param flushed location of the last WAL flushed to disk in the standby, as a long
+   */
+  default void setFlushedLSN(long flushed) {
+    setFlushedLSN(LogSequenceNumber.valueOf(flushed));
+  }
+
+  /**
+   * Same as {@link #setAppliedLSN(LogSequenceNumber)}, without allocating a
+   * {@link LogSequenceNumber} for each record.
+   *
+   * @param applied location of the last WAL applied in the standby, as a long
+   */
+  default void setAppliedLSN(long applied) {
+    setAppliedLSN(LogSequenceNumber.valueOf(applied));
+  }
+
   /**
    * Force send last received, flushed and applied LSN status to backend. You cannot send LSN status
    * explicitly because {@link PGReplicationStream} sends the status to backend periodically by
@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication;
+
+import org.postgresql.util.GT;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Processes the messages of a logical replication stream with several threads. A reader thread
+ * reads the stream and hands each message to one of the workers, as chosen by a
+ * {@link Partitioner}, or to all of them. Each worker processes its messages in the order of the
+ * stream. The flushed and applied LSNs of the stream only advance to the end of a transaction once
+ * all the messages up to it were processed, whatever the workers that processed them, so the server
+ * never considers as applied a change that is not. The reader acknowledges the processed
+ * transactions between the batches of messages it reads, so the workers never wait for it.</p>
+ *
+ * <pre>
+ * PGReplicationStream stream = pgConnection.getReplicationAPI()
+ *     .replicationStream()
+ *     .logical()
+ *     .withSlotName("cdc_slot")
+ *     .withSlotOption("proto_version", 1)
+ *     .withSlotOption("publication_names", "cdc_publication")
+ *     .withBackgroundStatusUpdate(true)
+ *     .start();
+ * ReplicationPipeline pipeline = new ReplicationPipeline(stream, new PgOutputPartitioner(), 4,
+ *     worker -&gt; new ApplyHandler(worker));
+ * pipeline.start();
+ * ...
+ * pipeline.close();
+ * stream.close();
+ * </pre>
+ *
+ * <p>The reader waits while the queue of a worker is full, and does not read the stream then, so
+ * the stream should be started with
+ * {@link org.postgresql.replication.fluent.ChainedCommonStreamBuilder#withBackgroundStatusUpdate(boolean)
+ * background status updates} when the workers can fall behind for longer than the server
+ * timeout.</p>
+ */
+public class ReplicationPipeline implements AutoCloseable {
+  private static final Logger LOGGER = Logger.getLogger(ReplicationPipeline.class.getName());
+
+  private static final AtomicInteger pipelineCount = new AtomicInteger(0);
+
+  private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+  // Largest number of messages read at once, see PGReplicationStream#readBatch
+  private static final int BATCH_SIZE = 256;
+  // Longest time the reader waits for messages, or for room in a queue, before acknowledging
+  private static final long ACKNOWLEDGE_INTERVAL_MS = 100;
+
+  /**
+   * Chooses the worker of each message. It is called by the reader thread only, in the order of
+   * the stream, so it can keep the state of the stream.
+   */
+  public interface Partitioner {
+    /**
+     * Worker index that hands the message to all the workers.
+     */
+    int ALL_WORKERS = -1;
+
+    /**
+     * @param message the message, the partitioner must not change its position
+     * @param workers number of workers
+     * @return the index of the worker that processes the message, from 0, or
+     *     {@link #ALL_WORKERS}, for messages that all the workers need, like the descriptions of
+     *     the tables or the start of a transaction
+     */
+    int partition(ByteBuffer message, int workers);
+
+    /**
+     * @param message the message, the partitioner must not change its position
+     * @return true if the message ends a transaction, whose LSN can be acknowledged once the
+     *     message and all the messages before it are processed
+     */
+    boolean isCommit(ByteBuffer message);
+  }
+
+  /**
+   * Processes the messages of a worker. Each worker has its own handler, called by the worker
+   * thread only.
+   */
+  public interface Handler {
+    /**
+     * @param message the message, that belongs to the handler
+     * @param lsn the LSN of the message
+     * @throws Exception if the message cannot be processed, which stops the pipeline
+     */
+    void handle(ByteBuffer message, long lsn) throws Exception;
+  }
+
+  private static final Entry END = new Entry(ByteBuffer.allocate(0), 0, 0);
+
+  private final PGReplicationStream stream;
+  private final Partitioner partitioner;
+  private final Worker[] workers;
+  private final IntFunction<? extends Handler> handlers;
+  // The commits and sequences below are used by the reader thread, then by close() once it ended
+  private final Queue<Entry> commits = new ArrayDeque<>();
+  private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+  private @Nullable Thread reader;
+  private volatile boolean stopped;
+  private volatile @Nullable Throwable failure;
+  // Sequence of the last message handed to the workers
+  private long dispatched;
+  private volatile long acknowledgedLsn;
+
+  /**
+   * @param stream the replication stream, which the pipeline reads until it is closed
+   * @param partitioner chooses the worker of the messages
+   * @param workers number of workers
+   * @param handlers creates the handler of each worker, from its index
+   */
+  public ReplicationPipeline(PGReplicationStream stream, Partitioner partitioner, int workers,
+      IntFunction<? extends Handler> handlers) {
+    if (workers < 1) {
+      throw new IllegalArgumentException("workers must be positive: " + workers);
+    }
+    this.stream = stream;
+    this.partitioner = partitioner;
+    this.workers = new Worker[workers];
+    this.handlers = handlers;
+  }
+
+  /**
+   * Sets the number of messages each worker can have waiting, 1024 by default.
+   *
+   * @param queueCapacity the number of messages
+   */
+  public void setQueueCapacity(int queueCapacity) {
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+    }
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * @return the LSN of the last transaction that was completely processed, which was set as the
+   *     flushed and applied LSN of the stream
+   */
+  public long getAcknowledgedLsn() {
+    return acknowledgedLsn;
+  }
+
+  /**
+   * @return true if the pipeline was started and was neither closed nor failed
+   */
+  public boolean isRunning() {
+    return reader != null && !stopped && failure == null;
+  }
+
+  /**
+   * Starts the reader and the worker threads.
+   */
+  public void start() {
+    if (reader != null) {
+      throw new IllegalStateException("The pipeline was already started");
+    }
+    int index = pipelineCount.incrementAndGet();
+    for (int i = 0; i < workers.length; i++) {
+      Worker worker = new Worker(handlers.apply(i), new ArrayBlockingQueue<Entry>(queueCapacity));
+      Thread thread = new Thread(worker,
+          "PostgreSQL-JDBC-ReplicationWorker-" + index + "-" + i);
+      thread.setDaemon(true);
+      worker.thread = thread;
+      workers[i] = worker;
+    }
+    for (Worker worker : workers) {
+      worker.thread().start();
+    }
+    Thread reader = new Thread(this::read, "PostgreSQL-JDBC-ReplicationReader-" + index);
+    reader.setDaemon(true);
+    this.reader = reader;
+    reader.start();
+  }
+
+  /**
+   * Stops reading the stream, waits for the workers to process the messages already read, and
+   * acknowledges the processed transactions. The stream is left open.
+   *
+   * @throws SQLException if a message could not be read or processed
+   */
+  @Override
+  public void close() throws SQLException {
+    Thread reader = this.reader;
+    if (reader == null) {
+      return;
+    }
+    stopped = true;
+    boolean interrupted = join(reader, false);
+    for (Worker worker : workers) {
+      interrupted = join(worker.thread(), interrupted);
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    acknowledge();
+    Throwable failure = this.failure;
+    if (failure instanceof SQLException) {
+      throw (SQLException) failure;
+    }
+    if (failure != null) {
+      throw new PSQLException(GT.tr("The processing of a replication message failed: {0}",
+          failure.getMessage()), PSQLState.UNEXPECTED_ERROR, failure);
+    }
+  }
+
+  private static boolean join(Thread thread, boolean interrupted) {
+    while (true) {
+      try {
+        thread.join();
+        return interrupted;
+      } catch (InterruptedException e) { // NOSONAR
+        // Either re-interrupt this method or rethrow the "InterruptedException"
+        interrupted = true;
+      }
+    }
+  }
+
+  private void fail(Throwable e) {
+    if (failure == null) {
+      failure = e;
+    }
+  }
+
+  private void read() {
+    List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+    try {
+      while (!stopped && failure == null) {
+        stream.readBatch(BATCH_SIZE, ACKNOWLEDGE_INTERVAL_MS, received -> {
+          // The stream may reuse its buffer for the next message
+          ByteBuffer message = ByteBuffer.allocate(received.remaining());
+          message.put(received);
+          message.flip();
+          // The sequence is assigned when the message is dispatched
+          batch.add(new Entry(message, 0, stream.getLastReceiveLSNAsLong()));
+        });
+        if (Thread.currentThread().isInterrupted()) {
+          throw new InterruptedException();
+        }
+        for (Entry entry : batch) {
+          dispatch(entry.message, entry.lsn);
+        }
+        batch.clear();
+        acknowledge();
+      }
+    } catch (InterruptedException e) {
+      fail(e);
+      Thread.currentThread().interrupt();
+    } catch (SQLException | RuntimeException e) {
+      LOGGER.log(Level.FINE, "Replication pipeline stopped by a read failure", e);
+      fail(e);
+    } finally {
+      for (Worker worker : workers) {
+        worker.end();
+      }
+    }
+  }
+
+  private void dispatch(ByteBuffer message, long lsn) throws InterruptedException {
+    int partition = partitioner.partition(message, workers.length);
+    boolean commit = partitioner.isCommit(message);
+    long sequence = dispatched + 1;
+    if (commit) {
+      commits.add(new Entry(message, sequence, lsn));
+    }
+    if (partition == Partitioner.ALL_WORKERS) {
+      for (Worker worker : workers) {
+        worker.add(new Entry(message.duplicate(), sequence, lsn));
+      }
+    } else {
+      workers[partition].add(new Entry(message, sequence, lsn));
+    }
+    dispatched = sequence;
+  }
+
+  /**
+   * Sets the flushed and applied LSN of the stream to the last transaction whose messages, and all
+   * the messages before them, were processed. It is called by the reader thread only, then by
+   * {@link #close()} once the reader ended.
+   */
+  private void acknowledge() {
+    if (commits.isEmpty()) {
+      return;
+    }
+    long processed = dispatched;
+    for (Worker worker : workers) {
+      long workerProcessed = worker.processed;
+      if (workerProcessed < worker.dispatched) {
+        // The worker has messages left, the ones up to its last processed one are done
+        processed = Math.min(processed, workerProcessed);
+      }
+    }
+    long lsn = 0;
+    Entry commit;
+    while ((commit = commits.peek()) != null && commit.sequence <= processed) {
+      commits.poll();
+      lsn = commit.lsn;
+    }
+    if (lsn != 0 && lsn > acknowledgedLsn) {
+      acknowledgedLsn = lsn;
+      stream.setFlushedLSN(lsn);
+      stream.setAppliedLSN(lsn);
+    }
+  }
+
+  private static final class Entry {
+    final ByteBuffer message;
+    final long sequence;
+    final long lsn;
+
+    Entry(ByteBuffer message, long sequence, long lsn) {
+      this.message = message;
+      this.sequence = sequence;
+      this.lsn = lsn;
+    }
+  }
+
+  private final class Worker implements Runnable {
+    final Handler handler;
+    final BlockingQueue<Entry> queue;
+    @Nullable Thread thread;
+    // Sequences of the last message handed to the worker, by the reader, and processed by it
+    long dispatched;
+    volatile long processed;
+
+    Worker(Handler handler, BlockingQueue<Entry> queue) {
+      this.handler = handler;
+      this.queue = queue;
+    }
+
+    Thread thread() {
+      Thread thread = this.thread;
+      if (thread == null) {
+        throw new IllegalStateException("The worker was not started");
+      }
+      return thread;
+    }
+
+    void add(Entry entry) throws InterruptedException {
+      // Set before the message is queued, so the worker is not seen done with it meanwhile
+      dispatched = entry.sequence;
+      // Keep acknowledging what the workers process while this one is behind
+      while (!queue.offer(entry, ACKNOWLEDGE_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        acknowledge();
+      }
+    }
+
+    void end() {
+      boolean interrupted = false;
+      while (true) {
+        try {
+          queue.put(END);
+          break;
+        } catch (InterruptedException e) { // NOSONAR
+          // Either re-interrupt this method or rethrow the "InterruptedException"
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        Entry entry;
+        try {
+          entry = queue.take();
+        } catch (InterruptedException e) { // NOSONAR
+          // The worker ends only with the end marker
+          continue;
+        }
+        if (entry == END) {
+          return;
+        }
+        // Keep taking the messages after a failure, so the reader does not wait forever, but do
+        // not count them as processed, so they are not acknowledged
+        if (failure != null) {
+          continue;
+        }
+        try {
+          handler.handle(entry.message, entry.lsn);
+        } catch (Throwable e) {
+          LOGGER.log(Level.FINE, "Replication pipeline stopped by a processing failure", e);
+          fail(e);
+          continue;
+        }
+        processed = entry.sequence;
+      }
+    }
+  }
+}
@@ -17,6 +17,8 @@ public abstract class AbstractStreamBuilder<T extends ChainedCommonStreamBuilder
   protected int statusIntervalMs = DEFAULT_STATUS_INTERVAL;
   protected LogSequenceNumber startPosition = LogSequenceNumber.INVALID_LSN;
   protected @Nullable String slotName;
+  protected boolean bufferReuse;
+  protected boolean backgroundStatusUpdate;
 
   protected abstract T self();
 
@@ -37,4 +39,16 @@ public abstract class AbstractStreamBuilder<T extends ChainedCommonStreamBuilder
     this.slotName = slotName;
     return self();
   }
+
+  @Override
+  public T withBufferReuse(boolean bufferReuse) {
+    this.bufferReuse = bufferReuse;
+    return self();
+  }
+
+  @Override
+  public T withBackgroundStatusUpdate(boolean backgroundStatusUpdate) {
+    this.backgroundStatusUpdate = backgroundStatusUpdate;
+    return self();
+  }
 }
@@ -45,4 +45,26 @@ public interface ChainedCommonStreamBuilder<T extends ChainedCommonStreamBuilder
    * @return not null fluent
    */
   T withStartPosition(LogSequenceNumber lsn);
+
+  /**
+   * Receive all the messages into the same buffer, rather than into a new array for each message.
+   * The buffer returned by {@link org.postgresql.replication.PGReplicationStream#read()} is then
+   * only valid until the next read, so the caller must copy what it keeps. The default is false.
+   *
+   * @param bufferReuse true to reuse the receive buffer
+   * @return not null fluent
+   */
+  T withBufferReuse(boolean bufferReuse);
+
+  /**
+   * Send the status updates, and the replies to the keepalive messages of the server, from a
+   * background thread while the stream is not being read. The flushed and applied positions set on
+   * the stream are then reported even while the consumer is busy processing the changes, and the
+   * server does not close the connection for a timeout. The thread stops when the stream is
+   * closed. The default is false.
+   *
+   * @param backgroundStatusUpdate true to send the status updates in the background
+   * @return not null fluent
+   */
+  T withBackgroundStatusUpdate(boolean backgroundStatusUpdate);
 }
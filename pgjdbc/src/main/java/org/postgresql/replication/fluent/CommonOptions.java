@@ -36,4 +36,27 @@ public interface CommonOptions {
    * @return the current status interval
    */
   int getStatusInterval();
+
+  /**
+   * Specifies if the stream receives all the messages into the same buffer, that
+   * {@link org.postgresql.replication.PGReplicationStream#read()} returns and that is only valid
+   * until the next read. This avoids allocating an array for each message. The default is false.
+   *
+   * @return true if the receive buffer is reused
+   */
+  default boolean isBufferReuse() {
+    return false;
+  }
+
+  /**
+   * Specifies if the status updates, and the replies to the keepalive messages of the server, are
+   * sent by a background thread while the stream is not being read, so that a consumer that takes
+   * longer than the server timeout to process the changes is not disconnected. The default is
+   * false, the updates are only sent while reading.
+   *
+   * @return true if the status updates are sent in the background
+   */
+  default boolean isBackgroundStatusUpdate() {
+    return false;
+  }
 }
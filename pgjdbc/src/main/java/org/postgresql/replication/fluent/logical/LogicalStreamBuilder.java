@@ -92,4 +92,14 @@ public class LogicalStreamBuilder extends AbstractStreamBuilder<ChainedLogicalSt
   public int getStatusInterval() {
     return statusIntervalMs;
   }
+
+  @Override
+  public boolean isBufferReuse() {
+    return bufferReuse;
+  }
+
+  @Override
+  public boolean isBackgroundStatusUpdate() {
+    return backgroundStatusUpdate;
+  }
 }
@@ -50,4 +50,14 @@ public class PhysicalStreamBuilder extends AbstractStreamBuilder<ChainedPhysical
   public int getStatusInterval() {
     return statusIntervalMs;
   }
+
+  @Override
+  public boolean isBufferReuse() {
+    return bufferReuse;
+  }
+
+  @Override
+  public boolean isBackgroundStatusUpdate() {
+    return backgroundStatusUpdate;
+  }
 }
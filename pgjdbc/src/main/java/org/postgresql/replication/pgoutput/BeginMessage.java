@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+/**
+ * Start of a transaction, that is not streamed.
+ */
+public final class BeginMessage extends PgOutputMessage {
+  long finalLsn;
+  long commitTime;
+
+  BeginMessage() {
+    super(PgOutputMessageType.BEGIN);
+  }
+
+  /**
+   * @return the LSN of the commit record of the transaction
+   */
+  public long getFinalLsn() {
+    return finalLsn;
+  }
+
+  /**
+   * @return the commit time of the transaction, in microseconds since 2000-01-01
+   * @see #toTimestamp(long)
+   */
+  public long getCommitTime() {
+    return commitTime;
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+/**
+ * End of a transaction: a {@link PgOutputMessageType#COMMIT COMMIT} after the changes of a
+ * transaction, or a {@link PgOutputMessageType#STREAM_COMMIT STREAM_COMMIT} of a streamed
+ * transaction, whose {@link #getXid()} is then set.
+ */
+public final class CommitMessage extends PgOutputMessage {
+  byte flags;
+  long commitLsn;
+  long endLsn;
+  long commitTime;
+
+  CommitMessage(PgOutputMessageType type) {
+    super(type);
+  }
+
+  public byte getFlags() {
+    return flags;
+  }
+
+  /**
+   * @return the LSN of the commit record
+   */
+  public long getCommitLsn() {
+    return commitLsn;
+  }
+
+  /**
+   * @return the LSN after the commit record, which is what the consumer flushes once it has
+   *     processed the transaction
+   */
+  public long getEndLsn() {
+    return endLsn;
+  }
+
+  /**
+   * @return the commit time of the transaction, in microseconds since 2000-01-01
+   * @see #toTimestamp(long)
+   */
+  public long getCommitTime() {
+    return commitTime;
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A message written with {@code pg_logical_emit_message}, sent when the {@code messages} option
+ * of the plugin is set.
+ */
+public final class LogicalMessage extends PgOutputMessage {
+  boolean transactional;
+  long lsn;
+  String prefix = "";
+  ByteBuffer content = ByteBuffer.allocate(0);
+
+  LogicalMessage() {
+    super(PgOutputMessageType.MESSAGE);
+  }
+
+  public boolean isTransactional() {
+    return transactional;
+  }
+
+  public long getLsn() {
+    return lsn;
+  }
+
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @return the content of the message, a view of the received data
+   */
+  public ByteBuffer getContent() {
+    return content;
+  }
+}
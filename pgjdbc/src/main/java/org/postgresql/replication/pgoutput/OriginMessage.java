@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+/**
+ * Origin of the current transaction, sent when the transaction was replicated from another node.
+ */
+public final class OriginMessage extends PgOutputMessage {
+  long commitLsn;
+  String name = "";
+
+  OriginMessage() {
+    super(PgOutputMessageType.ORIGIN);
+  }
+
+  /**
+   * @return the LSN of the commit on the origin server
+   */
+  public long getCommitLsn() {
+    return commitLsn;
+  }
+
+  public String getName() {
+    return name;
+  }
+}
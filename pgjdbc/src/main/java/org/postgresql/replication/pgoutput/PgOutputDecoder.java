@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+import org.postgresql.core.BaseConnection;
+import org.postgresql.jdbc.TimestampUtils;
+import org.postgresql.replication.PGReplicationStream;
+import org.postgresql.util.GT;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>Decodes the messages of the {@code pgoutput} logical decoding plugin, the plugin of the
+ * built-in logical replication, into typed messages.</p>
+ *
+ * <pre>
+ * PGReplicationStream stream = pgConnection.getReplicationAPI()
+ *     .replicationStream()
+ *     .logical()
+ *     .withSlotName("cdc_slot")
+ *     .withSlotOption("proto_version", 2)
+ *     .withSlotOption("publication_names", "cdc_publication")
+ *     .withSlotOption("streaming", true)
+ *     .start();
+ * PgOutputDecoder decoder = new PgOutputDecoder(stream, pgConnection);
+ * while (true) {
+ *   PgOutputMessage message = decoder.read();
+ *   if (message instanceof RowMessage) {
+ *     RowMessage row = (RowMessage) message;
+ *     long id = row.getNewTuple().getLong(1);
+ *     ...
+ *   } else if (message instanceof CommitMessage) {
+ *     stream.setFlushedLSN(((CommitMessage) message).getEndLsn());
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>The decoder keeps the description of each relation it receives, which the changes refer to.
+ * It reuses the message objects and does not copy the values of the rows out of the received
+ * data, so a message is only valid until the next one is decoded. The changes of a transaction
+ * streamed while in progress, with protocol version 2 or higher and the {@code streaming} option,
+ * come between {@link PgOutputMessageType#STREAM_START STREAM_START} and
+ * {@link PgOutputMessageType#STREAM_STOP STREAM_STOP} messages, and have the
+ * {@link PgOutputMessage#getXid() id of their transaction}.</p>
+ *
+ * <p>The two-phase commit messages, sent when the {@code two_phase} option is set, are not
+ * supported. This class is not thread safe.</p>
+ */
+public class PgOutputDecoder {
+  private final @Nullable PGReplicationStream stream;
+  private final Map<Integer, PgOutputRelation> relations = new HashMap<>();
+  // Saves the map lookup, and the boxing of its key, for the changes of the same table in a row
+  private @Nullable PgOutputRelation lastRelation;
+  private boolean inStream;
+
+  private final BeginMessage begin = new BeginMessage();
+  private final CommitMessage commit = new CommitMessage(PgOutputMessageType.COMMIT);
+  private final CommitMessage streamCommit = new CommitMessage(PgOutputMessageType.STREAM_COMMIT);
+  private final OriginMessage origin = new OriginMessage();
+  private final TypeMessage typeMessage = new TypeMessage();
+  private final LogicalMessage logicalMessage = new LogicalMessage();
+  private final RowMessage insert;
+  private final RowMessage update;
+  private final RowMessage delete;
+  private final TruncateMessage truncate = new TruncateMessage();
+  private final StreamMessage streamStart = new StreamMessage(PgOutputMessageType.STREAM_START);
+  private final StreamMessage streamStop = new StreamMessage(PgOutputMessageType.STREAM_STOP);
+  private final StreamAbortMessage streamAbort = new StreamAbortMessage();
+
+  /**
+   * @param stream logical replication stream of the {@code pgoutput} plugin
+   * @param connection the replication connection, whose settings are used to convert the
+   *     timestamps
+   * @throws SQLException if the connection is not a connection of this driver
+   */
+  public PgOutputDecoder(PGReplicationStream stream, Connection connection) throws SQLException {
+    this(stream, connection.unwrap(BaseConnection.class).getTimestampUtils());
+  }
+
+  /**
+   * Creates a decoder of messages that are read by the caller and passed to
+   * {@link #decode(ByteBuffer)}.
+   *
+   * @param timestampUtils converts the timestamps
+   */
+  public PgOutputDecoder(TimestampUtils timestampUtils) {
+    this(null, timestampUtils);
+  }
+
+  private PgOutputDecoder(@Nullable PGReplicationStream stream, TimestampUtils timestampUtils) {
+    this.stream = stream;
+    PgOutputTuple tuple = new PgOutputTuple(timestampUtils);
+    PgOutputTuple oldTuple = new PgOutputTuple(timestampUtils);
+    // A single message is valid at a time, so the row messages share the tuples
+    this.insert = new RowMessage(PgOutputMessageType.INSERT, oldTuple, tuple);
+    this.update = new RowMessage(PgOutputMessageType.UPDATE, oldTuple, tuple);
+    this.delete = new RowMessage(PgOutputMessageType.DELETE, oldTuple, tuple);
+  }
+
+  /**
+   * Reads and decodes the next message of the stream, waiting for it.
+   *
+   * @return the next message, or null if the stream was closed
+   * @throws SQLException if the message cannot be read or decoded
+   * @see PGReplicationStream#read()
+   */
+  public @Nullable PgOutputMessage read() throws SQLException {
+    ByteBuffer buffer = stream().read();
+    return buffer == null ? null : decode(buffer);
+  }
+
+  /**
+   * Reads and decodes the next message of the stream if it was received.
+   *
+   * @return the next message, or null if no message is pending
+   * @throws SQLException if the message cannot be read or decoded
+   * @see PGReplicationStream#readPending()
+   */
+  public @Nullable PgOutputMessage readPending() throws SQLException {
+    ByteBuffer buffer = stream().readPending();
+    return buffer == null ? null : decode(buffer);
+  }
+
+  private PGReplicationStream stream() {
+    PGReplicationStream stream = this.stream;
+    if (stream == null) {
+      throw new IllegalStateException("The decoder was created without a replication stream");
+    }
+    return stream;
+  }
+
+  /**
+   * @param oid oid of a table
+   * @return the last description of the table received, or null if none was received
+   */
+  public @Nullable PgOutputRelation getRelation(int oid) {
+    return relations.get(oid);
+  }
+
+  /**
+   * Decodes a message of the plugin, from the position to the limit of the buffer. The values of
+   * the rows refer to the array of the buffer, which must not change while the message is used.
+   *
+   * @param buffer the data of an XLogData message, as returned by {@link PGReplicationStream#read()}
+   * @return the message, valid until the next message is decoded
+   * @throws SQLException if the message is not a valid message of the plugin
+   */
+  public PgOutputMessage decode(ByteBuffer buffer) throws SQLException {
+    if (!buffer.hasArray()) {
+      ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+      copy.put(buffer.duplicate());
+      copy.flip();
+      buffer = copy;
+    }
+    byte code = buffer.get();
+    PgOutputMessageType type = PgOutputMessageType.valueOf(code);
+    if (type == null) {
+      throw new PSQLException(
+          GT.tr("Unexpected packet type during replication: {0}", Integer.toString(code)),
+          PSQLState.PROTOCOL_VIOLATION);
+    }
+    try {
+      return decode(type, buffer);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException
+        | IllegalArgumentException e) {
+      throw new PSQLException(
+          GT.tr("Invalid pgoutput message of type {0}", type),
+          PSQLState.PROTOCOL_VIOLATION, e);
+    }
+  }
+
+  private PgOutputMessage decode(PgOutputMessageType type, ByteBuffer buffer)
+      throws SQLException {
+    switch (type) {
+      case BEGIN:
+        begin.finalLsn = buffer.getLong();
+        begin.commitTime = buffer.getLong();
+        begin.xid = buffer.getInt();
+        return begin;
+      case COMMIT:
+        return decodeCommit(commit, buffer);
+      case STREAM_COMMIT:
+        streamCommit.xid = buffer.getInt();
+        return decodeCommit(streamCommit, buffer);
+      case ORIGIN:
+        origin.commitLsn = buffer.getLong();
+        origin.name = readString(buffer);
+        return origin;
+      case RELATION:
+        return decodeRelation(buffer);
+      case TYPE:
+        typeMessage.xid = readXid(buffer);
+        typeMessage.oid = buffer.getInt();
+        typeMessage.namespace = readString(buffer);
+        typeMessage.name = readString(buffer);
+        return typeMessage;
+      case INSERT:
+        return decodeRow(insert, buffer);
+      case UPDATE:
+        return decodeRow(update, buffer);
+      case DELETE:
+        return decodeRow(delete, buffer);
+      case TRUNCATE:
+        return decodeTruncate(buffer);
+      case MESSAGE:
+        logicalMessage.xid = readXid(buffer);
+        logicalMessage.transactional = (buffer.get() & 1) != 0;
+        logicalMessage.lsn = buffer.getLong();
+        logicalMessage.prefix = readString(buffer);
+        int length = buffer.getInt();
+        ByteBuffer content = buffer.slice();
+        content.limit(length);
+        logicalMessage.content = content;
+        return logicalMessage;
+      case STREAM_START:
+        inStream = true;
+        streamStart.xid = buffer.getInt();
+        streamStart.firstSegment = buffer.get() == 1;
+        return streamStart;
+      case STREAM_STOP:
+        inStream = false;
+        // The transaction of the block that ends
+        streamStop.xid = streamStart.xid;
+        return streamStop;
+      case STREAM_ABORT:
+        streamAbort.xid = buffer.getInt();
+        streamAbort.subXid = buffer.getInt();
+        // Only sent for the parallel streaming of protocol version 4
+        if (buffer.remaining() >= 16) {
+          streamAbort.abortLsn = buffer.getLong();
+          streamAbort.abortTime = buffer.getLong();
+        } else {
+          streamAbort.abortLsn = 0;
+          streamAbort.abortTime = 0;
+        }
+        return streamAbort;
+      default:
+        throw new PSQLException(
+            GT.tr("Unexpected packet type during replication: {0}", type),
+            PSQLState.PROTOCOL_VIOLATION);
+    }
+  }
+
+  /**
+   * The changes of a streamed transaction start with the id of the transaction.
+   */
+  private int readXid(ByteBuffer buffer) {
+    return inStream ? buffer.getInt() : 0;
+  }
+
+  private static CommitMessage decodeCommit(CommitMessage commit, ByteBuffer buffer) {
+    commit.flags = buffer.get();
+    commit.commitLsn = buffer.getLong();
+    commit.endLsn = buffer.getLong();
+    commit.commitTime = buffer.getLong();
+    return commit;
+  }
+
+  private RelationMessage decodeRelation(ByteBuffer buffer) {
+    int xid = readXid(buffer);
+    int oid = buffer.getInt();
+    String namespace = readString(buffer);
+    String name = readString(buffer);
+    char replicaIdentity = (char) buffer.get();
+    int columnCount = buffer.getShort() & 0xffff;
+    String[] columnNames = new String[columnCount];
+    int[] columnTypes = new int[columnCount];
+    int[] columnTypeModifiers = new int[columnCount];
+    boolean[] keyColumns = new boolean[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      keyColumns[i] = (buffer.get() & 1) != 0;
+      columnNames[i] = readString(buffer);
+      columnTypes[i] = buffer.getInt();
+      columnTypeModifiers[i] = buffer.getInt();
+    }
+    PgOutputRelation relation = new PgOutputRelation(oid, namespace, name, replicaIdentity,
+        columnNames, columnTypes, columnTypeModifiers, keyColumns);
+    relations.put(oid, relation);
+    lastRelation = relation;
+    RelationMessage message = new RelationMessage(relation);
+    message.xid = xid;
+    return message;
+  }
+
+  private PgOutputRelation relation(int oid) throws PSQLException {
+    PgOutputRelation relation = lastRelation;
+    if (relation != null && relation.getOid() == oid) {
+      return relation;
+    }
+    relation = relations.get(oid);
+    if (relation == null) {
+      throw new PSQLException(
+          GT.tr("Received a change of the relation {0} before its description", oid),
+          PSQLState.PROTOCOL_VIOLATION);
+    }
+    lastRelation = relation;
+    return relation;
+  }
+
+  private RowMessage decodeRow(RowMessage row, ByteBuffer buffer) throws PSQLException {
+    row.xid = readXid(buffer);
+    PgOutputRelation relation = relation(buffer.getInt());
+    row.relation = relation;
+    row.hasOldTuple = false;
+    row.keyOnly = false;
+    byte kind = buffer.get();
+    if (kind == 'K' || kind == 'O') {
+      row.hasOldTuple = true;
+      row.keyOnly = kind == 'K';
+      row.oldTuple.decode(relation, buffer);
+      if (row.getType() == PgOutputMessageType.DELETE) {
+        return row;
+      }
+      kind = buffer.get();
+    }
+    if (kind != 'N' || row.getType() == PgOutputMessageType.DELETE) {
+      throw new PSQLException(
+          GT.tr("Invalid pgoutput message of type {0}", row.getType()),
+          PSQLState.PROTOCOL_VIOLATION);
+    }
+    row.newTuple.decode(relation, buffer);
+    return row;
+  }
+
+  private TruncateMessage decodeTruncate(ByteBuffer buffer) throws PSQLException {
+    truncate.xid = readXid(buffer);
+    int count = buffer.getInt();
+    truncate.options = buffer.get();
+    if (truncate.relations.length < count) {
+      truncate.relations = new PgOutputRelation[count];
+    }
+    for (int i = 0; i < count; i++) {
+      truncate.relations[i] = relation(buffer.getInt());
+    }
+    truncate.relationCount = count;
+    return truncate;
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] array = buffer.array();
+    int start = buffer.arrayOffset() + buffer.position();
+    int end = start;
+    int limit = buffer.arrayOffset() + buffer.limit();
+    while (end < limit && array[end] != 0) {
+      end++;
+    }
+    if (end == limit) {
+      throw new BufferUnderflowException();
+    }
+    buffer.position(buffer.position() + end - start + 1);
+    return new String(array, start, end - start, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+import org.postgresql.core.v3.replication.V3PGReplicationStream;
+
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A message decoded by {@link PgOutputDecoder}. The decoder reuses the message objects, so a
+ * message is only valid until the next message is decoded.
+ */
+public abstract class PgOutputMessage {
+  private final PgOutputMessageType type;
+  int xid;
+
+  PgOutputMessage(PgOutputMessageType type) {
+    this.type = type;
+  }
+
+  public PgOutputMessageType getType() {
+    return type;
+  }
+
+  /**
+   * @return the transaction id of the message, or zero for the changes of a transaction that is
+   *     not streamed, as they come between a {@link BeginMessage} and a {@link CommitMessage}
+   */
+  public int getXid() {
+    return xid;
+  }
+
+  /**
+   * Converts a time of the protocol, in microseconds since 2000-01-01, to a {@link Timestamp}.
+   *
+   * @param micros the time of a message
+   * @return the time as a timestamp
+   */
+  public static Timestamp toTimestamp(long micros) {
+    long seconds = Math.floorDiv(micros, TimeUnit.SECONDS.toMicros(1));
+    int microsOfSecond = (int) Math.floorMod(micros, TimeUnit.SECONDS.toMicros(1));
+    Timestamp timestamp = new Timestamp(
+        TimeUnit.SECONDS.toMillis(seconds) + V3PGReplicationStream.POSTGRES_EPOCH_2000_01_01);
+    timestamp.setNanos(microsOfSecond * 1000);
+    return timestamp;
+  }
+}
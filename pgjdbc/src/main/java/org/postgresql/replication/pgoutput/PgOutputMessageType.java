@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Types of the messages of the {@code pgoutput} logical decoding plugin, see
+ * <a href="https://www.postgresql.org/docs/current/protocol-logicalrep-message-formats.html">
+ * Logical Replication Message Formats</a>.
+ */
+public enum PgOutputMessageType {
+  BEGIN('B'),
+  COMMIT('C'),
+  ORIGIN('O'),
+  RELATION('R'),
+  TYPE('Y'),
+  INSERT('I'),
+  UPDATE('U'),
+  DELETE('D'),
+  TRUNCATE('T'),
+  MESSAGE('M'),
+  STREAM_START('S'),
+  STREAM_STOP('E'),
+  STREAM_COMMIT('c'),
+  STREAM_ABORT('A');
+
+  private static final @Nullable PgOutputMessageType[] BY_CODE = new PgOutputMessageType[128];
+
+  static {
+    for (PgOutputMessageType type : values()) {
+      BY_CODE[type.code] = type;
+    }
+  }
+
+  private final char code;
+
+  PgOutputMessageType(char code) {
+    this.code = code;
+  }
+
+  /**
+   * @return the byte that starts the messages of this type
+   */
+  public char getCode() {
+    return code;
+  }
+
+  static @Nullable PgOutputMessageType valueOf(byte code) {
+    return code >= 0 ? BY_CODE[code] : null;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+import org.postgresql.replication.ReplicationPipeline;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Partitions the messages of the {@code pgoutput} plugin by table for a
+ * {@link ReplicationPipeline}: the changes of a table are all processed by the same worker, in
+ * order. The other messages, like the descriptions of the tables and the begin and commit of the
+ * transactions, go to all the workers, so each worker can decode its messages with its own
+ * {@link PgOutputDecoder} and knows the bounds of the transactions. A truncate goes to the
+ * worker of its tables, or to all the workers when its tables belong to several.</p>
+ *
+ * <p>Override {@link #partition(int, ByteBuffer, int)} to partition the changes by key instead,
+ * when the order of the changes of different keys does not matter.</p>
+ */
+public class PgOutputPartitioner implements ReplicationPipeline.Partitioner {
+  private boolean inStream;
+
+  @Override
+  public int partition(ByteBuffer message, int workers) {
+    int position = message.position();
+    PgOutputMessageType type = PgOutputMessageType.valueOf(message.get(position));
+    if (type == null) {
+      return ALL_WORKERS;
+    }
+    // The changes of a streamed transaction start with the id of the transaction
+    int relationPosition = position + 1 + (inStream ? 4 : 0);
+    switch (type) {
+      case STREAM_START:
+        inStream = true;
+        return ALL_WORKERS;
+      case STREAM_STOP:
+        inStream = false;
+        return ALL_WORKERS;
+      case INSERT:
+      case UPDATE:
+      case DELETE:
+        return partition(message.getInt(relationPosition), message, workers);
+      case TRUNCATE:
+        // Number of relations, options, then the relations
+        int count = message.getInt(relationPosition);
+        int partition = ALL_WORKERS;
+        for (int i = 0; i < count; i++) {
+          int relationPartition = partition(message.getInt(relationPosition + 5 + 4 * i), workers);
+          if (i > 0 && relationPartition != partition) {
+            return ALL_WORKERS;
+          }
+          partition = relationPartition;
+        }
+        return partition;
+      default:
+        return ALL_WORKERS;
+    }
+  }
+
+  /**
+   * Chooses the worker of a change of a row.
+   *
+   * @param relationOid oid of the table of the change
+   * @param message the message of the change, the partitioner must not change its position
+   * @param workers number of workers
+   * @return the index of the worker, from 0
+   */
+  protected int partition(int relationOid, ByteBuffer message, int workers) {
+    return partition(relationOid, workers);
+  }
+
+  private static int partition(int relationOid, int workers) {
+    return Math.floorMod(relationOid, workers);
+  }
+
+  @Override
+  public boolean isCommit(ByteBuffer message) {
+    byte code = message.get(message.position());
+    return code == PgOutputMessageType.COMMIT.getCode()
+        || code == PgOutputMessageType.STREAM_COMMIT.getCode();
+  }
+}
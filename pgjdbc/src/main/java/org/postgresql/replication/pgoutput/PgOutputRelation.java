@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+import org.postgresql.util.GT;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+
+/**
+ * Description of a published table, as sent by a {@link RelationMessage}. The decoder keeps the
+ * last description of each relation, and the columns of the changes follow it. Column indexes
+ * start at 1, as in a {@link java.sql.ResultSet}.
+ */
+public final class PgOutputRelation {
+  private final int oid;
+  private final String namespace;
+  private final String name;
+  private final char replicaIdentity;
+  private final String[] columnNames;
+  private final int[] columnTypes;
+  private final int[] columnTypeModifiers;
+  private final boolean[] keyColumns;
+
+  PgOutputRelation(int oid, String namespace, String name, char replicaIdentity,
+      String[] columnNames, int[] columnTypes, int[] columnTypeModifiers, boolean[] keyColumns) {
+    this.oid = oid;
+    this.namespace = namespace;
+    this.name = name;
+    this.replicaIdentity = replicaIdentity;
+    this.columnNames = columnNames;
+    this.columnTypes = columnTypes;
+    this.columnTypeModifiers = columnTypeModifiers;
+    this.keyColumns = keyColumns;
+  }
+
+  public int getOid() {
+    return oid;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the replica identity setting of the table: {@code d} for the primary key, {@code n}
+   *     for nothing, {@code f} for all the columns and {@code i} for an index
+   */
+  public char getReplicaIdentity() {
+    return replicaIdentity;
+  }
+
+  public int getColumnCount() {
+    return columnNames.length;
+  }
+
+  public String getColumnName(int column) {
+    return columnNames[column - 1];
+  }
+
+  /**
+   * @param column index of the column
+   * @return the oid of the type of the column
+   */
+  public int getColumnType(int column) {
+    return columnTypes[column - 1];
+  }
+
+  public int getColumnTypeModifier(int column) {
+    return columnTypeModifiers[column - 1];
+  }
+
+  /**
+   * @param column index of the column
+   * @return true if the column is part of the replica identity, which the old values of the
+   *     updates and deletes contain
+   */
+  public boolean isKeyColumn(int column) {
+    return keyColumns[column - 1];
+  }
+
+  /**
+   * @param columnName name of a column
+   * @return the index of the column
+   * @throws PSQLException if the table has no such column
+   */
+  public int findColumn(String columnName) throws PSQLException {
+    for (int i = 0; i < columnNames.length; i++) {
+      if (columnNames[i].equals(columnName)) {
+        return i + 1;
+      }
+    }
+    throw new PSQLException(
+        GT.tr("The column name {0} was not found in this ResultSet.", columnName),
+        PSQLState.UNDEFINED_COLUMN);
+  }
+
+  @Override
+  public String toString() {
+    return namespace + "." + name;
+  }
+}
@@ -0,0 +1,417 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+import org.postgresql.core.Oid;
+import org.postgresql.jdbc.TimestampUtils;
+import org.postgresql.util.ByteConverter;
+import org.postgresql.util.GT;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * <p>The values of a row in a {@link RowMessage}. The values are not copied out of the received
+ * message: they are read from the buffer of the message when they are requested, so the tuple is
+ * only valid until the next message is decoded. Column indexes start at 1, as in a
+ * {@link java.sql.ResultSet}.</p>
+ *
+ * <p>The values are in text format, or in binary format when the {@code binary} option of the
+ * plugin is set, and the getters convert both formats. As in a {@link java.sql.ResultSet}, the
+ * getters of primitive types return zero or false for a null value.</p>
+ */
+public final class PgOutputTuple {
+  private static final byte NULL = 'n';
+  private static final byte UNCHANGED_TOAST = 'u';
+  private static final byte TEXT = 't';
+  private static final byte BINARY = 'b';
+
+  private final TimestampUtils timestampUtils;
+  private @Nullable PgOutputRelation relation;
+  private byte[] data = new byte[0];
+  private int columnCount;
+  private byte[] kinds = new byte[16];
+  private int[] offsets = new int[16];
+  private int[] lengths = new int[16];
+
+  PgOutputTuple(TimestampUtils timestampUtils) {
+    this.timestampUtils = timestampUtils;
+  }
+
+  /**
+   * Reads the TupleData at the position of the buffer, and moves the position after it.
+   */
+  void decode(PgOutputRelation relation, ByteBuffer buffer) {
+    this.relation = relation;
+    this.data = buffer.array();
+    int count = buffer.getShort() & 0xffff;
+    if (kinds.length < count) {
+      kinds = new byte[count];
+      offsets = new int[count];
+      lengths = new int[count];
+    }
+    for (int i = 0; i < count; i++) {
+      byte kind = buffer.get();
+      kinds[i] = kind;
+      if (kind == TEXT || kind == BINARY) {
+        int length = buffer.getInt();
+        offsets[i] = buffer.arrayOffset() + buffer.position();
+        lengths[i] = length;
+        buffer.position(buffer.position() + length);
+      } else {
+        offsets[i] = 0;
+        lengths[i] = 0;
+      }
+    }
+    columnCount = count;
+  }
+
+  public PgOutputRelation getRelation() {
+    PgOutputRelation relation = this.relation;
+    if (relation == null) {
+      throw new IllegalStateException("The tuple was not decoded");
+    }
+    return relation;
+  }
+
+  public int getColumnCount() {
+    return columnCount;
+  }
+
+  public boolean isNull(int column) {
+    return kind(column) == NULL;
+  }
+
+  /**
+   * @param column index of the column
+   * @return true if the value is a TOASTed value that did not change, and that the server does
+   *     not send; the getters return null for it
+   */
+  public boolean isUnchangedToast(int column) {
+    return kind(column) == UNCHANGED_TOAST;
+  }
+
+  public boolean isBinary(int column) {
+    return kind(column) == BINARY;
+  }
+
+  private byte kind(int column) {
+    if (column < 1 || column > columnCount) {
+      throw new IndexOutOfBoundsException("Column index " + column + " out of " + columnCount);
+    }
+    return kinds[column - 1];
+  }
+
+  private boolean hasValue(int column) {
+    byte kind = kind(column);
+    return kind == TEXT || kind == BINARY;
+  }
+
+  /**
+   * @return the array that holds the values, see {@link #getOffset(int)}
+   */
+  public byte[] getArray() {
+    return data;
+  }
+
+  /**
+   * @param column index of the column
+   * @return the position of the value in {@link #getArray()}
+   */
+  public int getOffset(int column) {
+    kind(column);
+    return offsets[column - 1];
+  }
+
+  /**
+   * @param column index of the column
+   * @return the number of bytes of the value, 0 when the value is null
+   */
+  public int getLength(int column) {
+    kind(column);
+    return lengths[column - 1];
+  }
+
+  /**
+   * @param column index of the column
+   * @return a buffer that shares the bytes of the value with the message, or null
+   */
+  public @Nullable ByteBuffer getValue(int column) {
+    if (!hasValue(column)) {
+      return null;
+    }
+    return ByteBuffer.wrap(data, offsets[column - 1], lengths[column - 1]).slice();
+  }
+
+  /**
+   * @param column index of the column
+   * @return a copy of the bytes of the value, or null
+   */
+  public byte @Nullable [] getBytes(int column) {
+    if (!hasValue(column)) {
+      return null;
+    }
+    int offset = offsets[column - 1];
+    return Arrays.copyOfRange(data, offset, offset + lengths[column - 1]);
+  }
+
+  private int type(int column) {
+    return getRelation().getColumnType(column);
+  }
+
+  /**
+   * Returns the value as text. A binary value is converted for the numeric, boolean, uuid,
+   * timestamp and character types.
+   *
+   * @param column index of the column
+   * @return the value as a string, or null
+   * @throws SQLException if a binary value cannot be converted
+   */
+  public @Nullable String getString(int column) throws SQLException {
+    if (!hasValue(column)) {
+      return null;
+    }
+    int offset = offsets[column - 1];
+    int length = lengths[column - 1];
+    if (!isBinary(column)) {
+      return new String(data, offset, length, StandardCharsets.UTF_8);
+    }
+    int type = type(column);
+    switch (type) {
+      case Oid.BOOL:
+        return ByteConverter.bool(data, offset) ? "t" : "f";
+      case Oid.INT2:
+      case Oid.INT4:
+      case Oid.INT8:
+      case Oid.OID:
+        return Long.toString(getLong(column));
+      case Oid.FLOAT4:
+        return Float.toString(ByteConverter.float4(data, offset));
+      case Oid.FLOAT8:
+        return Double.toString(ByteConverter.float8(data, offset));
+      case Oid.NUMERIC:
+        return ByteConverter.numeric(data, offset, length).toString();
+      case Oid.UUID:
+        return new UUID(ByteConverter.int8(data, offset), ByteConverter.int8(data, offset + 8))
+            .toString();
+      case Oid.TIMESTAMP:
+      case Oid.TIMESTAMPTZ:
+        return String.valueOf(getTimestamp(column));
+      case Oid.JSONB:
+        // Version byte, followed by the text
+        return new String(data, offset + 1, length - 1, StandardCharsets.UTF_8);
+      case Oid.TEXT:
+      case Oid.VARCHAR:
+      case Oid.BPCHAR:
+      case Oid.NAME:
+      case Oid.JSON:
+      case Oid.XML:
+      case Oid.UNSPECIFIED:
+        return new String(data, offset, length, StandardCharsets.UTF_8);
+      default:
+        throw cannotConvert(column, "String");
+    }
+  }
+
+  public boolean getBoolean(int column) throws SQLException {
+    if (!hasValue(column)) {
+      return false;
+    }
+    int offset = offsets[column - 1];
+    if (isBinary(column)) {
+      if (type(column) != Oid.BOOL) {
+        throw cannotConvert(column, "boolean");
+      }
+      return ByteConverter.bool(data, offset);
+    }
+    // The text output of a boolean is t or f
+    return lengths[column - 1] == 1 && data[offset] == 't';
+  }
+
+  public int getInt(int column) throws SQLException {
+    long value = getLong(column);
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      throw new PSQLException(GT.tr("Bad value for type {0} : {1}", "int", value),
+          PSQLState.NUMERIC_VALUE_OUT_OF_RANGE);
+    }
+    return (int) value;
+  }
+
+  /**
+   * Returns the value of an integer column. A text value is parsed in place, without creating a
+   * string.
+   *
+   * @param column index of the column
+   * @return the value, 0 if it is null
+   * @throws SQLException if the value is not an integer
+   */
+  public long getLong(int column) throws SQLException {
+    if (!hasValue(column)) {
+      return 0;
+    }
+    int offset = offsets[column - 1];
+    int length = lengths[column - 1];
+    if (isBinary(column)) {
+      switch (type(column)) {
+        case Oid.INT2:
+          return ByteConverter.int2(data, offset);
+        case Oid.INT4:
+          return ByteConverter.int4(data, offset);
+        case Oid.OID:
+          return ByteConverter.int4(data, offset) & 0xffffffffL;
+        case Oid.INT8:
+          return ByteConverter.int8(data, offset);
+        default:
+          throw cannotConvert(column, "long");
+      }
+    }
+    return parseLong(offset, length);
+  }
+
+  private long parseLong(int offset, int length) throws PSQLException {
+    int end = offset + length;
+    int i = offset;
+    boolean negative = i < end && data[i] == '-';
+    if (negative || i < end && data[i] == '+') {
+      i++;
+    }
+    if (i == end) {
+      throw badLong(offset, length);
+    }
+    // Accumulates negatively, so that Long.MIN_VALUE fits
+    long value = 0;
+    for (; i < end; i++) {
+      int digit = data[i] - '0';
+      if (digit < 0 || digit > 9) {
+        throw badLong(offset, length);
+      }
+      long next = value * 10 - digit;
+      if (value < Long.MIN_VALUE / 10 || next > value) {
+        throw badLong(offset, length);
+      }
+      value = next;
+    }
+    if (!negative) {
+      if (value == Long.MIN_VALUE) {
+        throw badLong(offset, length);
+      }
+      value = -value;
+    }
+    return value;
+  }
+
+  private PSQLException badLong(int offset, int length) {
+    return new PSQLException(GT.tr("Bad value for type {0} : {1}", "long",
+        new String(data, offset, length, StandardCharsets.UTF_8)),
+        PSQLState.NUMERIC_VALUE_OUT_OF_RANGE);
+  }
+
+  public double getDouble(int column) throws SQLException {
+    if (!hasValue(column)) {
+      return 0;
+    }
+    int offset = offsets[column - 1];
+    if (isBinary(column)) {
+      switch (type(column)) {
+        case Oid.FLOAT4:
+          return ByteConverter.float4(data, offset);
+        case Oid.FLOAT8:
+          return ByteConverter.float8(data, offset);
+        case Oid.NUMERIC:
+          return ByteConverter.numeric(data, offset, lengths[column - 1]).doubleValue();
+        case Oid.INT2:
+        case Oid.INT4:
+        case Oid.INT8:
+        case Oid.OID:
+          return getLong(column);
+        default:
+          throw cannotConvert(column, "double");
+      }
+    }
+    String value = new String(data, offset, lengths[column - 1], StandardCharsets.UTF_8);
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      throw new PSQLException(GT.tr("Bad value for type {0} : {1}", "double", value),
+          PSQLState.NUMERIC_VALUE_OUT_OF_RANGE, e);
+    }
+  }
+
+  public @Nullable BigDecimal getBigDecimal(int column) throws SQLException {
+    if (!hasValue(column)) {
+      return null;
+    }
+    int offset = offsets[column - 1];
+    int length = lengths[column - 1];
+    if (isBinary(column)) {
+      switch (type(column)) {
+        case Oid.NUMERIC:
+          Number number = ByteConverter.numeric(data, offset, length);
+          if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+          }
+          // NaN
+          throw new PSQLException(GT.tr("Bad value for type {0} : {1}", "BigDecimal", number),
+              PSQLState.NUMERIC_VALUE_OUT_OF_RANGE);
+        case Oid.INT2:
+        case Oid.INT4:
+        case Oid.INT8:
+        case Oid.OID:
+          return BigDecimal.valueOf(getLong(column));
+        default:
+          throw cannotConvert(column, "BigDecimal");
+      }
+    }
+    String value = new String(data, offset, length, StandardCharsets.UTF_8);
+    try {
+      return new BigDecimal(value);
+    } catch (NumberFormatException e) {
+      throw new PSQLException(GT.tr("Bad value for type {0} : {1}", "BigDecimal", value),
+          PSQLState.NUMERIC_VALUE_OUT_OF_RANGE, e);
+    }
+  }
+
+  /**
+   * Returns the value of a {@code timestamp} or {@code timestamptz} column, converted by the
+   * {@link TimestampUtils} of the connection. A {@code timestamp} is in the default time zone.
+   *
+   * @param column index of the column
+   * @return the value, or null
+   * @throws SQLException if the value is not a timestamp
+   */
+  public @Nullable Timestamp getTimestamp(int column) throws SQLException {
+    if (!hasValue(column)) {
+      return null;
+    }
+    int offset = offsets[column - 1];
+    int length = lengths[column - 1];
+    int type = type(column);
+    if (isBinary(column)) {
+      if (type != Oid.TIMESTAMP && type != Oid.TIMESTAMPTZ) {
+        throw cannotConvert(column, "Timestamp");
+      }
+      return timestampUtils.toTimestampBin(null, data, offset, length, type == Oid.TIMESTAMPTZ);
+    }
+    return timestampUtils.toTimestamp(null,
+        new String(data, offset, length, StandardCharsets.UTF_8));
+  }
+
+  private PSQLException cannotConvert(int column, String javaType) {
+    return new PSQLException(
+        GT.tr("Cannot convert the column of type {0} to requested type {1}.",
+            Oid.toString(type(column)), javaType),
+        PSQLState.DATA_TYPE_MISMATCH);
+  }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+/**
+ * Description of a table, sent before its first change and again when it is altered.
+ */
+public final class RelationMessage extends PgOutputMessage {
+  private final PgOutputRelation relation;
+
+  RelationMessage(PgOutputRelation relation) {
+    super(PgOutputMessageType.RELATION);
+    this.relation = relation;
+  }
+
+  public PgOutputRelation getRelation() {
+    return relation;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Change of a row: an {@link PgOutputMessageType#INSERT INSERT}, {@link PgOutputMessageType#UPDATE
+ * UPDATE} or {@link PgOutputMessageType#DELETE DELETE}.
+ */
+public final class RowMessage extends PgOutputMessage {
+  final PgOutputTuple oldTuple;
+  final PgOutputTuple newTuple;
+  @Nullable PgOutputRelation relation;
+  boolean hasOldTuple;
+  boolean keyOnly;
+
+  RowMessage(PgOutputMessageType type, PgOutputTuple oldTuple, PgOutputTuple newTuple) {
+    super(type);
+    this.oldTuple = oldTuple;
+    this.newTuple = newTuple;
+  }
+
+  public PgOutputRelation getRelation() {
+    PgOutputRelation relation = this.relation;
+    if (relation == null) {
+      throw new IllegalStateException("The message was not decoded");
+    }
+    return relation;
+  }
+
+  /**
+   * @return the values of the row before an update or a delete, which are only sent when the
+   *     replica identity of the table is used: all the columns for a {@code FULL} replica identity,
+   *     or just the {@link #isKeyOnly() key columns} when the key changed or the row was deleted.
+   *     Null for an insert or an update that did not change the key.
+   */
+  public @Nullable PgOutputTuple getOldTuple() {
+    return hasOldTuple ? oldTuple : null;
+  }
+
+  /**
+   * @return true if the old tuple only contains the key columns, the other columns are null
+   */
+  public boolean isKeyOnly() {
+    return keyOnly;
+  }
+
+  /**
+   * @return the values of the row after an insert or an update, null for a delete
+   */
+  public @Nullable PgOutputTuple getNewTuple() {
+    return getType() == PgOutputMessageType.DELETE ? null : newTuple;
+  }
+}
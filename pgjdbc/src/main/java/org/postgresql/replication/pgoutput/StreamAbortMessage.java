@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+/**
+ * Abort of a streamed transaction, or of one of its subtransactions, whose changes are then
+ * discarded.
+ */
+public final class StreamAbortMessage extends PgOutputMessage {
+  int subXid;
+  long abortLsn;
+  long abortTime;
+
+  StreamAbortMessage() {
+    super(PgOutputMessageType.STREAM_ABORT);
+  }
+
+  /**
+   * @return the transaction id of the aborted subtransaction, or the same as {@link #getXid()}
+   *     when the whole transaction is aborted
+   */
+  public int getSubXid() {
+    return subXid;
+  }
+
+  /**
+   * @return the LSN of the abort, only sent with protocol version 4 and the {@code parallel}
+   *     streaming mode, zero otherwise
+   */
+  public long getAbortLsn() {
+    return abortLsn;
+  }
+
+  /**
+   * @return the time of the abort in microseconds since 2000-01-01, only sent with protocol version
+   *     4 and the {@code parallel} streaming mode, zero otherwise
+   */
+  public long getAbortTime() {
+    return abortTime;
+  }
+}
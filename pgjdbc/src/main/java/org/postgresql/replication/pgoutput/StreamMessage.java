@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+/**
+ * Start or stop of a block of changes of an in-progress transaction, sent with protocol version 2
+ * or higher when the {@code streaming} option of the plugin is set. The changes of a transaction
+ * can come in several blocks, interleaved with other transactions, until a
+ * {@link PgOutputMessageType#STREAM_COMMIT STREAM_COMMIT} or a {@link StreamAbortMessage}.
+ */
+public final class StreamMessage extends PgOutputMessage {
+  boolean firstSegment;
+
+  StreamMessage(PgOutputMessageType type) {
+    super(type);
+  }
+
+  /**
+   * @return true if a {@link PgOutputMessageType#STREAM_START STREAM_START} is the first block of
+   *     the transaction
+   */
+  public boolean isFirstSegment() {
+    return firstSegment;
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+import static org.postgresql.util.internal.Nullness.castNonNull;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Truncation of one or more tables.
+ */
+public final class TruncateMessage extends PgOutputMessage {
+  private static final int CASCADE = 1;
+  private static final int RESTART_IDENTITY = 2;
+
+  byte options;
+  int relationCount;
+  @Nullable PgOutputRelation[] relations = new PgOutputRelation[4];
+
+  TruncateMessage() {
+    super(PgOutputMessageType.TRUNCATE);
+  }
+
+  public boolean isCascade() {
+    return (options & CASCADE) != 0;
+  }
+
+  public boolean isRestartIdentity() {
+    return (options & RESTART_IDENTITY) != 0;
+  }
+
+  public int getRelationCount() {
+    return relationCount;
+  }
+
+  /**
+   * @param index index of the relation, from 0
+   * @return a truncated relation
+   */
+  public PgOutputRelation getRelation(int index) {
+    if (index < 0 || index >= relationCount) {
+      throw new IndexOutOfBoundsException("Relation index " + index + " out of " + relationCount);
+    }
+    return castNonNull(relations[index]);
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+/**
+ * Name of a type that is not built in, sent before the first change of a relation with a column of
+ * this type.
+ */
+public final class TypeMessage extends PgOutputMessage {
+  int oid;
+  String namespace = "";
+  String name = "";
+
+  TypeMessage() {
+    super(PgOutputMessageType.TYPE);
+  }
+
+  public int getOid() {
+    return oid;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  public String getName() {
+    return name;
+  }
+}
@@ -32,6 +32,8 @@ public class MakeSSL extends ObjectFactory {
     LOGGER.log(Level.FINE, "converting regular socket connection to ssl");
 
     SSLSocketFactory factory = SocketFactoryFactory.getSslSocketFactory(info);
+    // The SSL socket reads and writes the plain socket streams
+    stream.detachSocketChannel();
     SSLSocket newConnection;
     try {
       newConnection = (SSLSocket) factory.createSocket(stream.getSocket(),
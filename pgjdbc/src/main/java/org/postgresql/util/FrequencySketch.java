@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ *
+ * Derived from the FrequencySketch of Caffeine (https://github.com/ben-manes/caffeine),
+ * Copyright 2015 Ben Manes, licensed under the Apache License, Version 2.0.
+ * See licenses/caffeine/LICENSE.
+ */
+
+package org.postgresql.util;
+
+/**
+ * <p>Estimates how often keys were used recently, for the admission policy of
+ * {@link TinyLfuCache}. It is a count-min sketch of four bit counters, each key maps to four
+ * counters of the table and its frequency is the smallest of them. The counters are halved
+ * periodically so that keys that are no longer used lose their frequency.</p>
+ *
+ * <p>The sketch is not thread safe, callers must synchronize access.</p>
+ */
+final class FrequencySketch {
+  private static final long[] SEED = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+
+  // Each long holds sixteen four bit counters
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  /**
+   * @param maximumSize the maximum number of entries of the cache
+   */
+  FrequencySketch(int maximumSize) {
+    int capacity = 16;
+    while (capacity < maximumSize && capacity < (1 << 24)) {
+      capacity <<= 1;
+    }
+    table = new long[capacity];
+    tableMask = capacity - 1;
+    sampleSize = 10 * capacity;
+  }
+
+  /**
+   * Returns the estimated number of uses of the key, at most 15.
+   *
+   * @param key key
+   * @return estimated frequency of the key
+   */
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /**
+   * Records a use of the key, halving all the counters once enough uses were recorded.
+   *
+   * @param key key
+   */
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size - (odd >>> 2)) >>> 1;
+  }
+
+  private int indexOf(int hash, int i) {
+    long h = (hash + SEED[i]) * SEED[i];
+    h += h >>> 32;
+    return ((int) h) & tableMask;
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+}
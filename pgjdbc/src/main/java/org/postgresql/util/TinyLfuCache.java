@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.util;
+
+import org.postgresql.jdbc.ResourceLock;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Caches values with a frequency aware admission policy (W-TinyLFU), so a burst of keys that are
+ * used once does not evict the keys that are used all the time. It is a drop-in replacement for
+ * {@link LruCache}, with the same limits and the same {@link LruCache.CreateAction} and
+ * {@link LruCache.EvictAction} semantics, so it can be used where an {@link LruCache} is
+ * expected.</p>
+ *
+ * <p>New entries go to a small window kept in least-recently-used order. An entry that falls out of
+ * the window competes with the least recently used entry of the main space when the cache is full,
+ * and the one that was used less often, as estimated by a {@link FrequencySketch}, is evicted.</p>
+ *
+ * <p>{@link #get(Object)} does not block: the entries are kept in a concurrent map, and the use of
+ * the key is only recorded if no other thread holds the lock. {@link #borrow(Object)} creates
+ * missing values outside the lock.</p>
+ */
+public class TinyLfuCache<Key extends Object, Value extends CanEstimateSize>
+    extends LruCache<Key, Value> {
+  private final @Nullable LruCache.EvictAction<Value> onEvict;
+  private final LruCache.@Nullable CreateAction<Key, Value> createAction;
+  private final int maxSizeEntries;
+  private final long maxSizeBytes;
+  private final int maxWindowEntries;
+  private final boolean accessOrder;
+  private final ConcurrentHashMap<Key, Node<Key, Value>> cache =
+      new ConcurrentHashMap<Key, Node<Key, Value>>();
+  private final NodeList<Key, Value> window = new NodeList<Key, Value>();
+  private final NodeList<Key, Value> main = new NodeList<Key, Value>();
+  private final FrequencySketch sketch;
+  private long currentSize;
+  private final ResourceLock lock = new ResourceLock();
+
+  public TinyLfuCache(int maxSizeEntries, long maxSizeBytes, boolean accessOrder) {
+    this(maxSizeEntries, maxSizeBytes, accessOrder, null, null);
+  }
+
+  /**
+   * @param maxSizeEntries maximum number of entries
+   * @param maxSizeBytes maximum estimated size of the entries
+   * @param accessOrder whether {@link #get(Object)} makes the entry the most recently used one
+   * @param createAction creates the entries {@link #borrow(Object)} does not find
+   * @param onEvict invoked for the entries that are removed from the cache
+   */
+  public TinyLfuCache(int maxSizeEntries, long maxSizeBytes, boolean accessOrder,
+      LruCache.@Nullable CreateAction<Key, Value> createAction,
+      LruCache.@Nullable EvictAction<Value> onEvict) {
+    // The superclass only provides the type, its own map stays empty
+    super(maxSizeEntries, maxSizeBytes, accessOrder, createAction, onEvict);
+    this.maxSizeEntries = maxSizeEntries;
+    this.maxSizeBytes = maxSizeBytes;
+    this.maxWindowEntries = Math.max(1, maxSizeEntries / 100);
+    this.accessOrder = accessOrder;
+    this.createAction = createAction;
+    this.onEvict = onEvict;
+    this.sketch = new FrequencySketch(maxSizeEntries);
+  }
+
+  private void evictValue(Value value) {
+    try {
+      if (onEvict != null) {
+        onEvict.evict(value);
+      }
+    } catch (SQLException e) {
+      /* ignore */
+    }
+  }
+
+  /**
+   * Returns an entry from the cache.
+   *
+   * @param key cache key
+   * @return entry from cache or null if cache does not contain given key.
+   */
+  @Override
+  public @Nullable Value get(Key key) {
+    Node<Key, Value> node = cache.get(key);
+    if (lock.tryLock()) {
+      try {
+        sketch.increment(key);
+        if (accessOrder && node != null && node.list != null) {
+          NodeList<Key, Value> list = node.list;
+          list.remove(node);
+          list.addLast(node);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+    return node == null ? null : node.value;
+  }
+
+  /**
+   * Borrows an entry from the cache.
+   *
+   * @param key cache key
+   * @return entry from cache or newly created entry if cache does not contain given key.
+   * @throws SQLException if entry creation fails
+   */
+  @Override
+  public Value borrow(Key key) throws SQLException {
+    Value value = borrowIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+    if (createAction == null) {
+      throw new UnsupportedOperationException("createAction == null, so can't create object");
+    }
+    // Created without the lock, so parsing a query does not block the other users of the cache.
+    // Two threads might create the same key, put keeps the last value that is returned.
+    return createAction.create(key);
+  }
+
+  /**
+   * Borrows an entry from the cache if the cache contains it, without creating it.
+   *
+   * @param key cache key
+   * @return entry from cache or null if cache does not contain given key
+   */
+  public @Nullable Value borrowIfPresent(Key key) {
+    try (ResourceLock ignore = lock.obtain()) {
+      sketch.increment(key);
+      Node<Key, Value> node = cache.remove(key);
+      if (node == null) {
+        return null;
+      }
+      unlink(node);
+      return node.value;
+    }
+  }
+
+  /**
+   * Returns given value to the cache.
+   *
+   * @param key key
+   * @param value value
+   */
+  @Override
+  public void put(Key key, Value value) {
+    try (ResourceLock ignore = lock.obtain()) {
+      long valueSize = value.getSize();
+      if (maxSizeBytes == 0 || maxSizeEntries == 0 || valueSize * 2 > maxSizeBytes) {
+        // Just destroy the value if cache is disabled or if entry would consume more than a half of
+        // the cache
+        evictValue(value);
+        return;
+      }
+      Node<Key, Value> node = new Node<Key, Value>(key, value, valueSize);
+      Node<Key, Value> prev = cache.put(key, node);
+      if (prev != null) {
+        // This should be a rare case
+        unlink(prev);
+        if (prev.value != value) {
+          evictValue(prev.value);
+        }
+      }
+      window.addLast(node);
+      currentSize += valueSize;
+      evictEntries();
+    }
+  }
+
+  /**
+   * Puts all the values from the given map into the cache.
+   *
+   * @param m The map containing entries to put into the cache
+   */
+  @Override
+  public void putAll(Map<Key, Value> m) {
+    try (ResourceLock ignore = lock.obtain()) {
+      for (Map.Entry<Key, Value> entry : m.entrySet()) {
+        this.put(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  private boolean isOverLimit() {
+    return window.size + main.size > maxSizeEntries || currentSize > maxSizeBytes;
+  }
+
+  private void evictEntries() {
+    // Entries that fall out of the window move to the main space if there is room. Otherwise they
+    // compete with the least recently used entry of the main space, the more frequent one stays.
+    Node<Key, Value> candidate;
+    while (window.size > maxWindowEntries && (candidate = window.head) != null) {
+      if (!isOverLimit()) {
+        window.remove(candidate);
+        main.addLast(candidate);
+        continue;
+      }
+      Node<Key, Value> victim = main.head;
+      if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+        evict(victim);
+      } else {
+        evict(candidate);
+      }
+    }
+    // Still over the byte limit: evict the less frequent of the least recently used entries
+    while (isOverLimit()) {
+      candidate = window.head;
+      Node<Key, Value> victim = main.head;
+      if (candidate == null && victim == null) {
+        break;
+      }
+      if (candidate == null
+          || victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+        evict(victim);
+      } else {
+        evict(candidate);
+      }
+    }
+  }
+
+  private void evict(Node<Key, Value> node) {
+    cache.remove(node.key, node);
+    unlink(node);
+    evictValue(node.value);
+  }
+
+  private void unlink(Node<Key, Value> node) {
+    NodeList<Key, Value> list = node.list;
+    if (list != null) {
+      list.remove(node);
+      long valueSize = node.size;
+      if (valueSize > 0) {
+        // just in case
+        currentSize -= valueSize;
+      }
+    }
+  }
+
+  private static final class Node<Key, Value> {
+    final Key key;
+    final Value value;
+    final long size;
+    @Nullable NodeList<Key, Value> list;
+    @Nullable Node<Key, Value> prev;
+    @Nullable Node<Key, Value> next;
+
+    Node(Key key, Value value, long size) {
+      this.key = key;
+      this.value = value;
+      this.size = size;
+    }
+  }
+
+  /**
+   * Doubly linked list of nodes, from the least to the most recently used one.
+   */
+  private static final class NodeList<Key, Value> {
+    @Nullable Node<Key, Value> head;
+    @Nullable Node<Key, Value> tail;
+    int size;
+
+    void addLast(Node<Key, Value> node) {
+      node.list = this;
+      node.prev = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+      size++;
+    }
+
+    void remove(Node<Key, Value> node) {
+      Node<Key, Value> prev = node.prev;
+      Node<Key, Value> next = node.next;
+      if (prev == null) {
+        head = next;
+      } else {
+        prev.next = next;
+      }
+      if (next == null) {
+        tail = prev;
+      } else {
+        next.prev = prev;
+      }
+      node.list = null;
+      node.prev = null;
+      node.next = null;
+      size--;
+    }
+  }
+}
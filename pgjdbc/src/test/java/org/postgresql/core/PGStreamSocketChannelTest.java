@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.postgresql.util.HostSpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.net.SocketFactory;
+
+/**
+ * Exercises the {@link SocketChannelStreams} transport of {@link PGStream} against a local echo
+ * server.
+ */
+public class PGStreamSocketChannelTest {
+  private ServerSocket server;
+  private ExecutorService executor;
+  private PGStream stream;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new ServerSocket(0);
+    executor = Executors.newFixedThreadPool(2);
+    executor.submit(() -> {
+      try (Socket socket = server.accept()) {
+        InputStream in = socket.getInputStream();
+        OutputStream out = socket.getOutputStream();
+        byte[] buf = new byte[4096];
+        int read;
+        while ((read = in.read(buf)) > 0) {
+          out.write(buf, 0, read);
+        }
+      }
+      return null;
+    });
+    stream = new PGStream(SocketFactory.getDefault(),
+        new HostSpec("localhost", server.getLocalPort()), 5000, true);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    stream.close();
+    server.close();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void usesChannel() {
+    assertTrue(stream.isSocketChannel());
+  }
+
+  @Test
+  public void roundTripLargerThanOutputChain() throws Exception {
+    // larger than the buffers the output stream keeps before writing without a flush
+    final byte[] data = new byte[300000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    Future<?> writer = executor.submit(() -> {
+      stream.sendInteger4(data.length);
+      stream.send(data);
+      stream.sendChar('Z');
+      stream.flush();
+      return null;
+    });
+
+    assertEquals(data.length, stream.receiveInteger4());
+    assertArrayEquals(data, stream.receive(data.length));
+    assertEquals('Z', stream.receiveChar());
+    writer.get();
+  }
+
+  @Test
+  public void readHonoursNetworkTimeout() throws Exception {
+    stream.setNetworkTimeout(100);
+    try {
+      stream.receiveChar();
+      fail("SocketTimeoutException expected");
+    } catch (SocketTimeoutException expected) {
+      // expected
+    }
+    assertFalse(stream.hasMessagePending());
+
+    stream.setNetworkTimeout(0);
+    stream.sendInteger2(42);
+    stream.flush();
+    assertEquals(42, stream.receiveInteger2());
+  }
+
+  @Test
+  public void detachSendsPendingOutput() throws Exception {
+    stream.sendInteger4(42);
+    stream.detachSocketChannel();
+    assertFalse(stream.isSocketChannel());
+    assertTrue("The channel is blocking again, as SSL needs it",
+        stream.getSocket().getChannel().isBlocking());
+
+    assertEquals(42, stream.receiveInteger4());
+    stream.sendInteger2(7);
+    stream.flush();
+    assertEquals(7, stream.receiveInteger2());
+  }
+
+  @Test
+  public void countsBytesOnlyWhenEnabled() throws Exception {
+    stream.sendInteger4(42);
+    stream.flush();
+    assertEquals(42, stream.receiveInteger4());
+    assertEquals(0, stream.getBytesSent());
+    assertEquals(0, stream.getBytesReceived());
+
+    stream.setCountBytes(true);
+    stream.sendInteger4(42);
+    stream.flush();
+    assertEquals(42, stream.receiveInteger4());
+    assertEquals(4, stream.getBytesSent());
+    assertEquals(4, stream.getBytesReceived());
+  }
+
+  @Test
+  public void closeClosesSocket() throws IOException {
+    stream.close();
+    assertTrue(stream.isClosed());
+  }
+}
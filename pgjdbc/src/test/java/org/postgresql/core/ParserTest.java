@@ -284,4 +284,65 @@ public class ParserTest {
     Assert.assertFalse("No returning keyword should be present", command.isReturningKeywordPresent());
     Assert.assertEquals(SqlCommandType.ALTER, command.getType());
   }
+
+  @Test
+  public void insertOfParametersToCopy() {
+    assertEquals("COPY t (a, b) FROM STDIN",
+        Parser.toCopyFromStdin("INSERT INTO t (a, b) VALUES ($1, $2)", 2));
+    assertEquals("COPY s.\"T \"\"x\"\"\" (\"a\",b) FROM STDIN",
+        Parser.toCopyFromStdin("insert into s.\"T \"\"x\"\"\"(\"a\",b) values($1,$2);", 2));
+    assertEquals("COPY t (a) FROM STDIN",
+        Parser.toCopyFromStdin(" INSERT\nINTO t (a) VALUES ($1) ", 1));
+  }
+
+  @Test
+  public void insertWithMoreThanParametersIsNotCopy() {
+    Assert.assertNull(Parser.toCopyFromStdin("INSERT INTO t (a) VALUES ($1) RETURNING a", 1));
+    Assert.assertNull(
+        Parser.toCopyFromStdin("INSERT INTO t (a) VALUES ($1) ON CONFLICT DO NOTHING", 1));
+    Assert.assertNull(Parser.toCopyFromStdin("INSERT INTO t (a) VALUES ($1::int)", 1));
+    Assert.assertNull(Parser.toCopyFromStdin("INSERT INTO t (a, b) VALUES ($2, $1)", 2));
+    Assert.assertNull(Parser.toCopyFromStdin("INSERT INTO t (a, b) VALUES ($1)", 1));
+    Assert.assertNull(Parser.toCopyFromStdin("INSERT INTO t (a) VALUES ($1), ($2)", 2));
+    Assert.assertNull(Parser.toCopyFromStdin("INSERT INTO t AS x (a) VALUES ($1)", 1));
+    // Without a column list, the columns without a value get their default
+    Assert.assertNull(Parser.toCopyFromStdin("INSERT INTO t VALUES ($1)", 1));
+    Assert.assertNull(Parser.toCopyFromStdin("INSERT INTO t (a) SELECT $1", 1));
+    Assert.assertNull(Parser.toCopyFromStdin("UPDATE t SET a = $1", 1));
+  }
+
+  @Test
+  public void deleteOfParametersToUnnest() {
+    assertEquals("DELETE FROM t USING unnest(?) WITH ORDINALITY AS pgjdbc_batch(p1, ord)"
+            + " WHERE id = pgjdbc_batch.p1 RETURNING pgjdbc_batch.ord",
+        Parser.toUnnestBatch("DELETE FROM t WHERE id = $1", 1, true));
+    assertEquals("DELETE FROM t USING unnest(?) WITH ORDINALITY AS pgjdbc_batch(p1, ord)"
+            + " WHERE a = '$1' AND id IN (SELECT x FROM u WHERE y = pgjdbc_batch.p1)"
+            + " RETURNING pgjdbc_batch.ord",
+        Parser.toUnnestBatch(
+            "DELETE FROM t WHERE a = '$1' AND id IN (SELECT x FROM u WHERE y = $1)", 1, true));
+  }
+
+  @Test
+  public void insertOfParametersToUnnest() {
+    assertEquals("INSERT INTO t (a,b) SELECT pgjdbc_batch.p1, lower(pgjdbc_batch.p2) FROM"
+            + " unnest(?, ?) AS pgjdbc_batch(p1, p2) ON CONFLICT (a) DO NOTHING",
+        Parser.toUnnestBatch(
+            "INSERT INTO t (a,b) VALUES ($1, lower($2)) ON CONFLICT (a) DO NOTHING", 2, true));
+  }
+
+  @Test
+  public void unsupportedStatementsAreNotUnnested() {
+    Assert.assertNull(Parser.toUnnestBatch("UPDATE t SET a = $1 WHERE id = $2", 2, true));
+    Assert.assertNull(Parser.toUnnestBatch("UPDATE t SET a = $1 FROM u WHERE id = $2", 2, true));
+    Assert.assertNull(Parser.toUnnestBatch("DELETE FROM t USING u WHERE id = $1", 1, true));
+    Assert.assertNull(Parser.toUnnestBatch("DELETE FROM t WHERE id = $1 RETURNING *", 1, true));
+    Assert.assertNull(Parser.toUnnestBatch("DELETE FROM t", 0, true));
+    Assert.assertNull(Parser.toUnnestBatch("INSERT INTO t VALUES ($1), ($2)", 2, true));
+    Assert.assertNull(Parser.toUnnestBatch("INSERT INTO t SELECT $1", 1, true));
+    Assert.assertNull(Parser.toUnnestBatch(
+        "INSERT INTO t (a, b) VALUES ($1, $2) ON CONFLICT (a) DO UPDATE SET b = excluded.b", 2,
+        true));
+    Assert.assertNull(Parser.toUnnestBatch("SELECT $1", 1, true));
+  }
 }
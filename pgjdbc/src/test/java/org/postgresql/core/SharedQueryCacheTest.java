@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.postgresql.PGProperty;
+import org.postgresql.test.TestUtil;
+
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.Properties;
+
+public class SharedQueryCacheTest {
+
+  private static SharedQueryCache.Key key(Object queryKey, boolean standardConformingStrings) {
+    return new SharedQueryCache.Key(queryKey, standardConformingStrings, true, false, false,
+        null, 0);
+  }
+
+  private static SharedQueryCache.ParsedQuery parsed(String sql) {
+    return new SharedQueryCache.ParsedQuery(
+        Collections.singletonList(new NativeQuery(sql, SqlCommand.BLANK)), false);
+  }
+
+  @Test
+  public void keyIncludesParseSettings() {
+    assertEquals(key("select 1", true), key("select 1", true));
+    assertEquals(key("select 1", true).hashCode(), key("select 1", true).hashCode());
+    assertNotEquals(key("select 1", true), key("select 1", false));
+    assertNotEquals(key("select 1", true), key(new CallableQueryKey("select 1"), true));
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() {
+    // One entry per segment
+    SharedQueryCache cache = new SharedQueryCache(16, 1024 * 1024);
+    SharedQueryCache.Key first = key("select 1", true);
+    cache.put(first, parsed("select 1"));
+    assertNotNull(cache.get(first));
+    for (int i = 0; i < 1000; i++) {
+      cache.put(key("select " + i + " + 1", true), parsed("select " + i + " + 1"));
+    }
+    assertNull(cache.get(first));
+  }
+
+  @Test
+  public void largeEntriesAreNotCached() {
+    SharedQueryCache cache = new SharedQueryCache(16, 16 * 1024);
+    StringBuilder sb = new StringBuilder("select ");
+    for (int i = 0; i < 1000; i++) {
+      sb.append(i).append(", ");
+    }
+    String sql = sb.append("1").toString();
+    cache.put(key(sql, true), parsed(sql));
+    assertNull(cache.get(key(sql, true)));
+  }
+
+  @Test
+  public void connectionsShareParsedQueries() throws Exception {
+    Properties props = new Properties();
+    PGProperty.SHARED_QUERY_CACHE.set(props, true);
+    String sql = "select ?::int4 + 1 /* SharedQueryCacheTest */";
+    try (Connection con1 = TestUtil.openDB(props);
+         Connection con2 = TestUtil.openDB(props)) {
+      QueryExecutor executor1 = ((BaseConnection) con1).getQueryExecutor();
+      QueryExecutor executor2 = ((BaseConnection) con2).getQueryExecutor();
+      CachedQuery query1 = executor1.borrowQuery(sql);
+      CachedQuery query2 = executor2.borrowQuery(sql);
+      SharedQueryCache.ParsedQuery parsed = SharedQueryCache.INSTANCE.get(
+          new SharedQueryCache.Key(sql, executor1.getStandardConformingStrings(), true,
+              executor1.isReWriteBatchedInsertsEnabled(), executor1.getQuoteReturningIdentifiers(),
+              null, 0));
+      assertNotNull(parsed);
+      assertSame(parsed, SharedQueryCache.INSTANCE.get(
+          new SharedQueryCache.Key(sql, executor2.getStandardConformingStrings(), true,
+              executor2.isReWriteBatchedInsertsEnabled(), executor2.getQuoteReturningIdentifiers(),
+              null, 0)));
+      executor1.releaseQuery(query1);
+      executor2.releaseQuery(query2);
+
+      for (Connection con : new Connection[]{con1, con2}) {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+          ps.setInt(1, 41);
+          try (ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            assertEquals(42, rs.getInt(1));
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.postgresql.util.ByteConverter;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class TupleTest {
+
+  /**
+   * Builds the DataRow body (after the field count) for the given fields.
+   */
+  private static Tuple slabTuple(byte[]... fields) {
+    int size = 0;
+    for (byte[] field : fields) {
+      size += 4 + (field == null ? 0 : field.length);
+    }
+    byte[] slab = new byte[size];
+    int[] offsets = new int[fields.length];
+    int pos = 0;
+    for (int i = 0; i < fields.length; i++) {
+      byte[] field = fields[i];
+      ByteConverter.int4(slab, pos, field == null ? -1 : field.length);
+      pos += 4;
+      if (field == null) {
+        offsets[i] = -1;
+      } else {
+        offsets[i] = pos;
+        System.arraycopy(field, 0, slab, pos, field.length);
+        pos += field.length;
+      }
+    }
+    return new Tuple(slab, offsets);
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  @Test
+  public void slabFieldsAreSlices() {
+    Tuple tuple = slabTuple(bytes("42"), null, bytes(""), bytes("hello"));
+
+    assertEquals(4, tuple.fieldCount());
+    assertEquals(7, tuple.length());
+
+    assertFalse(tuple.isNull(0));
+    assertTrue(tuple.isNull(1));
+    assertFalse(tuple.isNull(2));
+
+    assertNull(tuple.getBuffer(1));
+    assertEquals(0, tuple.getLength(1));
+    assertEquals(0, tuple.getLength(2));
+
+    byte[] buffer = tuple.getBuffer(3);
+    assertSame("all fields share the same buffer", buffer, tuple.getBuffer(0));
+    assertEquals("hello",
+        new String(buffer, tuple.getOffset(3), tuple.getLength(3), StandardCharsets.US_ASCII));
+  }
+
+  @Test
+  public void slabGetMaterializesOnce() {
+    Tuple tuple = slabTuple(bytes("abc"), null);
+
+    byte[] first = tuple.get(0);
+    assertArrayEquals(bytes("abc"), first);
+    assertSame("materialized value should be cached", first, tuple.get(0));
+    assertNull(tuple.get(1));
+  }
+
+  @Test
+  public void arrayTupleExposesSlices() {
+    byte[] value = bytes("xyz");
+    Tuple tuple = new Tuple(new byte[][]{value, null});
+
+    assertSame(value, tuple.getBuffer(0));
+    assertEquals(0, tuple.getOffset(0));
+    assertEquals(3, tuple.getLength(0));
+    assertTrue(tuple.isNull(1));
+  }
+
+  @Test
+  public void slabUpdateableCopy() {
+    Tuple tuple = slabTuple(bytes("a"), bytes("bc"));
+
+    Tuple copy = tuple.updateableCopy();
+    copy.set(0, bytes("z"));
+
+    assertArrayEquals(bytes("z"), copy.get(0));
+    assertArrayEquals(bytes("bc"), copy.get(1));
+    assertArrayEquals("original tuple must not change", bytes("a"), tuple.get(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void slabTupleIsReadOnly() {
+    slabTuple(bytes("a")).set(0, bytes("b"));
+  }
+
+  @Test
+  public void slabReadOnlyCopy() {
+    Tuple tuple = slabTuple(bytes("a"), null);
+    Tuple copy = tuple.readOnlyCopy();
+
+    assertTrue(Arrays.equals(tuple.get(0), copy.get(0)));
+    assertTrue(copy.isNull(1));
+  }
+}
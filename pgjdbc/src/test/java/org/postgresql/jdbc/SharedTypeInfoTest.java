@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.postgresql.PGProperty;
+import org.postgresql.core.BaseConnection;
+import org.postgresql.core.TypeInfo;
+import org.postgresql.test.TestUtil;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Properties;
+
+public class SharedTypeInfoTest {
+  private Connection con1;
+  private Connection con2;
+
+  @Before
+  public void setUp() throws Exception {
+    Properties props = new Properties();
+    PGProperty.SHARED_TYPE_INFO_CACHE.set(props, true);
+    con1 = TestUtil.openDB(props);
+    con2 = TestUtil.openDB(props);
+    TestUtil.createEnumType(con1, "shared_type_info_mood", "'sad', 'happy'");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    TestUtil.dropType(con1, "shared_type_info_mood");
+    TestUtil.closeDB(con1);
+    TestUtil.closeDB(con2);
+  }
+
+  private static int oid(Connection con, String sql) throws SQLException {
+    try (Statement stmt = con.createStatement();
+         ResultSet rs = stmt.executeQuery(sql)) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+
+  @Test
+  public void connectionsShareTypeInfo() throws SQLException {
+    int oid = oid(con1, "select 'shared_type_info_mood'::regtype::oid");
+    int arrayOid = oid(con1, "select '_shared_type_info_mood'::regtype::oid");
+    SharedTypeInfo shared = SharedTypeInfo.forServer(((BaseConnection) con1).getQueryExecutor());
+    assertSame(shared, SharedTypeInfo.forServer(((BaseConnection) con2).getQueryExecutor()));
+
+    TypeInfo typeInfo1 = ((BaseConnection) con1).getTypeInfo();
+    assertEquals(Types.VARCHAR, typeInfo1.getSQLType(oid));
+    assertEquals(oid, typeInfo1.getPGArrayElement(arrayOid));
+    assertEquals(',', typeInfo1.getArrayDelimiter(arrayOid));
+    assertEquals(Integer.valueOf(Types.VARCHAR), shared.getSQLType(oid));
+    assertEquals(Integer.valueOf(oid), shared.getArrayElement(arrayOid));
+    assertEquals(Character.valueOf(','), shared.getArrayDelimiter(arrayOid));
+
+    TypeInfo typeInfo2 = ((BaseConnection) con2).getTypeInfo();
+    assertEquals(Types.VARCHAR, typeInfo2.getSQLType(oid));
+    assertEquals(oid, typeInfo2.getPGArrayElement(arrayOid));
+    assertEquals(',', typeInfo2.getArrayDelimiter(arrayOid));
+    // Names depend on the search_path, so they are still resolved per connection
+    assertEquals("shared_type_info_mood", typeInfo2.getPGType(oid));
+  }
+
+  @Test
+  public void connectionsShareQualifiedNames() throws SQLException {
+    int oid = oid(con1, "select 'shared_type_info_mood'::regtype::oid");
+    String schema;
+    try (Statement stmt = con1.createStatement();
+         ResultSet rs = stmt.executeQuery("select current_schema()")) {
+      rs.next();
+      schema = rs.getString(1);
+    }
+    String name = schema + ".shared_type_info_mood";
+    SharedTypeInfo shared = SharedTypeInfo.forServer(((BaseConnection) con1).getQueryExecutor());
+
+    assertEquals(oid, ((BaseConnection) con1).getTypeInfo().getPGType(name));
+    assertEquals(Integer.valueOf(oid), shared.getOid(name));
+    assertEquals(oid, ((BaseConnection) con2).getTypeInfo().getPGType(name));
+  }
+
+  @Test
+  public void unknownOidInvalidates() throws SQLException {
+    int oid = oid(con1, "select 'shared_type_info_mood'::regtype::oid");
+    SharedTypeInfo shared = SharedTypeInfo.forServer(((BaseConnection) con1).getQueryExecutor());
+    ((BaseConnection) con1).getTypeInfo().getSQLType(oid);
+    assertNotNull(shared.getSQLType(oid));
+
+    // No type has this oid
+    int unknownOid = oid(con1, "select max(oid)::int4 + 1000000 from pg_catalog.pg_type");
+    assertEquals(Types.OTHER, ((BaseConnection) con2).getTypeInfo().getSQLType(unknownOid));
+    assertNull(shared.getSQLType(oid));
+    assertNull(shared.getSQLType(unknownOid));
+  }
+}
@@ -423,6 +423,52 @@ public class LogicalReplicationStatusTest {
     );
   }
 
+  @Test(timeout = 10000)
+  public void testStatusSentInBackgroundWithoutRead() throws Exception {
+    PGConnection pgConnection = (PGConnection) replicationConnection;
+
+    final int intervalTime = 100;
+    final TimeUnit timeFormat = TimeUnit.MILLISECONDS;
+
+    LogSequenceNumber startLSN = getCurrentLSN();
+
+    Statement st = sqlConnection.createStatement();
+    st.execute("insert into test_logic_table(name) values('previous changes')");
+    st.close();
+
+    PGReplicationStream stream =
+        pgConnection
+            .getReplicationAPI()
+            .replicationStream()
+            .logical()
+            .withSlotName(SLOT_NAME)
+            .withStartPosition(startLSN)
+            .withStatusInterval(intervalTime, timeFormat)
+            .withBackgroundStatusUpdate(true)
+            .start();
+
+    receiveMessageWithoutBlock(stream, 3);
+
+    LogSequenceNumber waitLSN = stream.getLastReceiveLSN();
+
+    stream.setAppliedLSN(waitLSN);
+    stream.setFlushedLSN(waitLSN);
+
+    // No read from now on, the status has to be sent by the background thread
+    LogSequenceNumber flushLSN = getFlushLocationOnView();
+    while (!waitLSN.equals(flushLSN)) {
+      timeFormat.sleep(intervalTime);
+      flushLSN = getFlushLocationOnView();
+    }
+
+    assertThat("With background status updates, the status set on the stream is sent to "
+            + "the backend even when the stream is not read",
+        flushLSN, equalTo(waitLSN)
+    );
+
+    stream.close();
+  }
+
   private LogSequenceNumber getSentLocationOnView() throws Exception {
     return getLSNFromView((((BaseConnection) sqlConnection).haveMinimumServerVersion(ServerVersion.v10)
         ? "sent_lsn" : "sent_location"));
@@ -200,6 +200,105 @@ public class LogicalReplicationTest {
     );
   }
 
+  @Test(timeout = 1000)
+  public void testReceiveChangesWithBufferReuse() throws Exception {
+    PGConnection pgConnection = (PGConnection) replConnection;
+
+    LogSequenceNumber lsn = getCurrentLSN();
+
+    Statement st = sqlConnection.createStatement();
+    st.execute("insert into test_logic_table(name) values('first value')");
+    st.execute("insert into test_logic_table(name) values('second value')");
+    st.close();
+
+    PGReplicationStream stream =
+        pgConnection
+            .getReplicationAPI()
+            .replicationStream()
+            .logical()
+            .withSlotName(SLOT_NAME)
+            .withStartPosition(lsn)
+            .withSlotOption("include-xids", false)
+            .withBufferReuse(true)
+            .start();
+
+    List<String> result = new ArrayList<String>();
+    byte[] first = null;
+    for (int index = 0; index < 6; index++) {
+      ByteBuffer buffer = stream.read();
+      if (first == null) {
+        first = buffer.array();
+      }
+      assertThat("Every read returns a slice of the same array when it is reused",
+          buffer.array(), CoreMatchers.sameInstance(first));
+      assertThat("The record starts at the position 0 of the slice",
+          buffer.position(), equalTo(0));
+      result.add(new String(buffer.array(), buffer.arrayOffset(), buffer.remaining()));
+      assertThat(stream.getLastReceiveLSNAsLong(), equalTo(stream.getLastReceiveLSN().asLong()));
+    }
+
+    String wait = group(Arrays.asList(
+        "BEGIN",
+        "table public.test_logic_table: INSERT: pk[integer]:1 name[character varying]:'first value'",
+        "COMMIT",
+        "BEGIN",
+        "table public.test_logic_table: INSERT: pk[integer]:2 name[character varying]:'second value'",
+        "COMMIT"
+    ));
+
+    assertThat("Reusing the receive buffer should not change the received records",
+        group(result), equalTo(wait)
+    );
+
+    stream.setFlushedLSN(stream.getLastReceiveLSNAsLong());
+    assertThat(stream.getLastFlushedLSN(), equalTo(stream.getLastReceiveLSN()));
+  }
+
+  @Test(timeout = 10000)
+  public void testReceiveChangesInBatches() throws Exception {
+    PGConnection pgConnection = (PGConnection) replConnection;
+
+    LogSequenceNumber lsn = getCurrentLSN();
+
+    Statement st = sqlConnection.createStatement();
+    st.execute("insert into test_logic_table(name) values('first value')");
+    st.execute("insert into test_logic_table(name) values('second value')");
+    st.close();
+
+    PGReplicationStream stream =
+        pgConnection
+            .getReplicationAPI()
+            .replicationStream()
+            .logical()
+            .withSlotName(SLOT_NAME)
+            .withStartPosition(lsn)
+            .withSlotOption("include-xids", false)
+            .withBufferReuse(true)
+            .start();
+
+    final List<String> result = new ArrayList<String>();
+    while (result.size() < 6) {
+      int count = stream.readBatch(4, 5000, buffer -> result.add(
+          new String(buffer.array(), buffer.arrayOffset() + buffer.position(),
+              buffer.remaining())));
+      assertThat("A batch is never larger than requested", count <= 4, equalTo(true));
+    }
+
+    String wait = group(Arrays.asList(
+        "BEGIN",
+        "table public.test_logic_table: INSERT: pk[integer]:1 name[character varying]:'first value'",
+        "COMMIT",
+        "BEGIN",
+        "table public.test_logic_table: INSERT: pk[integer]:2 name[character varying]:'second value'",
+        "COMMIT"
+    ));
+
+    assertThat("Reading in batches should receive the records in order",
+        group(result), equalTo(wait)
+    );
+    assertThat("Nothing else was received", stream.readBatch(10, 0, buffer -> fail()), equalTo(0));
+  }
+
   @Test(timeout = 1000)
   public void testStartFromCurrentServerLSNWithoutSpecifyLSNExplicitly() throws Exception {
     PGConnection pgConnection = (PGConnection) replConnection;
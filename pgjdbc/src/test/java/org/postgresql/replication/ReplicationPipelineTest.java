@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.postgresql.replication.pgoutput.PgOutputPartitioner;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ReplicationPipelineTest {
+  /**
+   * Serves the messages added by the test, with their LSN.
+   */
+  private static class QueueStream implements PGReplicationStream {
+    private final ConcurrentLinkedQueue<Object[]> messages = new ConcurrentLinkedQueue<>();
+    private volatile long received;
+    private volatile long flushed;
+    private volatile long applied;
+
+    void add(long lsn, ByteBuffer message) {
+      messages.add(new Object[]{lsn, message});
+    }
+
+    @Override
+    public @Nullable ByteBuffer read() throws SQLException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public @Nullable ByteBuffer readPending() {
+      Object[] message = messages.poll();
+      if (message == null) {
+        return null;
+      }
+      received = (Long) message[0];
+      return (ByteBuffer) message[1];
+    }
+
+    @Override
+    public LogSequenceNumber getLastReceiveLSN() {
+      return LogSequenceNumber.valueOf(received);
+    }
+
+    @Override
+    public LogSequenceNumber getLastFlushedLSN() {
+      return LogSequenceNumber.valueOf(flushed);
+    }
+
+    @Override
+    public LogSequenceNumber getLastAppliedLSN() {
+      return LogSequenceNumber.valueOf(applied);
+    }
+
+    @Override
+    public void setFlushedLSN(LogSequenceNumber flushed) {
+      this.flushed = flushed.asLong();
+    }
+
+    @Override
+    public void setAppliedLSN(LogSequenceNumber applied) {
+      this.applied = applied.asLong();
+    }
+
+    @Override
+    public void forceUpdateStatus() {
+    }
+
+    @Override
+    public boolean isClosed() {
+      return false;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static ByteBuffer message(char type) {
+    return ByteBuffer.wrap(new byte[]{(byte) type});
+  }
+
+  private static ByteBuffer insert(int relation) {
+    ByteBuffer message = ByteBuffer.allocate(5);
+    message.put((byte) 'I').putInt(relation);
+    message.flip();
+    return message;
+  }
+
+  private static void awaitAcknowledged(ReplicationPipeline pipeline, long lsn)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (pipeline.getAcknowledgedLsn() < lsn && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(5);
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void acknowledgesOnlyTransactionsProcessedByAllWorkers() throws Exception {
+    final QueueStream stream = new QueueStream();
+    final CountDownLatch slowWorkerBlocked = new CountDownLatch(1);
+    final CountDownLatch releaseSlowWorker = new CountDownLatch(1);
+    final List<String> handled = Collections.synchronizedList(new ArrayList<String>());
+    ReplicationPipeline pipeline = new ReplicationPipeline(stream, new PgOutputPartitioner(), 2,
+        worker -> (message, lsn) -> {
+          char type = (char) message.get(0);
+          if (type == 'I') {
+            int relation = message.getInt(1);
+            if (relation == 1 && lsn == 20) {
+              slowWorkerBlocked.countDown();
+              releaseSlowWorker.await();
+            }
+            handled.add(worker + ":" + relation + "@" + lsn);
+          }
+        });
+    pipeline.start();
+
+    stream.add(10, message('B'));
+    // Relation 1 goes to worker 1, relation 2 to worker 0
+    stream.add(20, insert(1));
+    stream.add(30, insert(2));
+    stream.add(40, message('C'));
+    stream.add(50, message('B'));
+    stream.add(60, insert(2));
+    stream.add(70, message('C'));
+
+    assertTrue(slowWorkerBlocked.await(5, TimeUnit.SECONDS));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!handled.contains("0:2@60") && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(5);
+    }
+    assertTrue("The other worker is not held back", handled.contains("0:2@60"));
+    assertEquals("No transaction is acknowledged before all its changes are processed",
+        0, pipeline.getAcknowledgedLsn());
+    assertEquals(0, stream.flushed);
+
+    releaseSlowWorker.countDown();
+    awaitAcknowledged(pipeline, 70);
+    pipeline.close();
+
+    assertEquals(70, pipeline.getAcknowledgedLsn());
+    assertEquals(70, stream.flushed);
+    assertEquals(70, stream.applied);
+    assertTrue(handled.contains("1:1@20"));
+  }
+
+  @Test(timeout = 10000)
+  public void failedMessageStopsAcknowledgement() throws Exception {
+    QueueStream stream = new QueueStream();
+    ReplicationPipeline pipeline = new ReplicationPipeline(stream, new PgOutputPartitioner(), 2,
+        worker -> (message, lsn) -> {
+          if (lsn == 60) {
+            throw new IllegalStateException("Cannot apply");
+          }
+        });
+    pipeline.start();
+
+    stream.add(10, message('B'));
+    stream.add(20, insert(1));
+    stream.add(30, message('C'));
+    awaitAcknowledged(pipeline, 30);
+
+    stream.add(50, message('B'));
+    stream.add(60, insert(2));
+    stream.add(70, message('C'));
+    stream.add(80, message('B'));
+    stream.add(90, insert(1));
+    stream.add(100, message('C'));
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (pipeline.isRunning() && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(5);
+    }
+    try {
+      pipeline.close();
+      fail("The failure of the handler is reported");
+    } catch (SQLException expected) {
+      assertTrue(expected.getCause() instanceof IllegalStateException);
+    }
+    assertEquals("The transaction of the failed change is not acknowledged",
+        30, pipeline.getAcknowledgedLsn());
+    assertEquals(30, stream.flushed);
+  }
+}
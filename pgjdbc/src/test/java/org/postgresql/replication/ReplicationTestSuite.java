@@ -6,6 +6,7 @@
 package org.postgresql.replication;
 
 import org.postgresql.core.ServerVersion;
+import org.postgresql.replication.pgoutput.PgOutputDecoderTest;
 import org.postgresql.test.TestUtil;
 
 import org.junit.AssumptionViolatedException;
@@ -24,8 +25,10 @@ import java.sql.Statement;
     LogicalReplicationStatusTest.class,
     LogicalReplicationTest.class,
     LogSequenceNumberTest.class,
+    PgOutputDecoderTest.class,
     PhysicalReplicationTest.class,
     ReplicationConnectionTest.class,
+    ReplicationPipelineTest.class,
     ReplicationSlotTest.class,
 })
 public class ReplicationTestSuite {
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.replication.pgoutput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.postgresql.core.Oid;
+import org.postgresql.jdbc.TimestampUtils;
+import org.postgresql.util.ByteConverter;
+import org.postgresql.util.PSQLException;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.TimeZone;
+
+public class PgOutputDecoderTest {
+  private static final int TABLE = 16384;
+
+  private final PgOutputDecoder decoder =
+      new PgOutputDecoder(new TimestampUtils(false, TimeZone::getDefault));
+
+  /**
+   * Writes a message in the format of the protocol.
+   */
+  private static class Message {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    Message(char type) {
+      out.write(type);
+    }
+
+    Message int8(long value) {
+      byte[] bytes = new byte[8];
+      ByteConverter.int8(bytes, 0, value);
+      out.write(bytes, 0, 8);
+      return this;
+    }
+
+    Message int4(int value) {
+      byte[] bytes = new byte[4];
+      ByteConverter.int4(bytes, 0, value);
+      out.write(bytes, 0, 4);
+      return this;
+    }
+
+    Message int2(int value) {
+      byte[] bytes = new byte[2];
+      ByteConverter.int2(bytes, 0, value);
+      out.write(bytes, 0, 2);
+      return this;
+    }
+
+    Message byte1(int value) {
+      out.write(value);
+      return this;
+    }
+
+    Message string(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.write(bytes, 0, bytes.length);
+      out.write(0);
+      return this;
+    }
+
+    Message text(String value) {
+      return value('t', value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    Message value(char kind, byte[] bytes) {
+      byte1(kind).int4(bytes.length);
+      out.write(bytes, 0, bytes.length);
+      return this;
+    }
+
+    ByteBuffer toBuffer() {
+      return ByteBuffer.wrap(out.toByteArray());
+    }
+  }
+
+  private static Message relation(int oid) {
+    return new Message('R').int4(oid).string("public").string("events").byte1('d').int2(3)
+        .byte1(1).string("id").int4(Oid.INT8).int4(-1)
+        .byte1(0).string("name").int4(Oid.TEXT).int4(-1)
+        .byte1(0).string("created").int4(Oid.TIMESTAMPTZ).int4(-1);
+  }
+
+  private static long micros(Instant instant) {
+    return (instant.getEpochSecond() - 946684800L) * 1000000L + instant.getNano() / 1000;
+  }
+
+  @Test
+  public void decodesTransactionWithTextValues() throws Exception {
+    RelationMessage relationMessage =
+        (RelationMessage) decoder.decode(relation(TABLE).toBuffer());
+    PgOutputRelation relation = relationMessage.getRelation();
+    assertEquals("public.events", relation.toString());
+    assertEquals(3, relation.getColumnCount());
+    assertTrue(relation.isKeyColumn(1));
+    assertFalse(relation.isKeyColumn(2));
+    assertEquals(2, relation.findColumn("name"));
+    assertSame(relation, decoder.getRelation(TABLE));
+
+    Instant commitTime = Instant.parse("2022-01-02T03:04:05.123456Z");
+    BeginMessage begin = (BeginMessage) decoder.decode(
+        new Message('B').int8(1000).int8(micros(commitTime)).int4(42).toBuffer());
+    assertEquals(1000, begin.getFinalLsn());
+    assertEquals(42, begin.getXid());
+    assertEquals(Timestamp.from(commitTime), PgOutputMessage.toTimestamp(begin.getCommitTime()));
+
+    ByteBuffer buffer = new Message('I').int4(TABLE).byte1('N').int2(3)
+        .text("-9223372036854775808").text("first").text("2022-01-02 03:04:05.123456+00")
+        .toBuffer();
+    RowMessage insert = (RowMessage) decoder.decode(buffer);
+    assertEquals(PgOutputMessageType.INSERT, insert.getType());
+    assertSame(relation, insert.getRelation());
+    assertNull(insert.getOldTuple());
+    PgOutputTuple tuple = insert.getNewTuple();
+    assertNotNull(tuple);
+    assertEquals(Long.MIN_VALUE, tuple.getLong(1));
+    assertEquals("first", tuple.getString(2));
+    assertEquals(Timestamp.from(commitTime), tuple.getTimestamp(3));
+    assertSame("The values are read from the received message", buffer.array(), tuple.getArray());
+    assertEquals(ByteBuffer.wrap("first".getBytes(StandardCharsets.UTF_8)), tuple.getValue(2));
+
+    RowMessage update = (RowMessage) decoder.decode(new Message('U').int4(TABLE)
+        .byte1('K').int2(3).text("1").byte1('n').byte1('n')
+        .byte1('N').int2(3).text("2").text("second").byte1('u')
+        .toBuffer());
+    PgOutputTuple oldTuple = update.getOldTuple();
+    assertNotNull(oldTuple);
+    assertTrue(update.isKeyOnly());
+    assertEquals(1, oldTuple.getInt(1));
+    assertTrue(oldTuple.isNull(2));
+    PgOutputTuple newTuple = update.getNewTuple();
+    assertNotNull(newTuple);
+    assertEquals(2, newTuple.getInt(1));
+    assertTrue(newTuple.isUnchangedToast(3));
+    assertNull(newTuple.getTimestamp(3));
+
+    RowMessage delete = (RowMessage) decoder.decode(new Message('D').int4(TABLE)
+        .byte1('O').int2(3).text("2").text("second").byte1('n')
+        .toBuffer());
+    assertEquals(PgOutputMessageType.DELETE, delete.getType());
+    assertNull(delete.getNewTuple());
+    assertFalse(delete.isKeyOnly());
+    assertEquals("second", delete.getOldTuple().getString(2));
+
+    CommitMessage commit = (CommitMessage) decoder.decode(
+        new Message('C').byte1(0).int8(1000).int8(1100).int8(micros(commitTime)).toBuffer());
+    assertEquals(PgOutputMessageType.COMMIT, commit.getType());
+    assertEquals(1000, commit.getCommitLsn());
+    assertEquals(1100, commit.getEndLsn());
+    assertEquals(0, commit.getXid());
+  }
+
+  @Test
+  public void decodesBinaryValues() throws Exception {
+    decoder.decode(new Message('R').int4(TABLE).string("public").string("typed").byte1('f')
+        .int2(6)
+        .byte1(1).string("id").int4(Oid.INT4).int4(-1)
+        .byte1(0).string("amount").int4(Oid.NUMERIC).int4(-1)
+        .byte1(0).string("ratio").int4(Oid.FLOAT8).int4(-1)
+        .byte1(0).string("active").int4(Oid.BOOL).int4(-1)
+        .byte1(0).string("created").int4(Oid.TIMESTAMPTZ).int4(-1)
+        .byte1(0).string("note").int4(Oid.VARCHAR).int4(-1)
+        .toBuffer());
+
+    Instant created = Instant.parse("2021-06-07T08:09:10.5Z");
+    byte[] id = new byte[4];
+    ByteConverter.int4(id, 0, 7);
+    byte[] ratio = new byte[8];
+    ByteConverter.float8(ratio, 0, 0.25);
+    byte[] createdBytes = new byte[8];
+    ByteConverter.int8(createdBytes, 0, micros(created));
+    RowMessage insert = (RowMessage) decoder.decode(new Message('I').int4(TABLE).byte1('N')
+        .int2(6)
+        .value('b', id)
+        .value('b', ByteConverter.numeric(new BigDecimal("1234.5678")))
+        .value('b', ratio)
+        .value('b', new byte[]{1})
+        .value('b', createdBytes)
+        .value('b', "note".getBytes(StandardCharsets.UTF_8))
+        .toBuffer());
+
+    PgOutputTuple tuple = insert.getNewTuple();
+    assertNotNull(tuple);
+    assertTrue(tuple.isBinary(1));
+    assertEquals(7, tuple.getInt(1));
+    assertEquals("7", tuple.getString(1));
+    assertEquals(new BigDecimal("1234.5678"), tuple.getBigDecimal(2));
+    assertEquals(0.25, tuple.getDouble(3), 0.0);
+    assertTrue(tuple.getBoolean(4));
+    assertEquals(Timestamp.from(created), tuple.getTimestamp(5));
+    assertEquals("note", tuple.getString(6));
+    try {
+      tuple.getLong(6);
+      fail("A binary varchar is not a long");
+    } catch (PSQLException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void decodesStreamedTransaction() throws Exception {
+    StreamMessage start = (StreamMessage) decoder.decode(
+        new Message('S').int4(77).byte1(1).toBuffer());
+    assertEquals(PgOutputMessageType.STREAM_START, start.getType());
+    assertEquals(77, start.getXid());
+    assertTrue(start.isFirstSegment());
+
+    // In a stream, the changes start with the transaction id
+    Message relation = new Message('R').int4(77).int4(TABLE).string("public").string("events")
+        .byte1('d').int2(1).byte1(1).string("id").int4(Oid.INT8).int4(-1);
+    RelationMessage relationMessage = (RelationMessage) decoder.decode(relation.toBuffer());
+    assertEquals(77, relationMessage.getXid());
+    RowMessage insert = (RowMessage) decoder.decode(
+        new Message('I').int4(77).int4(TABLE).byte1('N').int2(1).text("5").toBuffer());
+    assertEquals(77, insert.getXid());
+    assertEquals(5, insert.getNewTuple().getLong(1));
+
+    StreamMessage stop = (StreamMessage) decoder.decode(new Message('E').toBuffer());
+    assertEquals(PgOutputMessageType.STREAM_STOP, stop.getType());
+    assertEquals(77, stop.getXid());
+
+    // Out of the stream, the changes have no transaction id
+    RowMessage other = (RowMessage) decoder.decode(
+        new Message('I').int4(TABLE).byte1('N').int2(1).text("6").toBuffer());
+    assertEquals(0, other.getXid());
+    assertEquals(6, other.getNewTuple().getLong(1));
+
+    StreamAbortMessage abort = (StreamAbortMessage) decoder.decode(
+        new Message('A').int4(77).int4(78).toBuffer());
+    assertEquals(77, abort.getXid());
+    assertEquals(78, abort.getSubXid());
+    assertEquals(0, abort.getAbortLsn());
+    abort = (StreamAbortMessage) decoder.decode(
+        new Message('A').int4(77).int4(78).int8(2000).int8(3000).toBuffer());
+    assertEquals(2000, abort.getAbortLsn());
+    assertEquals(3000, abort.getAbortTime());
+
+    CommitMessage commit = (CommitMessage) decoder.decode(
+        new Message('c').int4(77).byte1(0).int8(1000).int8(1100).int8(0).toBuffer());
+    assertEquals(PgOutputMessageType.STREAM_COMMIT, commit.getType());
+    assertEquals(77, commit.getXid());
+    assertEquals(1100, commit.getEndLsn());
+  }
+
+  @Test
+  public void decodesTruncate() throws Exception {
+    decoder.decode(relation(TABLE).toBuffer());
+    decoder.decode(relation(TABLE + 1).toBuffer());
+    TruncateMessage truncate = (TruncateMessage) decoder.decode(
+        new Message('T').int4(2).byte1(1).int4(TABLE).int4(TABLE + 1).toBuffer());
+    assertTrue(truncate.isCascade());
+    assertFalse(truncate.isRestartIdentity());
+    assertEquals(2, truncate.getRelationCount());
+    assertEquals(TABLE + 1, truncate.getRelation(1).getOid());
+  }
+
+  @Test
+  public void rejectsChangeOfUnknownRelation() throws Exception {
+    try {
+      decoder.decode(new Message('I').int4(TABLE).byte1('N').int2(1).text("1").toBuffer());
+      fail("The relation of a change must have been received");
+    } catch (PSQLException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void rejectsTruncatedMessage() throws Exception {
+    decoder.decode(relation(TABLE).toBuffer());
+    try {
+      decoder.decode(new Message('I').int4(TABLE).byte1('N').int2(3).text("1").toBuffer());
+      fail("The message misses columns");
+    } catch (PSQLException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void rejectsOutOfRangeLong() throws Exception {
+    decoder.decode(relation(TABLE).toBuffer());
+    RowMessage insert = (RowMessage) decoder.decode(new Message('I').int4(TABLE).byte1('N')
+        .int2(3).text("9223372036854775808").text("12x").byte1('n').toBuffer());
+    PgOutputTuple tuple = insert.getNewTuple();
+    try {
+      tuple.getLong(1);
+      fail("The value does not fit in a long");
+    } catch (PSQLException expected) {
+      // expected
+    }
+    try {
+      tuple.getLong(2);
+      fail("The value is not a number");
+    } catch (PSQLException expected) {
+      // expected
+    }
+  }
+}
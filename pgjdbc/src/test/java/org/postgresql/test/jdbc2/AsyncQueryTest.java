@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGPreparedStatement;
+import org.postgresql.jdbc.PreferQueryMode;
+import org.postgresql.test.TestUtil;
+import org.postgresql.util.PSQLState;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncQueryTest extends BaseTest4 {
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    Assume.assumeTrue("asynchronous execution requires the extended query protocol",
+        preferQueryMode != PreferQueryMode.SIMPLE);
+    TestUtil.createTempTable(con, "async_test", "id int4 primary key, name text");
+  }
+
+  @Test
+  public void manyQueriesInFlight() throws Exception {
+    PreparedStatement insert = con.prepareStatement("insert into async_test values (?, ?)");
+    List<CompletableFuture<Long>> inserts = new ArrayList<CompletableFuture<Long>>();
+    for (int i = 0; i < 100; i++) {
+      insert.setInt(1, i);
+      insert.setString(2, "name" + i);
+      inserts.add(insert.unwrap(PGPreparedStatement.class).executeUpdateAsync());
+    }
+    for (CompletableFuture<Long> future : inserts) {
+      assertEquals(1L, future.get().longValue());
+    }
+
+    PreparedStatement select = con.prepareStatement("select name from async_test where id = ?");
+    List<CompletableFuture<ResultSet>> selects = new ArrayList<CompletableFuture<ResultSet>>();
+    for (int i = 0; i < 100; i++) {
+      select.setInt(1, i);
+      selects.add(select.unwrap(PGPreparedStatement.class).executeQueryAsync());
+    }
+    for (int i = 0; i < 100; i++) {
+      ResultSet rs = selects.get(i).get();
+      assertTrue(rs.next());
+      assertEquals("name" + i, rs.getString(1));
+      assertFalse(rs.next());
+    }
+  }
+
+  @Test
+  public void mixedWithSynchronousExecution() throws Exception {
+    PreparedStatement select = con.prepareStatement("select ?::int4 + 1");
+    select.setInt(1, 41);
+    CompletableFuture<ResultSet> async =
+        select.unwrap(PGPreparedStatement.class).executeQueryAsync();
+
+    Statement st = con.createStatement();
+    ResultSet rs = st.executeQuery("select 'sync'");
+    assertTrue(rs.next());
+    assertEquals("sync", rs.getString(1));
+    st.close();
+
+    rs = async.get();
+    assertTrue(rs.next());
+    assertEquals(42, rs.getInt(1));
+  }
+
+  @Test
+  public void synchronousExecutionRunsAfterSubmitted() throws Exception {
+    PreparedStatement insert = con.prepareStatement("insert into async_test values (?, ?)");
+    List<CompletableFuture<Long>> inserts = new ArrayList<CompletableFuture<Long>>();
+    for (int i = 0; i < 10; i++) {
+      insert.setInt(1, i);
+      insert.setString(2, "name" + i);
+      inserts.add(insert.unwrap(PGPreparedStatement.class).executeUpdateAsync());
+    }
+
+    // Not waiting for the futures: the query sees the rows submitted before it
+    assertEquals("10", TestUtil.queryForString(con, "select count(*) from async_test"));
+    for (CompletableFuture<Long> future : inserts) {
+      assertTrue(future.isDone());
+    }
+  }
+
+  @Test
+  public void keepsAutoCommitOfSubmission() throws Exception {
+    PreparedStatement insert = con.prepareStatement("insert into async_test values (?, ?)");
+    insert.setInt(1, 1);
+    insert.setString(2, "auto-committed");
+    CompletableFuture<Long> future = insert.unwrap(PGPreparedStatement.class).executeUpdateAsync();
+
+    con.setAutoCommit(false);
+    try {
+      assertTrue(future.isDone());
+      con.rollback();
+    } finally {
+      con.setAutoCommit(true);
+    }
+    assertEquals("auto-committed",
+        TestUtil.queryForString(con, "select name from async_test where id = 1"));
+  }
+
+  @Test
+  public void usesExecutorOfConnection() throws Exception {
+    final AtomicInteger tasks = new AtomicInteger();
+    final ExecutorService delegate = Executors.newSingleThreadExecutor();
+    con.unwrap(PGConnection.class).setAsyncExecutor(task -> {
+      tasks.incrementAndGet();
+      delegate.execute(task);
+    });
+    try {
+      PreparedStatement select = con.prepareStatement("select 1");
+      ResultSet rs = select.unwrap(PGPreparedStatement.class).executeQueryAsync().get();
+      assertTrue(rs.next());
+      assertEquals(1, tasks.get());
+    } finally {
+      con.unwrap(PGConnection.class).setAsyncExecutor(null);
+      delegate.shutdown();
+    }
+  }
+
+  @Test
+  public void failureCompletesExceptionally() throws Exception {
+    PreparedStatement select = con.prepareStatement("select 1/?::int4");
+    select.setInt(1, 0);
+    CompletableFuture<ResultSet> future =
+        select.unwrap(PGPreparedStatement.class).executeQueryAsync();
+    try {
+      future.get();
+      fail("division by zero should fail the future");
+    } catch (ExecutionException e) {
+      assertEquals(PSQLState.DIVISION_BY_ZERO.getState(),
+          ((SQLException) e.getCause()).getSQLState());
+    }
+
+    // The connection is usable afterwards
+    select.setInt(1, 1);
+    ResultSet rs = select.unwrap(PGPreparedStatement.class).executeQueryAsync().get();
+    assertTrue(rs.next());
+    assertEquals(1, rs.getInt(1));
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGStatement;
+import org.postgresql.copy.BinaryCopyReader;
+import org.postgresql.test.TestUtil;
+import org.postgresql.util.PSQLState;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public class BinaryCopyReaderTest extends BaseTest4 {
+  private static final String COPY = "COPY binary_copy TO STDOUT (FORMAT binary)";
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    TestUtil.createTempTable(con, "binary_copy",
+        "b bool, s int2, i int4, l int8, f float4, d float8, n numeric, t text, by bytea,"
+            + " u uuid, ts timestamp, tstz timestamptz, dt date");
+  }
+
+  private BinaryCopyReader reader() throws SQLException {
+    return con.unwrap(PGConnection.class).getCopyAPI().copyOutBinary(COPY);
+  }
+
+  @Test
+  public void readsAllTypes() throws SQLException {
+    UUID uuid = UUID.randomUUID();
+    Timestamp timestamp = Timestamp.valueOf("2022-03-04 05:06:07.123456");
+    try (Statement stmt = con.createStatement()) {
+      stmt.execute("INSERT INTO binary_copy VALUES (true, -2, " + Integer.MIN_VALUE + ", "
+          + Long.MAX_VALUE + ", 1.5, -2.25, -12345678901234567890.0123, 'été € 😀',"
+          + " '\\x010203ff', '" + uuid + "', '" + timestamp + "',"
+          + " '2022-03-04 05:06:07+00', '1900-02-28')");
+      stmt.execute("INSERT INTO binary_copy VALUES (null, null, null, null, null, null, null,"
+          + " null, null, null, null, null, null)");
+    }
+    BinaryCopyReader reader = reader();
+    assertTrue(reader.next());
+    assertEquals(13, reader.getFieldCount());
+    assertTrue(reader.getBoolean(1));
+    assertEquals(-2, reader.getShort(2));
+    assertEquals(Integer.MIN_VALUE, reader.getInt(3));
+    assertEquals(Long.MAX_VALUE, reader.getLong(4));
+    assertEquals(1.5f, reader.getFloat(5), 0);
+    assertEquals(-2.25, reader.getDouble(6), 0);
+    assertEquals(new BigDecimal("-12345678901234567890.0123"), reader.getBigDecimal(7));
+    assertEquals("été € 😀", reader.getString(8));
+    assertArrayEquals(new byte[]{1, 2, 3, (byte) 0xff}, reader.getBytes(9));
+    byte[] bytes = new byte[6];
+    assertEquals(4, reader.getBytes(9, bytes, 2));
+    assertArrayEquals(new byte[]{0, 0, 1, 2, 3, (byte) 0xff}, bytes);
+    assertEquals(uuid, reader.getUuid(10));
+    assertEquals(timestamp, reader.getTimestamp(11));
+    assertEquals(1646370367000L, reader.getTimestamptz(12).getTime());
+    assertEquals(Date.valueOf("1900-02-28"), reader.getDate(13));
+    assertEquals(LocalDate.of(1900, 2, 28), reader.getLocalDate(13));
+
+    assertTrue(reader.next());
+    for (int i = 1; i <= 13; i++) {
+      assertTrue(reader.isNull(i));
+      assertEquals(-1, reader.getLength(i));
+    }
+    assertFalse(reader.getBoolean(1));
+    assertEquals(0, reader.getInt(3));
+    assertNull(reader.getString(8));
+    assertNull(reader.getBytes(9));
+    assertNull(reader.getTimestamp(11));
+    assertNull(reader.getDate(13));
+    assertNull(reader.getLocalDate(13));
+    assertFalse(reader.next());
+    assertFalse(reader.getCopyOut().isActive());
+    assertEquals(2, reader.getCopyOut().getHandledRowCount());
+  }
+
+  @Test
+  public void readsInfiniteDates() throws SQLException {
+    try (Statement stmt = con.createStatement()) {
+      stmt.execute("INSERT INTO binary_copy (i, dt) VALUES (1, 'infinity'), (2, '-infinity')");
+    }
+    BinaryCopyReader reader = reader();
+    assertTrue(reader.next());
+    assertEquals(PGStatement.DATE_POSITIVE_INFINITY, reader.getDate(13).getTime());
+    assertEquals(LocalDate.MAX, reader.getLocalDate(13));
+    assertTrue(reader.next());
+    assertEquals(PGStatement.DATE_NEGATIVE_INFINITY, reader.getDate(13).getTime());
+    assertEquals(LocalDate.MIN, reader.getLocalDate(13));
+    assertFalse(reader.next());
+  }
+
+  @Test
+  public void readsRowsLargerThanTheBuffer() throws SQLException {
+    try (Statement stmt = con.createStatement()) {
+      stmt.execute("INSERT INTO binary_copy (i, t) SELECT g,"
+          + " CASE WHEN g % 100 = 0 THEN repeat('x', 200000) ELSE 'row ' || g END"
+          + " FROM generate_series(0, 999) g");
+    }
+    long expectedLength;
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT sum(octet_length(t)) FROM binary_copy")) {
+      assertTrue(rs.next());
+      expectedLength = rs.getLong(1);
+    }
+    BinaryCopyReader reader = reader();
+    long sum = 0;
+    long length = 0;
+    int rows = 0;
+    while (reader.next()) {
+      sum += reader.getInt(3);
+      length += reader.getLength(8);
+      rows++;
+    }
+    assertEquals(1000, rows);
+    assertEquals(499500, sum);
+    assertEquals(expectedLength, length);
+  }
+
+  @Test
+  public void rejectsMismatchedType() throws SQLException {
+    try (Statement stmt = con.createStatement()) {
+      stmt.execute("INSERT INTO binary_copy (l) VALUES (1)");
+    }
+    BinaryCopyReader reader = reader();
+    assertTrue(reader.next());
+    try {
+      reader.getInt(4);
+      fail("int8 cannot be read as int4");
+    } catch (SQLException e) {
+      assertEquals(PSQLState.DATA_TYPE_MISMATCH.getState(), e.getSQLState());
+    }
+    assertEquals(1, reader.getLong(4));
+    assertFalse(reader.next());
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.BinaryCopyWriter;
+import org.postgresql.test.TestUtil;
+import org.postgresql.util.PSQLState;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+public class BinaryCopyWriterTest extends BaseTest4 {
+  private static final String COPY = "COPY binary_copy FROM STDIN (FORMAT binary)";
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    TestUtil.createTempTable(con, "binary_copy",
+        "b bool, s int2, i int4, l int8, f float4, d float8, n numeric, t text, v varchar(100),"
+            + " by bytea, u uuid, ts timestamp, tstz timestamptz, dt date");
+  }
+
+  private BinaryCopyWriter writer() throws SQLException {
+    return con.unwrap(PGConnection.class).getCopyAPI().copyInBinary(COPY);
+  }
+
+  @Test
+  public void writesAllTypes() throws SQLException {
+    UUID uuid = UUID.randomUUID();
+    byte[] bytes = {1, 2, 3, (byte) 0xff};
+    Timestamp timestamp = Timestamp.valueOf("2022-03-04 05:06:07.123456");
+    LocalDateTime localDateTime = LocalDateTime.of(1999, 12, 31, 23, 59, 59, 999999000);
+    OffsetDateTime offsetDateTime = OffsetDateTime.of(2022, 3, 4, 5, 6, 7, 0, ZoneOffset.UTC);
+    BinaryCopyWriter writer = writer();
+    writer.appendBoolean(true);
+    writer.appendShort((short) -2);
+    writer.appendInt(Integer.MIN_VALUE);
+    writer.appendLong(Long.MAX_VALUE);
+    writer.appendFloat(1.5f);
+    writer.appendDouble(-2.25);
+    writer.appendBigDecimal(new BigDecimal("-12345678901234567890.0123"));
+    writer.appendString("ascii");
+    writer.appendString("été € 😀");
+    writer.appendBytes(bytes);
+    writer.appendUuid(uuid);
+    writer.appendTimestamp(timestamp);
+    writer.appendOffsetDateTime(offsetDateTime);
+    writer.appendDate(LocalDate.of(1900, 2, 28));
+    writer.endRow();
+    for (int i = 0; i < 11; i++) {
+      writer.appendNull();
+    }
+    writer.appendLocalDateTime(null);
+    writer.appendOffsetDateTime(null);
+    writer.appendDate(null);
+    writer.endRow();
+    writer.appendBoolean(false);
+    writer.appendNull();
+    writer.appendNull();
+    writer.appendNull();
+    writer.appendNull();
+    writer.appendNull();
+    writer.appendNull();
+    writer.appendNull();
+    writer.appendNull();
+    writer.appendNull();
+    writer.appendNull();
+    writer.appendLocalDateTime(localDateTime);
+    writer.appendTimestamptz(new Timestamp(offsetDateTime.toInstant().toEpochMilli()));
+    writer.appendNull();
+    writer.endRow();
+    assertEquals(3, writer.endCopy());
+
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT * FROM binary_copy ORDER BY b NULLS LAST")) {
+      assertTrue(rs.next());
+      assertFalse(rs.getBoolean("b"));
+      assertEquals(localDateTime, rs.getObject("ts", LocalDateTime.class));
+      assertEquals(offsetDateTime, rs.getObject("tstz", OffsetDateTime.class));
+
+      assertTrue(rs.next());
+      assertTrue(rs.getBoolean("b"));
+      assertEquals(-2, rs.getShort("s"));
+      assertEquals(Integer.MIN_VALUE, rs.getInt("i"));
+      assertEquals(Long.MAX_VALUE, rs.getLong("l"));
+      assertEquals(1.5f, rs.getFloat("f"), 0);
+      assertEquals(-2.25, rs.getDouble("d"), 0);
+      assertEquals(new BigDecimal("-12345678901234567890.0123"), rs.getBigDecimal("n"));
+      assertEquals("ascii", rs.getString("t"));
+      assertEquals("été € 😀", rs.getString("v"));
+      assertArrayEquals(bytes, rs.getBytes("by"));
+      assertEquals(uuid, rs.getObject("u"));
+      assertEquals(timestamp, rs.getTimestamp("ts"));
+      assertEquals(offsetDateTime, rs.getObject("tstz", OffsetDateTime.class));
+      assertEquals(LocalDate.of(1900, 2, 28), rs.getObject("dt", LocalDate.class));
+
+      assertTrue(rs.next());
+      assertNull(rs.getObject("b"));
+      assertNull(rs.getObject("t"));
+      assertNull(rs.getObject("ts"));
+      assertNull(rs.getObject("tstz"));
+      assertNull(rs.getObject("dt"));
+      assertFalse(rs.next());
+    }
+  }
+
+  @Test
+  public void writesRowsLargerThanTheBuffer() throws SQLException {
+    char[] chars = new char[200000];
+    Arrays.fill(chars, 'x');
+    String large = new String(chars);
+    BinaryCopyWriter writer = writer();
+    for (int i = 0; i < 1000; i++) {
+      writer.appendInt(i);
+      writer.appendString(i % 100 == 0 ? large : "row " + i);
+      writer.endRow();
+    }
+    assertEquals(1000, writer.endCopy());
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery(
+            "SELECT count(*), sum(length(t)), sum(i) FROM binary_copy")) {
+      assertTrue(rs.next());
+      assertEquals(1000, rs.getInt(1));
+      assertEquals(499500, rs.getLong(3));
+    }
+  }
+
+  @Test
+  public void rejectsUnendedRow() throws SQLException {
+    BinaryCopyWriter writer = writer();
+    writer.appendInt(1);
+    try {
+      writer.endCopy();
+      fail("the row was not ended");
+    } catch (SQLException e) {
+      assertEquals(PSQLState.OBJECT_NOT_IN_STATE.getState(), e.getSQLState());
+    }
+    writer.cancelCopy();
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.ConcurrentCopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.test.TestUtil;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrentCopyInTest extends BaseTest4 {
+  private static final String COPY = "COPY concurrent_copy FROM STDIN";
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    TestUtil.createTempTable(con, "concurrent_copy", "producer int4, i int4, t text");
+  }
+
+  private CopyManager copyAPI() throws SQLException {
+    return con.unwrap(PGConnection.class).getCopyAPI();
+  }
+
+  @Test
+  public void copiesRowsOfAllProducers() throws Exception {
+    ConcurrentCopyIn copy = new ConcurrentCopyIn(copyAPI().copyIn(COPY), 1024, 4);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> producers = new ArrayList<>();
+    for (int p = 0; p < 4; p++) {
+      int producer = p;
+      Thread thread = new Thread(() -> {
+        try {
+          for (int i = 0; i < 10000; i++) {
+            String row = producer + "\t" + i + "\t" + (i % 1000 == 0 ? longText() : "row " + i);
+            copy.writeRow((row + "\n").getBytes(StandardCharsets.UTF_8));
+          }
+        } catch (Throwable t) {
+          failure.set(t);
+        }
+      });
+      thread.start();
+      producers.add(thread);
+    }
+    for (Thread thread : producers) {
+      thread.join();
+    }
+    assertEquals(null, failure.get());
+    assertEquals(40000, copy.endCopy());
+
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery(
+            "SELECT producer, count(DISTINCT i) FROM concurrent_copy GROUP BY producer")) {
+      int producerCount = 0;
+      while (rs.next()) {
+        assertEquals(10000, rs.getInt(2));
+        producerCount++;
+      }
+      assertEquals(4, producerCount);
+    }
+  }
+
+  private static String longText() {
+    // Larger than a segment
+    return new String(new char[5000]).replace('\0', 'x');
+  }
+
+  @Test
+  public void failedCopyIsReportedToProducers() throws SQLException {
+    ConcurrentCopyIn copy = new ConcurrentCopyIn(copyAPI().copyIn(COPY), 64, 2);
+    byte[] bad = "not a number\t1\tbad\n".getBytes(StandardCharsets.UTF_8);
+    try {
+      for (int i = 0; i < 1000; i++) {
+        copy.writeRow(bad);
+      }
+      copy.endCopy();
+      fail("the rows are invalid");
+    } catch (SQLException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("not a number"));
+      copy.cancelCopy();
+    }
+    assertEquals("0", TestUtil.queryForString(con, "SELECT count(*) FROM concurrent_copy"));
+  }
+
+  @Test
+  public void cancelledCopyDiscardsRows() throws SQLException {
+    ConcurrentCopyIn copy = copyAPI().copyInConcurrent(COPY);
+    copy.writeRow("1\t1\tcancelled\n".getBytes(StandardCharsets.UTF_8));
+    copy.cancelCopy();
+    assertEquals("0", TestUtil.queryForString(con, "SELECT count(*) FROM concurrent_copy"));
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.postgresql.PGProperty;
+import org.postgresql.test.TestUtil;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Properties;
+import java.util.UUID;
+
+public class CopyBatchedInsertsTest extends BaseTest4 {
+  @Override
+  protected void updateProperties(Properties props) {
+    super.updateProperties(props);
+    PGProperty.COPY_BATCHED_INSERTS.set(props, true);
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    TestUtil.createTempTable(con, "copy_batch",
+        "i int4 primary key, l int8, t text, b bool, by bytea, u uuid, ts timestamp,"
+            + " n numeric");
+  }
+
+  private int rowCount() throws SQLException {
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT count(*) FROM copy_batch")) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+
+  @Test
+  public void insertsBatchWithCopy() throws SQLException {
+    UUID uuid = UUID.randomUUID();
+    Timestamp timestamp = Timestamp.valueOf("2022-03-04 05:06:07.123456");
+    try (PreparedStatement ps = con.prepareStatement(
+        "INSERT INTO copy_batch (i, l, t, b, by, u, ts, n) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+      for (int i = 0; i < 1000; i++) {
+        ps.setInt(1, i);
+        ps.setLong(2, -i * 10000000000L);
+        ps.setString(3, i == 0 ? "tab\tnew line\nback\\slash é" : "row " + i);
+        ps.setBoolean(4, i % 2 == 0);
+        ps.setBytes(5, new byte[]{(byte) i, 0, (byte) 0xff});
+        ps.setObject(6, uuid);
+        ps.setTimestamp(7, timestamp);
+        if (i % 3 == 0) {
+          ps.setNull(8, Types.NUMERIC);
+        } else {
+          ps.setBigDecimal(8, new BigDecimal("1.25"));
+        }
+        ps.addBatch();
+      }
+      int[] counts = ps.executeBatch();
+      assertEquals(1000, counts.length);
+      for (int count : counts) {
+        assertEquals(1, count);
+      }
+    }
+    assertEquals(1000, rowCount());
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT * FROM copy_batch WHERE i IN (0, 1) ORDER BY i")) {
+      assertTrue(rs.next());
+      assertEquals(0, rs.getLong("l"));
+      assertEquals("tab\tnew line\nback\\slash é", rs.getString("t"));
+      assertTrue(rs.getBoolean("b"));
+      assertArrayEquals(new byte[]{0, 0, (byte) 0xff}, rs.getBytes("by"));
+      assertEquals(uuid, rs.getObject("u"));
+      assertEquals(timestamp, rs.getTimestamp("ts"));
+      assertNull(rs.getBigDecimal("n"));
+      assertTrue(rs.next());
+      assertEquals(-10000000000L, rs.getLong("l"));
+      assertFalse(rs.getBoolean("b"));
+      assertEquals(new BigDecimal("1.25"), rs.getBigDecimal("n"));
+    }
+  }
+
+  @Test
+  public void largeBatchInsertsWithCopy() throws SQLException {
+    try (PreparedStatement ps = con.prepareStatement("INSERT INTO copy_batch (i) VALUES (?)")) {
+      for (int i = 0; i < 3; i++) {
+        ps.setInt(1, i);
+        ps.addBatch();
+      }
+      assertArrayEquals(new long[]{1, 1, 1}, ps.executeLargeBatch());
+    }
+    assertEquals(3, rowCount());
+  }
+
+  @Test
+  public void insertsWithExpressionsAreExecuted() throws SQLException {
+    try (PreparedStatement ps = con.prepareStatement(
+        "INSERT INTO copy_batch (i, t) VALUES (?, upper(?)) ON CONFLICT DO NOTHING")) {
+      for (int i = 0; i < 3; i++) {
+        ps.setInt(1, i % 2);
+        ps.setString(2, "row");
+        ps.addBatch();
+      }
+      assertArrayEquals(new int[]{1, 1, 0}, ps.executeBatch());
+    }
+    assertEquals(2, rowCount());
+  }
+
+  @Test
+  public void failedCopyThrowsBatchUpdateException() throws SQLException {
+    try (PreparedStatement ps = con.prepareStatement("INSERT INTO copy_batch (i) VALUES (?)")) {
+      ps.setInt(1, 1);
+      ps.addBatch();
+      ps.setInt(1, 1);
+      ps.addBatch();
+      ps.executeBatch();
+      fail("the primary key is violated");
+    } catch (BatchUpdateException e) {
+      assertEquals("23505", e.getSQLState());
+    }
+    assertEquals(0, rowCount());
+  }
+}
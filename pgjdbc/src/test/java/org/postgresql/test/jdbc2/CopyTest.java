@@ -5,6 +5,7 @@
 
 package org.postgresql.test.jdbc2;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -27,12 +28,16 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.StringReader;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -223,6 +228,50 @@ public class CopyTest {
     assertEquals(dataRows, rowCount);
   }
 
+  @Test
+  public void testCopyInFromFile() throws SQLException, IOException {
+    String sql = "COPY copytest FROM STDIN";
+    Path file = Files.createTempFile("copytest", ".txt");
+    try {
+      Files.write(file, getData(origData));
+      assertEquals(dataRows, copyAPI.copyIn(sql, file));
+      try (FileChannel channel = FileChannel.open(file)) {
+        // Starts from the position of the channel
+        channel.position(origData[0].length());
+        assertEquals(dataRows - 1, copyAPI.copyIn(sql, channel));
+        assertEquals(channel.size(), channel.position());
+      }
+    } finally {
+      Files.delete(file);
+    }
+    int rowCount = getCount();
+    assertEquals(2 * dataRows - 1, rowCount);
+  }
+
+  @Test
+  public void testCopyInFromShortFile() throws SQLException, IOException {
+    byte[] data = getData(origData);
+    Path file = Files.createTempFile("copytest", ".txt");
+    try {
+      Files.write(file, data);
+      CopyIn cp = copyAPI.copyIn("COPY copytest FROM STDIN");
+      try (FileChannel channel = FileChannel.open(file)) {
+        try {
+          cp.writeToCopy(channel, 0, data.length + 1);
+          fail("should have thrown EOFException");
+        } catch (EOFException e) {
+          // expected, nothing was sent
+        }
+        // The copy is still usable
+        cp.writeToCopy(channel, 0, data.length);
+      }
+      assertEquals(dataRows, cp.endCopy());
+    } finally {
+      Files.delete(file);
+    }
+    assertEquals(dataRows, getCount());
+  }
+
   /**
    * Tests writing to a COPY ... FROM STDIN using both the standard OutputStream API
    * write(byte[]) and the driver specific write(ByteStreamWriter) API interleaved.
@@ -313,6 +362,19 @@ public class CopyTest {
     }
   }
 
+  @Test
+  public void testCopyOutToFile() throws SQLException, IOException {
+    testCopyInByRow(); // ensure we have some data.
+    String sql = "COPY copytest TO STDOUT";
+    Path file = Files.createTempFile("copytest", ".txt");
+    try {
+      assertEquals(dataRows, copyAPI.copyOut(sql, file));
+      assertArrayEquals(getData(origData), Files.readAllBytes(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
   @Test
   public void testNonCopyOut() throws SQLException, IOException {
     String sql = "SELECT 1";
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.postgresql.PGProperty;
+import org.postgresql.test.TestUtil;
+import org.postgresql.util.PSQLState;
+
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/*
+ * Tests for fetching the next batch of a cursor based ResultSet in the background.
+ */
+public class CursorPrefetchTest extends BaseTest4 {
+
+  @Override
+  protected void updateProperties(Properties props) {
+    super.updateProperties(props);
+    PGProperty.PREFETCH_THRESHOLD.set(props, 50);
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    TestUtil.createTable(con, "test_prefetch", "value integer");
+    Statement stmt = con.createStatement();
+    stmt.executeUpdate("insert into test_prefetch select generate_series(0, 999)");
+    stmt.close();
+    con.setAutoCommit(false);
+  }
+
+  @Override
+  public void tearDown() throws SQLException {
+    if (!con.getAutoCommit()) {
+      con.rollback();
+    }
+    con.setAutoCommit(true);
+    TestUtil.dropTable(con, "test_prefetch");
+    super.tearDown();
+  }
+
+  @Test
+  public void rowsArriveInOrder() throws Exception {
+    PreparedStatement stmt = con.prepareStatement("select value from test_prefetch order by value");
+    int[] testSizes = {1, 7, 100, 999, 1000, 1001};
+    for (int testSize : testSizes) {
+      stmt.setFetchSize(testSize);
+      ResultSet rs = stmt.executeQuery();
+      int count = 0;
+      while (rs.next()) {
+        assertEquals("fetch size " + testSize, count, rs.getInt(1));
+        count++;
+      }
+      assertEquals("fetch size " + testSize, 1000, count);
+      rs.close();
+    }
+    stmt.close();
+  }
+
+  @Test
+  public void maxRowsLimitsPrefetch() throws Exception {
+    PreparedStatement stmt = con.prepareStatement("select value from test_prefetch order by value");
+    stmt.setFetchSize(10);
+    stmt.setMaxRows(25);
+    ResultSet rs = stmt.executeQuery();
+    int count = 0;
+    while (rs.next()) {
+      assertEquals(count, rs.getInt(1));
+      count++;
+    }
+    assertEquals(25, count);
+    rs.close();
+    stmt.close();
+  }
+
+  @Test
+  public void isLastTakesPrefetchedRows() throws Exception {
+    PreparedStatement stmt = con.prepareStatement("select value from test_prefetch order by value");
+    stmt.setFetchSize(10);
+    ResultSet rs = stmt.executeQuery();
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(rs.next());
+      assertEquals(i, rs.getInt(1));
+      assertEquals(i == 999, rs.isLast());
+    }
+    assertFalse(rs.next());
+    rs.close();
+    stmt.close();
+  }
+
+  @Test
+  public void closeWhilePrefetching() throws Exception {
+    PreparedStatement stmt = con.prepareStatement("select value from test_prefetch order by value");
+    stmt.setFetchSize(100);
+    ResultSet rs = stmt.executeQuery();
+    for (int i = 0; i < 60; i++) {
+      assertTrue(rs.next());
+    }
+    rs.close();
+
+    // The connection is usable afterwards
+    Statement st = con.createStatement();
+    rs = st.executeQuery("select count(*) from test_prefetch");
+    assertTrue(rs.next());
+    assertEquals(1000, rs.getInt(1));
+    st.close();
+    stmt.close();
+  }
+
+  @Test
+  public void prefetchFailureIsReported() throws Exception {
+    PreparedStatement stmt =
+        con.prepareStatement("select 1 / (500 - value) from test_prefetch order by value");
+    stmt.setFetchSize(100);
+    ResultSet rs = stmt.executeQuery();
+    try {
+      while (rs.next()) {
+        rs.getInt(1);
+      }
+      fail("division by zero should be reported");
+    } catch (SQLException e) {
+      assertEquals(PSQLState.DIVISION_BY_ZERO.getState(), e.getSQLState());
+    }
+    stmt.close();
+  }
+}
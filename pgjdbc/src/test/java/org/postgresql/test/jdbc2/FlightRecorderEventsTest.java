@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.test.TestUtil;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Tests the JDK Flight Recorder events of the driver.
+ */
+public class FlightRecorderEventsTest extends BaseTest4 {
+
+  private Recording recording;
+
+  @Override
+  public void setUp() throws Exception {
+    Assume.assumeTrue("JDK Flight Recorder is not available", FlightRecorder.isAvailable());
+    recording = new Recording();
+    for (String name : new String[]{"org.postgresql.Query", "org.postgresql.Fetch",
+        "org.postgresql.Copy", "org.postgresql.Connect"}) {
+      recording.enable(name).withThreshold(Duration.ZERO);
+    }
+    // Connections only count bytes when a recording runs while they are opened
+    recording.start();
+    super.setUp();
+    TestUtil.createTempTable(con, "jfr_test", "id int");
+  }
+
+  @Override
+  public void tearDown() throws SQLException {
+    if (recording != null) {
+      recording.close();
+    }
+    super.tearDown();
+  }
+
+  private List<RecordedEvent> stop(String name) throws Exception {
+    recording.stop();
+    Path file = Files.createTempFile("pgjdbc", ".jfr");
+    try {
+      recording.dump(file);
+      List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+      for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+        if (event.getEventType().getName().equals(name)) {
+          events.add(event);
+        }
+      }
+      return events;
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void recordsQuery() throws Exception {
+    String sql = "select generate_series(1, ?)";
+    try (PreparedStatement ps = con.prepareStatement(sql)) {
+      ps.setInt(1, 10);
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          // consume
+        }
+      }
+    }
+    RecordedEvent query = null;
+    for (RecordedEvent event : stop("org.postgresql.Query")) {
+      if (sql.replace("?", "$1").equals(event.getString("sql"))) {
+        query = event;
+      }
+    }
+    assertNotNull(query);
+    assertEquals(10, query.getLong("rows"));
+    assertEquals(1, query.getInt("roundTrips"));
+    assertTrue(query.getLong("bytesSent") > 0);
+    assertTrue(query.getLong("bytesReceived") > 0);
+    assertFalse(query.getBoolean("failed"));
+    assertFalse(query.getString("fingerprint").isEmpty());
+  }
+
+  @Test
+  public void recordsCopy() throws Exception {
+    CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+    copyManager.copyIn("COPY jfr_test FROM STDIN", new StringReader("1\n2\n3\n"));
+    List<RecordedEvent> events = stop("org.postgresql.Copy");
+    assertEquals(1, events.size());
+    assertEquals("COPY jfr_test FROM STDIN", events.get(0).getString("sql"));
+    assertEquals(3, events.get(0).getLong("rows"));
+    assertTrue(events.get(0).getLong("bytesSent") > 0);
+  }
+
+  @Test
+  public void recordsCopyOut() throws Exception {
+    TestUtil.execute(con, "insert into jfr_test values (1), (2)");
+    CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+    StringWriter out = new StringWriter();
+    assertEquals(2, copyManager.copyOut("COPY jfr_test TO STDOUT", out));
+    List<RecordedEvent> events = stop("org.postgresql.Copy");
+    assertEquals(1, events.size());
+    assertEquals("COPY jfr_test TO STDOUT", events.get(0).getString("sql"));
+    assertEquals(2, events.get(0).getLong("rows"));
+    assertTrue(events.get(0).getLong("bytesReceived") > 0);
+  }
+
+  @Test
+  public void recordsConnect() throws Exception {
+    Connection connection = TestUtil.openDB();
+    connection.close();
+    List<RecordedEvent> events = stop("org.postgresql.Connect");
+    // The connection of setUp, then this one
+    assertEquals(2, events.size());
+    RecordedEvent event = events.get(1);
+    assertTrue(event.getBoolean("connected"));
+    assertEquals(TestUtil.getDatabase(), event.getString("database"));
+    assertTrue(event.getDuration("tcpConnect").toNanos() > 0);
+    assertTrue(event.getDuration("authentication").toNanos() > 0);
+  }
+}
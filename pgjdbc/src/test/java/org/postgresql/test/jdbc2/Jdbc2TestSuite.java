@@ -10,8 +10,11 @@ import org.postgresql.core.CommandCompleteParserNegativeTest;
 import org.postgresql.core.CommandCompleteParserTest;
 import org.postgresql.core.OidToStringTest;
 import org.postgresql.core.OidValueOfTest;
+import org.postgresql.core.PGStreamSocketChannelTest;
 import org.postgresql.core.ParserTest;
 import org.postgresql.core.ReturningParserTest;
+import org.postgresql.core.SharedQueryCacheTest;
+import org.postgresql.core.TupleTest;
 import org.postgresql.core.UTF8EncodingTest;
 import org.postgresql.core.v3.V3ParameterListTests;
 import org.postgresql.core.v3.adaptivefetch.AdaptiveFetchCacheTest;
@@ -21,6 +24,7 @@ import org.postgresql.jdbc.BitFieldTest;
 import org.postgresql.jdbc.DeepBatchedInsertStatementTest;
 import org.postgresql.jdbc.NoColumnMetadataIssue1613Test;
 import org.postgresql.jdbc.PgSQLXMLTest;
+import org.postgresql.jdbc.SharedTypeInfoTest;
 import org.postgresql.test.core.FixedLengthOutputStreamTest;
 import org.postgresql.test.core.JavaVersionTest;
 import org.postgresql.test.core.LogServerMessagePropertyTest;
@@ -34,6 +38,7 @@ import org.postgresql.test.util.LruCacheTest;
 import org.postgresql.test.util.PGPropertyMaxResultBufferParserTest;
 import org.postgresql.test.util.ServerVersionParseTest;
 import org.postgresql.test.util.ServerVersionTest;
+import org.postgresql.test.util.TinyLfuCacheTest;
 import org.postgresql.util.BigDecimalByteConverterTest;
 import org.postgresql.util.PGbyteaTest;
 import org.postgresql.util.ReaderInputStreamTest;
@@ -52,10 +57,13 @@ import org.junit.runners.Suite;
     ArraysTest.class,
     ArraysTestSuite.class,
     AsciiStringInternerTest.class,
+    AsyncQueryTest.class,
     BatchedInsertReWriteEnabledTest.class,
     BatchExecuteTest.class,
     BatchFailureTest.class,
     BigDecimalByteConverterTest.class,
+    BinaryCopyReaderTest.class,
+    BinaryCopyWriterTest.class,
     BitFieldTest.class,
     BlobTest.class,
     BlobTransactionTest.class,
@@ -67,12 +75,15 @@ import org.junit.runners.Suite;
     ColumnSanitiserEnabledTest.class,
     CommandCompleteParserNegativeTest.class,
     CommandCompleteParserTest.class,
+    ConcurrentCopyInTest.class,
     ConcurrentStatementFetch.class,
     ConnectionTest.class,
     ConnectTimeoutTest.class,
+    CopyBatchedInsertsTest.class,
     CopyLargeFileTest.class,
     CopyTest.class,
     CursorFetchTest.class,
+    CursorPrefetchTest.class,
     DatabaseEncodingTest.class,
     DatabaseMetaDataCacheTest.class,
     DatabaseMetaDataPropertiesTest.class,
@@ -84,6 +95,7 @@ import org.junit.runners.Suite;
     EncodingTest.class,
     ExpressionPropertiesTest.class,
     FixedLengthOutputStreamTest.class,
+    FlightRecorderEventsTest.class,
     GeometricTest.class,
     GetXXXTest.class,
     HostSpecTest.class,
@@ -93,6 +105,7 @@ import org.junit.runners.Suite;
     LoginTimeoutTest.class,
     LogServerMessagePropertyTest.class,
     LruCacheTest.class,
+    MetricsListenerTest.class,
     MiscTest.class,
     NativeQueryBindLengthTest.class,
     NoColumnMetadataIssue1613Test.class,
@@ -103,6 +116,7 @@ import org.junit.runners.Suite;
     OidValueOfTest.class,
     OptionsPropertyTest.class,
     OuterJoinSyntaxTest.class,
+    ParallelCopyLoaderTest.class,
     ParameterStatusTest.class,
     ParserTest.class,
     PGbyteaTest.class,
@@ -111,6 +125,8 @@ import org.junit.runners.Suite;
     PGTimestampTest.class,
     PGTimeTest.class,
     PgSQLXMLTest.class,
+    PGStreamSocketChannelTest.class,
+    PipelineTest.class,
     PreparedStatementTest.class,
     QuotationTest.class,
     ReaderInputStreamTest.class,
@@ -125,19 +141,28 @@ import org.junit.runners.Suite;
     ServerPreparedStmtTest.class,
     ServerVersionParseTest.class,
     ServerVersionTest.class,
+    SharedQueryCacheTest.class,
+    SharedTypeInfoTest.class,
+    SlabRowStorageTest.class,
+    SocketChannelTest.class,
     StatementTest.class,
+    StreamResultsTest.class,
     StringTypeUnspecifiedArrayTest.class,
     TestACL.class,
     TimestampTest.class,
     TimeTest.class,
     TimezoneCachingTest.class,
     TimezoneTest.class,
+    TinyLfuCacheTest.class,
+    TupleTest.class,
     TypeCacheDLLStressTest.class,
+    UnnestBatchTest.class,
     UnusualBigDecimalByteConverterTest.class,
     UpdateableResultTest.class,
     UpsertTest.class,
     UTF8EncodingTest.class,
-    V3ParameterListTests.class
+    V3ParameterListTests.class,
+    VirtualThreadPinningTest.class
 })
 public class Jdbc2TestSuite {
 }
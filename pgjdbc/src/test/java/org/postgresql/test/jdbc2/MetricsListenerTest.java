@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.postgresql.PGProperty;
+import org.postgresql.plugin.MetricsListener;
+import org.postgresql.test.TestUtil;
+import org.postgresql.util.PSQLState;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/*
+ * Tests for the MetricsListener configured with metricsListenerClassName.
+ */
+public class MetricsListenerTest extends BaseTest4 {
+
+  public static class RecordingListener implements MetricsListener {
+    static @Nullable RecordingListener last;
+
+    final List<@Nullable String> executed = new ArrayList<@Nullable String>();
+    final List<Integer> roundTrips = new ArrayList<Integer>();
+    int failures;
+    long rows;
+    long bytesSent;
+    long bytesReceived;
+    int cacheHits;
+    int cacheMisses;
+    int forcedSyncs;
+
+    public RecordingListener(Properties info) {
+      last = this;
+    }
+
+    @Override
+    public void queryExecuted(@Nullable String sql, int statements, long elapsedNanos,
+        int roundTrips, boolean failed) {
+      assertTrue(elapsedNanos >= 0);
+      executed.add(sql);
+      this.roundTrips.add(roundTrips);
+      if (failed) {
+        failures++;
+      }
+    }
+
+    @Override
+    public void rowsFetched(long rows) {
+      this.rows += rows;
+    }
+
+    @Override
+    public void bytesTransferred(long sent, long received) {
+      bytesSent += sent;
+      bytesReceived += received;
+    }
+
+    @Override
+    public void statementCacheHit() {
+      cacheHits++;
+    }
+
+    @Override
+    public void statementCacheMiss() {
+      cacheMisses++;
+    }
+
+    @Override
+    public void forcedSync() {
+      forcedSyncs++;
+    }
+  }
+
+  private RecordingListener listener;
+
+  @Override
+  protected void updateProperties(Properties props) {
+    super.updateProperties(props);
+    PGProperty.METRICS_LISTENER_CLASS_NAME.set(props, RecordingListener.class.getName());
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    TestUtil.createTempTable(con, "metrics_test", "id int");
+    listener = RecordingListener.last;
+    assertNotNull(listener);
+    // Forget the statements of the setup
+    listener.cacheHits = 0;
+    listener.cacheMisses = 0;
+  }
+
+  @Test
+  public void reportsExecution() throws SQLException {
+    String sql = "select generate_series(1, ?)";
+    for (int i = 0; i < 2; i++) {
+      listener.executed.clear();
+      listener.rows = 0;
+      listener.bytesSent = 0;
+      listener.bytesReceived = 0;
+      try (PreparedStatement ps = con.prepareStatement(sql)) {
+        ps.setInt(1, 10);
+        try (ResultSet rs = ps.executeQuery()) {
+          while (rs.next()) {
+            // consume
+          }
+        }
+      }
+      assertEquals(1, listener.executed.size());
+      assertEquals(sql.replace("?", "$1"), listener.executed.get(0));
+      assertEquals(Integer.valueOf(1), listener.roundTrips.get(listener.roundTrips.size() - 1));
+      assertEquals(10, listener.rows);
+      assertTrue(listener.bytesSent > 0);
+      assertTrue(listener.bytesReceived > 0);
+    }
+    assertEquals(0, listener.failures);
+    assertEquals(1, listener.cacheMisses);
+    assertEquals(1, listener.cacheHits);
+  }
+
+  @Test
+  public void reportsFailure() throws SQLException {
+    try (PreparedStatement ps = con.prepareStatement("select 1/0")) {
+      ps.executeQuery();
+      fail("division by zero should fail");
+    } catch (SQLException e) {
+      assertEquals(PSQLState.DIVISION_BY_ZERO.getState(), e.getSQLState());
+    }
+    assertEquals(1, listener.failures);
+  }
+
+  @Test
+  public void reportsForcedSync() throws SQLException {
+    try (PreparedStatement ps = con.prepareStatement("insert into metrics_test values (?)")) {
+      for (int i = 0; i < 1000; i++) {
+        ps.setInt(1, i);
+        ps.addBatch();
+      }
+      ps.executeBatch();
+    }
+    assertTrue(listener.forcedSyncs > 0);
+    assertTrue(listener.roundTrips.get(listener.roundTrips.size() - 1) > 1);
+    assertFalse(listener.executed.isEmpty());
+  }
+
+  @Test
+  public void invalidClassName() throws Exception {
+    Properties props = new Properties();
+    PGProperty.METRICS_LISTENER_CLASS_NAME.set(props, "org.postgresql.NoSuchListener");
+    try {
+      TestUtil.openDB(props).close();
+      fail("the listener class does not exist");
+    } catch (SQLException e) {
+      assertEquals(PSQLState.INVALID_PARAMETER_VALUE.getState(), e.getSQLState());
+    }
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import org.postgresql.copy.ParallelCopyLoader;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.postgresql.test.TestUtil;
+import org.postgresql.test.jdbc2.optional.BaseDataSourceTest;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import javax.sql.DataSource;
+
+public class ParallelCopyLoaderTest extends BaseTest4 {
+  private static final String COPY = "COPY parallel_copy FROM STDIN";
+
+  private final PGSimpleDataSource dataSource = new PGSimpleDataSource();
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    BaseDataSourceTest.setupDataSource(dataSource);
+    // The rows must be visible to all the connections
+    TestUtil.createTable(con, "parallel_copy", "i int4 primary key, t text");
+  }
+
+  @Override
+  public void tearDown() throws SQLException {
+    TestUtil.dropTable(con, "parallel_copy");
+    super.tearDown();
+  }
+
+  private static List<String> rows(int count) {
+    List<String> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      rows.add(i + "\trow " + i);
+    }
+    return rows;
+  }
+
+  /**
+   * @return the data source of the test, with the connections replaced by the given function
+   */
+  private DataSource wrap(UnaryOperator<Connection> wrapper) {
+    return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+          Object result;
+          try {
+            result = method.invoke(dataSource, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+          return result instanceof Connection ? wrapper.apply((Connection) result) : result;
+        });
+  }
+
+  private int rowCount() throws SQLException {
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT count(*), count(DISTINCT i) FROM parallel_copy")) {
+      rs.next();
+      assertEquals(rs.getInt(1), rs.getInt(2));
+      return rs.getInt(1);
+    }
+  }
+
+  private boolean isPreparedTransactionEnabled(int transactions) throws SQLException {
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery("SHOW max_prepared_transactions")) {
+      rs.next();
+      return rs.getInt(1) >= transactions;
+    }
+  }
+
+  @Test
+  public void loadsRowsWithAllConnections() throws SQLException {
+    ParallelCopyLoader loader = new ParallelCopyLoader(dataSource, COPY, 4);
+    loader.setBufferSize(4096);
+    ParallelCopyLoader.Result result = loader.load(rows(100000).iterator());
+    assertTrue(result.isSuccessful());
+    assertEquals(100000, result.getRowCount());
+    assertEquals(4, result.getConnectionCount());
+    for (int i = 0; i < 4; i++) {
+      assertTrue(result.getRowCount(i) > 0);
+    }
+    assertEquals(100000, rowCount());
+  }
+
+  @Test
+  public void sendsRowsWithTheSameKeyToTheSameConnection() throws SQLException {
+    ParallelCopyLoader loader = new ParallelCopyLoader(dataSource, COPY, 3);
+    loader.setBufferSize(1024);
+    loader.setPartitionKey(row -> Integer.parseInt(row.substring(0, row.indexOf('\t'))) % 3);
+    ParallelCopyLoader.Result result = loader.load(rows(30000).iterator());
+    assertTrue(result.isSuccessful());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(10000, result.getRowCount(i));
+    }
+    assertEquals(30000, rowCount());
+  }
+
+  @Test
+  public void reportsErrorsOfEachConnection() throws SQLException {
+    List<String> rows = rows(1000);
+    rows.add("not a number\tbad row");
+    ParallelCopyLoader loader = new ParallelCopyLoader(dataSource, COPY, 2);
+    // All the rows but the bad one are loaded by the first connection
+    loader.setPartitionKey(row -> row.startsWith("not") ? 1 : 0);
+    ParallelCopyLoader.Result result = loader.load(rows.iterator());
+    assertFalse(result.isSuccessful());
+    assertNull(result.getError(0));
+    assertNotNull(result.getError(1));
+    assertEquals("22P02", result.getError(1).getSQLState());
+    assertEquals(1000, result.getRowCount());
+    assertEquals(1000, rowCount());
+  }
+
+  @Test
+  public void commitsConnectionsThatAreNotInAutoCommit() throws SQLException {
+    DataSource noAutoCommit = wrap(connection -> {
+      try {
+        connection.setAutoCommit(false);
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+      return connection;
+    });
+    ParallelCopyLoader loader = new ParallelCopyLoader(noAutoCommit, COPY, 2);
+    ParallelCopyLoader.Result result = loader.load(rows(1000).iterator());
+    assertTrue(result.isSuccessful());
+    assertEquals(1000, rowCount());
+  }
+
+  @Test
+  public void throwsUnexpectedFailureOfAConnection() throws SQLException {
+    AtomicInteger opened = new AtomicInteger();
+    DataSource failing = wrap(connection -> {
+      if (opened.incrementAndGet() != 2) {
+        return connection;
+      }
+      return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+          new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("setAutoCommit")) {
+              throw new IllegalStateException("broken connection");
+            }
+            try {
+              return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+              throw e.getCause();
+            }
+          });
+    });
+    ParallelCopyLoader loader = new ParallelCopyLoader(failing, COPY, 2);
+    loader.setBufferSize(1024);
+    try {
+      // The rows of the failed connection must not hold back the caller
+      loader.load(rows(100000).iterator());
+      fail("the failure of the second connection should be thrown");
+    } catch (IllegalStateException e) {
+      assertEquals("broken connection", e.getMessage());
+    }
+  }
+
+  @Test
+  public void twoPhaseCommitLoadsAllOrNothing() throws SQLException {
+    assumeTrue("max_prepared_transactions should be at least 2",
+        isPreparedTransactionEnabled(2));
+    List<String> rows = rows(1000);
+    ParallelCopyLoader loader = new ParallelCopyLoader(dataSource, COPY, 2);
+    loader.setTwoPhaseCommit(true);
+    ParallelCopyLoader.Result result = loader.load(rows.iterator());
+    assertTrue(result.isSuccessful());
+    assertNull(result.getPreparedTransaction(0));
+    assertNull(result.getPreparedTransaction(1));
+    assertEquals(1000, rowCount());
+
+    try (Statement stmt = con.createStatement()) {
+      stmt.execute("TRUNCATE parallel_copy");
+    }
+    rows.add("not a number\tbad row");
+    loader.setPartitionKey(row -> row.startsWith("not") ? 1 : 0);
+    result = loader.load(rows.iterator());
+    assertFalse(result.isSuccessful());
+    assertNotNull(result.getError(1));
+    assertEquals(0, result.getRowCount());
+    assertEquals(0, rowCount());
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGPreparedStatement;
+import org.postgresql.jdbc.PreferQueryMode;
+import org.postgresql.test.TestUtil;
+import org.postgresql.util.PSQLState;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class PipelineTest extends BaseTest4 {
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    Assume.assumeTrue("pipeline mode requires the extended query protocol",
+        preferQueryMode != PreferQueryMode.SIMPLE);
+    TestUtil.createTempTable(con, "pipeline_test", "id int4 primary key, name text");
+  }
+
+  @Test
+  public void queriesAndUpdatesShareOneSync() throws Exception {
+    PGConnection pgConnection = con.unwrap(PGConnection.class);
+    PreparedStatement insert = con.prepareStatement("insert into pipeline_test values (?, ?)");
+    PreparedStatement select = con.prepareStatement("select name from pipeline_test where id = ?");
+    PreparedStatement count = con.prepareStatement("select count(*) from pipeline_test");
+
+    pgConnection.beginPipeline();
+    assertTrue(pgConnection.isPipelineMode());
+
+    insert.setInt(1, 1);
+    insert.setString(2, "one");
+    CompletableFuture<Long> inserted1 =
+        insert.unwrap(PGPreparedStatement.class).executeUpdatePipelined();
+    insert.setInt(1, 2);
+    insert.setString(2, "two");
+    CompletableFuture<Long> inserted2 =
+        insert.unwrap(PGPreparedStatement.class).executeUpdatePipelined();
+    select.setInt(1, 2);
+    CompletableFuture<ResultSet> selected =
+        select.unwrap(PGPreparedStatement.class).executeQueryPipelined();
+    CompletableFuture<ResultSet> counted =
+        count.unwrap(PGPreparedStatement.class).executeQueryPipelined();
+
+    assertFalse("nothing is sent before the pipeline is synchronized", inserted1.isDone());
+
+    pgConnection.syncPipeline();
+
+    assertEquals(1L, inserted1.get().longValue());
+    assertEquals(1L, inserted2.get().longValue());
+    ResultSet rs = selected.get();
+    assertTrue(rs.next());
+    assertEquals("two", rs.getString(1));
+    assertFalse(rs.next());
+    rs = counted.get();
+    assertTrue(rs.next());
+    assertEquals(2, rs.getInt(1));
+
+    pgConnection.endPipeline();
+    assertFalse(pgConnection.isPipelineMode());
+  }
+
+  @Test
+  public void errorFailsRemainingStatements() throws Exception {
+    PGConnection pgConnection = con.unwrap(PGConnection.class);
+    PreparedStatement insert = con.prepareStatement("insert into pipeline_test values (?, ?)");
+    PreparedStatement select = con.prepareStatement("select 1");
+
+    pgConnection.beginPipeline();
+    insert.setInt(1, 1);
+    insert.setString(2, "one");
+    CompletableFuture<Long> first =
+        insert.unwrap(PGPreparedStatement.class).executeUpdatePipelined();
+    CompletableFuture<Long> duplicate =
+        insert.unwrap(PGPreparedStatement.class).executeUpdatePipelined();
+    CompletableFuture<ResultSet> skipped =
+        select.unwrap(PGPreparedStatement.class).executeQueryPipelined();
+
+    try {
+      pgConnection.endPipeline();
+      fail("duplicate key should fail the pipeline");
+    } catch (SQLException e) {
+      assertEquals(PSQLState.UNIQUE_VIOLATION.getState(), e.getSQLState());
+    }
+
+    assertTrue(first.isDone());
+    assertExceptionState(duplicate, PSQLState.UNIQUE_VIOLATION);
+    assertExceptionState(skipped, PSQLState.OBJECT_NOT_IN_STATE);
+    // The statements were executed in one implicit transaction
+    Statement st = con.createStatement();
+    ResultSet rs = st.executeQuery("select count(*) from pipeline_test");
+    assertTrue(rs.next());
+    assertEquals(0, rs.getInt(1));
+    st.close();
+  }
+
+  @Test
+  public void requiresPipelineMode() throws SQLException {
+    PreparedStatement select = con.prepareStatement("select 1");
+    try {
+      select.unwrap(PGPreparedStatement.class).executeQueryPipelined();
+      fail("executeQueryPipelined should require pipeline mode");
+    } catch (SQLException e) {
+      assertEquals(PSQLState.OBJECT_NOT_IN_STATE.getState(), e.getSQLState());
+    }
+  }
+
+  private static void assertExceptionState(CompletableFuture<?> future, PSQLState state)
+      throws InterruptedException {
+    try {
+      future.get();
+      fail("the future should be completed exceptionally");
+    } catch (ExecutionException e) {
+      assertEquals(state.getState(), ((SQLException) e.getCause()).getSQLState());
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.postgresql.PGProperty;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * Checks that result set getters work with rows read into a single buffer.
+ */
+@RunWith(Parameterized.class)
+public class SlabRowStorageTest extends BaseTest4 {
+
+  public SlabRowStorageTest(BinaryMode binaryMode) {
+    setBinaryMode(binaryMode);
+  }
+
+  @Parameterized.Parameters(name = "binary = {0}")
+  public static Iterable<Object[]> data() {
+    Collection<Object[]> ids = new ArrayList<Object[]>();
+    for (BinaryMode binaryMode : BinaryMode.values()) {
+      ids.add(new Object[]{binaryMode});
+    }
+    return ids;
+  }
+
+  @Override
+  protected void updateProperties(Properties props) {
+    super.updateProperties(props);
+    PGProperty.SLAB_ROW_STORAGE.set(props, true);
+  }
+
+  @Test
+  public void getters() throws SQLException {
+    PreparedStatement ps = con.prepareStatement(
+        "select 42::int4, -7::int8, 3::int2, 1.5::float4, -2.25::float8, 12.34::numeric,"
+            + " true, 'text'::text, null::int4, '\\x0102'::bytea,"
+            + " '2022-06-01 10:20:30.123456'::timestamp");
+    // execute a few times so binary transfer kicks in for BinaryMode.REGULAR
+    for (int i = 0; i < 6; i++) {
+      ResultSet rs = ps.executeQuery();
+      assertTrue(rs.next());
+      assertEquals(42, rs.getInt(1));
+      assertEquals(42L, rs.getLong(1));
+      assertEquals(-7L, rs.getLong(2));
+      assertEquals(-7, rs.getInt(2));
+      assertEquals(3, rs.getShort(3));
+      assertEquals(3, rs.getByte(3));
+      assertEquals(1.5f, rs.getFloat(4), 0.0f);
+      assertEquals(-2.25, rs.getDouble(5), 0.0);
+      assertEquals(new BigDecimal("12.34"), rs.getBigDecimal(6));
+      assertEquals(12.34, rs.getDouble(6), 0.0001);
+      assertTrue(rs.getBoolean(7));
+      assertEquals("text", rs.getString(8));
+      assertFalse(rs.wasNull());
+      assertEquals(0, rs.getInt(9));
+      assertTrue(rs.wasNull());
+      assertNull(rs.getString(9));
+      assertArrayEquals(new byte[]{1, 2}, rs.getBytes(10));
+      assertEquals(Timestamp.valueOf("2022-06-01 10:20:30.123456"), rs.getTimestamp(11));
+      assertFalse(rs.next());
+      rs.close();
+    }
+    ps.close();
+  }
+
+  @Test
+  public void scrollAndUpdateCopies() throws SQLException {
+    ResultSet rs = con.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,
+        ResultSet.CONCUR_READ_ONLY)
+        .executeQuery("select g, 'v' || g from generate_series(1, 3) g");
+    assertTrue(rs.last());
+    assertEquals(3, rs.getInt(1));
+    assertTrue(rs.first());
+    assertEquals("v1", rs.getString(2));
+    rs.close();
+  }
+}
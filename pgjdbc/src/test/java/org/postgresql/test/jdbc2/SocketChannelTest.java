@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGProperty;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.test.TestUtil;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * Runs queries over a connection that uses {@link java.nio.channels.SocketChannel} based I/O.
+ */
+public class SocketChannelTest extends BaseTest4 {
+
+  @Override
+  protected void updateProperties(Properties props) {
+    super.updateProperties(props);
+    PGProperty.SOCKET_CHANNEL.set(props, true);
+  }
+
+  @Test
+  public void largeBatchAndResult() throws SQLException {
+    Statement st = con.createStatement();
+    st.execute("create temp table socket_channel_test(id int4, payload text)");
+    st.close();
+
+    PreparedStatement ps = con.prepareStatement("insert into socket_channel_test values (?, ?)");
+    String payload = new String(new char[1000]).replace('\0', 'x');
+    for (int i = 0; i < 1000; i++) {
+      ps.setInt(1, i);
+      ps.setString(2, payload);
+      ps.addBatch();
+    }
+    ps.executeBatch();
+    ps.close();
+
+    st = con.createStatement();
+    ResultSet rs = st.executeQuery("select id, payload from socket_channel_test order by id");
+    int count = 0;
+    while (rs.next()) {
+      assertEquals(count, rs.getInt(1));
+      assertEquals(payload, rs.getString(2));
+      count++;
+    }
+    assertEquals(1000, count);
+    rs.close();
+    st.close();
+  }
+
+  @Test
+  public void isValid() throws SQLException {
+    assertTrue(con.isValid(5));
+  }
+
+  @Test
+  public void sslPrefer() throws SQLException {
+    TestUtil.assumeSslTestsEnabled();
+    Properties props = new Properties();
+    props.put(TestUtil.SERVER_HOST_PORT_PROP, "localhost:" + TestUtil.getPort());
+    props.put(TestUtil.DATABASE_PROP, "hostssldb");
+    PGProperty.SOCKET_CHANNEL.set(props, true);
+    PGProperty.SSL_MODE.set(props, "prefer");
+    PGProperty.GSS_ENC_MODE.set(props, "disable");
+    PGProperty.SSL_CERT.set(props, "");
+    PGProperty.SSL_KEY.set(props, "");
+    try (Connection conn = TestUtil.openDB(props)) {
+      assertTrue("The TLS handshake runs over the socket of the channel",
+          TestUtil.queryForBoolean(conn, "SELECT ssl_is_used()"));
+      assertEquals("42", TestUtil.queryForString(conn, "SELECT 42"));
+    }
+  }
+
+  @Test
+  public void copyInFromFile() throws SQLException, IOException {
+    TestUtil.createTempTable(con, "socket_channel_copy", "id int4, payload text");
+    Path file = Files.createTempFile("socket_channel_copy", ".txt");
+    try {
+      StringBuilder rows = new StringBuilder();
+      for (int i = 0; i < 100000; i++) {
+        rows.append(i).append("\tpayload ").append(i).append('\n');
+      }
+      Files.write(file, rows.toString().getBytes(StandardCharsets.UTF_8));
+      CopyManager copyAPI = con.unwrap(PGConnection.class).getCopyAPI();
+      assertEquals(100000, copyAPI.copyIn("COPY socket_channel_copy FROM STDIN", file));
+    } finally {
+      Files.delete(file);
+    }
+    assertEquals("4999950000",
+        TestUtil.queryForString(con, "select sum(id) from socket_channel_copy"));
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.postgresql.PGProperty;
+import org.postgresql.test.TestUtil;
+import org.postgresql.util.PSQLState;
+
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/*
+ * Tests for reading the rows of a ResultSet off the connection as it advances in autocommit mode.
+ */
+public class StreamResultsTest extends BaseTest4 {
+
+  @Override
+  protected void updateProperties(Properties props) {
+    super.updateProperties(props);
+    PGProperty.STREAM_RESULTS.set(props, true);
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    TestUtil.createTable(con, "test_stream", "value integer");
+    Statement stmt = con.createStatement();
+    stmt.executeUpdate("insert into test_stream select generate_series(0, 999)");
+    stmt.close();
+  }
+
+  @Override
+  public void tearDown() throws SQLException {
+    TestUtil.dropTable(con, "test_stream");
+    super.tearDown();
+  }
+
+  @Test
+  public void rowsArriveInOrder() throws Exception {
+    PreparedStatement stmt = con.prepareStatement("select value from test_stream order by value");
+    int[] testSizes = {1, 7, 100, 999, 1000, 1001};
+    for (int testSize : testSizes) {
+      stmt.setFetchSize(testSize);
+      ResultSet rs = stmt.executeQuery();
+      int count = 0;
+      while (rs.next()) {
+        assertEquals("fetch size " + testSize, count, rs.getInt(1));
+        count++;
+      }
+      assertEquals("fetch size " + testSize, 1000, count);
+      rs.close();
+    }
+    stmt.close();
+  }
+
+  @Test
+  public void maxRows() throws Exception {
+    PreparedStatement stmt = con.prepareStatement("select value from test_stream order by value");
+    stmt.setFetchSize(10);
+    stmt.setMaxRows(25);
+    ResultSet rs = stmt.executeQuery();
+    int count = 0;
+    while (rs.next()) {
+      assertEquals(count, rs.getInt(1));
+      count++;
+    }
+    assertEquals(25, count);
+    rs.close();
+    stmt.close();
+  }
+
+  @Test
+  public void otherQueryWhileStreaming() throws Exception {
+    PreparedStatement stmt = con.prepareStatement("select value from test_stream order by value");
+    stmt.setFetchSize(10);
+    ResultSet rs = stmt.executeQuery();
+    for (int i = 0; i < 15; i++) {
+      assertTrue(rs.next());
+      assertEquals(i, rs.getInt(1));
+    }
+
+    // Reads the rest of the streamed result into memory
+    Statement st = con.createStatement();
+    ResultSet other = st.executeQuery("select count(*) from test_stream");
+    assertTrue(other.next());
+    assertEquals(1000, other.getInt(1));
+    st.close();
+
+    for (int i = 15; i < 1000; i++) {
+      assertTrue(rs.next());
+      assertEquals(i, rs.getInt(1));
+    }
+    assertFalse(rs.next());
+    rs.close();
+    stmt.close();
+  }
+
+  @Test
+  public void closeWhileStreaming() throws Exception {
+    PreparedStatement stmt = con.prepareStatement("select value from test_stream order by value");
+    stmt.setFetchSize(10);
+    ResultSet rs = stmt.executeQuery();
+    assertTrue(rs.next());
+    rs.close();
+
+    Statement st = con.createStatement();
+    rs = st.executeQuery("select 42");
+    assertTrue(rs.next());
+    assertEquals(42, rs.getInt(1));
+    st.close();
+    stmt.close();
+  }
+
+  @Test
+  public void errorWhileStreaming() throws Exception {
+    PreparedStatement stmt =
+        con.prepareStatement("select 1 / (500 - value) from test_stream order by value");
+    stmt.setFetchSize(10);
+    ResultSet rs = stmt.executeQuery();
+    try {
+      while (rs.next()) {
+        rs.getInt(1);
+      }
+      fail("division by zero should be reported");
+    } catch (SQLException e) {
+      assertEquals(PSQLState.DIVISION_BY_ZERO.getState(), e.getSQLState());
+    }
+    stmt.close();
+
+    // The connection is usable afterwards
+    Statement st = con.createStatement();
+    rs = st.executeQuery("select 1");
+    assertTrue(rs.next());
+    st.close();
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import org.postgresql.PGProperty;
+import org.postgresql.core.ServerVersion;
+import org.postgresql.jdbc.PreferQueryMode;
+import org.postgresql.test.TestUtil;
+
+import org.junit.Test;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Properties;
+
+public class UnnestBatchTest extends BaseTest4 {
+  @Override
+  protected void updateProperties(Properties props) {
+    super.updateProperties(props);
+    PGProperty.UNNEST_BATCHES.set(props, true);
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    assumeTrue(TestUtil.haveMinimumServerVersion(con, ServerVersion.v9_4));
+    assumeTrue(preferQueryMode != PreferQueryMode.SIMPLE);
+    TestUtil.createTempTable(con, "unnest_batch",
+        "i int4 primary key, l int8, t text, by bytea");
+  }
+
+  private void insertRows(int count) throws SQLException {
+    try (Statement stmt = con.createStatement()) {
+      stmt.execute("INSERT INTO unnest_batch (i, t) SELECT g, 'row ' || g"
+          + " FROM generate_series(0, " + (count - 1) + ") g");
+    }
+  }
+
+  private int rowCount() throws SQLException {
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT count(*) FROM unnest_batch")) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+
+  @Test
+  public void insertsBatch() throws SQLException {
+    try (PreparedStatement ps = con.prepareStatement(
+        "INSERT INTO unnest_batch (i, l, t, by) VALUES (?, ?, ?, ?)")) {
+      for (int i = 0; i < 1000; i++) {
+        ps.setInt(1, i);
+        ps.setLong(2, -i * 10000000000L);
+        if (i == 0) {
+          ps.setString(3, "{\"quoted\", \\back\\slash, NULL}");
+          ps.setNull(4, Types.BINARY);
+        } else {
+          ps.setString(3, "row " + i);
+          ps.setBytes(4, new byte[]{(byte) i, 0, (byte) 0xff});
+        }
+        ps.addBatch();
+      }
+      int[] counts = ps.executeBatch();
+      assertEquals(1000, counts.length);
+      for (int count : counts) {
+        assertEquals(1, count);
+      }
+    }
+    assertEquals(1000, rowCount());
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery(
+            "SELECT * FROM unnest_batch WHERE i IN (0, 1) ORDER BY i")) {
+      assertTrue(rs.next());
+      assertEquals("{\"quoted\", \\back\\slash, NULL}", rs.getString("t"));
+      assertNull(rs.getBytes("by"));
+      assertTrue(rs.next());
+      assertEquals(-10000000000L, rs.getLong("l"));
+      assertEquals("row 1", rs.getString("t"));
+      assertArrayEquals(new byte[]{1, 0, (byte) 0xff}, rs.getBytes("by"));
+    }
+  }
+
+  @Test
+  public void updatesBatchWithCountOfEachRow() throws SQLException {
+    insertRows(10);
+    try (PreparedStatement ps = con.prepareStatement(
+        "UPDATE unnest_batch SET t = ? WHERE i >= ? AND i < ?")) {
+      int[][] ranges = {{0, 2}, {100, 200}, {2, 9}};
+      for (int[] range : ranges) {
+        if (range[0] == 2) {
+          ps.setNull(1, Types.VARCHAR);
+        } else {
+          ps.setString(1, "updated");
+        }
+        ps.setInt(2, range[0]);
+        ps.setInt(3, range[1]);
+        ps.addBatch();
+      }
+      assertArrayEquals(new long[]{2, 0, 7}, ps.executeLargeBatch());
+    }
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery(
+            "SELECT count(*) FROM unnest_batch WHERE t IS NULL OR t = 'updated'")) {
+      rs.next();
+      assertEquals(9, rs.getInt(1));
+    }
+  }
+
+  @Test
+  public void updatesTheSameRowTwice() throws SQLException {
+    insertRows(1);
+    try (PreparedStatement ps = con.prepareStatement(
+        "UPDATE unnest_batch SET t = t || ? WHERE i = ?")) {
+      for (String suffix : new String[]{" first", " second"}) {
+        ps.setString(1, suffix);
+        ps.setInt(2, 0);
+        ps.addBatch();
+      }
+      assertArrayEquals(new int[]{1, 1}, ps.executeBatch());
+    }
+    assertEquals("row 0 first second", TestUtil.queryForString(con, "SELECT t FROM unnest_batch"));
+  }
+
+  @Test
+  public void deletesBatch() throws SQLException {
+    insertRows(10);
+    try (PreparedStatement ps = con.prepareStatement("DELETE FROM unnest_batch WHERE i = ?")) {
+      for (int i : new int[]{1, 3, 42, 5}) {
+        ps.setInt(1, i);
+        ps.addBatch();
+      }
+      assertArrayEquals(new int[]{1, 1, 0, 1}, ps.executeBatch());
+    }
+    assertEquals(7, rowCount());
+  }
+
+  @Test
+  public void upsertOfTheSameRowTwice() throws SQLException {
+    assumeTrue(TestUtil.haveMinimumServerVersion(con, ServerVersion.v9_5));
+    try (PreparedStatement ps = con.prepareStatement(
+        "INSERT INTO unnest_batch (i, t) VALUES (?, ?) ON CONFLICT (i) DO UPDATE"
+            + " SET t = excluded.t")) {
+      ps.setInt(1, 1);
+      ps.setString(2, "first");
+      ps.addBatch();
+      ps.setInt(1, 1);
+      ps.setString(2, "second");
+      ps.addBatch();
+      assertArrayEquals(new int[]{1, 1}, ps.executeBatch());
+    }
+    assertEquals("second", TestUtil.queryForString(con, "SELECT t FROM unnest_batch"));
+  }
+
+  @Test
+  public void failedBatchThrowsBatchUpdateException() throws SQLException {
+    try (PreparedStatement ps = con.prepareStatement(
+        "INSERT INTO unnest_batch (i) VALUES (?)")) {
+      ps.setInt(1, 1);
+      ps.addBatch();
+      ps.setInt(1, 1);
+      ps.addBatch();
+      ps.executeBatch();
+      fail("the primary key is violated");
+    } catch (BatchUpdateException e) {
+      assertEquals("23505", e.getSQLState());
+    }
+    assertEquals(0, rowCount());
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.jdbc2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.postgresql.test.TestUtil;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs queries on virtual threads with {@code -Djdk.tracePinnedThreads} enabled and checks that the
+ * JVM did not report a carrier thread pinned by a monitor held in the driver. The test is skipped
+ * on JVMs without virtual threads.
+ */
+public class VirtualThreadPinningTest {
+
+  @Test
+  public void queriesDoNotPinCarrierThreads() throws Exception {
+    Method newVirtualThreadPerTaskExecutor;
+    try {
+      newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      Assume.assumeNoException("virtual threads require Java 21 or newer", e);
+      return;
+    }
+    Assume.assumeTrue("the test JVM must be started with -Djdk.tracePinnedThreads",
+        System.getProperty("jdk.tracePinnedThreads") != null);
+
+    PrintStream out = System.out;
+    ByteArrayOutputStream trace = new ByteArrayOutputStream();
+    // Pinned thread stack traces are printed to System.out
+    System.setOut(new PrintStream(trace, true, "UTF-8"));
+    try {
+      ExecutorService executor = (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+      try {
+        List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+        for (int i = 0; i < 16; i++) {
+          final int id = i;
+          results.add(executor.submit(() -> {
+            try (Connection con = TestUtil.openDB()) {
+              int sum = 0;
+              try (PreparedStatement ps = con.prepareStatement("select ?::int4, pg_sleep(0.01)")) {
+                for (int j = 0; j < 10; j++) {
+                  ps.setInt(1, id);
+                  try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    sum += rs.getInt(1);
+                  }
+                }
+              }
+              return sum;
+            }
+          }));
+        }
+        for (int i = 0; i < results.size(); i++) {
+          assertEquals(i * 10, results.get(i).get().intValue());
+        }
+      } finally {
+        executor.shutdown();
+      }
+    } finally {
+      System.setOut(out);
+    }
+
+    String output = trace.toString("UTF-8");
+    out.print(output);
+    for (String line : output.split("\n")) {
+      assertFalse("A virtual thread was pinned while holding a driver monitor:\n" + output,
+          line.contains("org.postgresql") && line.contains("<== monitors"));
+    }
+  }
+}
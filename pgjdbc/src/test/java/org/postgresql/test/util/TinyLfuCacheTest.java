@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2022, PostgreSQL Global Development Group
+ * See the LICENSE file in the project root for more information.
+ */
+
+package org.postgresql.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.postgresql.util.CanEstimateSize;
+import org.postgresql.util.LruCache;
+import org.postgresql.util.TinyLfuCache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests {@link org.postgresql.util.TinyLfuCache}.
+ */
+public class TinyLfuCacheTest {
+
+  private static class Entry implements CanEstimateSize {
+    private final int id;
+
+    Entry(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public long getSize() {
+      return id;
+    }
+
+    @Override
+    public String toString() {
+      return "Entry{" + "id=" + id + '}';
+    }
+  }
+
+  private final List<Integer> created = new ArrayList<Integer>();
+  private final List<Integer> evicted = new ArrayList<Integer>();
+  private TinyLfuCache<Integer, Entry> cache;
+
+  @Before
+  public void setUp() throws Exception {
+    cache = new TinyLfuCache<Integer, Entry>(4, 1000, false,
+        new LruCache.CreateAction<Integer, Entry>() {
+          @Override
+          public Entry create(Integer key) throws SQLException {
+            created.add(key);
+            return new Entry(key);
+          }
+        }, new LruCache.EvictAction<Entry>() {
+          @Override
+          public void evict(Entry entry) throws SQLException {
+            evicted.add(entry.id);
+          }
+        });
+  }
+
+  private Entry use(int id) throws SQLException {
+    Entry entry = cache.borrow(id);
+    cache.put(entry.id, entry);
+    return entry;
+  }
+
+  @Test
+  public void testEvictsByNumberOfEntries() throws SQLException {
+    use(1);
+    use(2);
+    use(3);
+    use(4);
+    assertEquals(Arrays.<Integer>asList(), evicted);
+    // 4 falls out of the window and is not used more often than 1
+    use(5);
+    assertEquals(Arrays.asList(4), evicted);
+  }
+
+  @Test
+  public void testEvictsBySize() throws SQLException {
+    use(330);
+    use(330);
+    use(331);
+    use(332);
+    assertEquals(Arrays.<Integer>asList(), evicted);
+    use(400);
+    assertEquals(Arrays.asList(332, 400), evicted);
+  }
+
+  @Test
+  public void testDoesNotCacheLargeEntries() throws SQLException {
+    use(600);
+    assertEquals(Arrays.asList(600), evicted);
+  }
+
+  @Test
+  public void testAdmitsFrequentlyUsedEntries() throws SQLException {
+    use(1);
+    use(2);
+    use(3);
+    use(4);
+    use(5);
+    use(5);
+    evicted.clear();
+    // 5 falls out of the window and is used more often than 1
+    use(6);
+    assertEquals(Arrays.asList(1), evicted);
+  }
+
+  @Test
+  public void testScanDoesNotEvictFrequentlyUsedEntries() throws SQLException {
+    Entry a = null;
+    Entry b = null;
+    Entry c = null;
+    for (int i = 0; i < 5; i++) {
+      a = use(1);
+      b = use(2);
+      c = use(3);
+    }
+    // Ad hoc queries mixed with regular traffic
+    for (int i = 100; i < 1000; i++) {
+      use(i);
+      if (i % 10 == 0) {
+        a = use(1);
+        b = use(2);
+        c = use(3);
+      }
+    }
+    assertFalse(evicted.contains(1));
+    assertFalse(evicted.contains(2));
+    assertFalse(evicted.contains(3));
+    created.clear();
+    assertSame(a, use(1));
+    assertSame(b, use(2));
+    assertSame(c, use(3));
+    assertTrue(created.isEmpty());
+  }
+
+  @Test
+  public void testDuplicateKey() throws SQLException {
+    Entry a = use(1);
+    // This overwrites the cache, evicting previous entry with exactly the same key
+    cache.put(1, new Entry(1));
+    assertEquals(Arrays.asList(1), evicted);
+    assertEquals(1, cache.get(1).id);
+    assertFalse(cache.get(1) == a);
+  }
+
+  @Test
+  public void testGet() throws SQLException {
+    assertNull(cache.get(1));
+    Entry a = use(1);
+    assertSame(a, cache.get(1));
+    assertEquals(Arrays.asList(1), created);
+  }
+
+  @Test
+  public void testBorrowIfPresent() throws SQLException {
+    assertNull(cache.borrowIfPresent(1));
+    assertTrue(created.isEmpty());
+    Entry a = use(1);
+    assertSame(a, cache.borrowIfPresent(1));
+    // The entry is borrowed, so it is not in the cache until it is put back
+    assertNull(cache.borrowIfPresent(1));
+    assertEquals(Arrays.asList(1), created);
+  }
+
+  @Test(timeout = 10000)
+  public void testCreatesOutsideLock() throws Exception {
+    final List<TinyLfuCache<Integer, Entry>> caches = new ArrayList<TinyLfuCache<Integer, Entry>>();
+    final List<Entry> borrowed = new ArrayList<Entry>();
+    caches.add(new TinyLfuCache<Integer, Entry>(4, 1000, false,
+        new LruCache.CreateAction<Integer, Entry>() {
+          @Override
+          public Entry create(Integer key) throws SQLException {
+            // Another thread uses the cache while the value is being created
+            Thread thread = new Thread(() -> borrowed.add(caches.get(0).borrowIfPresent(1)));
+            thread.start();
+            try {
+              thread.join();
+            } catch (InterruptedException e) {
+              throw new AssertionError(e);
+            }
+            return new Entry(key);
+          }
+        }, null));
+    TinyLfuCache<Integer, Entry> cache = caches.get(0);
+    Entry a = new Entry(1);
+    cache.put(1, a);
+    assertEquals(2, cache.borrow(2).id);
+    assertSame(a, borrowed.get(0));
+  }
+}